@@ -0,0 +1,31 @@
+package simuladormemoria.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Punto de entrada de benchmarks.jar. Lanza JMH con los argumentos
+ * recibidos y, si no se indica otro formato, guarda los resultados en
+ * JSON (resultados-jmh.json) para poder compararlos entre ejecuciones.
+ *
+ * Uso: java -jar benchmarks/target/benchmarks.jar [opciones de JMH] [filtro]
+ */
+public class EjecutarBenchmarks {
+
+    /**
+     * Añade "-rf json -rff resultados-jmh.json" salvo que ya venga un formato.
+     * @param args Argumentos de línea de comandos de JMH.
+     * @throws Exception Si JMH no puede ejecutar los benchmarks.
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> argumentos = new ArrayList<>(Arrays.asList(args));
+        if (!argumentos.contains("-rf")) {
+            argumentos.addAll(List.of("-rf", "json"));
+            if (!argumentos.contains("-rff")) {
+                argumentos.addAll(List.of("-rff", "resultados-jmh.json"));
+            }
+        }
+        org.openjdk.jmh.Main.main(argumentos.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,83 @@
+package simuladormemoria.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simuladormemoria.EjecutorProcesos;
+import simuladormemoria.GestorDeProcesos;
+import simuladormemoria.Memoria;
+import simuladormemoria.Monitor;
+import simuladormemoria.PoliticaAdmision;
+import simuladormemoria.Proceso;
+
+/**
+ * Mide el rendimiento de GestorDeProcesos.agregarProceso con el gestor
+ * real: asignación, registro en el monitor y entrega al backend de
+ * ejecución. Los procesos duran 0 segundos, así que su hilo libera la
+ * memoria enseguida y el planificador de admisión vacía la cola.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GestorBenchmark {
+
+    // Backend de ejecución, con los nombres de EjecutorProcesos.porNombre.
+    @Param({"virtual", "pool"})
+    public String ejecutor;
+
+    // Política de admisión, con los nombres de PoliticaAdmision.porNombre.
+    @Param({"fifo", "backfilling"})
+    public String admision;
+
+    private GestorDeProcesos gestor;
+    private Thread planificador;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Memoria memoria = new Memoria();
+        Monitor monitor = new Monitor(memoria);
+        gestor = new GestorDeProcesos(memoria, monitor, EjecutorProcesos.porNombre(ejecutor),
+                PoliticaAdmision.porNombre(admision));
+        monitor.setGestor(gestor);
+        planificador = new Thread(gestor);
+        planificador.setDaemon(true);
+        planificador.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() throws InterruptedException {
+        planificador.interrupt();
+        gestor.apagar(5000);
+    }
+
+    /**
+     * Agrega un proceso de 8 MB: caben 128 a la vez antes de que
+     * empiecen a encolarse.
+     * @return El proceso agregado.
+     * @throws InterruptedException Si el hilo es interrumpido.
+     */
+    @Benchmark
+    @Threads(1)
+    public Proceso agregarProceso() throws InterruptedException {
+        Proceso proceso = new Proceso("benchmark", 8, 0);
+        gestor.agregarProceso(proceso);
+        return proceso;
+    }
+}
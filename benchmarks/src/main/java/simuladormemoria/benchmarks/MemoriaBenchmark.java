@@ -0,0 +1,95 @@
+package simuladormemoria.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simuladormemoria.Memoria;
+import simuladormemoria.Proceso;
+
+/**
+ * Mide el par Memoria.asignarMemoria/liberarMemoria con cada modelo de
+ * asignación, con un solo hilo y con todos los núcleos compitiendo por
+ * la misma memoria.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoriaBenchmark {
+
+    /**
+     * Memoria compartida por todos los hilos del benchmark.
+     */
+    @State(Scope.Benchmark)
+    public static class MemoriaCompartida {
+        // Modelo de asignación, con los mismos nombres que Memoria.crear.
+        @Param({"contador", "repartido", "primero", "mejor", "buddy", "slab"})
+        public String modelo;
+
+        public Memoria memoria;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            memoria = Memoria.crear(modelo);
+        }
+    }
+
+    /**
+     * Proceso propio de cada hilo, que se asigna y libera en bucle.
+     */
+    @State(Scope.Thread)
+    public static class ProcesoPorHilo {
+        // Tamaño del bloque en MB: pequeño para que quepan todos los hilos a la vez.
+        @Param({"1"})
+        public int memoriaRequerida;
+
+        public Proceso proceso;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            proceso = new Proceso("benchmark", memoriaRequerida, 0);
+        }
+    }
+
+    /**
+     * Un par asignar/liberar sin competencia.
+     * @return Si la asignación tuvo éxito (para que el JIT no la elimine).
+     */
+    @Benchmark
+    @Threads(1)
+    public boolean asignarYLiberar(MemoriaCompartida m, ProcesoPorHilo p) {
+        return ciclo(m.memoria, p.proceso);
+    }
+
+    /**
+     * Un par asignar/liberar con tantos hilos como núcleos.
+     * @return Si la asignación tuvo éxito.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean asignarYLiberarConContencion(MemoriaCompartida m, ProcesoPorHilo p) {
+        return ciclo(m.memoria, p.proceso);
+    }
+
+    private static boolean ciclo(Memoria memoria, Proceso proceso) {
+        boolean asignado = memoria.asignarMemoria(proceso);
+        if (asignado) {
+            memoria.liberarMemoria(proceso);
+        }
+        return asignado;
+    }
+}
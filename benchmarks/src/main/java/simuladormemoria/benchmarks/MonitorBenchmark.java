@@ -0,0 +1,72 @@
+package simuladormemoria.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simuladormemoria.Memoria;
+import simuladormemoria.Monitor;
+import simuladormemoria.Proceso;
+import simuladormemoria.RegistroEventos;
+
+/**
+ * Mide el coste de Monitor.agregarEvento, que se llama en cada admisión,
+ * inicio y finalización de un proceso.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MonitorBenchmark {
+
+    private Monitor monitor;
+    private Proceso proceso;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        // El monitor no se arranca: solo se mide el registro, no el refresco de pantalla.
+        monitor = new Monitor(new Memoria());
+        proceso = new Proceso("benchmark", 64, 10);
+    }
+
+    /**
+     * Registra un evento estructurado, como hace el gestor.
+     */
+    @Benchmark
+    @Threads(1)
+    public void agregarEvento() {
+        monitor.agregarEvento(RegistroEventos.Tipo.INICIADO, proceso);
+    }
+
+    /**
+     * Registra un mensaje libre ya construido.
+     */
+    @Benchmark
+    @Threads(1)
+    public void agregarEventoTexto() {
+        monitor.agregarEvento("Simulación en curso");
+    }
+
+    /**
+     * Registra eventos desde todos los núcleos a la vez, como hacen los
+     * hilos de los procesos al terminar.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void agregarEventoConContencion() {
+        monitor.agregarEvento(RegistroEventos.Tipo.FINALIZADO, proceso);
+    }
+}
@@ -0,0 +1,81 @@
+package simuladormemoria.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simuladormemoria.EjecutorProcesos;
+import simuladormemoria.GestorDeProcesos;
+import simuladormemoria.Memoria;
+import simuladormemoria.MotorDeEventos;
+import simuladormemoria.PoliticaAdmision;
+import simuladormemoria.Proceso;
+
+/**
+ * Mide la simulación completa en tiempo virtual: llegada, admisión,
+ * ejecución y finalización de PROCESOS procesos con el MotorDeEventos.
+ * El resultado se expresa en procesos simulados por segundo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulacionBenchmark {
+    // Procesos simulados en cada invocación.
+    private static final int PROCESOS = 10_000;
+
+    // Modelo de asignación, con los mismos nombres que Memoria.crear.
+    @Param({"contador", "primero", "buddy"})
+    public String modelo;
+
+    // Política de admisión, con los nombres de PoliticaAdmision.porNombre.
+    @Param({"fifo", "backfilling"})
+    public String admision;
+
+    private MotorDeEventos motor;
+
+    /**
+     * Prepara un motor nuevo con la misma carga que el modo --virtual del
+     * Simulador, con semilla fija para que todas las invocaciones sean iguales.
+     */
+    @Setup(Level.Invocation)
+    public void preparar() {
+        Memoria memoria = Memoria.crear(modelo);
+        GestorDeProcesos gestor = new GestorDeProcesos(memoria, null,
+                new EjecutorProcesos(EjecutorProcesos.Modo.HILO_VIRTUAL, 0), PoliticaAdmision.porNombre(admision));
+        motor = new MotorDeEventos(memoria, gestor, null, MotorDeEventos.Modo.VIRTUAL);
+        Random random = new Random(42);
+        long llegada = 0;
+        for (int i = 0; i < PROCESOS; i++) {
+            llegada += random.nextInt(2000);
+            motor.programarLlegada(new Proceso("Proceso " + i, 50 + random.nextInt(400), 1 + random.nextInt(20)), llegada);
+        }
+    }
+
+    /**
+     * Ejecuta la simulación hasta vaciar la cola de eventos.
+     * @return El número de procesos finalizados.
+     * @throws InterruptedException No ocurre en modo virtual.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PROCESOS)
+    public long simularProcesos() throws InterruptedException {
+        motor.ejecutar();
+        return motor.getProcesosFinalizados();
+    }
+}
@@ -0,0 +1,168 @@
+package simuladormemoria;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Admisión FIFO con backfilling EASY. Si el primero de la cola no cabe, se
+ * calcula su "reserva": el instante en que, según las duraciones de los
+ * procesos en ejecución, habrá memoria suficiente para él. Los procesos de
+ * detrás pueden adelantarlo si caben ahora y, o bien terminan antes de esa
+ * reserva, o bien solo usan la memoria que sobrará cuando llegue.
+ * Así se evita el bloqueo de cabeza sin retrasar al primero.
+ *
+ * Con planificador de CPU (ver conCpu) los procesos no terminan al cabo de
+ * su duración, sino cuando reciben toda su CPU: los fines se estiman
+ * repartiendo los núcleos a partes iguales entre los procesos en memoria
+ * que aún necesitan CPU, según lo que le queda a cada uno.
+ */
+public class AdmisionBackfilling implements PoliticaAdmision {
+    // Número máximo de procesos que se examinan detrás del primero.
+    private final int profundidad;
+    // Planificador con el que los procesos comparten la CPU, o null si no se modela.
+    private final PlanificadorCpu cpu;
+
+    /**
+     * Constructor de la política.
+     * @param profundidad Candidatos examinados como máximo por cada ronda.
+     */
+    public AdmisionBackfilling(int profundidad) {
+        this(profundidad, null);
+    }
+
+    private AdmisionBackfilling(int profundidad, PlanificadorCpu cpu) {
+        this.profundidad = profundidad;
+        this.cpu = cpu;
+    }
+
+    @Override
+    public PoliticaAdmision conCpu(PlanificadorCpu cpu) {
+        return new AdmisionBackfilling(profundidad, cpu);
+    }
+
+    @Override
+    public BlockingQueue<Proceso> crearCola() {
+        return new LinkedBlockingQueue<>();
+    }
+
+    @Override
+    public List<Proceso> admitir(BlockingQueue<Proceso> cola, Memoria memoria, TablaProcesos enEjecucion,
+                                 long ahora, int maximo) {
+        List<Proceso> admitidos = new ArrayList<>();
+        // Primero, FIFO normal mientras el primero quepa.
+        Proceso cabeza = null;
+        while (admitidos.size() < maximo && (cabeza = cola.peek()) != null && memoria.asignarMemoria(cabeza)) {
+            if (PoliticaAdmision.sacar(cola, memoria, cabeza)) {
+                admitidos.add(cabeza);
+            }
+        }
+        if (cabeza == null || admitidos.size() >= maximo) {
+            return admitidos;
+        }
+
+        // Reserva del primero: cuándo habrá memoria para él y cuánta sobrará.
+        // Cada liberación futura es un par {instante de fin, bytes}.
+        List<long[]> liberaciones = new ArrayList<>();
+        // Procesos en memoria que aún necesitan CPU.
+        int enCpu = 0;
+        if (cpu == null) {
+            // Se recorren las columnas de la tabla, sin tocar los objetos Proceso.
+            synchronized (enEjecucion) {
+                int filas = enEjecucion.size();
+                for (int fila = 0; fila < filas; fila++) {
+                    liberaciones.add(new long[] {Math.max(ahora, enEjecucion.getFin(fila)), enEjecucion.getBytes(fila)});
+                }
+            }
+            // Los recién admitidos aún no han empezado: empiezan ahora.
+            for (Proceso proceso : admitidos) {
+                liberaciones.add(new long[] {ahora + proceso.getDuracion() * 1000L, proceso.getBytesRequeridos()});
+            }
+        } else {
+            // Pares {CPU que le queda, bytes}; los recién admitidos necesitan toda su duración.
+            List<long[]> pendientes = new ArrayList<>();
+            synchronized (enEjecucion) {
+                int filas = enEjecucion.size();
+                for (int fila = 0; fila < filas; fila++) {
+                    pendientes.add(new long[] {enEjecucion.getProceso(fila).getCpuRestante(), enEjecucion.getBytes(fila)});
+                }
+            }
+            for (Proceso proceso : admitidos) {
+                pendientes.add(new long[] {proceso.getDuracion() * 1000L, proceso.getBytesRequeridos()});
+            }
+            for (long[] pendiente : pendientes) {
+                if (pendiente[0] > 0) {
+                    enCpu++;
+                }
+            }
+            liberaciones = repartirCpu(pendientes, enCpu, ahora);
+        }
+        liberaciones.sort((a, b) -> Long.compare(a[0], b[0]));
+        long reserva = Long.MAX_VALUE;
+        long sobrante = 0;
+        long libre = memoria.getRamDisponible();
+        for (long[] liberacion : liberaciones) {
+            libre += liberacion[1];
+            if (libre >= cabeza.getBytesRequeridos()) {
+                reserva = liberacion[0];
+                sobrante = libre - cabeza.getBytesRequeridos();
+                break;
+            }
+        }
+
+        // Backfilling: se examinan los siguientes candidatos en orden de llegada.
+        // La cola puede cambiar mientras tanto, así que el primero se salta por
+        // referencia y cada admitido se quita por referencia.
+        Iterator<Proceso> candidatos = cola.iterator();
+        for (int i = 0; i < profundidad && admitidos.size() < maximo && candidatos.hasNext(); ) {
+            Proceso candidato = candidatos.next();
+            if (candidato == cabeza) {
+                continue;
+            }
+            i++;
+            // Con CPU compartida, el candidato recibe su parte de los núcleos junto a los que ya la necesitan.
+            double ralentizacion = cpu == null ? 1 : Math.max(1, (enCpu + 1) / (double) cpu.getNucleos());
+            boolean terminaAntes = ahora + (long) (candidato.getDuracion() * 1000L * ralentizacion) <= reserva;
+            boolean usaSobrante = candidato.getBytesRequeridos() <= sobrante;
+            if ((terminaAntes || usaSobrante) && memoria.asignarMemoria(candidato)
+                    && PoliticaAdmision.sacar(cola, memoria, candidato)) {
+                admitidos.add(candidato);
+                enCpu++;
+                if (!terminaAntes) {
+                    sobrante -= candidato.getBytesRequeridos();
+                }
+            }
+        }
+        return admitidos;
+    }
+
+    /**
+     * Estima cuándo termina cada proceso si los núcleos se reparten a partes
+     * iguales entre los que aún necesitan CPU: mientras haya k de ellos en n
+     * núcleos, cada uno avanza a min(1, n/k) del tiempo real, y cada vez que
+     * termina el de menos CPU restante los demás se aceleran.
+     *
+     * @param pendientes Pares {CPU que le queda en ms, bytes}; se ordenan por CPU.
+     * @param activos Cuántos de ellos necesitan CPU todavía.
+     * @param ahora Instante actual en milisegundos.
+     * @return Las liberaciones {instante de fin, bytes}, en orden de fin.
+     */
+    private List<long[]> repartirCpu(List<long[]> pendientes, int activos, long ahora) {
+        pendientes.sort((a, b) -> Long.compare(a[0], b[0]));
+        List<long[]> liberaciones = new ArrayList<>(pendientes.size());
+        double instante = ahora;
+        long hecho = 0;
+        for (long[] pendiente : pendientes) {
+            // Los que ya no necesitan CPU terminan ahora y no cuentan en el reparto.
+            if (pendiente[0] > 0) {
+                instante += (pendiente[0] - hecho) * Math.max(1, activos / (double) cpu.getNucleos());
+                hecho = pendiente[0];
+                activos--;
+            }
+            liberaciones.add(new long[] {(long) instante, pendiente[1]});
+        }
+        return liberaciones;
+    }
+}
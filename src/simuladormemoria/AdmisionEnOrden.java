@@ -0,0 +1,46 @@
+package simuladormemoria;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Admisión en un orden fijo (FIFO, por duración, por memoria...). Se admite
+ * al primero de la cola mientras quepa; en cuanto uno no cabe se detiene,
+ * así que el orden de la política se respeta estrictamente.
+ */
+public class AdmisionEnOrden implements PoliticaAdmision {
+    // Orden de la cola; null significa orden de llegada.
+    private final Comparator<Proceso> orden;
+
+    /**
+     * Constructor de la política.
+     * @param orden Criterio de orden, o null para FIFO.
+     */
+    public AdmisionEnOrden(Comparator<Proceso> orden) {
+        // A igualdad de criterio, el PID (orden de creación) desempata.
+        this.orden = orden == null ? null : orden.thenComparingInt(Proceso::getPid);
+    }
+
+    @Override
+    public BlockingQueue<Proceso> crearCola() {
+        return orden == null ? new LinkedBlockingQueue<>() : new PriorityBlockingQueue<>(11, orden);
+    }
+
+    @Override
+    public List<Proceso> admitir(BlockingQueue<Proceso> cola, Memoria memoria, TablaProcesos enEjecucion,
+                                 long ahora, int maximo) {
+        List<Proceso> admitidos = new ArrayList<>();
+        Proceso candidato;
+        while (admitidos.size() < maximo && (candidato = cola.peek()) != null && memoria.asignarMemoria(candidato)) {
+            // La cabeza está al principio de la cola: quitarla por referencia no la recorre.
+            if (PoliticaAdmision.sacar(cola, memoria, candidato)) {
+                admitidos.add(candidato);
+            }
+        }
+        return admitidos;
+    }
+}
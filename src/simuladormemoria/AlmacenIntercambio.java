@@ -0,0 +1,168 @@
+package simuladormemoria;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Almacén de respaldo del área de intercambio: un archivo real mapeado en
+ * memoria (MappedByteBuffer) dividido en ranuras de tamaño fijo, una por
+ * página intercambiada.
+ *
+ * Los procesos simulados no tienen datos propios, así que cada página se
+ * rellena con un contenido pseudoaleatorio derivado del PID y del número de
+ * página. Al leerla se regenera y se compara, de modo que una página
+ * sobrescrita o mal ubicada se detecta como corrupta. El tiempo real de las
+ * copias se mide para calcular el rendimiento del archivo mapeado.
+ */
+public class AlmacenIntercambio implements Closeable {
+    // Bytes de cada región mapeada (un MappedByteBuffer no puede pasar de 2 GB).
+    private static final long BYTES_POR_SEGMENTO = 1L << 30;
+
+    private final FileChannel canal;
+    // Regiones mapeadas del archivo, de BYTES_POR_SEGMENTO cada una (la última puede ser menor).
+    private final MappedByteBuffer[] segmentos;
+    // Bytes de cada ranura (potencia de dos, para que ninguna cruce dos segmentos).
+    private final int tamanoRanura;
+    private final int ranurasPorSegmento;
+    // Pila de ranuras libres.
+    private final int[] libres;
+    private int cimaLibres;
+    // Estadísticas de las copias reales.
+    private long paginasEscritas;
+    private long paginasLeidas;
+    private long paginasCorruptas;
+    private long nanosCopia;
+
+    /**
+     * Crea (o trunca) el archivo de intercambio y lo mapea en memoria.
+     * @param archivo Ruta del archivo.
+     * @param ranuras Número de ranuras.
+     * @param tamanoRanura Bytes de cada ranura: potencia de dos entre 8 bytes y 1 GB.
+     * @throws IOException Si no se puede crear o mapear el archivo.
+     */
+    public AlmacenIntercambio(Path archivo, int ranuras, int tamanoRanura) throws IOException {
+        if (Integer.bitCount(tamanoRanura) != 1 || tamanoRanura < 8 || tamanoRanura > BYTES_POR_SEGMENTO) {
+            throw new IllegalArgumentException("El tamaño de ranura debe ser una potencia de dos entre 8 B y 1 GB: " + tamanoRanura);
+        }
+        this.tamanoRanura = tamanoRanura;
+        this.ranurasPorSegmento = (int) (BYTES_POR_SEGMENTO / tamanoRanura);
+        long bytes = (long) ranuras * tamanoRanura;
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            int numeroSegmentos = (int) ((bytes + BYTES_POR_SEGMENTO - 1) / BYTES_POR_SEGMENTO);
+            this.segmentos = new MappedByteBuffer[numeroSegmentos];
+            for (int i = 0; i < numeroSegmentos; i++) {
+                long inicio = i * BYTES_POR_SEGMENTO;
+                segmentos[i] = canal.map(FileChannel.MapMode.READ_WRITE, inicio, Math.min(BYTES_POR_SEGMENTO, bytes - inicio));
+            }
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        this.libres = new int[ranuras];
+        for (int i = 0; i < ranuras; i++) {
+            libres[i] = ranuras - 1 - i;
+        }
+        this.cimaLibres = ranuras;
+    }
+
+    public int getRanuras() { return libres.length; }
+    public int getTamanoRanura() { return tamanoRanura; }
+    public synchronized int getRanurasLibres() { return cimaLibres; }
+    public synchronized long getPaginasEscritas() { return paginasEscritas; }
+    public synchronized long getPaginasLeidas() { return paginasLeidas; }
+    public synchronized long getPaginasCorruptas() { return paginasCorruptas; }
+
+    /**
+     * Devuelve el rendimiento real de las copias al archivo mapeado.
+     * @return MB por segundo escritos y leídos, o 0 si no se ha copiado nada.
+     */
+    public synchronized double getMegasPorSegundo() {
+        long bytes = (paginasEscritas + paginasLeidas) * tamanoRanura;
+        return nanosCopia == 0 ? 0 : bytes / (double) Memoria.MB / (nanosCopia / 1e9);
+    }
+
+    /**
+     * Escribe las páginas de un proceso en ranuras libres.
+     * @param pid PID del proceso (determina el contenido de las páginas).
+     * @param paginas Número de páginas.
+     * @return Las ranuras usadas, en orden de página, o null si no hay suficientes libres.
+     */
+    public synchronized int[] escribir(int pid, int paginas) {
+        if (paginas > cimaLibres) {
+            return null;
+        }
+        long inicio = System.nanoTime();
+        int[] ranuras = new int[paginas];
+        for (int pagina = 0; pagina < paginas; pagina++) {
+            int ranura = libres[--cimaLibres];
+            ranuras[pagina] = ranura;
+            MappedByteBuffer segmento = segmentos[ranura / ranurasPorSegmento];
+            int desplazamiento = (ranura % ranurasPorSegmento) * tamanoRanura;
+            long valor = semilla(pid, pagina);
+            for (int i = 0; i < tamanoRanura; i += 8) {
+                segmento.putLong(desplazamiento + i, valor);
+                valor = siguiente(valor);
+            }
+        }
+        nanosCopia += System.nanoTime() - inicio;
+        paginasEscritas += paginas;
+        return ranuras;
+    }
+
+    /**
+     * Lee las páginas de un proceso, comprueba su contenido y libera las ranuras.
+     * @param pid PID del proceso con el que se escribieron.
+     * @param ranuras Las ranuras devueltas por escribir.
+     * @return El número de páginas cuyo contenido no coincide.
+     */
+    public synchronized int leer(int pid, int[] ranuras) {
+        long inicio = System.nanoTime();
+        int corruptas = 0;
+        for (int pagina = 0; pagina < ranuras.length; pagina++) {
+            int ranura = ranuras[pagina];
+            MappedByteBuffer segmento = segmentos[ranura / ranurasPorSegmento];
+            int desplazamiento = (ranura % ranurasPorSegmento) * tamanoRanura;
+            long valor = semilla(pid, pagina);
+            for (int i = 0; i < tamanoRanura; i += 8) {
+                if (segmento.getLong(desplazamiento + i) != valor) {
+                    corruptas++;
+                    break;
+                }
+                valor = siguiente(valor);
+            }
+            libres[cimaLibres++] = ranura;
+        }
+        nanosCopia += System.nanoTime() - inicio;
+        paginasLeidas += ranuras.length;
+        paginasCorruptas += corruptas;
+        return corruptas;
+    }
+
+    // Primer valor de una página: nunca es cero, para que el xorshift no se quede en cero.
+    private static long semilla(int pid, int pagina) {
+        return (((long) pid << 32) | pagina) ^ 0x9E3779B97F4A7C15L;
+    }
+
+    // Generador xorshift64: barato y con un periodo de sobra para una página.
+    private static long siguiente(long x) {
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        return x;
+    }
+
+    /**
+     * Cierra el archivo. Las regiones mapeadas se liberan cuando el
+     * recolector de basura recoge los MappedByteBuffer.
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
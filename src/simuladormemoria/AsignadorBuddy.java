@@ -0,0 +1,191 @@
+package simuladormemoria;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+/**
+ * Asignador por sistema de compañeros (buddy system) binario.
+ * La memoria se divide en bloques de tamaño potencia de dos; cada petición
+ * se redondea a la siguiente potencia de dos y, si hace falta, se parte un
+ * bloque mayor por la mitad repetidamente. Al liberar, el bloque se fusiona
+ * con su compañero mientras este también esté libre.
+ *
+ * El estado se guarda en un mapa de bits por cada orden (bit encendido =
+ * bloque libre), por lo que partir y fusionar cuesta O(log n).
+ *
+ * El bloque de orden 0 es el gránulo (1 MB por defecto); los bloques se
+ * cuentan internamente en gránulos y se traducen a bytes al devolverlos.
+ */
+public class AsignadorBuddy implements AsignadorMemoria {
+    // Tamaño total de la memoria en bytes (el gránulo por una potencia de dos).
+    private final long ramTotal;
+    // Bytes del bloque de orden 0.
+    private final long granulo;
+    // Orden máximo: el bloque de orden k mide 2^k gránulos.
+    private final int ordenMaximo;
+    // Un mapa de bits por orden con los bloques libres de ese tamaño.
+    private final BitSet[] libres;
+    // Gránulos ocupados por bloques (incluye el redondeo a potencia de dos).
+    private int granulosOcupados;
+    // Bytes realmente solicitados por los procesos.
+    private long ramSolicitada;
+
+    /**
+     * Constructor del asignador con gránulos de 1 MB.
+     * @param ramTotal El tamaño total de la memoria en bytes: una potencia de dos de al menos 1 MB.
+     */
+    public AsignadorBuddy(long ramTotal) {
+        this(ramTotal, AsignadorListaLibre.GRANULO_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor del asignador; al inicio hay un único bloque libre del orden máximo.
+     * @param ramTotal El tamaño total de la memoria en bytes.
+     * @param granulo El tamaño del bloque mínimo en bytes.
+     */
+    public AsignadorBuddy(long ramTotal, long granulo) {
+        long granulos = granulo > 0 && ramTotal % granulo == 0 ? ramTotal / granulo : 0;
+        if (Long.bitCount(granulos) != 1 || granulos > 1 << 30) {
+            throw new IllegalArgumentException("El buddy system necesita una memoria potencia de dos: "
+                    + Memoria.formatearTamano(ramTotal));
+        }
+        this.ramTotal = ramTotal;
+        this.granulo = granulo;
+        this.ordenMaximo = Long.numberOfTrailingZeros(granulos);
+        this.libres = new BitSet[ordenMaximo + 1];
+        for (int orden = 0; orden <= ordenMaximo; orden++) {
+            libres[orden] = new BitSet((int) (granulos >> orden));
+        }
+        libres[ordenMaximo].set(0);
+    }
+
+    @Override
+    public long getRamTotal() {
+        return ramTotal;
+    }
+
+    @Override
+    public synchronized long getRamDisponible() {
+        return ramTotal - granulosOcupados * granulo;
+    }
+
+    @Override
+    public synchronized long getMayorBloqueLibre() {
+        for (int orden = ordenMaximo; orden >= 0; orden--) {
+            if (!libres[orden].isEmpty()) {
+                return granulo << orden;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public synchronized int getBloquesLibres() {
+        int bloques = 0;
+        for (BitSet mapa : libres) {
+            bloques += mapa.cardinality();
+        }
+        return bloques;
+    }
+
+    @Override
+    public synchronized long getFragmentacionInterna() {
+        return granulosOcupados * granulo - ramSolicitada;
+    }
+
+    /**
+     * Reserva todo el lote con una sola adquisición del cerrojo.
+     */
+    @Override
+    public synchronized int asignarLote(long[] cantidades, int[] nodosPreferidos, long[] direcciones) {
+        return AsignadorMemoria.super.asignarLote(cantidades, nodosPreferidos, direcciones);
+    }
+
+    /**
+     * Reserva un bloque del menor orden que contenga la cantidad pedida,
+     * partiendo bloques mayores si es necesario.
+     */
+    @Override
+    public synchronized long asignar(long cantidad) {
+        if (cantidad <= 0 || cantidad > ramTotal) {
+            return -1;
+        }
+        int orden = ordenPara(granulosPara(cantidad));
+        // Busca el menor orden con algún bloque libre.
+        int actual = orden;
+        while (actual <= ordenMaximo && libres[actual].isEmpty()) {
+            actual++;
+        }
+        if (actual > ordenMaximo) {
+            return -1;
+        }
+        int indice = libres[actual].nextSetBit(0);
+        libres[actual].clear(indice);
+        // Parte el bloque por la mitad hasta llegar al orden pedido;
+        // la mitad derecha (el compañero) queda libre en cada nivel.
+        while (actual > orden) {
+            actual--;
+            indice <<= 1;
+            libres[actual].set(indice + 1);
+        }
+        granulosOcupados += 1 << orden;
+        ramSolicitada += cantidad;
+        return ((long) indice << orden) * granulo;
+    }
+
+    /**
+     * Libera un bloque y lo fusiona con su compañero mientras este esté libre.
+     */
+    @Override
+    public synchronized void liberar(long direccion, long cantidad) {
+        int orden = ordenPara(granulosPara(cantidad));
+        int indice = (int) (direccion / granulo) >> orden;
+        granulosOcupados -= 1 << orden;
+        ramSolicitada -= cantidad;
+        while (orden < ordenMaximo && libres[orden].get(indice ^ 1)) {
+            // El compañero está libre: se quita y se sube un nivel.
+            libres[orden].clear(indice ^ 1);
+            indice >>= 1;
+            orden++;
+        }
+        libres[orden].set(indice);
+    }
+
+    // Número de gránulos que ocupa una petición, redondeando hacia arriba.
+    private int granulosPara(long bytes) {
+        return (int) ((bytes + granulo - 1) / granulo);
+    }
+
+    // Orden del menor bloque potencia de dos que contiene la cantidad de gránulos.
+    private static int ordenPara(int cantidad) {
+        return 32 - Integer.numberOfLeadingZeros(cantidad - 1);
+    }
+
+    @Override
+    public synchronized void guardarEstado(BufferSalida salida) {
+        salida.escribirInt(granulosOcupados);
+        salida.escribirLong(ramSolicitada);
+        // Solo las palabras de cada mapa hasta el último bloque libre.
+        for (BitSet mapa : libres) {
+            long[] palabras = mapa.toLongArray();
+            salida.escribirInt(palabras.length);
+            for (long palabra : palabras) {
+                salida.escribirLong(palabra);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void restaurarEstado(ByteBuffer entrada) {
+        granulosOcupados = entrada.getInt();
+        ramSolicitada = entrada.getLong();
+        for (BitSet mapa : libres) {
+            long[] palabras = new long[entrada.getInt()];
+            for (int i = 0; i < palabras.length; i++) {
+                palabras[i] = entrada.getLong();
+            }
+            mapa.clear();
+            mapa.or(BitSet.valueOf(palabras));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package simuladormemoria;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modelo de asignación original: solo lleva la cuenta de la RAM disponible
+ * con un AtomicLong, sin direcciones ni fragmentación.
+ * No usa cerrojos: asignar es un bucle de compareAndSet que nunca deja la
+ * RAM disponible en negativo.
+ */
+public class AsignadorContador implements AsignadorMemoria {
+    // Tamaño total de la memoria en bytes.
+    private final long ramTotal;
+    // Variable atómica para rastrear la RAM disponible, garantizando
+    // operaciones seguras entre múltiples hilos.
+    private final AtomicLong ramDisponible;
+
+    /**
+     * Constructor que inicializa la memoria disponible con la RAM total.
+     * @param ramTotal El tamaño total de la memoria en bytes.
+     */
+    public AsignadorContador(long ramTotal) {
+        this.ramTotal = ramTotal;
+        this.ramDisponible = new AtomicLong(ramTotal);
+    }
+
+    @Override
+    public long getRamTotal() {
+        return ramTotal;
+    }
+
+    @Override
+    public long getRamDisponible() {
+        return ramDisponible.get();
+    }
+
+    /**
+     * Intenta asignar una cantidad de memoria sin bloquear.
+     * Si otro hilo cambia la RAM disponible entre la lectura y la escritura,
+     * compareAndSet falla y se reintenta con el valor nuevo.
+     * Como no hay direcciones, un éxito siempre devuelve la dirección 0.
+     */
+    @Override
+    public long asignar(long cantidad) {
+        long actual;
+        do {
+            actual = ramDisponible.get();
+            // Verifica si hay suficiente RAM disponible.
+            if (actual < cantidad) {
+                return -1;
+            }
+            // Asigna la memoria solo si nadie la ha cambiado desde la lectura.
+        } while (!ramDisponible.compareAndSet(actual, actual - cantidad));
+        return 0;
+    }
+
+    /**
+     * Libera una cantidad de memoria. Una suma atómica basta: liberar
+     * nunca puede dejar la RAM disponible en negativo.
+     */
+    @Override
+    public void liberar(long direccion, long cantidad) {
+        // Devuelve la memoria y actualiza la cantidad disponible.
+        ramDisponible.addAndGet(cantidad);
+    }
+
+    @Override
+    public void guardarEstado(BufferSalida salida) {
+        salida.escribirLong(ramDisponible.get());
+    }
+
+    @Override
+    public void restaurarEstado(ByteBuffer entrada) {
+        ramDisponible.set(entrada.getLong());
+    }
+}
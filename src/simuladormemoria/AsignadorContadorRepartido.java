@@ -0,0 +1,170 @@
+package simuladormemoria;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Modelo de contador con reservas repartidas por franjas (al estilo de
+ * LongAdder o de las arenas por hilo). Cada hilo trabaja sobre una franja
+ * propia que guarda una pequeña reserva de memoria: la mayoría de las
+ * asignaciones y liberaciones solo tocan esa franja, sin competir con los
+ * demás hilos. Cuando la reserva no alcanza se pide un lote prestado al
+ * fondo global, y los excedentes se le devuelven.
+ *
+ * Todas las operaciones son bucles de compareAndSet que nunca dejan un
+ * contador en negativo. Una asignación solo falla si, tras recoger las
+ * reservas de todas las franjas, la memoria libre total no alcanza.
+ */
+public class AsignadorContadorRepartido implements AsignadorMemoria {
+    // Separación entre franjas, en longs (64 bytes), para evitar el falso compartir.
+    private static final int SEPARACION = 8;
+
+    // Tamaño total de la memoria en bytes.
+    private final long ramTotal;
+    // Memoria libre que no está reservada por ninguna franja.
+    private final AtomicLong global;
+    // Reserva local de cada franja (solo se usa una posición de cada SEPARACION).
+    private final AtomicLongArray franjas;
+    // Número de franjas (potencia de dos) y tamaño del lote que se toma prestado.
+    private final int numeroFranjas;
+    private final long lote;
+
+    /**
+     * Constructor del asignador.
+     * @param ramTotal El tamaño total de la memoria en bytes.
+     * @param numeroFranjas Número de franjas; se redondea a potencia de dos.
+     * @param lote Bytes que una franja toma prestados de más para no volver al fondo global.
+     */
+    public AsignadorContadorRepartido(long ramTotal, int numeroFranjas, long lote) {
+        this.ramTotal = ramTotal;
+        this.global = new AtomicLong(ramTotal);
+        this.numeroFranjas = numeroFranjas <= 1 ? 1 : Integer.highestOneBit(numeroFranjas - 1) << 1;
+        this.franjas = new AtomicLongArray(this.numeroFranjas * SEPARACION);
+        this.lote = lote;
+    }
+
+    @Override
+    public long getRamTotal() {
+        return ramTotal;
+    }
+
+    /**
+     * Suma el fondo global y las reservas de las franjas. Con hilos
+     * asignando a la vez el resultado es aproximado, pero nunca negativo.
+     */
+    @Override
+    public long getRamDisponible() {
+        long libre = global.get();
+        for (int i = 0; i < numeroFranjas; i++) {
+            libre += franjas.get(i * SEPARACION);
+        }
+        return libre;
+    }
+
+    @Override
+    public long asignar(long cantidad) {
+        if (cantidad < 0) {
+            return -1;
+        }
+        int franja = franjaActual();
+        // 1. Camino rápido: la reserva local alcanza.
+        if (tomar(franja, cantidad)) {
+            return 0;
+        }
+        // 2. Se toma del fondo global lo pedido más un lote para la franja.
+        if (tomarGlobal(cantidad + lote)) {
+            franjas.addAndGet(franja, lote);
+            return 0;
+        }
+        if (tomarGlobal(cantidad)) {
+            return 0;
+        }
+        // 3. Puede que la memoria esté en reservas de otras franjas: se recogen y se reintenta.
+        recoger();
+        return tomarGlobal(cantidad) ? 0 : -1;
+    }
+
+    @Override
+    public void liberar(long direccion, long cantidad) {
+        int franja = franjaActual();
+        long reserva = franjas.addAndGet(franja, cantidad);
+        // Si la reserva local crece demasiado, el excedente vuelve al fondo global.
+        while (reserva > 2 * lote) {
+            if (franjas.compareAndSet(franja, reserva, lote)) {
+                global.addAndGet(reserva - lote);
+                return;
+            }
+            reserva = franjas.get(franja);
+        }
+    }
+
+    // Resta de una franja si alcanza, sin dejarla nunca en negativo.
+    private boolean tomar(int franja, long cantidad) {
+        long actual;
+        do {
+            actual = franjas.get(franja);
+            if (actual < cantidad) {
+                return false;
+            }
+        } while (!franjas.compareAndSet(franja, actual, actual - cantidad));
+        return true;
+    }
+
+    // Resta del fondo global si alcanza, sin dejarlo nunca en negativo.
+    private boolean tomarGlobal(long cantidad) {
+        long actual;
+        do {
+            actual = global.get();
+            if (actual < cantidad) {
+                return false;
+            }
+        } while (!global.compareAndSet(actual, actual - cantidad));
+        return true;
+    }
+
+    // Devuelve al fondo global las reservas de todas las franjas.
+    private void recoger() {
+        for (int i = 0; i < numeroFranjas; i++) {
+            long reserva = franjas.getAndSet(i * SEPARACION, 0);
+            if (reserva > 0) {
+                global.addAndGet(reserva);
+            }
+        }
+    }
+
+    // Posición en el array de la franja del hilo actual.
+    private int franjaActual() {
+        int mezcla = (int) (Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L >>> 32);
+        return (mezcla & (numeroFranjas - 1)) * SEPARACION;
+    }
+
+    @Override
+    public void guardarEstado(BufferSalida salida) {
+        salida.escribirLong(global.get());
+        salida.escribirInt(numeroFranjas);
+        for (int i = 0; i < numeroFranjas; i++) {
+            salida.escribirLong(franjas.get(i * SEPARACION));
+        }
+    }
+
+    /**
+     * Restaura el fondo global y las reservas. Si el punto de control se
+     * escribió en una máquina con otro número de franjas, las reservas
+     * vuelven al fondo global.
+     */
+    @Override
+    public void restaurarEstado(ByteBuffer entrada) {
+        long libre = entrada.getLong();
+        int guardadas = entrada.getInt();
+        for (int i = 0; i < guardadas; i++) {
+            long reserva = entrada.getLong();
+            if (guardadas == numeroFranjas) {
+                franjas.set(i * SEPARACION, reserva);
+            } else {
+                libre += reserva;
+            }
+        }
+        global.set(libre);
+    }
+}
@@ -0,0 +1,259 @@
+package simuladormemoria;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Asignador que mantiene rangos de direcciones reales mediante una lista
+ * de huecos libres. Al liberar un bloque lo fusiona con sus vecinos libres
+ * (coalescencia), de modo que la fragmentación externa se puede observar.
+ *
+ * Los huecos se indexan dos veces: por dirección (para coalescer y para
+ * primer/siguiente ajuste) y por tamaño (para mejor/peor ajuste en O(log n)).
+ *
+ * Internamente los huecos se cuentan en gránulos (1 MB por defecto) para que
+ * las claves sigan cabiendo en un long: con gránulos de 1 MB se pueden
+ * gestionar hasta 2 PB. Cada petición se redondea a gránulos enteros y el
+ * redondeo cuenta como fragmentación interna.
+ */
+public class AsignadorListaLibre implements AsignadorMemoria {
+    // Tamaño del gránulo por defecto: 1 MB.
+    public static final long GRANULO_POR_DEFECTO = 1L << 20;
+
+    // Tamaño total de la memoria en bytes.
+    private final long ramTotal;
+    // Bytes por gránulo; las direcciones y tamaños internos se cuentan en gránulos.
+    private final long granulo;
+    // Política que decide en qué hueco se coloca cada bloque.
+    private final PoliticaUbicacion politica;
+    // Huecos libres indexados por dirección inicial -> tamaño.
+    private final TreeMap<Integer, Integer> huecosPorDireccion;
+    // Huecos libres ordenados por tamaño; cada clave codifica (tamaño, dirección).
+    private final NavigableSet<Long> huecosPorTamano;
+    // Gránulos libres en total.
+    private int granulosLibres;
+    // Bytes realmente solicitados por los bloques asignados.
+    private long ramSolicitada;
+
+    /**
+     * Constructor del asignador con gránulos de 1 MB.
+     * @param ramTotal El tamaño total de la memoria en bytes.
+     * @param politica La política de ubicación a utilizar.
+     */
+    public AsignadorListaLibre(long ramTotal, PoliticaUbicacion politica) {
+        this(ramTotal, politica, GRANULO_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor del asignador; al inicio toda la memoria es un único hueco.
+     * @param ramTotal El tamaño total de la memoria en bytes (múltiplo del gránulo).
+     * @param politica La política de ubicación a utilizar.
+     * @param granulo Unidad mínima de asignación en bytes.
+     */
+    public AsignadorListaLibre(long ramTotal, PoliticaUbicacion politica, long granulo) {
+        if (granulo <= 0 || ramTotal % granulo != 0 || ramTotal / granulo > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("La memoria debe ser un múltiplo del gránulo y tener como mucho "
+                    + Integer.MAX_VALUE + " gránulos: " + ramTotal + " / " + granulo);
+        }
+        this.ramTotal = ramTotal;
+        this.granulo = granulo;
+        this.politica = politica;
+        this.huecosPorDireccion = new TreeMap<>();
+        this.huecosPorTamano = new TreeSet<>();
+        this.granulosLibres = (int) (ramTotal / granulo);
+        agregarHueco(0, granulosLibres);
+    }
+
+    @Override
+    public long getRamTotal() {
+        return ramTotal;
+    }
+
+    @Override
+    public synchronized long getRamDisponible() {
+        return granulosLibres * granulo;
+    }
+
+    @Override
+    public synchronized long getMayorBloqueLibre() {
+        return huecosPorTamano.isEmpty() ? 0 : tamanoDe(huecosPorTamano.last()) * granulo;
+    }
+
+    @Override
+    public synchronized int getBloquesLibres() {
+        return huecosPorDireccion.size();
+    }
+
+    @Override
+    public synchronized long getFragmentacionInterna() {
+        return ramTotal - granulosLibres * granulo - ramSolicitada;
+    }
+
+    /**
+     * Reserva todo el lote con una sola adquisición del cerrojo.
+     */
+    @Override
+    public synchronized int asignarLote(long[] cantidades, int[] nodosPreferidos, long[] direcciones) {
+        return AsignadorMemoria.super.asignarLote(cantidades, nodosPreferidos, direcciones);
+    }
+
+    /**
+     * Reserva un bloque en el hueco elegido por la política de ubicación.
+     * Si el hueco es mayor que lo pedido, el sobrante sigue libre.
+     */
+    @Override
+    public synchronized long asignar(long bytes) {
+        if (bytes <= 0 || bytes > (long) granulosLibres * granulo) {
+            return -1;
+        }
+        int cantidad = granulosPara(bytes);
+        int direccion = politica.buscarHueco(this, cantidad);
+        if (direccion < 0) {
+            return -1;
+        }
+        int tamano = huecosPorDireccion.get(direccion);
+        quitarHueco(direccion, tamano);
+        if (tamano > cantidad) {
+            agregarHueco(direccion + cantidad, tamano - cantidad);
+        }
+        granulosLibres -= cantidad;
+        ramSolicitada += bytes;
+        return direccion * granulo;
+    }
+
+    /**
+     * Libera un bloque y lo fusiona con los huecos adyacentes.
+     */
+    @Override
+    public synchronized void liberar(long byteInicial, long bytes) {
+        int direccion = (int) (byteInicial / granulo);
+        int cantidad = granulosPara(bytes);
+        int inicio = direccion;
+        int tamano = cantidad;
+
+        // Fusión con el hueco anterior si termina justo donde empieza el bloque.
+        Map.Entry<Integer, Integer> anterior = huecosPorDireccion.lowerEntry(direccion);
+        if (anterior != null && anterior.getKey() + anterior.getValue() == direccion) {
+            quitarHueco(anterior.getKey(), anterior.getValue());
+            inicio = anterior.getKey();
+            tamano += anterior.getValue();
+        }
+        // Fusión con el hueco siguiente si empieza justo donde termina el bloque.
+        Integer siguiente = huecosPorDireccion.get(direccion + cantidad);
+        if (siguiente != null) {
+            quitarHueco(direccion + cantidad, siguiente);
+            tamano += siguiente;
+        }
+
+        agregarHueco(inicio, tamano);
+        granulosLibres += cantidad;
+        ramSolicitada -= bytes;
+    }
+
+    // Número de gránulos que ocupa una petición, redondeando hacia arriba.
+    private int granulosPara(long bytes) {
+        return (int) ((bytes + granulo - 1) / granulo);
+    }
+
+    // --- Consultas usadas por las políticas de ubicación (en gránulos) ---
+
+    /**
+     * Busca el primer hueco suficiente a partir de una dirección, en orden.
+     * @param desde Dirección a partir de la cual buscar.
+     * @param cantidad Tamaño necesario.
+     * @return La dirección del hueco, o -1 si no hay ninguno.
+     */
+    int primerHueco(int desde, int cantidad) {
+        for (Map.Entry<Integer, Integer> hueco : huecosPorDireccion.tailMap(desde, true).entrySet()) {
+            if (hueco.getValue() >= cantidad) {
+                return hueco.getKey();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Devuelve el inicio del hueco que contiene una dirección.
+     * @param direccion La dirección.
+     * @return El inicio de ese hueco, o la propia dirección si está ocupada.
+     */
+    int inicioHueco(int direccion) {
+        Map.Entry<Integer, Integer> hueco = huecosPorDireccion.floorEntry(direccion);
+        return hueco != null && hueco.getKey() + hueco.getValue() > direccion ? hueco.getKey() : direccion;
+    }
+
+    /**
+     * Busca el hueco suficiente más pequeño (mejor ajuste).
+     * @param cantidad Tamaño necesario.
+     * @return La dirección del hueco, o -1 si no hay ninguno.
+     */
+    int menorHuecoSuficiente(int cantidad) {
+        Long clave = huecosPorTamano.ceiling(clave(cantidad, 0));
+        return clave == null ? -1 : direccionDe(clave);
+    }
+
+    /**
+     * Devuelve el hueco más grande si es suficiente (peor ajuste).
+     * @param cantidad Tamaño necesario.
+     * @return La dirección del hueco, o -1 si no hay ninguno.
+     */
+    int mayorHueco(int cantidad) {
+        if (huecosPorTamano.isEmpty() || tamanoDe(huecosPorTamano.last()) < cantidad) {
+            return -1;
+        }
+        return direccionDe(huecosPorTamano.last());
+    }
+
+    // --- Mantenimiento de los dos índices ---
+
+    private void agregarHueco(int direccion, int tamano) {
+        huecosPorDireccion.put(direccion, tamano);
+        huecosPorTamano.add(clave(tamano, direccion));
+    }
+
+    private void quitarHueco(int direccion, int tamano) {
+        huecosPorDireccion.remove(direccion);
+        huecosPorTamano.remove(clave(tamano, direccion));
+    }
+
+    // El tamaño va en los 32 bits altos para que el orden sea por tamaño y luego por dirección.
+    private static long clave(int tamano, int direccion) {
+        return ((long) tamano << 32) | direccion;
+    }
+
+    private static int tamanoDe(long clave) {
+        return (int) (clave >>> 32);
+    }
+
+    private static int direccionDe(long clave) {
+        return (int) clave;
+    }
+
+    @Override
+    public synchronized void guardarEstado(BufferSalida salida) {
+        salida.escribirInt(granulosLibres);
+        salida.escribirLong(ramSolicitada);
+        salida.escribirInt(politica.getCursor());
+        salida.escribirInt(huecosPorDireccion.size());
+        for (Map.Entry<Integer, Integer> hueco : huecosPorDireccion.entrySet()) {
+            salida.escribirInt(hueco.getKey());
+            salida.escribirInt(hueco.getValue());
+        }
+    }
+
+    @Override
+    public synchronized void restaurarEstado(ByteBuffer entrada) {
+        granulosLibres = entrada.getInt();
+        ramSolicitada = entrada.getLong();
+        politica.setCursor(entrada.getInt());
+        huecosPorDireccion.clear();
+        huecosPorTamano.clear();
+        int huecos = entrada.getInt();
+        for (int i = 0; i < huecos; i++) {
+            agregarHueco(entrada.getInt(), entrada.getInt());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package simuladormemoria;
+
+import java.nio.ByteBuffer;
+
+/**
+ * La interfaz AsignadorMemoria define el contrato de los distintos modelos
+ * de asignación de memoria que puede usar la clase Memoria (contador simple,
+ * lista libre con direcciones, etc.).
+ * Las cantidades y direcciones se expresan en bytes, con long, para poder
+ * modelar máquinas de varios terabytes.
+ */
+public interface AsignadorMemoria {
+
+    /**
+     * Devuelve el tamaño total de la memoria gestionada.
+     * @return El total de memoria en bytes.
+     */
+    long getRamTotal();
+
+    /**
+     * Devuelve la cantidad de memoria libre en este momento.
+     * @return La memoria disponible en bytes.
+     */
+    long getRamDisponible();
+
+    /**
+     * Intenta reservar un bloque de memoria.
+     * @param cantidad La memoria a reservar en bytes.
+     * @return La dirección inicial del bloque, o -1 si no hay espacio.
+     */
+    long asignar(long cantidad);
+
+    /**
+     * Intenta reservar un bloque de memoria con preferencia por un nodo.
+     * Los asignadores de un solo nodo ignoran la preferencia.
+     * @param cantidad La memoria a reservar en bytes.
+     * @param nodoPreferido El nodo preferido, o -1 si no hay afinidad.
+     * @return La dirección inicial del bloque, o -1 si no hay espacio.
+     */
+    default long asignar(long cantidad, int nodoPreferido) {
+        return asignar(cantidad);
+    }
+
+    /**
+     * Reserva varios bloques en orden, hasta el primero que no cabe: los
+     * siguientes no se intentan para que ninguno adelante a uno anterior.
+     * Los asignadores con cerrojo lo sobrescriben para tomarlo una sola vez
+     * por lote en lugar de una vez por bloque.
+     * @param cantidades La memoria de cada bloque en bytes.
+     * @param nodosPreferidos El nodo preferido de cada bloque, o -1.
+     * @param direcciones Donde se guarda la dirección de cada bloque reservado.
+     * @return El número de bloques reservados (los primeros del lote).
+     */
+    default int asignarLote(long[] cantidades, int[] nodosPreferidos, long[] direcciones) {
+        for (int i = 0; i < cantidades.length; i++) {
+            direcciones[i] = asignar(cantidades[i], nodosPreferidos[i]);
+            if (direcciones[i] < 0) {
+                return i;
+            }
+        }
+        return cantidades.length;
+    }
+
+    /**
+     * Libera un bloque previamente reservado.
+     * @param direccion La dirección devuelta por asignar.
+     * @param cantidad La cantidad reservada en bytes.
+     */
+    void liberar(long direccion, long cantidad);
+
+    /**
+     * Devuelve el tamaño del mayor bloque libre contiguo.
+     * Por defecto se asume que toda la memoria libre es contigua.
+     * @return El mayor hueco disponible en bytes.
+     */
+    default long getMayorBloqueLibre() {
+        return getRamDisponible();
+    }
+
+    /**
+     * Devuelve el número de bloques libres (huecos) en la memoria.
+     * @return El número de huecos.
+     */
+    default int getBloquesLibres() {
+        return getRamDisponible() > 0 ? 1 : 0;
+    }
+
+    /**
+     * Devuelve la memoria reservada pero no solicitada (redondeos de tamaño,
+     * huecos dentro de los slabs, etc.). El modelo de contador no tiene.
+     * @return La fragmentación interna en bytes.
+     */
+    default long getFragmentacionInterna() {
+        return 0;
+    }
+
+    /**
+     * Escribe el estado del asignador en un punto de control (ver PuntoControl).
+     * Por defecto el modelo no admite puntos de control.
+     * @param salida Dónde escribirlo.
+     */
+    default void guardarEstado(BufferSalida salida) {
+        throw new UnsupportedOperationException("El modelo " + getClass().getSimpleName()
+                + " no admite puntos de control");
+    }
+
+    /**
+     * Restaura el estado escrito por guardarEstado en un asignador nuevo del
+     * mismo modelo y tamaño.
+     * @param entrada El buffer de lectura.
+     */
+    default void restaurarEstado(ByteBuffer entrada) {
+        throw new UnsupportedOperationException("El modelo " + getClass().getSimpleName()
+                + " no admite puntos de control");
+    }
+}
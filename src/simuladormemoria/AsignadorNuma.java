@@ -0,0 +1,221 @@
+package simuladormemoria;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asignador de varios nodos de memoria (NUMA): cada nodo es un fondo
+ * independiente con su propio AsignadorMemoria, de cualquier modelo.
+ *
+ * Un proceso con afinidad se coloca primero en su nodo; si no cabe, se
+ * intentan los demás en orden de anillo (nodo + 1, nodo + 2, ...) y la
+ * asignación cuenta como remota. Los procesos sin afinidad se reparten
+ * entre los nodos por turnos (intercalado), sin contar como remotos.
+ *
+ * El nodo va codificado en los bits altos de la dirección devuelta, de
+ * modo que liberar sabe a qué nodo devolver el bloque sin buscarlo.
+ */
+public class AsignadorNuma implements AsignadorMemoria {
+    // Bits de la dirección dentro del nodo: hasta 256 TB por nodo.
+    private static final int BITS_DIRECCION = 48;
+    private static final long MASCARA_DIRECCION = (1L << BITS_DIRECCION) - 1;
+
+    // Asignador de cada nodo.
+    private final AsignadorMemoria[] nodos;
+    // Asignaciones servidas por el nodo preferido del proceso, por nodo.
+    private final LongAdder[] locales;
+    // Asignaciones de procesos con afinidad a un nodo que acabaron en otro, por nodo preferido.
+    private final LongAdder[] remotas;
+    // Asignaciones remotas alojadas en cada nodo, por nodo de destino.
+    private final LongAdder[] recibidas;
+    // Asignaciones de procesos sin afinidad.
+    private final LongAdder sinAfinidad = new LongAdder();
+    // Siguiente nodo para los procesos sin afinidad.
+    private final AtomicInteger turno = new AtomicInteger();
+
+    /**
+     * Constructor del asignador.
+     * @param nodos El asignador de cada nodo; cada uno con menos de 256 TB.
+     */
+    public AsignadorNuma(AsignadorMemoria... nodos) {
+        if (nodos.length == 0) {
+            throw new IllegalArgumentException("Hace falta al menos un nodo");
+        }
+        for (AsignadorMemoria nodo : nodos) {
+            if (nodo.getRamTotal() > MASCARA_DIRECCION) {
+                throw new IllegalArgumentException("Un nodo no puede superar los 256 TB: "
+                        + Memoria.formatearTamano(nodo.getRamTotal()));
+            }
+        }
+        this.nodos = nodos.clone();
+        this.locales = contadores(nodos.length);
+        this.remotas = contadores(nodos.length);
+        this.recibidas = contadores(nodos.length);
+    }
+
+    private static LongAdder[] contadores(int n) {
+        LongAdder[] contadores = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            contadores[i] = new LongAdder();
+        }
+        return contadores;
+    }
+
+    /**
+     * Devuelve el nodo al que pertenece una dirección de este asignador.
+     * @param direccion Una dirección devuelta por asignar.
+     * @return El índice del nodo.
+     */
+    public static int nodoDe(long direccion) {
+        return (int) (direccion >>> BITS_DIRECCION);
+    }
+
+    public int getNumeroNodos() { return nodos.length; }
+    public AsignadorMemoria getNodo(int nodo) { return nodos[nodo]; }
+    public long getAsignacionesLocales(int nodo) { return locales[nodo].sum(); }
+    public long getAsignacionesRemotas(int nodo) { return remotas[nodo].sum(); }
+    public long getAsignacionesRecibidas(int nodo) { return recibidas[nodo].sum(); }
+    public long getAsignacionesSinAfinidad() { return sinAfinidad.sum(); }
+
+    /**
+     * Devuelve el total de asignaciones remotas de todos los nodos.
+     * @return Las asignaciones que no pudieron servirse en el nodo preferido.
+     */
+    public long getAsignacionesRemotas() {
+        long total = 0;
+        for (LongAdder contador : remotas) {
+            total += contador.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Devuelve la fracción de la memoria de un nodo que está en uso.
+     * @param nodo El índice del nodo.
+     * @return La utilización entre 0 y 1.
+     */
+    public double getUtilizacion(int nodo) {
+        long total = nodos[nodo].getRamTotal();
+        return total == 0 ? 0.0 : 1.0 - (double) nodos[nodo].getRamDisponible() / total;
+    }
+
+    @Override
+    public long getRamTotal() {
+        long total = 0;
+        for (AsignadorMemoria nodo : nodos) {
+            total += nodo.getRamTotal();
+        }
+        return total;
+    }
+
+    @Override
+    public long getRamDisponible() {
+        long libre = 0;
+        for (AsignadorMemoria nodo : nodos) {
+            libre += nodo.getRamDisponible();
+        }
+        return libre;
+    }
+
+    /**
+     * Los bloques no pueden cruzar nodos: el mayor hueco es el mayor de un nodo.
+     */
+    @Override
+    public long getMayorBloqueLibre() {
+        long mayor = 0;
+        for (AsignadorMemoria nodo : nodos) {
+            mayor = Math.max(mayor, nodo.getMayorBloqueLibre());
+        }
+        return mayor;
+    }
+
+    @Override
+    public int getBloquesLibres() {
+        int bloques = 0;
+        for (AsignadorMemoria nodo : nodos) {
+            bloques += nodo.getBloquesLibres();
+        }
+        return bloques;
+    }
+
+    @Override
+    public long getFragmentacionInterna() {
+        long fragmentacion = 0;
+        for (AsignadorMemoria nodo : nodos) {
+            fragmentacion += nodo.getFragmentacionInterna();
+        }
+        return fragmentacion;
+    }
+
+    @Override
+    public long asignar(long cantidad) {
+        return asignar(cantidad, -1);
+    }
+
+    /**
+     * Reserva en el nodo preferido o, si no cabe, en el siguiente del anillo que tenga sitio.
+     */
+    @Override
+    public long asignar(long cantidad, int nodoPreferido) {
+        int n = nodos.length;
+        boolean conAfinidad = nodoPreferido >= 0;
+        int inicio = conAfinidad ? nodoPreferido % n : Math.floorMod(turno.getAndIncrement(), n);
+        for (int i = 0; i < n; i++) {
+            int nodo = (inicio + i) % n;
+            long direccion = nodos[nodo].asignar(cantidad);
+            if (direccion < 0) {
+                continue;
+            }
+            if (!conAfinidad) {
+                sinAfinidad.increment();
+            } else if (i == 0) {
+                locales[nodo].increment();
+            } else {
+                remotas[inicio].increment();
+                recibidas[nodo].increment();
+            }
+            return ((long) nodo << BITS_DIRECCION) | direccion;
+        }
+        return -1;
+    }
+
+    @Override
+    public void liberar(long direccion, long cantidad) {
+        nodos[nodoDe(direccion)].liberar(direccion & MASCARA_DIRECCION, cantidad);
+    }
+
+    @Override
+    public void guardarEstado(BufferSalida salida) {
+        salida.escribirInt(nodos.length);
+        for (int nodo = 0; nodo < nodos.length; nodo++) {
+            nodos[nodo].guardarEstado(salida);
+            salida.escribirLong(locales[nodo].sum());
+            salida.escribirLong(remotas[nodo].sum());
+            salida.escribirLong(recibidas[nodo].sum());
+        }
+        salida.escribirLong(sinAfinidad.sum());
+        salida.escribirInt(turno.get());
+    }
+
+    @Override
+    public void restaurarEstado(ByteBuffer entrada) {
+        int guardados = entrada.getInt();
+        if (guardados != nodos.length) {
+            throw new IllegalArgumentException("El punto de control tiene " + guardados + " nodos y la memoria " + nodos.length);
+        }
+        for (int nodo = 0; nodo < nodos.length; nodo++) {
+            nodos[nodo].restaurarEstado(entrada);
+            restaurar(locales[nodo], entrada.getLong());
+            restaurar(remotas[nodo], entrada.getLong());
+            restaurar(recibidas[nodo], entrada.getLong());
+        }
+        restaurar(sinAfinidad, entrada.getLong());
+        turno.set(entrada.getInt());
+    }
+
+    private static void restaurar(LongAdder contador, long valor) {
+        contador.reset();
+        contador.add(valor);
+    }
+}
@@ -0,0 +1,255 @@
+package simuladormemoria;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memoria virtual paginada. Cada proceso recibe su propia tabla de páginas
+ * y solo necesita tener residente una fracción de sus páginas para ser
+ * admitido; el resto se carga bajo demanda al accederla (fallo de página).
+ * Cuando no quedan marcos libres, una PoliticaReemplazo global elige la
+ * página a expulsar, pero nunca de un proceso que tenga residentes solo
+ * los marcos que se le reservaron (salvo el propio proceso que falla, que
+ * entonces reemplaza una de sus páginas): así cada proceso admitido
+ * conserva su conjunto de trabajo mínimo. Una TLB simulada cachea las
+ * traducciones recientes.
+ *
+ * En este modelo la "dirección" que devuelve asignar es el identificador
+ * de la tabla de páginas del proceso, ya que cada proceso tiene su propio
+ * espacio de direcciones virtuales.
+ */
+public class AsignadorPaginado implements AsignadorMemoria {
+    // Tamaño total de la memoria física en bytes.
+    private final long ramTotal;
+    // Tamaño de página en KB.
+    private final int tamanoPaginaKb;
+    // Fracción de las páginas de un proceso que se reserva al admitirlo.
+    private final double fraccionMinima;
+    // Política de reemplazo global.
+    private final PoliticaReemplazo politica;
+    // TLB: clave de página -> marco, en orden LRU y con capacidad fija.
+    private final LinkedHashMap<Long, Integer> tlb;
+    // Tablas de páginas de los procesos admitidos, por identificador.
+    private final Map<Integer, TablaPaginas> tablas;
+    // Pila de marcos libres.
+    private final int[] marcosLibres;
+    private int cimaLibres;
+    // Marcos reservados como conjunto de trabajo mínimo de los procesos admitidos.
+    private int marcosReservados;
+    // Siguiente identificador de tabla (nunca se reutiliza).
+    private int siguienteTabla;
+    // Estadísticas globales.
+    private final EstadisticasPaginacion estadisticas;
+    // Latencias simuladas en nanosegundos.
+    private long nanosTlb = 1;
+    private long nanosMemoria = 100;
+    private long nanosFallo = 8_000_000;
+
+    /**
+     * Constructor de la memoria paginada.
+     * @param ramTotal Memoria física en bytes.
+     * @param tamanoPaginaKb Tamaño de página en KB.
+     * @param entradasTlb Número de entradas de la TLB.
+     * @param fraccionMinima Fracción (0-1] de páginas reservadas al admitir un proceso.
+     * @param nombrePolitica Política de reemplazo: "fifo", "lru", "clock", "lfu" o "arc".
+     */
+    public AsignadorPaginado(long ramTotal, int tamanoPaginaKb, int entradasTlb, double fraccionMinima, String nombrePolitica) {
+        if (tamanoPaginaKb <= 0 || ramTotal % (tamanoPaginaKb * 1024L) != 0) {
+            throw new IllegalArgumentException("El tamaño de página debe dividir la memoria: " + tamanoPaginaKb + " KB");
+        }
+        if (ramTotal / (tamanoPaginaKb * 1024L) > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Demasiados marcos de " + tamanoPaginaKb + " KB para "
+                    + Memoria.formatearTamano(ramTotal));
+        }
+        this.ramTotal = ramTotal;
+        this.tamanoPaginaKb = tamanoPaginaKb;
+        this.fraccionMinima = fraccionMinima;
+        int marcos = (int) (ramTotal / (tamanoPaginaKb * 1024L));
+        this.politica = PoliticaReemplazo.porNombre(nombrePolitica, marcos);
+        this.tlb = new LinkedHashMap<Long, Integer>(entradasTlb * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> mayor) {
+                return size() > entradasTlb;
+            }
+        };
+        this.tablas = new HashMap<>();
+        this.marcosLibres = new int[marcos];
+        for (int i = 0; i < marcos; i++) {
+            marcosLibres[i] = marcos - 1 - i;
+        }
+        this.cimaLibres = marcos;
+        this.estadisticas = new EstadisticasPaginacion();
+    }
+
+    /**
+     * Cambia las latencias simuladas usadas para el tiempo de acceso efectivo.
+     * @param nanosTlb Consulta a la TLB.
+     * @param nanosMemoria Un acceso a memoria física (o a la tabla de páginas).
+     * @param nanosFallo Servicio de un fallo de página.
+     */
+    public synchronized void setLatencias(long nanosTlb, long nanosMemoria, long nanosFallo) {
+        this.nanosTlb = nanosTlb;
+        this.nanosMemoria = nanosMemoria;
+        this.nanosFallo = nanosFallo;
+    }
+
+    @Override
+    public long getRamTotal() {
+        return ramTotal;
+    }
+
+    /**
+     * La memoria disponible son los marcos no reservados, los mismos con los
+     * que asignar decide si admite un proceso. Los marcos libres pueden ser
+     * más (las reservas aún no cargadas) o menos (páginas cargadas bajo
+     * demanda por encima de la reserva, que se pueden expulsar).
+     */
+    @Override
+    public synchronized long getRamDisponible() {
+        return (long) (marcosLibres.length - marcosReservados) * tamanoPaginaKb * 1024;
+    }
+
+    public int getTamanoPaginaKb() { return tamanoPaginaKb; }
+    public int getMarcos() { return marcosLibres.length; }
+    public synchronized int getMarcosLibres() { return cimaLibres; }
+    public synchronized int getMarcosReservados() { return marcosReservados; }
+    public EstadisticasPaginacion getEstadisticas() { return estadisticas; }
+
+    /**
+     * Devuelve la tabla de páginas de un proceso admitido.
+     * @param id El identificador devuelto por asignar.
+     * @return La tabla, o null si el proceso ya terminó.
+     */
+    public synchronized TablaPaginas getTabla(int id) {
+        return tablas.get(id);
+    }
+
+    /**
+     * Reserva todo el lote con una sola adquisición del cerrojo.
+     */
+    @Override
+    public synchronized int asignarLote(long[] cantidades, int[] nodosPreferidos, long[] direcciones) {
+        return AsignadorMemoria.super.asignarLote(cantidades, nodosPreferidos, direcciones);
+    }
+
+    /**
+     * Admite un proceso si su conjunto de trabajo mínimo cabe en los marcos
+     * no reservados. No carga ninguna página: se cargarán bajo demanda.
+     * @return El identificador de la tabla de páginas, o -1.
+     */
+    @Override
+    public synchronized long asignar(long cantidad) {
+        long bytesPagina = tamanoPaginaKb * 1024L;
+        if (cantidad <= 0 || (cantidad + bytesPagina - 1) / bytesPagina > Integer.MAX_VALUE) {
+            return -1;
+        }
+        int paginas = (int) ((cantidad + bytesPagina - 1) / bytesPagina);
+        int minimos = Math.max(1, (int) Math.ceil(paginas * fraccionMinima));
+        if (marcosReservados + minimos > marcosLibres.length) {
+            return -1;
+        }
+        marcosReservados += minimos;
+        int id = siguienteTabla++;
+        tablas.put(id, new TablaPaginas(id, paginas, minimos));
+        return id;
+    }
+
+    /**
+     * Descarga todas las páginas residentes del proceso y libera su reserva.
+     */
+    @Override
+    public synchronized void liberar(long id, long cantidad) {
+        int direccion = (int) id;
+        TablaPaginas tabla = tablas.remove(direccion);
+        if (tabla == null) {
+            return;
+        }
+        for (int pagina = 0; pagina < tabla.getPaginas() && tabla.getResidentes() > 0; pagina++) {
+            int marco = tabla.getMarco(pagina);
+            if (marco >= 0) {
+                long clave = clave(direccion, pagina);
+                politica.quitada(clave);
+                tlb.remove(clave);
+                tabla.descargar(pagina);
+                marcosLibres[cimaLibres++] = marco;
+            }
+        }
+        marcosReservados -= tabla.getMarcosMinimos();
+    }
+
+    /**
+     * Accede a una dirección virtual de un proceso.
+     * @param id El identificador de la tabla de páginas del proceso.
+     * @param direccionVirtual Desplazamiento en bytes dentro del espacio del proceso.
+     * @return true si el acceso provocó un fallo de página.
+     */
+    public boolean acceder(int id, long direccionVirtual) {
+        return accederPagina(id, (int) (direccionVirtual / (tamanoPaginaKb * 1024L)));
+    }
+
+    /**
+     * Accede a una página virtual de un proceso, actualizando la TLB,
+     * la política de reemplazo y las estadísticas.
+     * @param id El identificador de la tabla de páginas del proceso.
+     * @param pagina El número de página virtual.
+     * @return true si el acceso provocó un fallo de página.
+     */
+    public synchronized boolean accederPagina(int id, int pagina) {
+        TablaPaginas tabla = tablas.get(id);
+        if (tabla == null || pagina < 0 || pagina >= tabla.getPaginas()) {
+            throw new IllegalArgumentException("Acceso fuera del espacio del proceso: tabla " + id + ", página " + pagina);
+        }
+        long clave = clave(id, pagina);
+        boolean aciertoTlb = tlb.get(clave) != null;
+        boolean fallo = false;
+        long nanos = nanosTlb + nanosMemoria;
+        if (!aciertoTlb) {
+            // Fallo de TLB: hay que consultar la tabla de páginas.
+            nanos += nanosMemoria;
+            int marco = tabla.getMarco(pagina);
+            if (marco < 0) {
+                fallo = true;
+                nanos += nanosFallo;
+                marco = cargar(tabla, pagina, clave);
+            }
+            tlb.put(clave, marco);
+        }
+        if (!fallo) {
+            politica.accedida(clave);
+        }
+        tabla.getEstadisticas().registrar(aciertoTlb, fallo, nanos);
+        estadisticas.registrar(aciertoTlb, fallo, nanos);
+        return fallo;
+    }
+
+    /**
+     * Carga una página en un marco libre o, si no hay, en el de la víctima:
+     * una página del propio proceso o de otro con más residentes que su reserva.
+     * Siempre hay alguna, porque las reservas suman como mucho todos los marcos.
+     */
+    private int cargar(TablaPaginas tabla, int pagina, long clave) {
+        int marco;
+        if (cimaLibres > 0) {
+            marco = marcosLibres[--cimaLibres];
+        } else {
+            long victima = politica.victima(clave, candidata -> {
+                TablaPaginas duena = tablas.get((int) (candidata >>> 32));
+                return duena == tabla || duena.getResidentes() > duena.getMarcosMinimos();
+            });
+            TablaPaginas duena = tablas.get((int) (victima >>> 32));
+            int paginaVictima = (int) victima;
+            marco = duena.getMarco(paginaVictima);
+            duena.descargar(paginaVictima);
+            tlb.remove(victima);
+        }
+        tabla.cargar(pagina, marco);
+        politica.cargada(clave);
+        return marco;
+    }
+
+    // La tabla va en los 32 bits altos y la página en los bajos.
+    private static long clave(int tabla, int pagina) {
+        return ((long) tabla << 32) | pagina;
+    }
+}
@@ -0,0 +1,191 @@
+package simuladormemoria;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Asignador por clases de tamaño (slab). Las peticiones pequeñas se
+ * redondean a la menor clase que las contiene y se sirven desde "slabs":
+ * bloques de tamaño fijo pedidos a un asignador de respaldo y divididos en
+ * huecos iguales. Así, las peticiones pequeñas y repetidas (por ejemplo, las
+ * de un "Reproductor de Música") no fragmentan la memoria general.
+ *
+ * Las peticiones mayores que la clase más grande, o las que no consiguen un
+ * slab nuevo, se piden directamente al asignador de respaldo.
+ */
+public class AsignadorSlab implements AsignadorMemoria {
+
+    /**
+     * Un slab: un bloque del respaldo dividido en huecos de un mismo tamaño.
+     */
+    private static class Slab {
+        // Dirección inicial del slab en el asignador de respaldo.
+        final long base;
+        // Tamaño de cada hueco del slab en bytes.
+        final long tamanoObjeto;
+        // Huecos libres (bit encendido = libre).
+        final BitSet libres;
+        // Número total de huecos y número de huecos ocupados.
+        final int capacidad;
+        int enUso;
+
+        Slab(long base, long tamanoObjeto, int capacidad) {
+            this.base = base;
+            this.tamanoObjeto = tamanoObjeto;
+            this.capacidad = capacidad;
+            this.libres = new BitSet(capacidad);
+            this.libres.set(0, capacidad);
+        }
+    }
+
+    // Asignador del que se obtienen los slabs y las peticiones grandes.
+    private final AsignadorMemoria respaldo;
+    // Tamaño de cada slab en bytes.
+    private final long tamanoSlab;
+    // Clases de tamaño en bytes, en orden ascendente.
+    private final long[] clases;
+    // Slabs con huecos libres, uno por clase de tamaño.
+    private final ArrayDeque<Slab>[] parciales;
+    // Todos los slabs vivos, indexados por dirección para localizar un bloque al liberarlo.
+    private final TreeMap<Long, Slab> slabsPorDireccion;
+    // Bytes realmente solicitados por los procesos.
+    private long ramSolicitada;
+    // Bytes de los huecos libres de todos los slabs.
+    private long libreEnSlabs;
+
+    /**
+     * Constructor del asignador.
+     * @param respaldo Asignador que proporciona los slabs y las peticiones grandes.
+     * @param tamanoSlab Tamaño de cada slab en bytes.
+     * @param clases Clases de tamaño en bytes, en orden ascendente; ninguna mayor que tamanoSlab.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AsignadorSlab(AsignadorMemoria respaldo, long tamanoSlab, long... clases) {
+        if (clases.length == 0 || clases[clases.length - 1] > tamanoSlab) {
+            throw new IllegalArgumentException("Las clases de tamaño deben caber en un slab de "
+                    + Memoria.formatearTamano(tamanoSlab));
+        }
+        this.respaldo = respaldo;
+        this.tamanoSlab = tamanoSlab;
+        this.clases = clases.clone();
+        this.parciales = new ArrayDeque[clases.length];
+        for (int i = 0; i < clases.length; i++) {
+            parciales[i] = new ArrayDeque<>();
+        }
+        this.slabsPorDireccion = new TreeMap<>();
+    }
+
+    @Override
+    public long getRamTotal() {
+        return respaldo.getRamTotal();
+    }
+
+    /**
+     * Los huecos libres de los slabs cuentan como disponibles: solo sirven
+     * peticiones de su clase, pero no están ocupados.
+     */
+    @Override
+    public synchronized long getRamDisponible() {
+        return respaldo.getRamDisponible() + libreEnSlabs;
+    }
+
+    @Override
+    public synchronized long getMayorBloqueLibre() {
+        return respaldo.getMayorBloqueLibre();
+    }
+
+    @Override
+    public synchronized int getBloquesLibres() {
+        return respaldo.getBloquesLibres();
+    }
+
+    @Override
+    public synchronized long getFragmentacionInterna() {
+        return respaldo.getRamTotal() - getRamDisponible() - ramSolicitada;
+    }
+
+    /**
+     * Reserva todo el lote con una sola adquisición del cerrojo.
+     */
+    @Override
+    public synchronized int asignarLote(long[] cantidades, int[] nodosPreferidos, long[] direcciones) {
+        return AsignadorMemoria.super.asignarLote(cantidades, nodosPreferidos, direcciones);
+    }
+
+    @Override
+    public synchronized long asignar(long cantidad) {
+        if (cantidad <= 0) {
+            return -1;
+        }
+        int clase = clasePara(cantidad);
+        long direccion = clase >= 0 ? asignarEnSlab(clase) : -1;
+        // Peticiones grandes, o sin slab disponible: directamente al respaldo.
+        if (direccion < 0) {
+            direccion = respaldo.asignar(cantidad);
+        }
+        if (direccion >= 0) {
+            ramSolicitada += cantidad;
+        }
+        return direccion;
+    }
+
+    @Override
+    public synchronized void liberar(long direccion, long cantidad) {
+        ramSolicitada -= cantidad;
+        Map.Entry<Long, Slab> entrada = slabsPorDireccion.floorEntry(direccion);
+        if (entrada == null || direccion >= entrada.getKey() + tamanoSlab) {
+            // El bloque no pertenece a ningún slab.
+            respaldo.liberar(direccion, cantidad);
+            return;
+        }
+        Slab slab = entrada.getValue();
+        int clase = clasePara(slab.tamanoObjeto);
+        slab.libres.set((int) ((direccion - slab.base) / slab.tamanoObjeto));
+        libreEnSlabs += slab.tamanoObjeto;
+        // Un slab que estaba lleno vuelve a tener huecos.
+        if (slab.enUso-- == slab.capacidad) {
+            parciales[clase].add(slab);
+        }
+        // Un slab vacío se devuelve al respaldo.
+        if (slab.enUso == 0) {
+            parciales[clase].remove(slab);
+            slabsPorDireccion.remove(slab.base);
+            libreEnSlabs -= slab.capacidad * slab.tamanoObjeto;
+            respaldo.liberar(slab.base, tamanoSlab);
+        }
+    }
+
+    private long asignarEnSlab(int clase) {
+        Slab slab = parciales[clase].peek();
+        if (slab == null) {
+            long base = respaldo.asignar(tamanoSlab);
+            if (base < 0) {
+                return -1;
+            }
+            slab = new Slab(base, clases[clase], (int) (tamanoSlab / clases[clase]));
+            slabsPorDireccion.put(base, slab);
+            parciales[clase].add(slab);
+            libreEnSlabs += slab.capacidad * slab.tamanoObjeto;
+        }
+        int hueco = slab.libres.nextSetBit(0);
+        slab.libres.clear(hueco);
+        libreEnSlabs -= slab.tamanoObjeto;
+        // Un slab lleno deja de estar entre los parciales.
+        if (++slab.enUso == slab.capacidad) {
+            parciales[clase].poll();
+        }
+        return slab.base + hueco * slab.tamanoObjeto;
+    }
+
+    // Índice de la menor clase que contiene la cantidad, o -1 si es demasiado grande.
+    private int clasePara(long cantidad) {
+        for (int i = 0; i < clases.length; i++) {
+            if (cantidad <= clases[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
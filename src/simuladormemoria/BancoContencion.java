@@ -0,0 +1,82 @@
+package simuladormemoria;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Banco de pruebas de contención de Memoria.asignarMemoria/liberarMemoria.
+ * Para cada modelo de asignación y cada número de hilos (de 1 a 64), todos
+ * los hilos asignan y liberan bloques pequeños en bucle durante un tiempo
+ * fijo, tras una fase de calentamiento, y se mide el rendimiento agregado.
+ *
+ * Uso: java simuladormemoria.BancoContencion [milisegundos por medición]
+ */
+public class BancoContencion {
+    // Número de hilos con los que se mide cada modelo.
+    private static final int[] HILOS = {1, 2, 4, 8, 16, 32, 64};
+
+    /**
+     * Punto de entrada del banco de pruebas.
+     * @param args Duración opcional de cada medición en milisegundos.
+     * @throws InterruptedException Si el hilo principal es interrumpido.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long duracion = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        medir("contador (CAS)", Memoria::new, duracion);
+        medir("repartido", Memoria::conContadorRepartido, duracion);
+        // Referencia con cerrojo: la lista libre sincroniza cada operación.
+        medir("lista libre (synchronized)", () -> Memoria.conListaLibre(PoliticaUbicacion.PRIMER_AJUSTE), duracion);
+    }
+
+    private static void medir(String nombre, Supplier<Memoria> fabrica, long duracion) throws InterruptedException {
+        System.out.printf("%s%n", nombre);
+        for (int hilos : HILOS) {
+            Memoria memoria = fabrica.get();
+            // Calentamiento para que el JIT compile el camino de asignación.
+            ejecutar(memoria, hilos, duracion / 2);
+            long operaciones = ejecutar(memoria, hilos, duracion);
+            System.out.printf("  %2d hilos: %,12.0f ops/s | RAM usada al final: %d MB%n",
+                    hilos, operaciones * 1000.0 / duracion, memoria.getRamUsada() / Memoria.MB);
+        }
+    }
+
+    /**
+     * Ejecuta pares asignar/liberar desde varios hilos durante un tiempo.
+     * @return El número total de pares completados.
+     */
+    private static long ejecutar(Memoria memoria, int hilos, long duracion) throws InterruptedException {
+        LongAdder operaciones = new LongAdder();
+        CountDownLatch salida = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(hilos);
+        long[] limite = new long[1];
+        for (int h = 0; h < hilos; h++) {
+            Thread hilo = new Thread(() -> {
+                // Cada hilo reutiliza un proceso con un bloque de 1 MB.
+                Proceso proceso = new Proceso("banco", 1, 0);
+                long hechas = 0;
+                try {
+                    salida.await();
+                    while (System.nanoTime() < limite[0]) {
+                        for (int i = 0; i < 100; i++) {
+                            if (memoria.asignarMemoria(proceso)) {
+                                memoria.liberarMemoria(proceso);
+                            }
+                            hechas++;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    operaciones.add(hechas);
+                    fin.countDown();
+                }
+            });
+            hilo.start();
+        }
+        limite[0] = System.nanoTime() + duracion * 1_000_000;
+        salida.countDown();
+        fin.await();
+        return operaciones.sum();
+    }
+}
@@ -0,0 +1,107 @@
+package simuladormemoria;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffer de escritura binaria que crece según hace falta. Con él se
+ * componen los registros de un punto de control (ver PuntoControl) antes
+ * de escribirlos de una vez en un canal. Para leerlos basta un ByteBuffer
+ * y leerTexto.
+ */
+public class BufferSalida {
+    private ByteBuffer buffer;
+
+    /**
+     * Constructor del buffer.
+     * @param capacidadInicial Bytes reservados al principio.
+     */
+    public BufferSalida(int capacidadInicial) {
+        this.buffer = ByteBuffer.allocate(Math.max(16, capacidadInicial));
+    }
+
+    public int getPosicion() { return buffer.position(); }
+
+    public void escribirByte(int valor) {
+        asegurar(1);
+        buffer.put((byte) valor);
+    }
+
+    public void escribirInt(int valor) {
+        asegurar(4);
+        buffer.putInt(valor);
+    }
+
+    public void escribirLong(long valor) {
+        asegurar(8);
+        buffer.putLong(valor);
+    }
+
+    /**
+     * Escribe un texto en UTF-8 precedido de su longitud (-1 si es null).
+     * @param texto El texto, o null.
+     */
+    public void escribirTexto(String texto) {
+        if (texto == null) {
+            escribirInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escribirInt(bytes.length);
+        asegurar(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Escribe un entero en una posición ya escrita (por ejemplo, un
+     * contador que solo se conoce al final).
+     * @param posicion Posición del entero.
+     * @param valor El valor.
+     */
+    public void escribirIntEn(int posicion, int valor) {
+        buffer.putInt(posicion, valor);
+    }
+
+    /**
+     * Lee un texto escrito con escribirTexto.
+     * @param entrada El buffer de lectura.
+     * @return El texto, o null.
+     */
+    public static String leerTexto(ByteBuffer entrada) {
+        int longitud = entrada.getInt();
+        if (longitud < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud];
+        entrada.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Devuelve una vista de lo escrito, lista para escribirla en un canal.
+     * @return Un ByteBuffer de la posición 0 a la actual.
+     */
+    public ByteBuffer getContenido() {
+        return buffer.duplicate().flip();
+    }
+
+    /**
+     * Vacía el buffer conservando la capacidad reservada.
+     */
+    public void reiniciar() {
+        buffer.clear();
+    }
+
+    private void asegurar(int bytes) {
+        if (buffer.remaining() < bytes) {
+            long capacidad = Math.max((long) buffer.capacity() * 2, (long) buffer.position() + bytes);
+            if (capacidad > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("El buffer no puede superar los 2 GB");
+            }
+            ByteBuffer mayor = ByteBuffer.allocate((int) capacidad);
+            buffer.flip();
+            mayor.put(buffer);
+            buffer = mayor;
+        }
+    }
+}
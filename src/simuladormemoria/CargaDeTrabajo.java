@@ -0,0 +1,333 @@
+package simuladormemoria;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * La clase CargaDeTrabajo describe de forma declarativa una simulación por
+ * lotes. Se lee de un archivo de propiedades como este:
+ *
+ * <pre>
+ * procesos = 100000
+ * semilla = 42
+ * # Milisegundos entre llegadas, memoria en MB y duración en segundos.
+ * llegada = exponencial(1000)
+ * memoria = uniforme(50,450)
+ * duracion = uniforme(1,20)
+ * # Fracción de procesos con afinidad a un nodo (solo con varios nodos).
+ * afinidad = 0.8
+ * # Listas separadas por comas: se simula cada combinación (barrido).
+ * # La RAM admite unidades (512M, 64G, 2T); sin unidad se entiende en MB.
+ * ram = 512,1024,2048
+ * # Nodos NUMA entre los que se reparte la RAM a partes iguales.
+ * nodos = 1,2,4
+ * modelo = contador,primero,mejor,buddy
+ * admision = fifo,backfilling
+ * # Tamaño del área de intercambio (0 = sin intercambio) y disco que la respalda.
+ * intercambio = 0,2G
+ * disco = ssd
+ * # Núcleos de CPU (0 = sin modelo de CPU) y política del planificador.
+ * nucleos = 0,8
+ * planificador = rr,cfs
+ * # Rodaja y cambio de contexto en ms, y listos por núcleo que frenan la admisión (0 = sin límite).
+ * quantum = 100
+ * cambio_contexto = 1
+ * max_listos = 0
+ * # Prioridad nice de los procesos (de -20 a 19).
+ * prioridad = uniforme(-5,5)
+ * # Perfil con el que los procesos en ejecución piden y devuelven memoria (sin él, es fija),
+ * # milisegundos entre peticiones y reacción cuando una petición no cabe (barrido).
+ * perfil_memoria = dientes(16,5)
+ * intervalo_memoria = 500
+ * sin_memoria = bloquear,matar,compactar
+ * </pre>
+ *
+ * Todas las configuraciones del barrido usan la misma semilla, así que
+ * reciben exactamente la misma secuencia de procesos (y de afinidades,
+ * para un mismo número de nodos). Las prioridades salen de una secuencia
+ * aparte, así que añadirlas no cambia la memoria ni la duración de los procesos.
+ */
+public class CargaDeTrabajo {
+
+    /**
+     * Una combinación concreta de parámetros del barrido.
+     */
+    public static final class Configuracion {
+        private final long ram;
+        private final int nodos;
+        private final String modelo;
+        private final String admision;
+        private final long intercambio;
+        private final int nucleos;
+        private final String planificador;
+        private final MotorDeEventos.SinMemoria sinMemoria;
+
+        Configuracion(long ram, int nodos, String modelo, String admision, long intercambio,
+                      int nucleos, String planificador, MotorDeEventos.SinMemoria sinMemoria) {
+            this.ram = ram;
+            this.nodos = nodos;
+            this.modelo = modelo;
+            this.admision = admision;
+            this.intercambio = intercambio;
+            this.nucleos = nucleos;
+            this.planificador = planificador;
+            this.sinMemoria = sinMemoria;
+        }
+
+        // RAM total en bytes, repartida entre los nodos.
+        public long getRam() { return ram; }
+        public int getNodos() { return nodos; }
+        public long getRamPorNodo() { return ram / nodos; }
+        public String getModelo() { return modelo; }
+        public String getAdmision() { return admision; }
+        // Capacidad del área de intercambio en bytes (0 = sin intercambio).
+        public long getIntercambio() { return intercambio; }
+        // Núcleos de CPU (0 = sin modelo de CPU) y política del planificador.
+        public int getNucleos() { return nucleos; }
+        public String getPlanificador() { return planificador; }
+        // Reacción cuando un proceso no puede crecer (null sin perfil de memoria).
+        public MotorDeEventos.SinMemoria getSinMemoria() { return sinMemoria; }
+
+        /**
+         * Crea la memoria de esta configuración: de un nodo o NUMA.
+         * @return La memoria nueva.
+         */
+        public Memoria crearMemoria() {
+            return nodos == 1 ? Memoria.crear(modelo, ram) : Memoria.crearNuma(modelo, nodos, getRamPorNodo());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ram=%s nodos=%d modelo=%s admision=%s intercambio=%s cpu=%s",
+                    Memoria.formatearTamano(ram), nodos, modelo, admision,
+                    intercambio == 0 ? "no" : Memoria.formatearTamano(intercambio),
+                    nucleos == 0 ? "no" : nucleos + "/" + planificador)
+                    + (sinMemoria == null ? "" : " crecer=" + sinMemoria.name().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    // Número de procesos y semilla de la carga.
+    private final int procesos;
+    private final long semilla;
+    // Distribuciones del tiempo entre llegadas (ms), la memoria (MB) y la duración (s).
+    private final Distribucion llegada;
+    private final Distribucion memoria;
+    private final Distribucion duracion;
+    // Distribución de la prioridad nice de los procesos.
+    private final Distribucion prioridad;
+    // Fracción de procesos con afinidad a un nodo.
+    private final double afinidad;
+    // Valores de cada parámetro del barrido.
+    private final long[] rams;
+    private final int[] nodos;
+    private final String[] modelos;
+    private final String[] admisiones;
+    private final long[] intercambios;
+    private final int[] nucleos;
+    private final String[] planificadores;
+    // Disco del área de intercambio, común a todo el barrido.
+    private final ModeloDisco disco;
+    // Parámetros del planificador de CPU, comunes a todo el barrido.
+    private final long quantum;
+    private final long cambioContexto;
+    private final int maxListos;
+    // Perfil de memoria de los procesos en ejecución (null = memoria fija), milisegundos
+    // entre peticiones y reacciones del barrido cuando una petición no cabe.
+    private final PerfilMemoria perfilMemoria;
+    private final long intervaloMemoria;
+    private final MotorDeEventos.SinMemoria[] reaccionesSinMemoria;
+
+    /**
+     * Crea una carga de trabajo a partir de sus propiedades.
+     * @param propiedades Las propiedades (ver la descripción de la clase).
+     */
+    public CargaDeTrabajo(Properties propiedades) {
+        this.procesos = Integer.parseInt(propiedades.getProperty("procesos", "100000").trim());
+        this.semilla = Long.parseLong(propiedades.getProperty("semilla", "42").trim());
+        this.llegada = Distribucion.porNombre(propiedades.getProperty("llegada", "uniforme(0,2000)"));
+        this.memoria = Distribucion.porNombre(propiedades.getProperty("memoria", "uniforme(50,450)"));
+        this.duracion = Distribucion.porNombre(propiedades.getProperty("duracion", "uniforme(1,21)"));
+        this.prioridad = Distribucion.porNombre(propiedades.getProperty("prioridad", "0"));
+        this.afinidad = Double.parseDouble(propiedades.getProperty("afinidad", "1").trim());
+        String[] valoresRam = lista(propiedades, "ram", "1024");
+        this.rams = new long[valoresRam.length];
+        for (int i = 0; i < valoresRam.length; i++) {
+            rams[i] = Memoria.parsearTamano(valoresRam[i]);
+        }
+        String[] valoresNodos = lista(propiedades, "nodos", "1");
+        this.nodos = new int[valoresNodos.length];
+        for (int i = 0; i < valoresNodos.length; i++) {
+            nodos[i] = Integer.parseInt(valoresNodos[i]);
+            if (nodos[i] < 1) {
+                throw new IllegalArgumentException("El número de nodos debe ser positivo: " + valoresNodos[i]);
+            }
+        }
+        this.modelos = lista(propiedades, "modelo", "contador");
+        this.admisiones = lista(propiedades, "admision", "fifo");
+        String[] valoresIntercambio = lista(propiedades, "intercambio", "0");
+        this.intercambios = new long[valoresIntercambio.length];
+        for (int i = 0; i < valoresIntercambio.length; i++) {
+            intercambios[i] = Memoria.parsearTamano(valoresIntercambio[i]);
+        }
+        this.disco = ModeloDisco.porNombre(propiedades.getProperty("disco", "ssd").trim());
+        String[] valoresNucleos = lista(propiedades, "nucleos", "0");
+        this.nucleos = new int[valoresNucleos.length];
+        for (int i = 0; i < valoresNucleos.length; i++) {
+            nucleos[i] = Integer.parseInt(valoresNucleos[i]);
+            if (nucleos[i] < 0) {
+                throw new IllegalArgumentException("El número de núcleos no puede ser negativo: " + valoresNucleos[i]);
+            }
+        }
+        this.planificadores = lista(propiedades, "planificador", "rr");
+        this.quantum = Long.parseLong(propiedades.getProperty("quantum", "100").trim());
+        this.cambioContexto = Long.parseLong(propiedades.getProperty("cambio_contexto", "1").trim());
+        this.maxListos = Integer.parseInt(propiedades.getProperty("max_listos", "0").trim());
+        String perfil = propiedades.getProperty("perfil_memoria");
+        this.perfilMemoria = perfil == null ? null : PerfilMemoria.porNombre(perfil.trim());
+        this.intervaloMemoria = Long.parseLong(propiedades.getProperty("intervalo_memoria", "500").trim());
+        if (perfilMemoria == null) {
+            // Sin perfil la reacción no cuenta: una sola configuración.
+            this.reaccionesSinMemoria = new MotorDeEventos.SinMemoria[] {null};
+        } else {
+            String[] valoresReaccion = lista(propiedades, "sin_memoria", "bloquear");
+            this.reaccionesSinMemoria = new MotorDeEventos.SinMemoria[valoresReaccion.length];
+            for (int i = 0; i < valoresReaccion.length; i++) {
+                reaccionesSinMemoria[i] = MotorDeEventos.SinMemoria.porNombre(valoresReaccion[i]);
+            }
+        }
+    }
+
+    /**
+     * Lee una carga de trabajo de un archivo de propiedades.
+     * @param archivo El archivo.
+     * @return La carga de trabajo.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    public static CargaDeTrabajo cargar(Path archivo) throws IOException {
+        Properties propiedades = new Properties();
+        try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            propiedades.load(lector);
+        }
+        return new CargaDeTrabajo(propiedades);
+    }
+
+    private static String[] lista(Properties propiedades, String clave, String porDefecto) {
+        String[] valores = propiedades.getProperty(clave, porDefecto).split(",");
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = valores[i].trim();
+        }
+        return valores;
+    }
+
+    public int getProcesos() { return procesos; }
+    public long getSemilla() { return semilla; }
+    public ModeloDisco getDisco() { return disco; }
+    public long getQuantum() { return quantum; }
+    public long getCambioContexto() { return cambioContexto; }
+    public int getMaxListos() { return maxListos; }
+    public PerfilMemoria getPerfilMemoria() { return perfilMemoria; }
+    public long getIntervaloMemoria() { return intervaloMemoria; }
+
+    /**
+     * Devuelve todas las combinaciones del barrido (RAM × nodos × modelo ×
+     * admisión × intercambio × núcleos × planificador × reacción sin memoria).
+     * Sin núcleos el planificador no cuenta, así que esa configuración aparece
+     * una sola vez; lo mismo ocurre con la reacción sin perfil de memoria.
+     * @return La lista de configuraciones.
+     */
+    public List<Configuracion> configuraciones() {
+        List<Configuracion> lista = new ArrayList<>(rams.length * nodos.length * modelos.length
+                * admisiones.length * intercambios.length * nucleos.length * planificadores.length
+                * reaccionesSinMemoria.length);
+        for (long ram : rams) {
+            for (int n : nodos) {
+                for (String modelo : modelos) {
+                    for (String admision : admisiones) {
+                        for (long intercambio : intercambios) {
+                            for (int cpu : nucleos) {
+                                for (String planificador : planificadores) {
+                                    for (MotorDeEventos.SinMemoria reaccion : reaccionesSinMemoria) {
+                                        lista.add(new Configuracion(ram, n, modelo, admision, intercambio, cpu,
+                                                planificador, reaccion));
+                                    }
+                                    if (cpu == 0) {
+                                        break;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Crea el generador de procesos de esta carga para una memoria de un nodo.
+     * @return El generador.
+     */
+    public Generador generador() {
+        return new Generador(1);
+    }
+
+    /**
+     * Crea el generador de procesos de esta carga. Cada llamada devuelve
+     * un generador nuevo que produce la misma secuencia.
+     * @param nodos Número de nodos entre los que se reparten las afinidades.
+     * @return El generador.
+     */
+    public Generador generador(int nodos) {
+        return new Generador(nodos);
+    }
+
+    /**
+     * Genera los procesos de la carga uno a uno, con su instante de llegada,
+     * para no tener que crearlos todos de antemano.
+     */
+    public final class Generador {
+        private final Random random = new Random(semilla);
+        private final Random randomPrioridad = new Random(semilla + 1);
+        private final int nodos;
+        private int generados;
+        private long ultimaLlegada;
+
+        private Generador(int nodos) {
+            this.nodos = nodos;
+        }
+
+        public boolean hayMas() { return generados < procesos; }
+        public long getUltimaLlegada() { return ultimaLlegada; }
+
+        /**
+         * Genera el siguiente proceso y avanza el instante de llegada.
+         * @return El proceso, cuya llegada es getUltimaLlegada().
+         */
+        public Proceso siguiente() {
+            ultimaLlegada += Math.max(0, Math.round(llegada.muestra(random)));
+            long bytes = Math.max(1, Math.round(memoria.muestra(random) * Memoria.MB));
+            int segundos = (int) Math.max(0, Math.round(duracion.muestra(random)));
+            // Se extraen siempre los dos valores de la afinidad para que la secuencia
+            // de memoria y duración no dependa del número de nodos.
+            boolean conAfinidad = random.nextDouble() < afinidad;
+            int nodo = random.nextInt(nodos);
+            // El PID sale del generador y no del contador global: las configuraciones se simulan
+            // en paralelo y cada una debe ver los mismos PID en cada ejecución.
+            Proceso proceso = Proceso.conPid(Proceso.PRIMER_PID + generados, null, bytes, segundos);
+            generados++;
+            if (nodos > 1 && conAfinidad) {
+                proceso.setNodo(nodo);
+            }
+            proceso.setPrioridad((int) Math.round(prioridad.muestra(randomPrioridad)));
+            return proceso;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package simuladormemoria;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Planificación justa al estilo CFS de Linux. Cada proceso acumula un
+ * tiempo de ejecución virtual (vruntime): la CPU que ha usado dividida por
+ * su peso, que depende de su prioridad nice. Siempre se ejecuta el de menor
+ * vruntime, así que a la larga cada proceso recibe CPU en proporción a su peso.
+ *
+ * La rodaja reparte la latencia objetivo entre los procesos listos según su
+ * peso, sin bajar de una granularidad mínima. Un proceso que pasa a estar
+ * listo se coloca en el vruntime mínimo actual (para que no acapare la CPU
+ * tras esperar mucho) y expropia al que está en el núcleo si este le saca
+ * más de una granularidad de ventaja.
+ */
+public class CpuJusta implements PoliticaCpu {
+    // Peso de cada prioridad nice, de -20 a 19 (la tabla sched_prio_to_weight de Linux);
+    // cada nivel recibe un 25% más de CPU que el siguiente.
+    private static final int[] PESOS = {
+        88761, 71755, 56483, 46273, 36291, 29154, 23254, 18705, 14949, 11916,
+        9548, 7620, 6100, 4904, 3906, 3121, 2501, 1991, 1586, 1277,
+        1024, 820, 655, 526, 423, 335, 272, 215, 172, 137,
+        110, 87, 70, 56, 45, 36, 29, 23, 18, 15
+    };
+    // Peso de la prioridad 0.
+    private static final int PESO_NORMAL = 1024;
+    // El vruntime se guarda en 1/1024 de milisegundo para no perder precisión con pesos altos.
+    private static final long ESCALA = 1024;
+
+    // Procesos listos ordenados por vruntime (y PID para desempatar).
+    private final PriorityQueue<Proceso> listos = new PriorityQueue<>(
+            Comparator.comparingLong(Proceso::getVruntime).thenComparingInt(Proceso::getPid));
+    // Milisegundos en los que se quiere que todos los listos hayan pasado por la CPU.
+    private final long latencia;
+    // Rodaja mínima en milisegundos.
+    private final long granularidad;
+    // Suma de los pesos de los procesos listos.
+    private long pesoTotal;
+    // Menor vruntime visto (no decrece).
+    private long vruntimeMinimo;
+
+    /**
+     * Constructor de la política.
+     * @param latencia Latencia objetivo en milisegundos.
+     * @param granularidad Rodaja mínima en milisegundos.
+     */
+    public CpuJusta(long latencia, long granularidad) {
+        this.latencia = latencia;
+        this.granularidad = granularidad;
+    }
+
+    private static int peso(Proceso proceso) {
+        return PESOS[proceso.getPrioridad() + 20];
+    }
+
+    @Override
+    public void encolar(Proceso proceso, long ahora) {
+        proceso.setVruntime(Math.max(proceso.getVruntime(), vruntimeMinimo));
+        listos.add(proceso);
+        pesoTotal += peso(proceso);
+    }
+
+    @Override
+    public Proceso siguiente(long ahora) {
+        Proceso proceso = listos.poll();
+        if (proceso != null) {
+            pesoTotal -= peso(proceso);
+            vruntimeMinimo = Math.max(vruntimeMinimo, proceso.getVruntime());
+        }
+        return proceso;
+    }
+
+    @Override
+    public boolean quitar(Proceso proceso) {
+        if (listos.remove(proceso)) {
+            pesoTotal -= peso(proceso);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return listos.size();
+    }
+
+    @Override
+    public long rodaja(Proceso proceso) {
+        // El proceso que va a ejecutarse ya no está en la cola: su peso se suma aparte.
+        int peso = peso(proceso);
+        return Math.max(granularidad, latencia * peso / (pesoTotal + peso));
+    }
+
+    @Override
+    public void rafagaTerminada(Proceso proceso, long usado, boolean agotada) {
+        proceso.setVruntime(proceso.getVruntime() + usado * ESCALA * PESO_NORMAL / peso(proceso));
+    }
+
+    @Override
+    public boolean expropia(Proceso nuevo, Proceso actual) {
+        return actual.getVruntime() - nuevo.getVruntime() > granularidad * ESCALA;
+    }
+}
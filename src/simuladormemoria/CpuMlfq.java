@@ -0,0 +1,103 @@
+package simuladormemoria;
+
+import java.util.ArrayDeque;
+
+/**
+ * Colas multinivel realimentadas (MLFQ). Los procesos nuevos entran en el
+ * nivel 0, el de más prioridad y rodaja más corta; cada vez que uno agota
+ * su rodaja baja un nivel, donde la rodaja es el doble. Así los procesos
+ * cortos o interactivos terminan pronto y los largos acaban abajo.
+ *
+ * Para que los de abajo no sufran inanición, cada cierto tiempo todos los
+ * procesos listos vuelven al nivel 0 (impulso de prioridad). Un proceso
+ * de un nivel superior expropia a uno de un nivel inferior.
+ */
+public class CpuMlfq implements PoliticaCpu {
+    private final ArrayDeque<Proceso>[] colas;
+    private final long quantum;
+    // Milisegundos entre impulsos de prioridad y siguiente impulso.
+    private final long periodoImpulso;
+    private long proximoImpulso;
+    private int listos;
+
+    /**
+     * Constructor de la política.
+     * @param quantum Rodaja del nivel 0 en milisegundos; la del nivel i es quantum * 2^i.
+     * @param niveles Número de niveles.
+     * @param periodoImpulso Milisegundos entre impulsos de prioridad.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public CpuMlfq(long quantum, int niveles, long periodoImpulso) {
+        this.quantum = quantum;
+        this.periodoImpulso = periodoImpulso;
+        this.proximoImpulso = periodoImpulso;
+        this.colas = new ArrayDeque[niveles];
+        for (int i = 0; i < niveles; i++) {
+            colas[i] = new ArrayDeque<>();
+        }
+    }
+
+    @Override
+    public void encolar(Proceso proceso, long ahora) {
+        colas[proceso.getNivelCpu()].addLast(proceso);
+        listos++;
+    }
+
+    @Override
+    public Proceso siguiente(long ahora) {
+        if (ahora >= proximoImpulso) {
+            impulsar();
+            proximoImpulso = ahora - ahora % periodoImpulso + periodoImpulso;
+        }
+        for (ArrayDeque<Proceso> cola : colas) {
+            Proceso proceso = cola.pollFirst();
+            if (proceso != null) {
+                listos--;
+                return proceso;
+            }
+        }
+        return null;
+    }
+
+    // Devuelve todos los procesos listos al nivel 0, respetando su orden.
+    private void impulsar() {
+        for (int nivel = 1; nivel < colas.length; nivel++) {
+            Proceso proceso;
+            while ((proceso = colas[nivel].pollFirst()) != null) {
+                proceso.setNivelCpu(0);
+                colas[0].addLast(proceso);
+            }
+        }
+    }
+
+    @Override
+    public boolean quitar(Proceso proceso) {
+        if (colas[proceso.getNivelCpu()].remove(proceso)) {
+            listos--;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return listos;
+    }
+
+    @Override
+    public long rodaja(Proceso proceso) {
+        return quantum << proceso.getNivelCpu();
+    }
+
+    @Override
+    public void rafagaTerminada(Proceso proceso, long usado, boolean agotada) {
+        if (agotada && proceso.getNivelCpu() + 1 < colas.length) {
+            proceso.setNivelCpu(proceso.getNivelCpu() + 1);
+        }
+    }
+
+    @Override
+    public boolean expropia(Proceso nuevo, Proceso actual) {
+        return nuevo.getNivelCpu() < actual.getNivelCpu();
+    }
+}
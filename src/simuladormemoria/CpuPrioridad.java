@@ -0,0 +1,95 @@
+package simuladormemoria;
+
+import java.util.ArrayDeque;
+
+/**
+ * Prioridades fijas expropiativas: siempre se ejecuta el proceso listo de
+ * mayor prioridad (menor valor nice), con turno rotatorio entre los de la
+ * misma prioridad. Un proceso que pasa a estar listo expulsa del núcleo a
+ * uno de prioridad menor.
+ *
+ * Hay una cola por cada una de las 40 prioridades y una máscara de bits con
+ * las colas no vacías, así que elegir el siguiente es O(1).
+ */
+public class CpuPrioridad implements PoliticaCpu {
+    // Prioridades nice de -20 a 19.
+    private static final int NIVELES = 40;
+
+    private final ArrayDeque<Proceso>[] colas;
+    // Bit i activo si la cola de la prioridad i - 20 tiene procesos.
+    private long noVacias;
+    private int listos;
+    private final long quantum;
+
+    /**
+     * Constructor de la política.
+     * @param quantum Rodaja en milisegundos.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public CpuPrioridad(long quantum) {
+        this.quantum = quantum;
+        this.colas = new ArrayDeque[NIVELES];
+        for (int i = 0; i < NIVELES; i++) {
+            colas[i] = new ArrayDeque<>();
+        }
+    }
+
+    private static int nivel(Proceso proceso) {
+        return proceso.getPrioridad() + 20;
+    }
+
+    @Override
+    public void encolar(Proceso proceso, long ahora) {
+        int nivel = nivel(proceso);
+        colas[nivel].addLast(proceso);
+        noVacias |= 1L << nivel;
+        listos++;
+    }
+
+    @Override
+    public Proceso siguiente(long ahora) {
+        if (noVacias == 0) {
+            return null;
+        }
+        int nivel = Long.numberOfTrailingZeros(noVacias);
+        Proceso proceso = colas[nivel].pollFirst();
+        if (colas[nivel].isEmpty()) {
+            noVacias &= ~(1L << nivel);
+        }
+        listos--;
+        return proceso;
+    }
+
+    @Override
+    public boolean quitar(Proceso proceso) {
+        int nivel = nivel(proceso);
+        if (!colas[nivel].remove(proceso)) {
+            return false;
+        }
+        if (colas[nivel].isEmpty()) {
+            noVacias &= ~(1L << nivel);
+        }
+        listos--;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return listos;
+    }
+
+    @Override
+    public long rodaja(Proceso proceso) {
+        return quantum;
+    }
+
+    @Override
+    public void rafagaTerminada(Proceso proceso, long usado, boolean agotada) {
+        // Las prioridades son fijas.
+    }
+
+    @Override
+    public boolean expropia(Proceso nuevo, Proceso actual) {
+        return nuevo.getPrioridad() < actual.getPrioridad();
+    }
+}
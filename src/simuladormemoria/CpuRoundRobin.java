@@ -0,0 +1,56 @@
+package simuladormemoria;
+
+import java.util.ArrayDeque;
+
+/**
+ * Turno rotatorio (Round Robin): una única cola FIFO y la misma rodaja para
+ * todos. Un proceso que agota su rodaja vuelve al final de la cola; nadie
+ * expropia a nadie al llegar.
+ */
+public class CpuRoundRobin implements PoliticaCpu {
+    private final ArrayDeque<Proceso> listos = new ArrayDeque<>();
+    private final long quantum;
+
+    /**
+     * Constructor de la política.
+     * @param quantum Rodaja en milisegundos.
+     */
+    public CpuRoundRobin(long quantum) {
+        this.quantum = quantum;
+    }
+
+    @Override
+    public void encolar(Proceso proceso, long ahora) {
+        listos.addLast(proceso);
+    }
+
+    @Override
+    public Proceso siguiente(long ahora) {
+        return listos.pollFirst();
+    }
+
+    @Override
+    public boolean quitar(Proceso proceso) {
+        return listos.remove(proceso);
+    }
+
+    @Override
+    public int size() {
+        return listos.size();
+    }
+
+    @Override
+    public long rodaja(Proceso proceso) {
+        return quantum;
+    }
+
+    @Override
+    public void rafagaTerminada(Proceso proceso, long usado, boolean agotada) {
+        // Round Robin no guarda historia.
+    }
+
+    @Override
+    public boolean expropia(Proceso nuevo, Proceso actual) {
+        return false;
+    }
+}
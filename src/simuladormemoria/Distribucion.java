@@ -0,0 +1,66 @@
+package simuladormemoria;
+
+import java.util.Random;
+
+/**
+ * La interfaz Distribucion genera valores aleatorios para las cargas de
+ * trabajo declarativas: tiempos entre llegadas, memoria y duración de los
+ * procesos. Se escribe en los archivos de carga como "nombre(parámetros)",
+ * por ejemplo "exponencial(1000)" o "uniforme(50,450)".
+ */
+public interface Distribucion {
+
+    /**
+     * Extrae un valor de la distribución.
+     * @param random Generador aleatorio (con semilla, para que la carga sea reproducible).
+     * @return El valor extraído.
+     */
+    double muestra(Random random);
+
+    /**
+     * Crea una distribución a partir de su descripción.
+     * @param descripcion "constante(v)", "uniforme(min,max)", "exponencial(media)",
+     *                    "normal(media,desviacion)" o un número (equivale a constante).
+     * @return La distribución correspondiente.
+     */
+    static Distribucion porNombre(String descripcion) {
+        String texto = descripcion.trim();
+        int parentesis = texto.indexOf('(');
+        if (parentesis < 0) {
+            double valor = Double.parseDouble(texto);
+            return random -> valor;
+        }
+        if (!texto.endsWith(")")) {
+            throw new IllegalArgumentException("Distribución mal escrita: " + descripcion);
+        }
+        String nombre = texto.substring(0, parentesis).trim();
+        String[] partes = texto.substring(parentesis + 1, texto.length() - 1).split(",");
+        double[] p = new double[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            p[i] = Double.parseDouble(partes[i].trim());
+        }
+        switch (nombre) {
+            case "constante":
+                comprobarParametros(descripcion, p, 1);
+                return random -> p[0];
+            case "uniforme":
+                comprobarParametros(descripcion, p, 2);
+                return random -> p[0] + random.nextDouble() * (p[1] - p[0]);
+            case "exponencial":
+                comprobarParametros(descripcion, p, 1);
+                // Inversión de la función de distribución: -media * ln(1 - u).
+                return random -> -p[0] * Math.log(1 - random.nextDouble());
+            case "normal":
+                comprobarParametros(descripcion, p, 2);
+                return random -> p[0] + random.nextGaussian() * p[1];
+            default:
+                throw new IllegalArgumentException("Distribución desconocida: " + descripcion);
+        }
+    }
+
+    private static void comprobarParametros(String descripcion, double[] parametros, int esperados) {
+        if (parametros.length != esperados) {
+            throw new IllegalArgumentException("La distribución " + descripcion + " necesita " + esperados + " parámetro(s)");
+        }
+    }
+}
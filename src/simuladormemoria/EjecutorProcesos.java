@@ -0,0 +1,117 @@
+package simuladormemoria;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * La clase EjecutorProcesos es el backend que ejecuta los ProcesoExecutor
+ * de los procesos admitidos. Permite elegir entre un hilo de plataforma por
+ * proceso (el comportamiento original), un hilo virtual por proceso o un
+ * ThreadPoolExecutor acotado, y ofrece un apagado ordenado que interrumpe
+ * los procesos en ejecución para que liberen su memoria.
+ */
+public class EjecutorProcesos {
+
+    /**
+     * Modos de ejecución disponibles.
+     */
+    public enum Modo {
+        // Un hilo de plataforma (del sistema operativo) por proceso.
+        HILO_PLATAFORMA,
+        // Un hilo virtual por proceso: bloquear en sleep no ocupa un hilo del sistema.
+        HILO_VIRTUAL,
+        // Un número fijo de hilos; los procesos sobrantes esperan turno en la cola del pool.
+        POOL_ACOTADO
+    }
+
+    // Modo con el que se creó el ejecutor.
+    private final Modo modo;
+    // Servicio de ejecución subyacente.
+    private final ExecutorService servicio;
+
+    /**
+     * Crea un ejecutor en el modo indicado.
+     * @param modo Modo de ejecución.
+     * @param hilosPool Número de hilos del pool (solo se usa en POOL_ACOTADO).
+     */
+    public EjecutorProcesos(Modo modo, int hilosPool) {
+        this.modo = modo;
+        switch (modo) {
+            case HILO_PLATAFORMA:
+                this.servicio = Executors.newThreadPerTaskExecutor(Thread.ofPlatform().name("proceso-", 0).factory());
+                break;
+            case HILO_VIRTUAL:
+                this.servicio = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("proceso-", 0).factory());
+                break;
+            default:
+                this.servicio = new ThreadPoolExecutor(hilosPool, hilosPool, 0L, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(), Thread.ofPlatform().name("proceso-", 0).factory());
+                break;
+        }
+    }
+
+    /**
+     * Crea un ejecutor a partir del nombre de su modo.
+     * @param nombre "plataforma", "virtual" o "pool" (con un hilo por núcleo).
+     * @return Un nuevo ejecutor.
+     */
+    public static EjecutorProcesos porNombre(String nombre) {
+        switch (nombre) {
+            case "plataforma": return new EjecutorProcesos(Modo.HILO_PLATAFORMA, 0);
+            case "virtual": return new EjecutorProcesos(Modo.HILO_VIRTUAL, 0);
+            case "pool": return new EjecutorProcesos(Modo.POOL_ACOTADO, Runtime.getRuntime().availableProcessors());
+            default: throw new IllegalArgumentException("Modo de ejecución desconocido: " + nombre);
+        }
+    }
+
+    public Modo getModo() { return modo; }
+
+    /**
+     * Lanza la ejecución de un proceso.
+     * @param tarea El ProcesoExecutor del proceso.
+     * @throws java.util.concurrent.RejectedExecutionException Si el ejecutor ya se apagó.
+     */
+    public void ejecutar(Runnable tarea) {
+        servicio.execute(tarea);
+    }
+
+    /**
+     * Indica si se ha iniciado el apagado.
+     * @return true si ya no se aceptan procesos nuevos.
+     */
+    public boolean estaApagado() {
+        return servicio.isShutdown();
+    }
+
+    /**
+     * Apagado ordenado: deja de aceptar procesos, interrumpe los que están en
+     * ejecución (su bloque finally libera la memoria), cancela los que aún
+     * esperaban turno en el pool y espera a que terminen.
+     * @param esperaMaxima Milisegundos máximos de espera.
+     * @return true si todos los procesos terminaron dentro del plazo.
+     * @throws InterruptedException Si el hilo que apaga es interrumpido.
+     */
+    public boolean apagar(long esperaMaxima) throws InterruptedException {
+        for (Runnable pendiente : servicio.shutdownNow()) {
+            if (pendiente instanceof ProcesoExecutor) {
+                ((ProcesoExecutor) pendiente).cancelar();
+            }
+        }
+        return servicio.awaitTermination(esperaMaxima, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Mide el coste actual de la JVM: hilos de plataforma vivos y heap usado.
+     * @return Un resumen legible del coste.
+     */
+    public static String medirCoste() {
+        Runtime runtime = Runtime.getRuntime();
+        long heapUsado = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+        return String.format("Hilos de plataforma: %d | Heap usado: %d MB | Heap reservado: %d MB",
+                ManagementFactory.getThreadMXBean().getThreadCount(), heapUsado, runtime.totalMemory() >> 20);
+    }
+}
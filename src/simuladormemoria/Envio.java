@@ -0,0 +1,52 @@
+package simuladormemoria;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Un proceso enviado al gestor con GestorDeProcesos.enviar y los futuros que
+ * siguen su ciclo de vida: el de inicio se completa cuando el proceso empieza
+ * a ejecutarse y el de fin cuando termina y ha liberado su memoria. Si el
+ * proceso se rechaza, se descarta de la cola de espera o se cancela, los dos
+ * se completan con la excepción correspondiente (RejectedExecutionException
+ * o CancellationException). Si el apagado lo interrumpe a mitad de su
+ * ejecución, el de fin se completa con CancellationException.
+ *
+ * Las acciones encadenadas a los futuros sin la variante Async se ejecutan
+ * en el hilo que los completa (el del proceso o el planificador de admisión),
+ * así que deben ser breves.
+ */
+public class Envio {
+    private final Proceso proceso;
+    private final CompletableFuture<Proceso> inicio = new CompletableFuture<>();
+    private final CompletableFuture<Proceso> fin = new CompletableFuture<>();
+
+    /**
+     * Crea el envío de un proceso.
+     * @param proceso El proceso enviado.
+     */
+    Envio(Proceso proceso) {
+        this.proceso = proceso;
+    }
+
+    public Proceso getProceso() { return proceso; }
+    public CompletableFuture<Proceso> getInicio() { return inicio; }
+    public CompletableFuture<Proceso> getFin() { return fin; }
+
+    void iniciado() {
+        inicio.complete(proceso);
+    }
+
+    void finalizado() {
+        inicio.complete(proceso);
+        fin.complete(proceso);
+    }
+
+    /**
+     * Completa los dos futuros con un error: el proceso no llegará a ejecutarse.
+     * @param causa La excepción con la que se completan.
+     */
+    void fallido(RuntimeException causa) {
+        inicio.completeExceptionally(causa);
+        fin.completeExceptionally(causa);
+    }
+}
@@ -0,0 +1,44 @@
+package simuladormemoria;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mide la latencia de admisión: el tiempo que pasa desde que se libera la
+ * memoria que despierta al planificador hasta que el proceso admitido
+ * empieza a ejecutarse.
+ */
+public class EstadisticasAdmision {
+    // Número de procesos admitidos desde la cola de espera.
+    private final LongAdder admisiones = new LongAdder();
+    // Suma y máximo de las latencias, en nanosegundos.
+    private final LongAdder nanosTotales = new LongAdder();
+    private final LongAccumulator nanosMaximo = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra la latencia de una admisión.
+     * @param nanos Nanosegundos desde la liberación hasta el inicio del proceso.
+     */
+    public void registrar(long nanos) {
+        admisiones.increment();
+        nanosTotales.add(nanos);
+        nanosMaximo.accumulate(nanos);
+    }
+
+    public long getAdmisiones() { return admisiones.sum(); }
+    public long getNanosMaximo() { return nanosMaximo.get(); }
+
+    /**
+     * @return La latencia media de admisión en nanosegundos.
+     */
+    public double getNanosMedia() {
+        long total = admisiones.sum();
+        return total == 0 ? 0.0 : (double) nanosTotales.sum() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Admisiones desde la cola: %d | Latencia media: %.1f µs | Máxima: %.1f µs",
+                getAdmisiones(), getNanosMedia() / 1000, getNanosMaximo() / 1000.0);
+    }
+}
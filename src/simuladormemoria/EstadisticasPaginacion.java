@@ -0,0 +1,67 @@
+package simuladormemoria;
+
+/**
+ * Contadores de la memoria paginada: accesos, aciertos de TLB, fallos de
+ * página y tiempo total de acceso. Se usan tanto por proceso (en cada
+ * TablaPaginas) como de forma global (en el AsignadorPaginado).
+ */
+public class EstadisticasPaginacion {
+    // Número total de accesos a memoria.
+    private long accesos;
+    // Accesos resueltos por la TLB.
+    private long aciertosTlb;
+    // Accesos que provocaron un fallo de página.
+    private long fallos;
+    // Suma del tiempo de todos los accesos, en nanosegundos simulados.
+    private long nanos;
+
+    /**
+     * Registra un acceso.
+     * @param aciertoTlb true si la TLB contenía la traducción.
+     * @param fallo true si la página no estaba residente.
+     * @param nanos Tiempo simulado del acceso.
+     */
+    void registrar(boolean aciertoTlb, boolean fallo, long nanos) {
+        accesos++;
+        if (aciertoTlb) {
+            aciertosTlb++;
+        }
+        if (fallo) {
+            fallos++;
+        }
+        this.nanos += nanos;
+    }
+
+    // Getters
+    public long getAccesos() { return accesos; }
+    public long getAciertosTlb() { return aciertosTlb; }
+    public long getFallosTlb() { return accesos - aciertosTlb; }
+    public long getFallos() { return fallos; }
+
+    /**
+     * @return La fracción de accesos que provocaron fallo de página.
+     */
+    public double getTasaFallos() {
+        return accesos == 0 ? 0.0 : (double) fallos / accesos;
+    }
+
+    /**
+     * @return La fracción de accesos resueltos por la TLB.
+     */
+    public double getTasaAciertosTlb() {
+        return accesos == 0 ? 0.0 : (double) aciertosTlb / accesos;
+    }
+
+    /**
+     * @return El tiempo de acceso efectivo medio en nanosegundos.
+     */
+    public double getTiempoAccesoEfectivo() {
+        return accesos == 0 ? 0.0 : (double) nanos / accesos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Accesos: %d | TLB: %.1f%% | Fallos: %d (%.2f%%) | EAT: %.1f ns",
+                accesos, getTasaAciertosTlb() * 100, fallos, getTasaFallos() * 100, getTiempoAccesoEfectivo());
+    }
+}
@@ -0,0 +1,79 @@
+package simuladormemoria;
+
+/**
+ * La clase Evento representa un suceso con marca de tiempo dentro del
+ * motor de eventos discretos (llegada, asignación, ráfaga de accesos,
+ * fin de una operación de intercambio, fin de una ráfaga de CPU,
+ * petición de memoria o finalización de un proceso).
+ * Los eventos se ordenan por tiempo y, en caso de empate, por orden de creación,
+ * lo que garantiza un orden total y reproducible.
+ */
+public class Evento implements Comparable<Evento> {
+
+    /**
+     * Tipos de evento que entiende el motor de simulación.
+     */
+    public enum Tipo {
+        // El proceso llega al sistema y solicita memoria.
+        LLEGADA,
+        // El proceso ya tiene memoria reservada y comienza su ejecución.
+        ASIGNACION,
+        // El proceso en ejecución emite una ráfaga de referencias a memoria.
+        ACCESOS,
+        // El proceso termina y libera su memoria.
+        FINALIZACION,
+        // Termina la escritura del proceso en el área de intercambio: su memoria queda libre.
+        SALIDA_DISCO,
+        // Termina la lectura del proceso desde el área de intercambio: continúa su ejecución.
+        ENTRADA_DISCO,
+        // Termina la ráfaga de CPU de un proceso en un núcleo (ver PlanificadorCpu).
+        FIN_RAFAGA,
+        // El proceso en ejecución pide o devuelve memoria según su perfil (ver PerfilMemoria).
+        PETICION_MEMORIA
+    }
+
+    // Instante (en milisegundos virtuales) en que ocurre el evento.
+    private final long tiempo;
+    // Número de secuencia para desempatar eventos con el mismo tiempo.
+    private final long secuencia;
+    // Tipo del evento.
+    private final Tipo tipo;
+    // Proceso al que se refiere el evento.
+    private final Proceso proceso;
+
+    /**
+     * Constructor del evento.
+     * @param tiempo El instante del evento en milisegundos virtuales.
+     * @param secuencia El número de secuencia asignado por el motor.
+     * @param tipo El tipo de evento.
+     * @param proceso El proceso afectado.
+     */
+    public Evento(long tiempo, long secuencia, Tipo tipo, Proceso proceso) {
+        this.tiempo = tiempo;
+        this.secuencia = secuencia;
+        this.tipo = tipo;
+        this.proceso = proceso;
+    }
+
+    // Getters
+    public long getTiempo() { return tiempo; }
+    public long getSecuencia() { return secuencia; }
+    public Tipo getTipo() { return tipo; }
+    public Proceso getProceso() { return proceso; }
+
+    /**
+     * Compara dos eventos: primero por tiempo y luego por secuencia.
+     * @param otro El evento con el que se compara.
+     * @return Un valor negativo, cero o positivo según el orden.
+     */
+    @Override
+    public int compareTo(Evento otro) {
+        int porTiempo = Long.compare(tiempo, otro.tiempo);
+        return porTiempo != 0 ? porTiempo : Long.compare(secuencia, otro.secuencia);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("t=%d #%d %s PID %d", tiempo, secuencia, tipo, proceso.getPid());
+    }
+}
@@ -0,0 +1,21 @@
+package simuladormemoria;
+
+/**
+ * Un flujo de referencias a memoria de un proceso: la secuencia de
+ * direcciones virtuales (en bytes, relativas al inicio de su espacio)
+ * que el proceso accede mientras se ejecuta.
+ */
+public interface FlujoReferencias {
+
+    /**
+     * Indica si quedan referencias en el flujo.
+     * @return true si se puede llamar a siguiente().
+     */
+    boolean hayMas();
+
+    /**
+     * Devuelve la siguiente dirección virtual accedida.
+     * @return La dirección en bytes.
+     */
+    long siguiente();
+}
@@ -0,0 +1,169 @@
+package simuladormemoria;
+
+import java.util.Random;
+
+/**
+ * Genera flujos de referencias sintéticos a partir de modelos de localidad:
+ * recorrido secuencial, popularidad Zipf y fases de conjunto de trabajo.
+ * Los flujos generados son infinitos y reproducibles a partir de su semilla.
+ */
+public abstract class GeneradorReferencias implements FlujoReferencias {
+    // Granularidad de los bloques que usan los modelos Zipf y de fases (4 KB).
+    static final int BLOQUE = 4096;
+
+    // Tamaño del espacio de direcciones del proceso, en bytes.
+    protected final long tamanoEspacio;
+    // Generador pseudoaleatorio del flujo.
+    protected final Random random;
+
+    protected GeneradorReferencias(long tamanoEspacio, long semilla) {
+        if (tamanoEspacio < BLOQUE) {
+            throw new IllegalArgumentException("Espacio de direcciones demasiado pequeño: " + tamanoEspacio);
+        }
+        this.tamanoEspacio = tamanoEspacio;
+        this.random = new Random(semilla);
+    }
+
+    @Override
+    public boolean hayMas() {
+        return true;
+    }
+
+    /**
+     * Recorrido secuencial del espacio con un paso fijo, volviendo al principio al llegar al final.
+     * @param tamanoEspacio Tamaño del espacio en bytes.
+     * @param paso Bytes entre referencias consecutivas.
+     * @return Un nuevo flujo secuencial.
+     */
+    public static GeneradorReferencias secuencial(long tamanoEspacio, int paso) {
+        return new GeneradorReferencias(tamanoEspacio, 0) {
+            private long actual = -paso;
+
+            @Override
+            public long siguiente() {
+                actual += paso;
+                if (actual >= this.tamanoEspacio) {
+                    actual = 0;
+                }
+                return actual;
+            }
+        };
+    }
+
+    /**
+     * Popularidad Zipf sobre los bloques de 4 KB del espacio: el bloque de
+     * rango k se accede con probabilidad proporcional a 1/k^exponente.
+     * @param tamanoEspacio Tamaño del espacio en bytes.
+     * @param exponente Exponente de la distribución (mayor = más localidad).
+     * @param semilla Semilla del generador.
+     * @return Un nuevo flujo Zipf.
+     */
+    public static GeneradorReferencias zipf(long tamanoEspacio, double exponente, long semilla) {
+        return new Zipf(tamanoEspacio, exponente, semilla);
+    }
+
+    /**
+     * Fases de conjunto de trabajo: durante cada fase se accede de forma
+     * uniforme a una ventana contigua de bloques; al acabar la fase la
+     * ventana salta a otra posición aleatoria.
+     * @param tamanoEspacio Tamaño del espacio en bytes.
+     * @param bloquesConjunto Tamaño del conjunto de trabajo en bloques de 4 KB.
+     * @param longitudFase Referencias que dura cada fase.
+     * @param semilla Semilla del generador.
+     * @return Un nuevo flujo por fases.
+     */
+    public static GeneradorReferencias fases(long tamanoEspacio, int bloquesConjunto, int longitudFase, long semilla) {
+        return new GeneradorReferencias(tamanoEspacio, semilla) {
+            private final long bloques = this.tamanoEspacio / BLOQUE;
+            private final long ventana = Math.min(bloquesConjunto, bloques);
+            private long base;
+            private int restantesFase;
+
+            @Override
+            public long siguiente() {
+                if (restantesFase-- == 0) {
+                    // Nueva fase: la ventana se mueve a otra zona del espacio.
+                    base = (long) (this.random.nextDouble() * (bloques - ventana + 1));
+                    restantesFase = longitudFase - 1;
+                }
+                long bloque = base + (long) (this.random.nextDouble() * ventana);
+                return bloque * BLOQUE + this.random.nextInt(BLOQUE);
+            }
+        };
+    }
+
+    /**
+     * Crea un generador a partir del nombre de su modelo con parámetros por defecto.
+     * @param modelo "secuencial", "zipf" o "fases".
+     * @param tamanoEspacio Tamaño del espacio en bytes.
+     * @param semilla Semilla del generador.
+     * @return Un nuevo flujo del modelo indicado.
+     */
+    public static GeneradorReferencias porNombre(String modelo, long tamanoEspacio, long semilla) {
+        switch (modelo) {
+            case "secuencial": return secuencial(tamanoEspacio, 64);
+            case "zipf": return zipf(tamanoEspacio, 1.0, semilla);
+            case "fases": return fases(tamanoEspacio, 1024, 10_000, semilla);
+            default: throw new IllegalArgumentException("Modelo de referencias desconocido: " + modelo);
+        }
+    }
+
+    /**
+     * Muestreo Zipf por rechazo-inversión (Hörmann y Derflinger): coste O(1)
+     * por muestra y sin tablas, lo que permite espacios con millones de bloques.
+     */
+    private static class Zipf extends GeneradorReferencias {
+        private final long bloques;
+        private final double exponente;
+        private final double hIntegralX1;
+        private final double hIntegralN;
+        private final double s;
+
+        Zipf(long tamanoEspacio, double exponente, long semilla) {
+            super(tamanoEspacio, semilla);
+            this.bloques = tamanoEspacio / BLOQUE;
+            this.exponente = exponente;
+            this.hIntegralX1 = hIntegral(1.5) - 1.0;
+            this.hIntegralN = hIntegral(bloques + 0.5);
+            this.s = 2.0 - hIntegralInversa(hIntegral(2.5) - h(2.0));
+        }
+
+        @Override
+        public long siguiente() {
+            long rango;
+            while (true) {
+                double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+                double x = hIntegralInversa(u);
+                rango = Math.min(Math.max((long) (x + 0.5), 1), bloques);
+                if (rango - x <= s || u >= hIntegral(rango + 0.5) - h(rango)) {
+                    break;
+                }
+            }
+            return (rango - 1) * BLOQUE + random.nextInt(BLOQUE);
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponente * Math.log(x));
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return auxiliar2((1.0 - exponente) * logX) * logX;
+        }
+
+        private double hIntegralInversa(double x) {
+            double t = Math.max(x * (1.0 - exponente), -1.0);
+            return Math.exp(auxiliar1(t) * x);
+        }
+
+        // log(1 + x) / x, estable cerca de 0.
+        private static double auxiliar1(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+        }
+
+        // (exp(x) - 1) / x, estable cerca de 0.
+        private static double auxiliar2(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+        }
+    }
+}
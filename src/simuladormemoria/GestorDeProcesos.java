@@ -1,17 +1,56 @@
 package simuladormemoria;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * La clase GestorDeProcesos maneja el ciclo de vida de los procesos,
  * desde su creación hasta su finalización. Implementa la interfaz Runnable
- * para ejecutarse en un hilo separado, monitorizando la cola de espera de
- * procesos.
+ * para ejecutarse en un hilo separado que actúa como planificador de
+ * admisión de la cola de espera.
  */
 public class GestorDeProcesos implements Runnable {
+
+    /**
+     * Qué hacer cuando un proceso debe esperar y la cola de espera está llena.
+     */
+    public enum Contrapresion {
+        // Quien envía el proceso espera a que haya sitio en la cola.
+        BLOQUEAR,
+        // El proceso que llega se rechaza.
+        RECHAZAR,
+        // Se descarta el proceso de menos prioridad de la cola o, si lo es, el que llega.
+        DESCARTAR;
+
+        /**
+         * Crea una contrapresión a partir de su nombre.
+         * @param nombre "bloquear", "rechazar" o "descartar".
+         * @return La contrapresión.
+         */
+        public static Contrapresion porNombre(String nombre) {
+            switch (nombre) {
+                case "bloquear": return BLOQUEAR;
+                case "rechazar": return RECHAZAR;
+                case "descartar": return DESCARTAR;
+                default: throw new IllegalArgumentException("Contrapresión desconocida: " + nombre);
+            }
+        }
+    }
+
+    // Orden de prioridad para descartar: el mayor es el de menos prioridad (el nice
+    // más alto) y, a igualdad, el que llegó después.
+    private static final Comparator<Proceso> MENOS_PRIORITARIO =
+            Comparator.comparingInt(Proceso::getPrioridad).thenComparingInt(Proceso::getPid);
+
     // Referencia a la memoria del sistema para asignar y liberar espacio.
     private final Memoria memoria;
     // Monitor para registrar y visualizar los eventos del sistema.
@@ -19,57 +58,425 @@ public class GestorDeProcesos implements Runnable {
     // Cola de espera de procesos. Utiliza una BlockingQueue para manejar
     // de forma segura los procesos en un entorno concurrente.
     private final BlockingQueue<Proceso> colaEspera;
-    // Mapa de procesos que están actualmente en ejecución.
-    // ConcurrentMap garantiza que múltiples hilos puedan acceder y modificar
-    // este mapa de forma segura.
-    private final ConcurrentMap<Integer, Proceso> procesosEnEjecucion;
+    // Tabla de procesos que están actualmente en ejecución, indexada por PID.
+    // Sus métodos son synchronized, así que varios hilos pueden modificarla.
+    private final TablaProcesos procesosEnEjecucion;
+    // Backend que ejecuta los procesos admitidos (hilos virtuales, pool, etc.).
+    private final EjecutorProcesos ejecutor;
+    // Política que decide qué procesos de la cola se admiten al liberar memoria.
+    private PoliticaAdmision politica;
+    // Cerrojo y condición con los que se despierta al planificador de admisión.
+    private final ReentrantLock cerrojo;
+    private final Condition hayCambios;
+    // Indica si hay un aviso sin atender e instante (System.nanoTime) del primero.
+    private boolean avisoPendiente;
+    private long primerAviso;
+    // Latencias desde la liberación de memoria hasta el inicio del proceso admitido.
+    private final EstadisticasAdmision estadisticasAdmision;
+    // Métricas del ciclo de vida de los procesos (desactivadas por defecto).
+    private Metricas metricas = Metricas.DESACTIVADAS;
+    // Planificador de CPU de los procesos admitidos (null = sin modelo de CPU).
+    // Solo lo usa el motor de eventos; los hilos siguen durmiendo su duración.
+    private PlanificadorCpu cpu;
+    // Límite de la cola de espera y qué hacer al alcanzarlo (por defecto, sin límite).
+    private int limiteCola = Integer.MAX_VALUE;
+    private Contrapresion contrapresion = Contrapresion.BLOQUEAR;
+    // Cerrojo con el que se encola respetando el límite y condición de que la cola tiene sitio.
+    private final ReentrantLock cerrojoCola = new ReentrantLock();
+    private final Condition hayHueco = cerrojoCola.newCondition();
+    // Envíos de los procesos que esperan en la cola, por PID, para completar sus futuros al admitirlos.
+    private final ConcurrentHashMap<Integer, Envio> enviosEnCola = new ConcurrentHashMap<>();
+    // Procesos rechazados con la cola llena, descartados por prioridad y esperas por sitio en la cola.
+    private final LongAdder rechazadosColaLlena = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder esperasColaLlena = new LongAdder();
+    // Si los procesos imprimen una línea en la consola al iniciarse.
+    private volatile boolean ecoConsola = true;
+    // true desde que empieza el apagado: no se admite ni encola nada más.
+    private volatile boolean cerrado;
 
     /**
      * Constructor para inicializar el gestor de procesos.
+     * Los procesos se ejecutan en un hilo virtual cada uno y la cola de
+     * espera se atiende en orden FIFO.
      *
      * @param memoria Objeto Memoria para la gestión de la memoria.
-     * @param monitor Objeto Monitor para el registro de eventos.
+     * @param monitor Objeto Monitor para el registro de eventos, o null para no registrarlos.
      */
     public GestorDeProcesos(Memoria memoria, Monitor monitor) {
+        this(memoria, monitor, new EjecutorProcesos(EjecutorProcesos.Modo.HILO_VIRTUAL, 0));
+    }
+
+    /**
+     * Constructor con un backend de ejecución concreto y admisión FIFO.
+     *
+     * @param memoria Objeto Memoria para la gestión de la memoria.
+     * @param monitor Objeto Monitor para el registro de eventos, o null para no registrarlos.
+     * @param ejecutor Backend que ejecutará los procesos admitidos.
+     */
+    public GestorDeProcesos(Memoria memoria, Monitor monitor, EjecutorProcesos ejecutor) {
+        this(memoria, monitor, ejecutor, PoliticaAdmision.FIFO);
+    }
+
+    /**
+     * Constructor con un backend de ejecución y una política de admisión concretos.
+     *
+     * @param memoria Objeto Memoria para la gestión de la memoria.
+     * @param monitor Objeto Monitor para el registro de eventos, o null para no registrarlos.
+     * @param ejecutor Backend que ejecutará los procesos admitidos.
+     * @param politica Política con la que se admiten los procesos de la cola de espera.
+     */
+    public GestorDeProcesos(Memoria memoria, Monitor monitor, EjecutorProcesos ejecutor, PoliticaAdmision politica) {
         this.memoria = memoria;
         this.monitor = monitor;
-        this.colaEspera = new LinkedBlockingQueue<>();
-        this.procesosEnEjecucion = new ConcurrentHashMap<>();
+        this.politica = politica;
+        // La política decide el orden de la cola de espera.
+        this.colaEspera = politica.crearCola();
+        this.procesosEnEjecucion = new TablaProcesos();
+        this.ejecutor = ejecutor;
+        this.cerrojo = new ReentrantLock();
+        this.hayCambios = cerrojo.newCondition();
+        this.estadisticasAdmision = new EstadisticasAdmision();
+        // Cada liberación de memoria despierta al planificador si hay procesos esperando.
+        // Sin nadie en cola no se toma el cerrojo, para no serializar las liberaciones;
+        // un proceso que se encola después avisa por sí mismo.
+        memoria.agregarOyenteLiberacion(() -> {
+            if (!colaEspera.isEmpty()) {
+                avisarPlanificador();
+            }
+        });
     }
 
     /**
      * Método para agregar un nuevo proceso al sistema.
-     * Intenta asignar memoria al proceso. Si hay suficiente, lo inicia.
-     * De lo contrario, lo envía a la cola de espera.
+     * Intenta asignar memoria al proceso. Si hay suficiente y nadie espera
+     * antes que él, lo inicia. De lo contrario, lo envía a la cola de espera.
      *
      * @param proceso El proceso a agregar.
      * @throws InterruptedException Si el hilo es interrumpido mientras espera.
      */
     public void agregarProceso(Proceso proceso) throws InterruptedException {
-        // Intenta asignar la memoria requerida por el proceso.
-        if (memoria.asignarMemoria(proceso.getMemoriaRequerida())) {
-            // Si hay memoria, cambia el estado del proceso a "En ejecución".
-            proceso.setStatus("En ejecución");
-            // Agrega el proceso al mapa de procesos en ejecución.
-            procesosEnEjecucion.put(proceso.getPid(), proceso);
-            // Crea y ejecuta un nuevo hilo para el proceso.
-            new Thread(new ProcesoExecutor(proceso, memoria, procesosEnEjecucion, monitor)).start();
-            // Registra el evento en el monitor.
-            monitor.agregarEvento("Proceso " + proceso.getNombre() + " (PID: " + proceso.getPid() + ") iniciado.");
-        } else {
-            // Si no hay memoria, agrega el proceso a la cola de espera.
-            colaEspera.put(proceso);
-            // Registra el evento de que el proceso ha sido enviado a la cola.
-            monitor.agregarEvento("No hay memoria suficiente. Proceso " + proceso.getNombre() + " (PID: " + proceso.getPid() + ") enviado a la cola.");
+        agregar(List.of(proceso), null);
+    }
+
+    /**
+     * Envía un proceso y devuelve sus futuros de inicio y fin.
+     *
+     * @param proceso El proceso a enviar.
+     * @return El envío del proceso.
+     * @throws InterruptedException Si el hilo es interrumpido mientras espera sitio en la cola.
+     */
+    public Envio enviar(Proceso proceso) throws InterruptedException {
+        return enviar(List.of(proceso)).get(0);
+    }
+
+    /**
+     * Envía un lote de procesos. Si nadie espera en la cola, los primeros
+     * que caben se asignan con una sola pasada por el asignador y se inician;
+     * el resto entra en la cola en el orden del lote, respetando el límite
+     * de la cola según la contrapresión. Los rechazados y descartados
+     * completan sus futuros con RejectedExecutionException.
+     *
+     * @param lote Los procesos, en orden de llegada.
+     * @return Un envío por proceso, en el mismo orden.
+     * @throws InterruptedException Si el hilo es interrumpido mientras espera sitio en la
+     *         cola; los procesos del lote que no llegaron a encolarse se cancelan.
+     */
+    public List<Envio> enviar(List<Proceso> lote) throws InterruptedException {
+        Envio[] envios = new Envio[lote.size()];
+        for (int i = 0; i < envios.length; i++) {
+            envios[i] = new Envio(lote.get(i));
+        }
+        agregar(lote, envios);
+        return Arrays.asList(envios);
+    }
+
+    /**
+     * Admite o encola un lote de procesos recién llegados.
+     *
+     * @param lote Los procesos.
+     * @param envios Sus envíos, o null si nadie espera sus futuros.
+     * @throws InterruptedException Si el hilo es interrumpido mientras espera sitio en la cola.
+     */
+    private void agregar(List<Proceso> lote, Envio[] envios) throws InterruptedException {
+        long ahora = System.currentTimeMillis();
+        for (Proceso proceso : lote) {
+            proceso.setTiempoLlegada(ahora);
+            metricas.llegada();
+        }
+        if (cerrado) {
+            rechazarDesde(lote, envios, 0);
+            return;
+        }
+        // Si ya hay procesos esperando, los recién llegados no se les adelantan:
+        // es la política de admisión la que decide.
+        int admitidos = colaEspera.isEmpty() ? memoria.asignarLote(lote) : 0;
+        for (int i = 0; i < admitidos; i++) {
+            iniciar(lote.get(i), null, envios == null ? null : envios[i]);
+        }
+        if (admitidos < lote.size()) {
+            // Si no hay memoria, el resto del lote va a la cola de espera.
+            encolar(lote, envios, admitidos);
+            // La memoria pudo liberarse justo antes de encolarlos: se avisa al planificador.
+            avisarPlanificador();
+        }
+    }
+
+    /**
+     * Mete en la cola de espera los procesos del lote desde el indicado,
+     * haciendo sitio según la contrapresión si la cola está llena.
+     *
+     * @param lote Los procesos.
+     * @param envios Sus envíos, o null.
+     * @param desde Primer proceso del lote que hay que encolar.
+     * @throws InterruptedException Si el hilo es interrumpido mientras espera sitio en la cola.
+     */
+    private void encolar(List<Proceso> lote, Envio[] envios, int desde) throws InterruptedException {
+        cerrojoCola.lock();
+        try {
+            for (int i = desde; i < lote.size(); i++) {
+                Proceso proceso = lote.get(i);
+                Envio envio = envios == null ? null : envios[i];
+                if (cerrado) {
+                    // El apagado ya vació la cola: lo que quede del lote no entra.
+                    rechazarDesde(lote, envios, i);
+                    return;
+                }
+                boolean haySitio;
+                try {
+                    haySitio = hacerSitio(proceso);
+                } catch (InterruptedException e) {
+                    for (int j = i; j < lote.size(); j++) {
+                        lote.get(j).setEstado(Proceso.Estado.CANCELADO);
+                        if (envios != null) {
+                            envios[j].fallido(new CancellationException("Envío interrumpido: " + lote.get(j).getPid()));
+                        }
+                    }
+                    throw e;
+                }
+                if (!haySitio && cerrado) {
+                    rechazarDesde(lote, envios, i);
+                    return;
+                }
+                if (!haySitio && contrapresion == Contrapresion.DESCARTAR) {
+                    // Ningún proceso de la cola tiene menos prioridad: se descarta el que llega.
+                    descartados.increment();
+                    rechazar(proceso, envio, RegistroEventos.Tipo.DESCARTADO);
+                    continue;
+                }
+                if (!haySitio) {
+                    rechazadosColaLlena.increment();
+                    rechazar(proceso, envio, RegistroEventos.Tipo.COLA_LLENA);
+                    continue;
+                }
+                if (envio != null) {
+                    enviosEnCola.put(proceso.getPid(), envio);
+                }
+                colaEspera.put(proceso);
+                // Registra el evento de que el proceso ha sido enviado a la cola.
+                registrar(RegistroEventos.Tipo.ENCOLADO, proceso);
+            }
+        } finally {
+            cerrojoCola.unlock();
+        }
+    }
+
+    /**
+     * Deja sitio en la cola para un proceso según la contrapresión. Se llama
+     * con el cerrojo de la cola tomado.
+     *
+     * @param proceso El proceso que quiere entrar.
+     * @return true si ya cabe; false si hay que rechazarlo.
+     * @throws InterruptedException Si el hilo es interrumpido mientras espera sitio.
+     */
+    private boolean hacerSitio(Proceso proceso) throws InterruptedException {
+        if (colaEspera.size() < limiteCola) {
+            return true;
+        }
+        if (contrapresion == Contrapresion.BLOQUEAR) {
+            esperasColaLlena.increment();
+        }
+        while (colaEspera.size() >= limiteCola) {
+            switch (contrapresion) {
+                case BLOQUEAR:
+                    hayHueco.await();
+                    if (cerrado) {
+                        return false;
+                    }
+                    break;
+                case RECHAZAR:
+                    return false;
+                default:
+                    // Recorre la cola sin copiarla: solo se hace cuando está llena.
+                    Proceso peor = null;
+                    for (Proceso candidato : colaEspera) {
+                        if (peor == null || MENOS_PRIORITARIO.compare(candidato, peor) > 0) {
+                            peor = candidato;
+                        }
+                    }
+                    if (peor != null && MENOS_PRIORITARIO.compare(peor, proceso) <= 0) {
+                        return false;
+                    }
+                    // Si el planificador lo admitió mientras tanto, ya hay sitio.
+                    if (peor != null && colaEspera.remove(peor)) {
+                        descartados.increment();
+                        rechazar(peor, enviosEnCola.remove(peor.getPid()), RegistroEventos.Tipo.DESCARTADO);
+                    }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rechaza un proceso que no llegará a ejecutarse.
+     *
+     * @param proceso El proceso.
+     * @param envio Su envío, o null.
+     * @param tipo El evento que se registra.
+     */
+    private void rechazar(Proceso proceso, Envio envio, RegistroEventos.Tipo tipo) {
+        proceso.setEstado(Proceso.Estado.RECHAZADO);
+        metricas.rechazo();
+        registrar(tipo, proceso);
+        if (envio != null) {
+            envio.fallido(new RejectedExecutionException(tipo == RegistroEventos.Tipo.DESCARTADO
+                    ? "Cola de espera llena: proceso " + proceso.getPid() + " descartado por su prioridad"
+                    : tipo == RegistroEventos.Tipo.RECHAZADO
+                    ? "Gestor apagado: proceso " + proceso.getPid() + " rechazado"
+                    : "Cola de espera llena: proceso " + proceso.getPid() + " rechazado"));
+        }
+    }
+
+    /**
+     * Rechaza los procesos del lote desde el indicado porque el gestor se está apagando.
+     *
+     * @param lote Los procesos.
+     * @param envios Sus envíos, o null.
+     * @param desde Primer proceso del lote que se rechaza.
+     */
+    private void rechazarDesde(List<Proceso> lote, Envio[] envios, int desde) {
+        for (int i = desde; i < lote.size(); i++) {
+            rechazar(lote.get(i), envios == null ? null : envios[i], RegistroEventos.Tipo.RECHAZADO);
         }
     }
 
+    /**
+     * Registra un evento en el monitor, si lo hay. Sin monitor (simulaciones
+     * masivas) no se registra nada.
+     *
+     * @param tipo El evento.
+     * @param proceso El proceso.
+     */
+    private void registrar(RegistroEventos.Tipo tipo, Proceso proceso) {
+        if (monitor != null) {
+            monitor.agregarEvento(tipo, proceso);
+        }
+    }
+
+    /**
+     * Inicia un proceso que ya tiene su memoria asignada.
+     *
+     * @param proceso El proceso a iniciar.
+     * @param liberadoEn Instante (System.nanoTime) del aviso que lo admitió,
+     *                   o null si se admitió directamente al llegar.
+     * @param envio Envío del proceso, o null si nadie espera sus futuros.
+     */
+    private void iniciar(Proceso proceso, Long liberadoEn, Envio envio) {
+        // Cambia el estado del proceso a "En ejecución".
+        proceso.setEstado(Proceso.Estado.EN_EJECUCION);
+        // Agrega el proceso a la tabla de procesos en ejecución.
+        procesosEnEjecucion.poner(proceso);
+        ProcesoExecutor executor = new ProcesoExecutor(proceso, memoria, procesosEnEjecucion, monitor);
+        if (liberadoEn != null) {
+            executor.medirAdmision(estadisticasAdmision, liberadoEn);
+        }
+        executor.setMetricas(metricas);
+        executor.setEnvio(envio);
+        executor.setEcoConsola(ecoConsola);
+        // Entrega el proceso al backend de ejecución.
+        try {
+            ejecutor.ejecutar(executor);
+        } catch (RejectedExecutionException e) {
+            // El gestor se está apagando: se deshace la admisión.
+            procesosEnEjecucion.quitar(proceso.getPid());
+            memoria.liberarMemoria(proceso);
+            proceso.setEstado(Proceso.Estado.RECHAZADO);
+            metricas.rechazo();
+            registrar(RegistroEventos.Tipo.RECHAZADO, proceso);
+            if (envio != null) {
+                envio.fallido(e);
+            }
+            return;
+        }
+        // Registra el evento en el monitor.
+        registrar(RegistroEventos.Tipo.INICIADO, proceso);
+    }
+
+    /**
+     * Despierta al planificador de admisión. Se llama cuando se libera
+     * memoria o cuando un proceso entra en la cola de espera.
+     */
+    private void avisarPlanificador() {
+        cerrojo.lock();
+        try {
+            if (!avisoPendiente) {
+                avisoPendiente = true;
+                primerAviso = System.nanoTime();
+            }
+            hayCambios.signal();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Avisa a quien espera sitio en la cola de espera de que ha salido algún proceso.
+     */
+    private void avisarHueco() {
+        cerrojoCola.lock();
+        try {
+            hayHueco.signalAll();
+        } finally {
+            cerrojoCola.unlock();
+        }
+    }
+
+    /**
+     * Limita la cola de espera. Debe llamarse antes de enviar procesos.
+     *
+     * @param limite Número máximo de procesos en la cola.
+     * @param contrapresion Qué hacer cuando un proceso debe esperar y la cola está llena.
+     */
+    public void setLimiteCola(int limite, Contrapresion contrapresion) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("El límite de la cola debe ser positivo: " + limite);
+        }
+        this.limiteCola = limite;
+        this.contrapresion = contrapresion;
+    }
+
+    public int getLimiteCola() { return limiteCola; }
+    public Contrapresion getContrapresion() { return contrapresion; }
+    public long getRechazadosColaLlena() { return rechazadosColaLlena.sum(); }
+    public long getDescartados() { return descartados.sum(); }
+    public long getEsperasColaLlena() { return esperasColaLlena.sum(); }
+
+    /**
+     * Indica si los procesos imprimen una línea en la consola al iniciarse.
+     * Con envíos masivos conviene desactivarlo.
+     *
+     * @param ecoConsola false para no imprimirla.
+     */
+    public void setEcoConsola(boolean ecoConsola) {
+        this.ecoConsola = ecoConsola;
+    }
+
     /**
      * Obtiene el mapa de procesos actualmente en ejecución.
      *
      * @return Un ConcurrentMap de procesos en ejecución.
      */
-    public ConcurrentMap<Integer, Proceso> getProcesosEnEjecucion() {
+    public TablaProcesos getProcesosEnEjecucion() {
         return procesosEnEjecucion;
     }
 
@@ -83,30 +490,163 @@ public class GestorDeProcesos implements Runnable {
     }
 
     /**
-     * El método 'run' se ejecuta en un hilo separado.
-     * En este caso, el gestor de procesos monitorea la cola de espera
-     * y, cuando un proceso está disponible, lo mueve para su ejecución.
+     * Apaga el gestor de forma ordenada. Deja de aceptar procesos (los que
+     * llegan o esperan sitio en la cola se rechazan), despierta al planificador
+     * de admisión para que su hilo termine, cancela los procesos de la cola de
+     * espera completando sus futuros con CancellationException, y apaga el
+     * backend de ejecución: interrumpe los procesos en ejecución, que liberan
+     * su memoria al terminar, y espera a que acaben.
+     *
+     * @param esperaMaxima Milisegundos máximos de espera.
+     * @return true si todos los procesos terminaron dentro del plazo.
+     * @throws InterruptedException Si el hilo es interrumpido mientras espera.
+     */
+    public boolean apagar(long esperaMaxima) throws InterruptedException {
+        cerrado = true;
+        cerrojo.lock();
+        try {
+            hayCambios.signalAll();
+        } finally {
+            cerrojo.unlock();
+        }
+        List<Proceso> pendientes = new ArrayList<>();
+        cerrojoCola.lock();
+        try {
+            // Quien espera sitio ve el cierre al despertar y rechaza su proceso.
+            hayHueco.signalAll();
+            colaEspera.drainTo(pendientes);
+        } finally {
+            cerrojoCola.unlock();
+        }
+        for (Proceso proceso : pendientes) {
+            proceso.setEstado(Proceso.Estado.CANCELADO);
+            registrar(RegistroEventos.Tipo.CANCELADO, proceso);
+            Envio envio = enviosEnCola.remove(proceso.getPid());
+            if (envio != null) {
+                envio.fallido(new CancellationException("Gestor apagado: proceso " + proceso.getPid() + " cancelado"));
+            }
+        }
+        return ejecutor.apagar(esperaMaxima);
+    }
+
+    /**
+     * Obtiene la política de admisión de la cola de espera.
+     *
+     * @return La política de admisión.
+     */
+    public PoliticaAdmision getPolitica() {
+        return politica;
+    }
+
+    /**
+     * Activa las métricas en el gestor, en sus procesos y en la memoria.
+     *
+     * @param metricas Las métricas, o Metricas.DESACTIVADAS.
+     */
+    public void setMetricas(Metricas metricas) {
+        this.metricas = metricas;
+        memoria.setMetricas(metricas);
+        if (cpu != null) {
+            cpu.setMetricas(metricas);
+        }
+    }
+
+    /**
+     * Obtiene las métricas del gestor.
+     *
+     * @return Las métricas (Metricas.DESACTIVADAS si no están activas).
+     */
+    public Metricas getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Establece el planificador de CPU con el que el motor de eventos reparte
+     * los núcleos entre los procesos admitidos. Debe llamarse antes de crear
+     * el MotorDeEventos. La política de admisión se adapta al planificador
+     * (ver PoliticaAdmision.conCpu).
+     *
+     * @param cpu El planificador, o null para no modelar la CPU.
+     */
+    public void setCpu(PlanificadorCpu cpu) {
+        this.cpu = cpu;
+        if (cpu != null) {
+            cpu.setMetricas(metricas);
+            politica = politica.conCpu(cpu);
+        }
+    }
+
+    /**
+     * Obtiene el planificador de CPU.
+     *
+     * @return El planificador, o null si no se modela la CPU.
+     */
+    public PlanificadorCpu getCpu() {
+        return cpu;
+    }
+
+    /**
+     * Devuelve cuántos procesos se pueden admitir en memoria según la
+     * profundidad de la cola de listos: admitir más procesos de los que la
+     * CPU puede atender solo ocupa memoria que otros podrían aprovechar.
+     *
+     * @param pendientes Procesos admitidos que aún no han llegado a la cola de listos.
+     * @return Las plazas (Integer.MAX_VALUE si no hay planificador de CPU o no tiene límite).
+     */
+    public int getPlazasEjecutables(int pendientes) {
+        return cpu == null ? Integer.MAX_VALUE : cpu.getPlazasListos(pendientes);
+    }
+
+    /**
+     * Obtiene las estadísticas de latencia de admisión.
+     *
+     * @return Las estadísticas de admisión.
+     */
+    public EstadisticasAdmision getEstadisticasAdmision() {
+        return estadisticasAdmision;
+    }
+
+    /**
+     * El método 'run' se ejecuta en un hilo separado y actúa como
+     * planificador de admisión: duerme hasta que se libera memoria (o llega
+     * un proceso a la cola) y entonces admite todos los procesos en espera
+     * que ahora caben, según la política de admisión. Termina al apagarse
+     * el gestor.
      */
     @Override
     public void run() {
         try {
-            // Bucle infinito para monitorear la cola de espera.
             while (true) {
-                // 'take()' es un método que bloquea el hilo hasta que
-                // un proceso esté disponible en la cola.
-                Proceso procesoCandidato = colaEspera.take();
-                // Registra el evento de que un proceso se mueve a ejecución.
-                monitor.agregarEvento("Proceso " + procesoCandidato.getNombre() + " (PID: " + procesoCandidato.getPid() + ") movido a ejecución.");
-                // Simula un tiempo de procesamiento para el evento.
-                Thread.sleep(1000);
-                // Nota: Actualmente, este código toma un proceso de la cola
-                // pero no lo inicia. Esto puede ser un error de lógica
-                // que necesitarías corregir. La lógica de 'agregarProceso'
-                // es la que realmente inicia los hilos.
+                long liberadoEn;
+                cerrojo.lock();
+                try {
+                    // Espera sin sondeo hasta que haya un aviso pendiente o se apague el gestor.
+                    while (!avisoPendiente && !cerrado) {
+                        hayCambios.await();
+                    }
+                    if (cerrado) {
+                        return;
+                    }
+                    avisoPendiente = false;
+                    liberadoEn = primerAviso;
+                } finally {
+                    cerrojo.unlock();
+                }
+                // Admite todos los procesos que ahora caben.
+                List<Proceso> admitidos = politica.admitir(colaEspera, memoria, procesosEnEjecucion, System.currentTimeMillis());
+                for (Proceso proceso : admitidos) {
+                    // Registra el evento de que un proceso se mueve a ejecución.
+                    registrar(RegistroEventos.Tipo.MOVIDO, proceso);
+                    iniciar(proceso, liberadoEn, enviosEnCola.isEmpty() ? null : enviosEnCola.remove(proceso.getPid()));
+                }
+                // Con la cola limitada, quien espera sitio puede continuar.
+                if (!admitidos.isEmpty() && limiteCola < Integer.MAX_VALUE) {
+                    avisarHueco();
+                }
             }
         } catch (InterruptedException e) {
             // Si el hilo es interrumpido, se restaura el estado de interrupción.
             Thread.currentThread().interrupt();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package simuladormemoria;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias al estilo HDR: cubos logarítmicos divididos en
+ * sub-cubos lineales, de modo que cualquier valor positivo de un long se
+ * registra con un error relativo menor del 1% y con memoria fija
+ * (unos 3 700 contadores). Registrar un valor es un cálculo de índice y
+ * un incremento atómico, sin cerrojos ni asignaciones.
+ */
+public class Histograma {
+    // Bits de precisión: 2^7 = 128 sub-cubos, error relativo < 1/64.
+    private static final int BITS = 7;
+    private static final int SUBCUBOS = 1 << BITS;
+    private static final int MITAD = SUBCUBOS / 2;
+    // Valores exactos (0..127) más 64 sub-cubos por cada potencia de dos hasta 2^62.
+    private static final int CUBOS = SUBCUBOS + (63 - BITS) * MITAD;
+
+    // Nombre y unidad del histograma, para los volcados.
+    private final String nombre;
+    private final String unidad;
+    private final AtomicLongArray conteos = new AtomicLongArray(CUBOS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Crea un histograma vacío.
+     * @param nombre Nombre de la medida (por ejemplo "espera_cola").
+     * @param unidad Unidad de los valores (por ejemplo "ms" o "ns").
+     */
+    public Histograma(String nombre, String unidad) {
+        this.nombre = nombre;
+        this.unidad = unidad;
+    }
+
+    public String getNombre() { return nombre; }
+    public String getUnidad() { return unidad; }
+    public long getConteo() { return total.sum(); }
+    public long getMaximo() { return maximo.get(); }
+
+    /**
+     * Registra un valor. Los valores negativos se cuentan como 0.
+     * @param valor El valor a registrar.
+     */
+    public void registrar(long valor) {
+        if (valor < 0) {
+            valor = 0;
+        }
+        conteos.incrementAndGet(indice(valor));
+        total.increment();
+        suma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    /**
+     * @return La media de los valores registrados.
+     */
+    public double getMedia() {
+        long n = total.sum();
+        return n == 0 ? 0.0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * Devuelve el valor por debajo del cual queda el percentil indicado.
+     * @param percentil Percentil entre 0 y 100.
+     * @return El límite superior del cubo que contiene el percentil (0 si está vacío).
+     */
+    public long getPercentil(double percentil) {
+        long n = total.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(n * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < CUBOS; i++) {
+            acumulado += conteos.get(i);
+            if (acumulado >= objetivo) {
+                // El máximo exacto es mejor cota que el límite del último cubo.
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Calcula el cubo de un valor: exacto por debajo de SUBCUBOS y, por
+     * encima, los BITS bits más significativos del valor.
+     */
+    static int indice(long valor) {
+        if (valor < SUBCUBOS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - BITS + 1;
+        return SUBCUBOS + (exponente - BITS) * MITAD + (int) (valor >>> desplazamiento) - MITAD;
+    }
+
+    /**
+     * Devuelve el mayor valor que cae en un cubo.
+     */
+    static long limiteSuperior(int indice) {
+        if (indice < SUBCUBOS) {
+            return indice;
+        }
+        int exponente = (indice - SUBCUBOS) / MITAD + BITS;
+        long mantisa = (indice - SUBCUBOS) % MITAD + MITAD;
+        int desplazamiento = exponente - BITS + 1;
+        return ((mantisa + 1) << desplazamiento) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: n=%d media=%.1f p50=%d p90=%d p99=%d max=%d %s", nombre, getConteo(),
+                getMedia(), getPercentil(50), getPercentil(90), getPercentil(99), getMaximo(), unidad);
+    }
+}
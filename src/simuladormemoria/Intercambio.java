@@ -0,0 +1,222 @@
+package simuladormemoria;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * La clase Intercambio es el área de intercambio (swap) del motor de
+ * eventos. Cuando el primer proceso de la cola de espera no cabe, se
+ * llevan a disco procesos en ejecución para hacerle sitio; vuelven en
+ * cuanto hay memoria y continúan donde se quedaron.
+ *
+ * Las víctimas son los procesos que llevan al menos residenciaMinima en
+ * memoria, empezando por los que más tiempo de ejecución tienen por
+ * delante (los menos urgentes). La residencia mínima evita que un proceso
+ * recién traído vuelva a salir enseguida.
+ *
+ * Las páginas se escriben de verdad en un AlmacenIntercambio (un archivo
+ * mapeado en memoria) y cada operación ocupa el disco el tiempo que dicta
+ * el ModeloDisco. El disco atiende las operaciones de una en una, así que
+ * con mucha presión de memoria se forma cola y aparece la hiperpaginación
+ * (thrashing): el disco pasa más tiempo ocupado que los procesos avanzando.
+ */
+public class Intercambio implements Closeable {
+    // Tamaño de página por defecto del área de intercambio: 1 MB.
+    public static final long TAMANO_PAGINA_POR_DEFECTO = Memoria.MB;
+    // Bytes de cada página que se guardan en el archivo por defecto.
+    public static final int TAMANO_RANURA_POR_DEFECTO = 4096;
+    // Residencia mínima por defecto: 1 segundo.
+    public static final long RESIDENCIA_MINIMA_POR_DEFECTO = 1000;
+
+    // Archivo mapeado con el contenido de las páginas.
+    private final AlmacenIntercambio almacen;
+    // Latencia y ancho de banda del disco.
+    private final ModeloDisco disco;
+    // Bytes de memoria simulada que representa cada ranura del almacén.
+    private final long tamanoPagina;
+    // Milisegundos que un proceso debe pasar en memoria antes de poder salir.
+    private final long residenciaMinima;
+    // Ranuras de cada proceso que está en disco, por PID.
+    private final Map<Integer, int[]> ranurasPorPid = new HashMap<>();
+    // Procesos en disco esperando memoria para volver, en orden de salida.
+    private final ArrayDeque<Proceso> enDisco = new ArrayDeque<>();
+    // Instante en que el disco termina la última operación encolada.
+    private long discoLibreEn;
+    // Estadísticas de la simulación.
+    private long salidas;
+    private long entradas;
+    private long bytesEscritos;
+    private long bytesLeidos;
+    private long milisegundosDisco;
+    private long milisegundosEsperaDisco;
+
+    /**
+     * Constructor del área de intercambio.
+     * @param almacen Archivo mapeado donde se guardan las páginas.
+     * @param disco Modelo de latencia del disco.
+     * @param tamanoPagina Bytes de memoria simulada por ranura del almacén.
+     * @param residenciaMinima Milisegundos en memoria antes de poder volver a salir.
+     */
+    public Intercambio(AlmacenIntercambio almacen, ModeloDisco disco, long tamanoPagina, long residenciaMinima) {
+        this.almacen = almacen;
+        this.disco = disco;
+        this.tamanoPagina = tamanoPagina;
+        this.residenciaMinima = residenciaMinima;
+    }
+
+    /**
+     * Crea un área de intercambio con páginas de 1 MB (de las que se guardan
+     * 4 KB en el archivo) y una residencia mínima de 1 segundo.
+     * @param archivo Archivo de respaldo; se crea o se trunca.
+     * @param capacidad Memoria simulada que cabe en el área, en bytes.
+     * @param disco Modelo de latencia del disco.
+     * @return El área de intercambio.
+     * @throws IOException Si no se puede crear el archivo.
+     */
+    public static Intercambio crear(Path archivo, long capacidad, ModeloDisco disco) throws IOException {
+        long ranuras = capacidad / TAMANO_PAGINA_POR_DEFECTO;
+        if (ranuras <= 0 || ranuras > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacidad de intercambio no válida: " + Memoria.formatearTamano(capacidad));
+        }
+        return new Intercambio(new AlmacenIntercambio(archivo, (int) ranuras, TAMANO_RANURA_POR_DEFECTO),
+                disco, TAMANO_PAGINA_POR_DEFECTO, RESIDENCIA_MINIMA_POR_DEFECTO);
+    }
+
+    public AlmacenIntercambio getAlmacen() { return almacen; }
+    public ModeloDisco getDisco() { return disco; }
+    public ArrayDeque<Proceso> getEnDisco() { return enDisco; }
+    public long getSalidas() { return salidas; }
+    public long getEntradas() { return entradas; }
+    public long getBytesEscritos() { return bytesEscritos; }
+    public long getBytesLeidos() { return bytesLeidos; }
+    public long getMilisegundosDisco() { return milisegundosDisco; }
+    public long getMilisegundosEsperaDisco() { return milisegundosEsperaDisco; }
+
+    /**
+     * Calcula cuántas páginas del área ocupa un proceso.
+     * @param proceso El proceso.
+     * @return Sus páginas, redondeando hacia arriba.
+     */
+    public int paginas(Proceso proceso) {
+        return (int) ((proceso.getBytesTotales() + tamanoPagina - 1) / tamanoPagina);
+    }
+
+    /**
+     * Elige los procesos a llevar a disco para liberar la memoria indicada.
+     * @param enEjecucion La tabla de procesos en memoria.
+     * @param necesarios Bytes que hay que liberar.
+     * @param ahora Instante actual.
+     * @return Las víctimas, o una lista vacía si ni llevándose todas las candidatas se libera lo necesario.
+     */
+    public List<Proceso> elegirVictimas(TablaProcesos enEjecucion, long necesarios, long ahora) {
+        // El filtro recorre las columnas de la tabla; solo se toca el Proceso de las candidatas.
+        List<Proceso> candidatas = new ArrayList<>();
+        int filas = enEjecucion.size();
+        for (int fila = 0; fila < filas; fila++) {
+            if (enEjecucion.getEstado(fila) == Proceso.Estado.EN_EJECUCION
+                    && ahora - enEjecucion.getCarga(fila) >= residenciaMinima) {
+                candidatas.add(enEjecucion.getProceso(fila));
+            }
+        }
+        // Primero los que más tiempo de ejecución tienen por delante.
+        candidatas.sort((a, b) -> Long.compare(restante(b, ahora), restante(a, ahora)));
+        List<Proceso> victimas = new ArrayList<>();
+        long liberados = 0;
+        int ranurasLibres = almacen.getRanurasLibres();
+        for (Proceso proceso : candidatas) {
+            if (liberados >= necesarios) {
+                break;
+            }
+            int paginas = paginas(proceso);
+            if (paginas <= ranurasLibres) {
+                victimas.add(proceso);
+                ranurasLibres -= paginas;
+                liberados += proceso.getBytesTotales();
+            }
+        }
+        return liberados >= necesarios ? victimas : List.of();
+    }
+
+    // Con planificador de CPU lo que le queda es la CPU que le falta; sin él,
+    // cpuRestante es 0 y se deduce del inicio y la duración.
+    private static long restante(Proceso proceso, long ahora) {
+        return proceso.getCpuRestante() > 0 ? proceso.getCpuRestante()
+                : proceso.getTiempoInicio() + proceso.getDuracion() * 1000L - ahora;
+    }
+
+    /**
+     * Escribe en disco las páginas de un proceso.
+     * @param proceso El proceso que sale de memoria.
+     * @param ahora Instante en que se pide la escritura.
+     * @return El instante en que termina la escritura, o -1 si no hay sitio en el área.
+     */
+    public long sacar(Proceso proceso, long ahora) {
+        int[] ranuras = almacen.escribir(proceso.getPid(), paginas(proceso));
+        if (ranuras == null) {
+            return -1;
+        }
+        ranurasPorPid.put(proceso.getPid(), ranuras);
+        salidas++;
+        bytesEscritos += proceso.getBytesTotales();
+        return operacionDisco(proceso.getBytesTotales(), ahora);
+    }
+
+    /**
+     * Lee de disco las páginas de un proceso y libera su sitio en el área.
+     * @param proceso El proceso que vuelve a memoria.
+     * @param ahora Instante en que se pide la lectura.
+     * @return El instante en que termina la lectura.
+     */
+    public long traer(Proceso proceso, long ahora) {
+        int[] ranuras = ranurasPorPid.remove(proceso.getPid());
+        if (ranuras == null) {
+            throw new IllegalStateException("El proceso " + proceso.getPid() + " no está en el área de intercambio");
+        }
+        almacen.leer(proceso.getPid(), ranuras);
+        entradas++;
+        bytesLeidos += proceso.getBytesTotales();
+        return operacionDisco(proceso.getBytesTotales(), ahora);
+    }
+
+    // Encola una operación en el disco y devuelve cuándo termina.
+    private long operacionDisco(long bytes, long ahora) {
+        long inicio = Math.max(ahora, discoLibreEn);
+        long duracion = disco.milisegundos(bytes);
+        milisegundosEsperaDisco += inicio - ahora;
+        milisegundosDisco += duracion;
+        discoLibreEn = inicio + duracion;
+        return discoLibreEn;
+    }
+
+    /**
+     * Devuelve la fracción del tiempo que el disco ha estado ocupado.
+     * Cerca de 1, la simulación está dominada por el intercambio.
+     * @param ahora Tiempo total transcurrido.
+     * @return La ocupación entre 0 y 1.
+     */
+    public double getOcupacionDisco(long ahora) {
+        return ahora <= 0 ? 0 : Math.min(1.0, (double) milisegundosDisco / ahora);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Intercambio: %d salidas, %d entradas | %d MB escritos, %d MB leídos | disco %s | "
+                        + "espera media en disco %.1f ms | %d en disco | %d páginas corruptas | archivo mapeado %.0f MB/s",
+                salidas, entradas, bytesEscritos / Memoria.MB, bytesLeidos / Memoria.MB, disco,
+                salidas + entradas == 0 ? 0.0 : (double) milisegundosEsperaDisco / (salidas + entradas),
+                enDisco.size(), almacen.getPaginasCorruptas(), almacen.getMegasPorSegundo());
+    }
+
+    @Override
+    public void close() throws IOException {
+        almacen.close();
+    }
+}
@@ -0,0 +1,283 @@
+package simuladormemoria;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * La clase LoteSimulaciones ejecuta una carga de trabajo declarativa sin
+ * interfaz: una simulación en tiempo virtual por cada configuración del
+ * barrido, en paralelo en todos los núcleos con fork-join. Cada
+ * simulación tiene su propia Memoria, GestorDeProcesos, MotorDeEventos,
+ * PlanificadorCpu y Metricas, así que no comparten estado.
+ */
+public class LoteSimulaciones {
+    // Procesos que se generan de una vez antes de avanzar el motor.
+    private static final int PROCESOS_POR_TANDA = 10_000;
+
+    /**
+     * Resultado de la simulación de una configuración.
+     */
+    public static final class Resultado {
+        private final CargaDeTrabajo.Configuracion configuracion;
+        private final Metricas metricas;
+        private final long finalizados;
+        private final long sinTerminar;
+        private final long tiempoVirtual;
+        private final double segundosReales;
+        private final double ocupacionDisco;
+        private final double utilizacionCpu;
+        private final double rendimientoRafagas;
+        private final String error;
+
+        Resultado(CargaDeTrabajo.Configuracion configuracion, Metricas metricas, long finalizados,
+                  long sinTerminar, long tiempoVirtual, double segundosReales, double ocupacionDisco,
+                  double utilizacionCpu, double rendimientoRafagas, String error) {
+            this.configuracion = configuracion;
+            this.metricas = metricas;
+            this.finalizados = finalizados;
+            this.sinTerminar = sinTerminar;
+            this.tiempoVirtual = tiempoVirtual;
+            this.segundosReales = segundosReales;
+            this.ocupacionDisco = ocupacionDisco;
+            this.utilizacionCpu = utilizacionCpu;
+            this.rendimientoRafagas = rendimientoRafagas;
+            this.error = error;
+        }
+
+        public CargaDeTrabajo.Configuracion getConfiguracion() { return configuracion; }
+        public Metricas getMetricas() { return metricas; }
+        public long getFinalizados() { return finalizados; }
+        public long getSinTerminar() { return sinTerminar; }
+        public long getTiempoVirtual() { return tiempoVirtual; }
+        public double getSegundosReales() { return segundosReales; }
+        // Fracción del tiempo virtual con el disco de intercambio ocupado.
+        public double getOcupacionDisco() { return ocupacionDisco; }
+        // Utilización media de los núcleos de CPU (0 sin modelo de CPU).
+        public double getUtilizacionCpu() { return utilizacionCpu; }
+        // Bloques reservados por segundo en las ráfagas de crecimiento (0 sin perfil de memoria).
+        public double getRendimientoRafagas() { return rendimientoRafagas; }
+        public String getError() { return error; }
+    }
+
+    private final CargaDeTrabajo carga;
+
+    /**
+     * Crea un lote para una carga de trabajo.
+     * @param carga La carga de trabajo con sus parámetros de barrido.
+     */
+    public LoteSimulaciones(CargaDeTrabajo carga) {
+        this.carga = carga;
+    }
+
+    /**
+     * Simula todas las configuraciones en paralelo.
+     * @param hilos Paralelismo del ForkJoinPool (normalmente, el número de núcleos).
+     * @return Los resultados, en el mismo orden que carga.configuraciones().
+     */
+    public Resultado[] ejecutar(int hilos) {
+        List<CargaDeTrabajo.Configuracion> configuraciones = carga.configuraciones();
+        Resultado[] resultados = new Resultado[configuraciones.size()];
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try {
+            pool.invoke(new TareaBarrido(configuraciones, resultados, 0, resultados.length));
+        } finally {
+            pool.shutdown();
+        }
+        return resultados;
+    }
+
+    /**
+     * Divide el rango de configuraciones en dos mitades hasta llegar a una
+     * sola, que se simula en el hilo del pool que la tome.
+     */
+    @SuppressWarnings("serial")
+    private final class TareaBarrido extends RecursiveAction {
+        private final List<CargaDeTrabajo.Configuracion> configuraciones;
+        private final Resultado[] resultados;
+        private final int desde;
+        private final int hasta;
+
+        TareaBarrido(List<CargaDeTrabajo.Configuracion> configuraciones, Resultado[] resultados, int desde, int hasta) {
+            this.configuraciones = configuraciones;
+            this.resultados = resultados;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= 1) {
+                if (desde < hasta) {
+                    resultados[desde] = simular(configuraciones.get(desde));
+                }
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TareaBarrido(configuraciones, resultados, desde, medio),
+                    new TareaBarrido(configuraciones, resultados, medio, hasta));
+        }
+    }
+
+    /**
+     * Simula una configuración en tiempo virtual. Los procesos se generan
+     * por tandas, de modo que la memoria usada no depende del total de procesos.
+     * Con intercambio, el área se respalda en un archivo temporal propio de
+     * la configuración que se borra al terminar.
+     * @param configuracion La configuración a simular.
+     * @return El resultado de la simulación.
+     */
+    public Resultado simular(CargaDeTrabajo.Configuracion configuracion) {
+        Metricas metricas = new Metricas();
+        long inicio = System.nanoTime();
+        Path archivoIntercambio = null;
+        Intercambio intercambio = null;
+        try {
+            Memoria memoria = configuracion.crearMemoria();
+            GestorDeProcesos gestor = new GestorDeProcesos(memoria, null,
+                    new EjecutorProcesos(EjecutorProcesos.Modo.HILO_VIRTUAL, 0),
+                    PoliticaAdmision.porNombre(configuracion.getAdmision()));
+            PlanificadorCpu cpu = configuracion.getNucleos() == 0 ? null
+                    : PlanificadorCpu.crear(configuracion.getPlanificador(), configuracion.getNucleos(),
+                            carga.getQuantum(), carga.getCambioContexto(), carga.getMaxListos());
+            gestor.setCpu(cpu);
+            gestor.setMetricas(metricas);
+            MotorDeEventos motor = new MotorDeEventos(memoria, gestor, null, MotorDeEventos.Modo.VIRTUAL);
+            motor.setMuestreo(1000);
+            motor.setSemilla(carga.getSemilla());
+            if (configuracion.getIntercambio() > 0) {
+                archivoIntercambio = Files.createTempFile("intercambio", ".swap");
+                intercambio = Intercambio.crear(archivoIntercambio, configuracion.getIntercambio(), carga.getDisco());
+                motor.setIntercambio(intercambio);
+            }
+            if (configuracion.getSinMemoria() != null) {
+                if (configuracion.getSinMemoria() == MotorDeEventos.SinMemoria.INTERCAMBIAR && intercambio == null) {
+                    throw new IllegalArgumentException("intercambiar necesita un área de intercambio");
+                }
+                motor.setMemoriaDinamica(carga.getPerfilMemoria(), carga.getIntervaloMemoria(),
+                        configuracion.getSinMemoria());
+            }
+
+            CargaDeTrabajo.Generador generador = carga.generador(configuracion.getNodos());
+            while (generador.hayMas()) {
+                for (int i = 0; i < PROCESOS_POR_TANDA && generador.hayMas(); i++) {
+                    Proceso proceso = generador.siguiente();
+                    // Un proceso mayor que la RAM de un nodo nunca podría ejecutarse: se rechaza.
+                    if (proceso.getBytesRequeridos() > configuracion.getRamPorNodo()) {
+                        metricas.rechazo();
+                    } else {
+                        motor.programarLlegada(proceso, generador.getUltimaLlegada());
+                    }
+                }
+                // Avanza hasta justo antes de la última llegada generada; las siguientes no son anteriores.
+                motor.ejecutarHasta(generador.getUltimaLlegada() - 1);
+            }
+            motor.ejecutar();
+            return new Resultado(configuracion, metricas, motor.getProcesosFinalizados(),
+                    gestor.getColaEspera().size(), motor.ahora(), (System.nanoTime() - inicio) / 1e9,
+                    intercambio == null ? 0 : intercambio.getOcupacionDisco(motor.ahora()),
+                    cpu == null ? 0 : cpu.getUtilizacionMedia(motor.ahora()), memoria.getRendimientoRafagas(), null);
+        } catch (InterruptedException e) {
+            // No ocurre en modo virtual.
+            Thread.currentThread().interrupt();
+            return new Resultado(configuracion, metricas, 0, 0, 0, 0, 0, 0, 0, "interrumpida");
+        } catch (IOException | RuntimeException e) {
+            // Una configuración no válida (por ejemplo, buddy sin potencia de dos) no detiene el barrido.
+            return new Resultado(configuracion, metricas, 0, 0, 0, (System.nanoTime() - inicio) / 1e9, 0, 0, 0, e.getMessage());
+        } finally {
+            cerrarIntercambio(intercambio, archivoIntercambio);
+        }
+    }
+
+    // Cierra el área de intercambio y borra su archivo, sin ocultar el resultado si falla.
+    private static void cerrarIntercambio(Intercambio intercambio, Path archivo) {
+        try {
+            if (intercambio != null) {
+                intercambio.close();
+            }
+            if (archivo != null) {
+                Files.deleteIfExists(archivo);
+            }
+        } catch (IOException e) {
+            System.err.println("No se pudo borrar el archivo de intercambio " + archivo + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imprime una tabla resumen de los resultados.
+     * @param resultados Los resultados del barrido.
+     * @param salida Dónde imprimir.
+     */
+    public static void imprimirInforme(Resultado[] resultados, PrintStream salida) {
+        salida.printf("%-104s %10s %9s %9s %9s %7s %8s %7s %6s %9s %9s %7s %12s %12s %12s %10s%n", "Configuración",
+                "Terminados", "Rechazos", "Remotas", "A disco", "Disco%", "Util.%", "Frag.%", "CPU%", "Bloqueos", "OOM",
+                "Seg.", "Espera p50", "Espera p99", "Resp. p50", "Asig. p50");
+        for (Resultado r : resultados) {
+            if (r.getError() != null) {
+                salida.printf("%-104s ERROR: %s%n", r.getConfiguracion(), r.getError());
+                continue;
+            }
+            Metricas m = r.getMetricas();
+            salida.printf(Locale.ROOT, "%-104s %10d %9d %9d %9d %7.1f %8.1f %7.1f %6.1f %9d %9d %7.2f %10d ms %10d ms %10d ms %7d ns%n",
+                    r.getConfiguracion(), r.getFinalizados(), m.getRechazos(), m.getAsignacionesRemotas(),
+                    m.getSalidasIntercambio(), r.getOcupacionDisco() * 100,
+                    m.getUtilizacionMedia() * 100, m.getFragmentacionExternaMedia() * 100, r.getUtilizacionCpu() * 100,
+                    m.getBloqueosMemoria(), m.getMatadosOom(), r.getSegundosReales(), m.getEsperaColaP50(), m.getEsperaColaP99(), m.getRespuestaP50(),
+                    m.getAsignacionP50());
+        }
+    }
+
+    /**
+     * Escribe los resultados en un archivo CSV, una fila por configuración.
+     * @param resultados Los resultados del barrido.
+     * @param archivo El archivo de destino.
+     * @throws IOException Si no se puede escribir.
+     */
+    public static void escribirCsv(Resultado[] resultados, Path archivo) throws IOException {
+        StringBuilder sb = new StringBuilder("ram_mb,nodos,modelo,admision,intercambio_mb,nucleos,planificador,sin_memoria,finalizados,sin_terminar,"
+                + "rechazos,asignaciones_remotas,salidas_intercambio,entradas_intercambio,ocupacion_disco,utilizacion_cpu,cambios_contexto,tiempo_virtual_ms,segundos_reales,utilizacion_media,utilizacion_media_por_nodo,"
+                + "fragmentacion_externa_media,espera_p50_ms,espera_p99_ms,respuesta_p50_ms,respuesta_p99_ms,retorno_p50_ms,retorno_p99_ms,"
+                + "asignacion_p50_ns,asignacion_p99_ns,crecimientos_fallidos,bloqueos_memoria,matados_oom,compactaciones,"
+                + "rafaga_memoria_p50_ns,rafaga_memoria_p99_ns,rendimiento_rafagas,error\n");
+        for (Resultado r : resultados) {
+            CargaDeTrabajo.Configuracion c = r.getConfiguracion();
+            Metricas m = r.getMetricas();
+            // La utilización de cada nodo va entre comillas, separada por punto y coma.
+            StringBuilder porNodo = new StringBuilder("\"");
+            for (double utilizacion : m.getUtilizacionMediaPorNodo()) {
+                porNodo.append(porNodo.length() > 1 ? ";" : "").append(String.format(Locale.ROOT, "%.4f", utilizacion));
+            }
+            porNodo.append('"');
+            sb.append(c.getRam() / Memoria.MB).append(',').append(c.getNodos()).append(',')
+                    .append(c.getModelo()).append(',').append(c.getAdmision()).append(',')
+                    .append(c.getIntercambio() / Memoria.MB).append(',')
+                    .append(c.getNucleos()).append(',').append(c.getNucleos() == 0 ? "" : c.getPlanificador()).append(',')
+                    .append(c.getSinMemoria() == null ? "" : c.getSinMemoria().name().toLowerCase(Locale.ROOT)).append(',')
+                    .append(r.getFinalizados()).append(',').append(r.getSinTerminar()).append(',')
+                    .append(m.getRechazos()).append(',').append(m.getAsignacionesRemotas()).append(',')
+                    .append(m.getSalidasIntercambio()).append(',').append(m.getEntradasIntercambio()).append(',')
+                    .append(String.format(Locale.ROOT, "%.4f,%.4f,", r.getOcupacionDisco(), r.getUtilizacionCpu()))
+                    .append(m.getCambiosContexto()).append(',')
+                    .append(r.getTiempoVirtual()).append(',')
+                    .append(String.format(Locale.ROOT, "%.3f,%.4f,", r.getSegundosReales(), m.getUtilizacionMedia()))
+                    .append(porNodo).append(',')
+                    .append(String.format(Locale.ROOT, "%.4f", m.getFragmentacionExternaMedia())).append(',')
+                    .append(m.getEsperaColaP50()).append(',').append(m.getEsperaColaP99()).append(',')
+                    .append(m.getRespuestaP50()).append(',').append(m.getRespuestaP99()).append(',')
+                    .append(m.getRetornoP50()).append(',').append(m.getRetornoP99()).append(',')
+                    .append(m.getAsignacionP50()).append(',').append(m.getAsignacionP99()).append(',')
+                    .append(m.getCrecimientosFallidos()).append(',').append(m.getBloqueosMemoria()).append(',')
+                    .append(m.getMatadosOom()).append(',').append(m.getCompactaciones()).append(',')
+                    .append(m.getRafagaMemoriaP50()).append(',').append(m.getRafagaMemoriaP99()).append(',')
+                    .append(String.format(Locale.ROOT, "%.0f", r.getRendimientoRafagas())).append(',')
+                    .append(r.getError() == null ? "" : '"' + r.getError().replace("\"", "'") + '"').append('\n');
+        }
+        Files.writeString(archivo, sb, StandardCharsets.UTF_8);
+    }
+}
@@ -1,74 +1,634 @@
 package simuladormemoria;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Clase que simula la gestión de la memoria RAM.
- * Utiliza AtomicInteger para manejar la concurrencia de forma segura.
+ * Delega la asignación en un AsignadorMemoria, de modo que se puede elegir
+ * entre el modelo de contador original y modelos con direcciones reales.
  */
 public class Memoria {
-    // Constante para el tamaño total de la memoria RAM en MB.
-    private static final int RAM_TOTAL = 1024;
-    // Variable atómica para rastrear la RAM disponible, garantizando
-    // operaciones seguras entre múltiples hilos.
-    private final AtomicInteger ramDisponible;
+    // Un megabyte: las cantidades se cuentan en bytes y se muestran en MB.
+    public static final long MB = 1L << 20;
+    // Tamaño de la memoria RAM cuando no se indica otro: 1 GB.
+    public static final long RAM_POR_DEFECTO = 1024 * MB;
+    // Modelo de asignación que gestiona realmente la memoria.
+    private final AsignadorMemoria asignador;
+    // Número de intentos de asignación y tiempo total que han costado,
+    // para comparar la latencia de los distintos modelos.
+    private final LongAdder asignaciones = new LongAdder();
+    private final LongAdder nanosAsignacion = new LongAdder();
+    // Ráfagas de crecimiento de los procesos en ejecución, bloques que
+    // reservaron y tiempo que costaron, para medir su rendimiento.
+    private final LongAdder rafagas = new LongAdder();
+    private final LongAdder bloquesRafaga = new LongAdder();
+    private final LongAdder nanosRafaga = new LongAdder();
+    // Métricas donde se registra la latencia de cada asignación (desactivadas por defecto).
+    private Metricas metricas = Metricas.DESACTIVADAS;
+    // Oyentes a los que se avisa cada vez que se libera memoria.
+    private final List<Runnable> oyentesLiberacion = new CopyOnWriteArrayList<>();
 
     /**
-     * Constructor que inicializa la memoria disponible con la RAM total.
+     * Constructor que usa el modelo de contador con la RAM por defecto.
      */
     public Memoria() {
-        this.ramDisponible = new AtomicInteger(RAM_TOTAL);
+        this(new AsignadorContador(RAM_POR_DEFECTO));
+    }
+
+    /**
+     * Constructor que usa un modelo de asignación concreto.
+     * @param asignador El asignador que gestionará la memoria.
+     */
+    public Memoria(AsignadorMemoria asignador) {
+        this.asignador = asignador;
+    }
+
+    /**
+     * Crea una memoria de RAM_POR_DEFECTO con lista libre y la política indicada.
+     * @param politica La política de ubicación (primer, mejor, peor o siguiente ajuste).
+     * @return Una nueva memoria con direcciones reales.
+     */
+    public static Memoria conListaLibre(PoliticaUbicacion politica) {
+        return new Memoria(new AsignadorListaLibre(RAM_POR_DEFECTO, politica));
+    }
+
+    /**
+     * Crea una memoria de RAM_POR_DEFECTO con el contador repartido en franjas:
+     * dos franjas por núcleo y lotes de 8 MB.
+     * @return Una nueva memoria con reservas repartidas.
+     */
+    public static Memoria conContadorRepartido() {
+        return crear("repartido", RAM_POR_DEFECTO);
+    }
+
+    /**
+     * Crea una memoria de RAM_POR_DEFECTO con el sistema de compañeros (buddy).
+     * @return Una nueva memoria con asignador buddy.
+     */
+    public static Memoria conBuddy() {
+        return crear("buddy", RAM_POR_DEFECTO);
+    }
+
+    /**
+     * Crea una memoria de RAM_POR_DEFECTO con un asignador por clases de tamaño
+     * (potencias de dos de 32 B a 2 KB en slabs de una página de 4 KB) sobre una
+     * lista libre de primer ajuste.
+     * @return Una nueva memoria con asignador slab.
+     */
+    public static Memoria conSlab() {
+        return crear("slab", RAM_POR_DEFECTO);
+    }
+
+    /**
+     * Crea una memoria virtual paginada de RAM_POR_DEFECTO con páginas de 4 KB,
+     * una TLB de 64 entradas y una reserva mínima del 25% de las páginas.
+     * @param politica Política de reemplazo: "fifo", "lru", "clock", "lfu" o "arc".
+     * @return Una nueva memoria paginada.
+     */
+    public static Memoria conPaginacion(String politica) {
+        return crear("paginada-" + politica, RAM_POR_DEFECTO);
+    }
+
+    /**
+     * Crea una memoria de RAM_POR_DEFECTO a partir del nombre de su modelo de asignación.
+     * @param modelo El modelo (ver crear(String, long)).
+     * @return Una nueva memoria con el modelo indicado.
+     */
+    public static Memoria crear(String modelo) {
+        return crear(modelo, RAM_POR_DEFECTO);
+    }
+
+    /**
+     * Crea una memoria del tamaño indicado a partir del nombre de su modelo de asignación.
+     * @param modelo "contador", "repartido" (dos franjas por núcleo, lotes de 8 MB),
+     *               "buddy" (el tamaño debe ser potencia de dos), "slab" (clases de 32 B a
+     *               2 KB en slabs de 4 KB sobre primer ajuste), "paginada-" seguido
+     *               de una política de reemplazo (por ejemplo "paginada-lru"; páginas de 4 KB,
+     *               TLB de 64 entradas y reserva mínima del 25%), o el nombre de una
+     *               política de ubicación ("primero", "mejor", "peor", "siguiente").
+     * @param ramTotal Tamaño de la RAM en bytes.
+     * @return Una nueva memoria con el modelo indicado.
+     */
+    public static Memoria crear(String modelo, long ramTotal) {
+        return new Memoria(crearAsignador(modelo, ramTotal));
+    }
+
+    /**
+     * Crea una memoria de varios nodos NUMA, cada uno con su propio asignador
+     * del modelo indicado (ver AsignadorNuma).
+     * @param modelo El modelo de asignación de cada nodo (ver crear(String, long)).
+     * @param nodos Número de nodos.
+     * @param ramPorNodo Tamaño de la RAM de cada nodo en bytes.
+     * @return Una nueva memoria NUMA.
+     */
+    public static Memoria crearNuma(String modelo, int nodos, long ramPorNodo) {
+        AsignadorMemoria[] asignadores = new AsignadorMemoria[nodos];
+        for (int i = 0; i < nodos; i++) {
+            asignadores[i] = crearAsignador(modelo, ramPorNodo);
+        }
+        return new Memoria(new AsignadorNuma(asignadores));
+    }
+
+    private static AsignadorMemoria crearAsignador(String modelo, long ramTotal) {
+        if (modelo.startsWith("paginada-")) {
+            return new AsignadorPaginado(ramTotal, 4, 64, 0.25, modelo.substring("paginada-".length()));
+        }
+        switch (modelo) {
+            case "contador": return new AsignadorContador(ramTotal);
+            case "repartido":
+                return new AsignadorContadorRepartido(ramTotal, 2 * Runtime.getRuntime().availableProcessors(), 8 * MB);
+            case "buddy": return new AsignadorBuddy(ramTotal);
+            case "slab":
+                // Como los cachés kmalloc: objetos pequeños en slabs de una página. El respaldo
+                // cuenta en páginas para que un slab no ocupe un gránulo de 1 MB.
+                return new AsignadorSlab(new AsignadorListaLibre(ramTotal, PoliticaUbicacion.PRIMER_AJUSTE, 4096),
+                        4096, 32, 64, 128, 256, 512, 1024, 2048);
+            default: return new AsignadorListaLibre(ramTotal, PoliticaUbicacion.porNombre(modelo));
+        }
+    }
+
+    /**
+     * Interpreta un tamaño de memoria como "512M", "64G", "2T", "4096K" o "100B".
+     * Un número sin unidad se interpreta en MB, como en versiones anteriores.
+     * @param texto El tamaño escrito.
+     * @return El tamaño en bytes.
+     */
+    public static long parsearTamano(String texto) {
+        String t = texto.trim().toUpperCase(Locale.ROOT);
+        if (t.endsWith("IB")) {
+            t = t.substring(0, t.length() - 2);
+        } else if (t.endsWith("B") && t.length() > 1 && !Character.isDigit(t.charAt(t.length() - 2))) {
+            t = t.substring(0, t.length() - 1);
+        }
+        char unidad = t.isEmpty() ? ' ' : t.charAt(t.length() - 1);
+        int desplazamiento;
+        switch (unidad) {
+            case 'B': desplazamiento = 0; break;
+            case 'K': desplazamiento = 10; break;
+            case 'M': desplazamiento = 20; break;
+            case 'G': desplazamiento = 30; break;
+            case 'T': desplazamiento = 40; break;
+            case 'P': desplazamiento = 50; break;
+            default:
+                return Math.multiplyExact(Long.parseLong(t), MB);
+        }
+        return Math.multiplyExact(Long.parseLong(t.substring(0, t.length() - 1).trim()), 1L << desplazamiento);
+    }
+
+    /**
+     * Escribe un tamaño con la mayor unidad que lo divide exactamente ("1G", "1536M", "100B").
+     * @param bytes El tamaño en bytes.
+     * @return El tamaño escrito.
+     */
+    public static String formatearTamano(long bytes) {
+        String[] unidades = {"B", "K", "M", "G", "T", "P"};
+        int u = 0;
+        while (u + 1 < unidades.length && bytes != 0 && bytes % 1024 == 0) {
+            bytes /= 1024;
+            u++;
+        }
+        return bytes + unidades[u];
+    }
+
+    /**
+     * Establece las métricas donde se registran las asignaciones.
+     * @param metricas Las métricas, o Metricas.DESACTIVADAS.
+     */
+    public void setMetricas(Metricas metricas) {
+        this.metricas = metricas;
+    }
+
+    /**
+     * Devuelve el asignador utilizado por esta memoria.
+     * @return El asignador.
+     */
+    public AsignadorMemoria getAsignador() {
+        return asignador;
+    }
+
+    /**
+     * Indica si la memoria es paginada, sola o en cada nodo. En ella una
+     * reserva crea una tabla de páginas nueva, así que no puede crecer la
+     * memoria de un proceso que ya existe.
+     * @return true si el asignador es paginado.
+     */
+    public boolean isPaginada() {
+        AsignadorMemoria base = asignador instanceof AsignadorNuma ? ((AsignadorNuma) asignador).getNodo(0) : asignador;
+        return base instanceof AsignadorPaginado;
+    }
+
+    /**
+     * Indica si {@link #compactar} puede mover los bloques de esta memoria,
+     * lo que solo ocurre con una lista libre sin nodos.
+     * @return true si la memoria se puede compactar.
+     */
+    public boolean isCompactable() {
+        return asignador instanceof AsignadorListaLibre;
     }
 
     /**
      * Devuelve el tamaño total de la RAM.
-     * @return El total de RAM.
+     * @return El total de RAM en bytes.
      */
-    public int getRamTotal() {
-        return RAM_TOTAL;
+    public long getRamTotal() {
+        return asignador.getRamTotal();
     }
 
     /**
      * Devuelve la cantidad de RAM disponible en este momento.
-     * @return La RAM disponible.
+     * @return La RAM disponible en bytes.
      */
-    public int getRamDisponible() {
-        return ramDisponible.get();
+    public long getRamDisponible() {
+        return asignador.getRamDisponible();
     }
 
     /**
      * Calcula y devuelve la cantidad de RAM que está en uso.
-     * @return La RAM usada.
+     * @return La RAM usada en bytes.
      */
-    public int getRamUsada() {
-        return RAM_TOTAL - ramDisponible.get();
+    public long getRamUsada() {
+        return asignador.getRamTotal() - asignador.getRamDisponible();
     }
 
     /**
-     * Intenta asignar una cantidad de memoria.
-     * El método es sincronizado para evitar condiciones de carrera.
+     * Devuelve el tamaño del mayor bloque libre contiguo.
+     * @return El mayor hueco en bytes.
+     */
+    public long getMayorBloqueLibre() {
+        return asignador.getMayorBloqueLibre();
+    }
+
+    /**
+     * Devuelve el número de huecos libres.
+     * @return El número de huecos.
+     */
+    public int getBloquesLibres() {
+        return asignador.getBloquesLibres();
+    }
+
+    /**
+     * Calcula la fragmentación externa: la fracción de la memoria libre
+     * que no está en el mayor hueco (0 = sin fragmentación).
+     * @return La fragmentación externa entre 0 y 1.
+     */
+    public double getFragmentacionExterna() {
+        long libre = asignador.getRamDisponible();
+        if (libre == 0) {
+            return 0.0;
+        }
+        return 1.0 - (double) asignador.getMayorBloqueLibre() / libre;
+    }
+
+    /**
+     * Devuelve la memoria reservada que los procesos no han solicitado.
+     * @return La fragmentación interna en bytes.
+     */
+    public long getFragmentacionInterna() {
+        return asignador.getFragmentacionInterna();
+    }
+
+    /**
+     * Devuelve el número de nodos de memoria (1 salvo con AsignadorNuma).
+     * @return El número de nodos.
+     */
+    public int getNumeroNodos() {
+        return asignador instanceof AsignadorNuma ? ((AsignadorNuma) asignador).getNumeroNodos() : 1;
+    }
+
+    /**
+     * Devuelve la fracción en uso de un nodo de memoria.
+     * @param nodo El índice del nodo (0 si la memoria no es NUMA).
+     * @return La utilización del nodo entre 0 y 1.
+     */
+    public double getUtilizacionNodo(int nodo) {
+        if (asignador instanceof AsignadorNuma) {
+            return ((AsignadorNuma) asignador).getUtilizacion(nodo);
+        }
+        return (double) getRamUsada() / getRamTotal();
+    }
+
+    /**
+     * Devuelve el número de asignaciones que no cupieron en el nodo preferido del proceso.
+     * @return Las asignaciones remotas (0 si la memoria no es NUMA).
+     */
+    public long getAsignacionesRemotas() {
+        return asignador instanceof AsignadorNuma ? ((AsignadorNuma) asignador).getAsignacionesRemotas() : 0;
+    }
+
+    /**
+     * Devuelve la latencia media de las llamadas a asignarMemoria.
+     * @return La latencia media en nanosegundos.
+     */
+    public double getLatenciaMediaAsignacion() {
+        long total = asignaciones.sum();
+        return total == 0 ? 0.0 : (double) nanosAsignacion.sum() / total;
+    }
+
+    /**
+     * Devuelve el número de ráfagas de crecimiento atendidas (con o sin éxito).
+     * @return Las ráfagas.
+     */
+    public long getRafagas() {
+        return rafagas.sum();
+    }
+
+    /**
+     * Devuelve los bloques que se reservan por segundo dentro de las ráfagas
+     * de crecimiento, contando solo el tiempo del asignador.
+     * @return El rendimiento en bloques por segundo.
+     */
+    public double getRendimientoRafagas() {
+        long nanos = nanosRafaga.sum();
+        return nanos == 0 ? 0.0 : bloquesRafaga.sum() * 1e9 / nanos;
+    }
+
+    /**
+     * Escribe en un punto de control el estado del asignador y los contadores
+     * de latencia (ver PuntoControl). Los bloques de cada proceso los guarda
+     * el propio proceso.
+     * @param salida Dónde escribirlo.
+     * @throws UnsupportedOperationException Si el modelo de asignación no admite puntos de control.
+     */
+    public void guardarEstado(BufferSalida salida) {
+        salida.escribirTexto(asignador.getClass().getSimpleName());
+        salida.escribirLong(asignador.getRamTotal());
+        for (LongAdder contador : new LongAdder[] {asignaciones, nanosAsignacion, rafagas, bloquesRafaga, nanosRafaga}) {
+            salida.escribirLong(contador.sum());
+        }
+        asignador.guardarEstado(salida);
+    }
+
+    /**
+     * Restaura un estado escrito con guardarEstado. La memoria debe ser
+     * nueva y del mismo modelo y tamaño que la que se guardó.
+     * @param entrada El buffer de lectura.
+     */
+    public void restaurarEstado(ByteBuffer entrada) {
+        String modelo = BufferSalida.leerTexto(entrada);
+        long ramTotal = entrada.getLong();
+        if (!modelo.equals(asignador.getClass().getSimpleName()) || ramTotal != asignador.getRamTotal()) {
+            throw new IllegalArgumentException(String.format("El punto de control es de una memoria %s de %s, no %s de %s",
+                    modelo, formatearTamano(ramTotal), asignador.getClass().getSimpleName(),
+                    formatearTamano(asignador.getRamTotal())));
+        }
+        for (LongAdder contador : new LongAdder[] {asignaciones, nanosAsignacion, rafagas, bloquesRafaga, nanosRafaga}) {
+            contador.reset();
+            contador.add(entrada.getLong());
+        }
+        asignador.restaurarEstado(entrada);
+    }
+
+    /**
+     * Devuelve las estadísticas de paginación de un proceso.
+     * @param proceso El proceso consultado.
+     * @return Sus estadísticas, o null si la memoria no es paginada o el proceso no está admitido.
+     */
+    public EstadisticasPaginacion getEstadisticasPaginacion(Proceso proceso) {
+        if (!(asignador instanceof AsignadorPaginado) || proceso.getDireccion() < 0) {
+            return null;
+        }
+        TablaPaginas tabla = ((AsignadorPaginado) asignador).getTabla((int) proceso.getDireccion());
+        return tabla == null ? null : tabla.getEstadisticas();
+    }
+
+    /**
+     * Intenta asignar la memoria requerida por un proceso.
+     * Si tiene éxito, guarda en el proceso la dirección del bloque. Con
+     * varios nodos se prefiere el nodo de afinidad del proceso.
      *
-     * @param cantidad La memoria a asignar.
+     * @param proceso El proceso que solicita memoria.
      * @return true si la asignación fue exitosa, false en caso contrario.
      */
-    public synchronized boolean asignarMemoria(int cantidad) {
-        // Verifica si hay suficiente RAM disponible.
-        if (ramDisponible.get() >= cantidad) {
-            // Asigna la memoria y actualiza la cantidad disponible.
-            ramDisponible.addAndGet(-cantidad);
-            return true;
+    public boolean asignarMemoria(Proceso proceso) {
+        long inicio = System.nanoTime();
+        long direccion = asignador.asignar(proceso.getBytesRequeridos(), proceso.getNodo());
+        long nanos = System.nanoTime() - inicio;
+        nanosAsignacion.add(nanos);
+        asignaciones.increment();
+        metricas.asignacion(nanos, direccion >= 0);
+        if (direccion < 0) {
+            return false;
         }
-        return false;
+        if (proceso.getNodo() >= 0 && asignador instanceof AsignadorNuma
+                && AsignadorNuma.nodoDe(direccion) != proceso.getNodo() % getNumeroNodos()) {
+            metricas.asignacionRemota();
+        }
+        proceso.setDireccion(direccion);
+        // Un proceso que vuelve del intercambio recupera también la memoria que había ido pidiendo.
+        MemoriaDinamica dinamica = proceso.getDinamica();
+        if (dinamica != null) {
+            for (int i = 0; i < dinamica.getSegmentos(); i++) {
+                long segmento = asignador.asignar(dinamica.getTamano(i), proceso.getNodo());
+                if (segmento < 0) {
+                    for (int j = 0; j < i; j++) {
+                        asignador.liberar(dinamica.getDireccion(j), dinamica.getTamano(j));
+                        dinamica.setDireccion(j, -1);
+                    }
+                    asignador.liberar(direccion, proceso.getBytesRequeridos());
+                    proceso.setDireccion(-1);
+                    return false;
+                }
+                dinamica.setDireccion(i, segmento);
+            }
+        }
+        return true;
     }
 
     /**
-     * Libera una cantidad de memoria.
-     * También es un método sincronizado para garantizar la seguridad.
+     * Asigna memoria a un lote de procesos nuevos, en orden, hasta el primero
+     * que no cabe, con una sola pasada por el asignador (que toma su cerrojo
+     * una vez por lote). Los procesos que traen memoria dinámica se asignan
+     * uno a uno con asignarMemoria.
      *
-     * @param cantidad La memoria a liberar.
+     * @param procesos Los procesos, en el orden en que deben admitirse.
+     * @return El número de procesos con memoria asignada (los primeros de la lista).
      */
-    public synchronized void liberarMemoria(int cantidad) {
-        // Devuelve la memoria y actualiza la cantidad disponible.
-        ramDisponible.addAndGet(cantidad);
+    public int asignarLote(List<Proceso> procesos) {
+        int n = procesos.size();
+        long[] cantidades = new long[n];
+        int[] nodos = new int[n];
+        for (int i = 0; i < n; i++) {
+            Proceso proceso = procesos.get(i);
+            if (proceso.getDinamica() != null) {
+                int asignados = 0;
+                while (asignados < n && asignarMemoria(procesos.get(asignados))) {
+                    asignados++;
+                }
+                return asignados;
+            }
+            cantidades[i] = proceso.getBytesRequeridos();
+            nodos[i] = proceso.getNodo();
+        }
+        long[] direcciones = new long[n];
+        long inicio = System.nanoTime();
+        int asignados = asignador.asignarLote(cantidades, nodos, direcciones);
+        long nanos = System.nanoTime() - inicio;
+        // Cada intento cuenta como una asignación, con la latencia media del lote.
+        int intentos = Math.min(n, asignados + 1);
+        nanosAsignacion.add(nanos);
+        asignaciones.add(intentos);
+        for (int i = 0; i < intentos; i++) {
+            metricas.asignacion(nanos / intentos, i < asignados);
+        }
+        for (int i = 0; i < asignados; i++) {
+            Proceso proceso = procesos.get(i);
+            if (proceso.getNodo() >= 0 && asignador instanceof AsignadorNuma
+                    && AsignadorNuma.nodoDe(direcciones[i]) != proceso.getNodo() % getNumeroNodos()) {
+                metricas.asignacionRemota();
+            }
+            proceso.setDireccion(direcciones[i]);
+        }
+        return asignados;
+    }
+
+    /**
+     * Atiende una petición de crecimiento de un proceso en ejecución como una
+     * ráfaga de reservas: la cantidad se reparte en varios bloques, como haría
+     * un asignador de heap que pide arenas al sistema. La ráfaga es todo o
+     * nada: si un bloque no cabe se deshacen los anteriores.
+     *
+     * @param proceso El proceso que crece; debe tener su MemoriaDinamica.
+     * @param bytes Bytes que pide.
+     * @param bloques Número de bloques en que se reparte la petición.
+     * @return true si obtuvo toda la memoria pedida.
+     */
+    public boolean crecer(Proceso proceso, long bytes, int bloques) {
+        MemoriaDinamica dinamica = proceso.getDinamica();
+        int base = dinamica.getSegmentos();
+        long restante = bytes;
+        long inicio = System.nanoTime();
+        boolean exito = true;
+        for (int i = 0; i < bloques && restante > 0; i++) {
+            long tamano = i == bloques - 1 ? restante : Math.min(restante, Math.max(1, bytes / bloques));
+            long direccion = asignador.asignar(tamano, proceso.getNodo());
+            if (direccion < 0) {
+                exito = false;
+                break;
+            }
+            dinamica.apilar(direccion, tamano);
+            restante -= tamano;
+        }
+        if (!exito) {
+            while (dinamica.getSegmentos() > base) {
+                asignador.liberar(dinamica.getDireccion(dinamica.getSegmentos() - 1),
+                        dinamica.getTamano(dinamica.getSegmentos() - 1));
+                dinamica.desapilar();
+            }
+        }
+        if (exito) {
+            proceso.bytesCambiados();
+        }
+        long nanos = System.nanoTime() - inicio;
+        rafagas.increment();
+        bloquesRafaga.add(dinamica.getSegmentos() - base);
+        nanosRafaga.add(nanos);
+        metricas.rafagaMemoria(nanos, exito);
+        return exito;
+    }
+
+    /**
+     * Devuelve memoria de un proceso en ejecución, liberando segmentos desde
+     * la cima hasta cubrir la cantidad pedida, y avisa a los oyentes.
+     *
+     * @param proceso El proceso que devuelve memoria.
+     * @param bytes Bytes que quiere devolver.
+     * @return Bytes liberados de verdad (segmentos enteros; 0 si no tenía ninguno).
+     */
+    public long encoger(Proceso proceso, long bytes) {
+        MemoriaDinamica dinamica = proceso.getDinamica();
+        long liberados = 0;
+        while (liberados < bytes && dinamica.getSegmentos() > 0) {
+            int cima = dinamica.getSegmentos() - 1;
+            asignador.liberar(dinamica.getDireccion(cima), dinamica.getTamano(cima));
+            liberados += dinamica.desapilar();
+        }
+        if (liberados > 0) {
+            proceso.bytesCambiados();
+            for (Runnable oyente : oyentesLiberacion) {
+                oyente.run();
+            }
+        }
+        return liberados;
+    }
+
+    /**
+     * Compacta la memoria: mueve los bloques de los procesos indicados al
+     * principio, en orden de dirección, para que toda la memoria libre quede
+     * en un único hueco. Solo tiene sentido con lista libre, el único modelo
+     * en el que un bloque puede no caber habiendo memoria libre de sobra; en
+     * los demás no hace nada.
+     *
+     * @param procesos Todos los procesos que tienen memoria asignada.
+     * @return Bytes movidos, o -1 si el modelo no se puede compactar.
+     */
+    public long compactar(Proceso[] procesos) {
+        if (!isCompactable()) {
+            return -1;
+        }
+        // Cada bloque: dirección, tamaño, índice del proceso y segmento (-1 = bloque inicial).
+        List<long[]> bloques = new ArrayList<>();
+        for (int p = 0; p < procesos.length; p++) {
+            bloques.add(new long[] {procesos[p].getDireccion(), procesos[p].getBytesRequeridos(), p, -1});
+            MemoriaDinamica dinamica = procesos[p].getDinamica();
+            for (int i = 0; dinamica != null && i < dinamica.getSegmentos(); i++) {
+                bloques.add(new long[] {dinamica.getDireccion(i), dinamica.getTamano(i), p, i});
+            }
+        }
+        bloques.sort(Comparator.comparingLong(b -> b[0]));
+        for (long[] bloque : bloques) {
+            asignador.liberar(bloque[0], bloque[1]);
+        }
+        // Con toda la memoria en un hueco, cada reserva se coloca justo detrás de la anterior.
+        long movidos = 0;
+        for (long[] bloque : bloques) {
+            long direccion = asignador.asignar(bloque[1]);
+            if (direccion != bloque[0]) {
+                movidos += bloque[1];
+            }
+            Proceso proceso = procesos[(int) bloque[2]];
+            if (bloque[3] < 0) {
+                proceso.setDireccion(direccion);
+            } else {
+                proceso.getDinamica().setDireccion((int) bloque[3], direccion);
+            }
+        }
+        return movidos;
+    }
+
+    /**
+     * Registra un oyente que se ejecutará tras cada liberación de memoria.
+     * Lo usa el GestorDeProcesos para despertar al planificador de admisión.
+     *
+     * @param oyente La acción a ejecutar.
+     */
+    public void agregarOyenteLiberacion(Runnable oyente) {
+        oyentesLiberacion.add(oyente);
+    }
+
+    /**
+     * Libera la memoria que ocupaba un proceso y avisa a los oyentes.
+     *
+     * @param proceso El proceso que libera su memoria.
+     */
+    public void liberarMemoria(Proceso proceso) {
+        asignador.liberar(proceso.getDireccion(), proceso.getBytesRequeridos());
+        proceso.setDireccion(-1);
+        // Los segmentos conservan su tamaño por si el proceso vuelve del intercambio.
+        MemoriaDinamica dinamica = proceso.getDinamica();
+        if (dinamica != null) {
+            for (int i = 0; i < dinamica.getSegmentos(); i++) {
+                asignador.liberar(dinamica.getDireccion(i), dinamica.getTamano(i));
+                dinamica.setDireccion(i, -1);
+            }
+        }
+        for (Runnable oyente : oyentesLiberacion) {
+            oyente.run();
+        }
     }
-}
\ No newline at end of file
+}
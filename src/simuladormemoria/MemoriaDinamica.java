@@ -0,0 +1,135 @@
+package simuladormemoria;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * La clase MemoriaDinamica guarda la memoria que un proceso pide después
+ * de empezar: una pila de segmentos, cada uno con su dirección y tamaño,
+ * que crece con cada petición de memoria y se libera desde la cima (como
+ * el heap de un programa que hace brk/sbrk o reserva por arenas).
+ *
+ * Cuando el proceso sale de memoria (al intercambio) los segmentos
+ * conservan su tamaño pero pierden la dirección, y Memoria los vuelve a
+ * reservar junto con el bloque inicial al traerlo de vuelta.
+ *
+ * También lleva el estado del perfil de memoria del proceso: cuántas
+ * peticiones lleva, su generador aleatorio y la petición que tiene pendiente.
+ * El generador es un SplitMix64 cuyo estado es un solo long, para que un
+ * punto de control (ver PuntoControl) lo pueda guardar y restaurar.
+ */
+public class MemoriaDinamica {
+    // Segmentos en arrays paralelos; el último es la cima de la pila.
+    private long[] direcciones = new long[8];
+    private long[] tamanos = new long[8];
+    private int segmentos;
+    // Suma de los tamaños de todos los segmentos.
+    private long total;
+    // Peticiones hechas hasta ahora e instante de la siguiente.
+    private int paso;
+    private long proximaPeticion = -1;
+    // Bytes que el proceso pidió y no pudo obtener (mientras está bloqueado).
+    private long pendiente;
+    // Estado del generador del perfil, con semilla propia del proceso para que la simulación sea reproducible.
+    private long aleatorio;
+    // Si ha cambiado desde el último punto de control.
+    private boolean modificado = true;
+
+    /**
+     * Constructor del estado.
+     * @param semilla Semilla del generador del perfil (normalmente, el PID).
+     */
+    public MemoriaDinamica(long semilla) {
+        this.aleatorio = semilla;
+    }
+
+    public int getSegmentos() { return segmentos; }
+    public long getDireccion(int segmento) { return direcciones[segmento]; }
+    public void setDireccion(int segmento, long direccion) { direcciones[segmento] = direccion; modificado = true; }
+    public long getTamano(int segmento) { return tamanos[segmento]; }
+    public long getTotal() { return total; }
+    public int getPaso() { return paso; }
+    public void avanzarPaso() { paso++; modificado = true; }
+    public long getProximaPeticion() { return proximaPeticion; }
+    public void setProximaPeticion(long proximaPeticion) { this.proximaPeticion = proximaPeticion; modificado = true; }
+    public long getPendiente() { return pendiente; }
+    public void setPendiente(long pendiente) { this.pendiente = pendiente; modificado = true; }
+
+    /**
+     * Devuelve el siguiente número aleatorio del perfil.
+     * @return Un valor uniforme en [0, 1).
+     */
+    public double siguienteAleatorio() {
+        modificado = true;
+        long z = aleatorio += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return ((z ^ (z >>> 31)) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Añade un segmento en la cima de la pila.
+     * @param direccion Dirección del bloque reservado.
+     * @param tamano Tamaño del segmento en bytes.
+     */
+    public void apilar(long direccion, long tamano) {
+        if (segmentos == direcciones.length) {
+            direcciones = Arrays.copyOf(direcciones, segmentos * 2);
+            tamanos = Arrays.copyOf(tamanos, segmentos * 2);
+        }
+        direcciones[segmentos] = direccion;
+        tamanos[segmentos] = tamano;
+        segmentos++;
+        total += tamano;
+        modificado = true;
+    }
+
+    /**
+     * Quita el segmento de la cima de la pila. Quien llama libera antes su bloque.
+     * @return El tamaño del segmento quitado.
+     */
+    public long desapilar() {
+        segmentos--;
+        total -= tamanos[segmentos];
+        modificado = true;
+        return tamanos[segmentos];
+    }
+
+    boolean isModificado() { return modificado; }
+    void marcarGuardado() { modificado = false; }
+
+    /**
+     * Escribe el estado en un punto de control.
+     * @param salida Dónde escribirlo.
+     */
+    void escribir(BufferSalida salida) {
+        salida.escribirInt(segmentos);
+        for (int i = 0; i < segmentos; i++) {
+            salida.escribirLong(direcciones[i]);
+            salida.escribirLong(tamanos[i]);
+        }
+        salida.escribirInt(paso);
+        salida.escribirLong(proximaPeticion);
+        salida.escribirLong(pendiente);
+        salida.escribirLong(aleatorio);
+    }
+
+    /**
+     * Lee un estado escrito con escribir.
+     * @param entrada El buffer de lectura.
+     * @return El estado, sin cambios pendientes de guardar.
+     */
+    static MemoriaDinamica leer(ByteBuffer entrada) {
+        MemoriaDinamica dinamica = new MemoriaDinamica(0);
+        int segmentos = entrada.getInt();
+        for (int i = 0; i < segmentos; i++) {
+            dinamica.apilar(entrada.getLong(), entrada.getLong());
+        }
+        dinamica.paso = entrada.getInt();
+        dinamica.proximaPeticion = entrada.getLong();
+        dinamica.pendiente = entrada.getLong();
+        dinamica.aleatorio = entrada.getLong();
+        dinamica.modificado = false;
+        return dinamica;
+    }
+}
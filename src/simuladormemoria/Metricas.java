@@ -0,0 +1,504 @@
+package simuladormemoria;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Capa de instrumentación del simulador. Reúne histogramas de la espera en
+ * cola, la latencia de asignación y el tiempo de retorno; contadores de
+ * llegadas, admisiones, rechazos y finalizaciones; y una serie temporal
+ * muestreada de la utilización y la fragmentación de la RAM.
+ *
+ * Las métricas se exponen por JMX (MetricasMXBean) y se pueden volcar
+ * periódicamente a un CSV (la serie) y un JSON (el resumen). La instancia
+ * DESACTIVADAS es la que usan por defecto Memoria, GestorDeProcesos y
+ * ProcesoExecutor: cada método comprueba un campo final y vuelve sin hacer
+ * nada, así que el coste sin métricas es prácticamente nulo.
+ */
+public class Metricas implements MetricasMXBean {
+    // Métricas desactivadas: todas las llamadas son no-ops.
+    public static final Metricas DESACTIVADAS = new Metricas(false, 1);
+    // Muestras que conserva la serie temporal por defecto.
+    private static final int MUESTRAS_POR_DEFECTO = 4096;
+
+    // Si se registran las métricas.
+    private final boolean activas;
+
+    // Histogramas: espera en cola, respuesta (de la llegada a la primera
+    // ráfaga de CPU) y retorno en milisegundos (del reloj de la simulación),
+    // asignación y ráfagas de crecimiento en nanosegundos.
+    private final Histograma esperaCola = new Histograma("espera_cola", "ms");
+    private final Histograma respuesta = new Histograma("respuesta", "ms");
+    private final Histograma retorno = new Histograma("retorno", "ms");
+    private final Histograma asignacion = new Histograma("asignacion", "ns");
+    private final Histograma rafagaMemoria = new Histograma("rafaga_memoria", "ns");
+
+    // Contadores del ciclo de vida.
+    private final LongAdder llegadas = new LongAdder();
+    private final LongAdder admisiones = new LongAdder();
+    private final LongAdder rechazos = new LongAdder();
+    private final LongAdder finalizaciones = new LongAdder();
+    private final LongAdder fallosAsignacion = new LongAdder();
+    private final LongAdder asignacionesRemotas = new LongAdder();
+    private final LongAdder salidasIntercambio = new LongAdder();
+    private final LongAdder entradasIntercambio = new LongAdder();
+    private final LongAdder cambiosContexto = new LongAdder();
+    private final LongAdder crecimientosFallidos = new LongAdder();
+    private final LongAdder bloqueosMemoria = new LongAdder();
+    private final LongAdder matadosOom = new LongAdder();
+    private final LongAdder compactaciones = new LongAdder();
+
+    // Serie temporal en un buffer circular de arrays paralelos.
+    private final int capacidadSerie;
+    private final long[] tiempos;
+    private final double[] utilizaciones;
+    private final double[] fragmentacionesExternas;
+    // Fragmentación interna en MB.
+    private final long[] fragmentacionesInternas;
+    private final int[] enCola;
+    private final int[] enEjecucion;
+    // Número total de muestras tomadas (la última está en (muestras - 1) % capacidadSerie).
+    private long muestras;
+    // Primera muestra que aún no se ha escrito en el CSV.
+    private long muestrasVolcadas;
+    // Sumas de todas las muestras, para las medias de toda la simulación.
+    private double sumaUtilizacion;
+    private double sumaFragmentacionExterna;
+    // Suma de la utilización de cada nodo de memoria (null hasta la primera muestra).
+    private double[] sumaUtilizacionNodos;
+
+    // Volcado periódico: hilo y directorio de destino (null si no está activo).
+    private Thread hiloVolcado;
+    private Path directorioVolcado;
+
+    /**
+     * Crea unas métricas activas con la capacidad de serie por defecto.
+     */
+    public Metricas() {
+        this(true, MUESTRAS_POR_DEFECTO);
+    }
+
+    /**
+     * Crea unas métricas activas.
+     * @param capacidadSerie Número de muestras que conserva la serie temporal.
+     */
+    public Metricas(int capacidadSerie) {
+        this(true, capacidadSerie);
+    }
+
+    private Metricas(boolean activas, int capacidadSerie) {
+        this.activas = activas;
+        this.capacidadSerie = capacidadSerie;
+        this.tiempos = new long[capacidadSerie];
+        this.utilizaciones = new double[capacidadSerie];
+        this.fragmentacionesExternas = new double[capacidadSerie];
+        this.fragmentacionesInternas = new long[capacidadSerie];
+        this.enCola = new int[capacidadSerie];
+        this.enEjecucion = new int[capacidadSerie];
+    }
+
+    public boolean estaActiva() { return activas; }
+    public Histograma getEsperaCola() { return esperaCola; }
+    public Histograma getRespuesta() { return respuesta; }
+    public Histograma getRetorno() { return retorno; }
+    public Histograma getAsignacion() { return asignacion; }
+    public Histograma getRafagaMemoria() { return rafagaMemoria; }
+
+    // --- Puntos de instrumentación ---
+
+    /**
+     * Registra la llegada de un proceso al sistema.
+     */
+    public void llegada() {
+        if (activas) {
+            llegadas.increment();
+        }
+    }
+
+    /**
+     * Registra un intento de asignación de memoria.
+     * @param nanos Lo que tardó el asignador.
+     * @param exito Si la asignación tuvo éxito.
+     */
+    public void asignacion(long nanos, boolean exito) {
+        if (activas) {
+            asignacion.registrar(nanos);
+            if (!exito) {
+                fallosAsignacion.increment();
+            }
+        }
+    }
+
+    /**
+     * Registra una asignación que no cupo en el nodo preferido del proceso.
+     */
+    public void asignacionRemota() {
+        if (activas) {
+            asignacionesRemotas.increment();
+        }
+    }
+
+    /**
+     * Registra un proceso llevado al área de intercambio.
+     */
+    public void salidaIntercambio() {
+        if (activas) {
+            salidasIntercambio.increment();
+        }
+    }
+
+    /**
+     * Registra un proceso traído del área de intercambio.
+     */
+    public void entradaIntercambio() {
+        if (activas) {
+            entradasIntercambio.increment();
+        }
+    }
+
+    /**
+     * Registra el inicio de un proceso y su espera desde la llegada.
+     * @param proceso El proceso admitido, con su tiempo de llegada y de inicio.
+     */
+    public void admision(Proceso proceso) {
+        if (activas) {
+            admisiones.increment();
+            esperaCola.registrar(proceso.getTiempoInicio() - proceso.getTiempoLlegada());
+        }
+    }
+
+    /**
+     * Registra una ráfaga de crecimiento de un proceso en ejecución.
+     * @param nanos Lo que tardó el asignador en atender toda la ráfaga.
+     * @param exito Si el proceso obtuvo toda la memoria que pedía.
+     */
+    public void rafagaMemoria(long nanos, boolean exito) {
+        if (activas) {
+            rafagaMemoria.registrar(nanos);
+            if (!exito) {
+                crecimientosFallidos.increment();
+            }
+        }
+    }
+
+    /**
+     * Registra un proceso bloqueado porque no hay memoria para que crezca.
+     */
+    public void bloqueoMemoria() {
+        if (activas) {
+            bloqueosMemoria.increment();
+        }
+    }
+
+    /**
+     * Registra un proceso matado para recuperar su memoria (OOM).
+     */
+    public void muerteOom() {
+        if (activas) {
+            matadosOom.increment();
+        }
+    }
+
+    /**
+     * Registra una compactación de la memoria.
+     */
+    public void compactacion() {
+        if (activas) {
+            compactaciones.increment();
+        }
+    }
+
+    /**
+     * Registra la primera ráfaga de CPU de un proceso y su tiempo de respuesta.
+     * @param proceso El proceso, con su tiempo de llegada y de primera ejecución.
+     */
+    public void primeraEjecucion(Proceso proceso) {
+        if (activas) {
+            respuesta.registrar(proceso.getPrimeraEjecucion() - proceso.getTiempoLlegada());
+        }
+    }
+
+    /**
+     * Registra un cambio de contexto en un núcleo de CPU.
+     */
+    public void cambioContexto() {
+        if (activas) {
+            cambiosContexto.increment();
+        }
+    }
+
+    /**
+     * Registra un proceso rechazado (por ejemplo, porque el gestor se apaga).
+     */
+    public void rechazo() {
+        if (activas) {
+            rechazos.increment();
+        }
+    }
+
+    /**
+     * Registra la finalización de un proceso y su tiempo de retorno.
+     * @param proceso El proceso finalizado.
+     * @param ahora Instante de la finalización, con el mismo reloj que su llegada.
+     */
+    public void finalizacion(Proceso proceso, long ahora) {
+        if (activas) {
+            finalizaciones.increment();
+            retorno.registrar(ahora - proceso.getTiempoLlegada());
+        }
+    }
+
+    /**
+     * Toma una muestra de la utilización y la fragmentación de la memoria.
+     * @param tiempo Instante de la muestra en milisegundos (de la simulación).
+     * @param memoria La memoria observada.
+     * @param procesosEnCola Procesos en la cola de espera.
+     * @param procesosEnEjecucion Procesos en ejecución.
+     */
+    public synchronized void muestrear(long tiempo, Memoria memoria, int procesosEnCola, int procesosEnEjecucion) {
+        if (!activas) {
+            return;
+        }
+        int i = (int) (muestras % capacidadSerie);
+        tiempos[i] = tiempo;
+        utilizaciones[i] = (double) memoria.getRamUsada() / memoria.getRamTotal();
+        fragmentacionesExternas[i] = memoria.getFragmentacionExterna();
+        fragmentacionesInternas[i] = memoria.getFragmentacionInterna() / Memoria.MB;
+        enCola[i] = procesosEnCola;
+        enEjecucion[i] = procesosEnEjecucion;
+        sumaUtilizacion += utilizaciones[i];
+        sumaFragmentacionExterna += fragmentacionesExternas[i];
+        int nodos = memoria.getNumeroNodos();
+        if (sumaUtilizacionNodos == null) {
+            sumaUtilizacionNodos = new double[nodos];
+        }
+        for (int nodo = 0; nodo < Math.min(nodos, sumaUtilizacionNodos.length); nodo++) {
+            sumaUtilizacionNodos[nodo] += memoria.getUtilizacionNodo(nodo);
+        }
+        muestras++;
+    }
+
+    // --- MetricasMXBean ---
+
+    @Override public long getLlegadas() { return llegadas.sum(); }
+    @Override public long getAdmisiones() { return admisiones.sum(); }
+    @Override public long getRechazos() { return rechazos.sum(); }
+    @Override public long getFinalizaciones() { return finalizaciones.sum(); }
+    @Override public long getFallosAsignacion() { return fallosAsignacion.sum(); }
+    @Override public long getAsignacionesRemotas() { return asignacionesRemotas.sum(); }
+    @Override public long getSalidasIntercambio() { return salidasIntercambio.sum(); }
+    @Override public long getEntradasIntercambio() { return entradasIntercambio.sum(); }
+    @Override public long getCambiosContexto() { return cambiosContexto.sum(); }
+    @Override public long getCrecimientosFallidos() { return crecimientosFallidos.sum(); }
+    @Override public long getBloqueosMemoria() { return bloqueosMemoria.sum(); }
+    @Override public long getMatadosOom() { return matadosOom.sum(); }
+    @Override public long getCompactaciones() { return compactaciones.sum(); }
+    @Override public synchronized double getUtilizacion() { return muestras == 0 ? 0 : utilizaciones[ultima()]; }
+    @Override public synchronized double getFragmentacionExterna() { return muestras == 0 ? 0 : fragmentacionesExternas[ultima()]; }
+    @Override public synchronized long getFragmentacionInterna() { return muestras == 0 ? 0 : fragmentacionesInternas[ultima()]; }
+    @Override public synchronized int getProcesosEnCola() { return muestras == 0 ? 0 : enCola[ultima()]; }
+    @Override public synchronized int getProcesosEnEjecucion() { return muestras == 0 ? 0 : enEjecucion[ultima()]; }
+    @Override public synchronized double getUtilizacionMedia() { return muestras == 0 ? 0 : sumaUtilizacion / muestras; }
+    @Override public synchronized double getFragmentacionExternaMedia() { return muestras == 0 ? 0 : sumaFragmentacionExterna / muestras; }
+
+    @Override
+    public synchronized double[] getUtilizacionMediaPorNodo() {
+        double[] medias = new double[sumaUtilizacionNodos == null ? 0 : sumaUtilizacionNodos.length];
+        for (int nodo = 0; nodo < medias.length; nodo++) {
+            medias[nodo] = sumaUtilizacionNodos[nodo] / muestras;
+        }
+        return medias;
+    }
+
+    @Override public long getEsperaColaP50() { return esperaCola.getPercentil(50); }
+    @Override public long getEsperaColaP99() { return esperaCola.getPercentil(99); }
+    @Override public long getEsperaColaMaxima() { return esperaCola.getMaximo(); }
+    @Override public long getRespuestaP50() { return respuesta.getPercentil(50); }
+    @Override public long getRespuestaP99() { return respuesta.getPercentil(99); }
+    @Override public long getRespuestaMaxima() { return respuesta.getMaximo(); }
+    @Override public long getRetornoP50() { return retorno.getPercentil(50); }
+    @Override public long getRetornoP99() { return retorno.getPercentil(99); }
+    @Override public long getRetornoMaximo() { return retorno.getMaximo(); }
+    @Override public long getAsignacionP50() { return asignacion.getPercentil(50); }
+    @Override public long getAsignacionP99() { return asignacion.getPercentil(99); }
+    @Override public long getAsignacionMaxima() { return asignacion.getMaximo(); }
+    @Override public long getRafagaMemoriaP50() { return rafagaMemoria.getPercentil(50); }
+    @Override public long getRafagaMemoriaP99() { return rafagaMemoria.getPercentil(99); }
+
+    private int ultima() {
+        return (int) ((muestras - 1) % capacidadSerie);
+    }
+
+    /**
+     * Registra estas métricas en el servidor de MBeans de la plataforma.
+     * @throws JMException Si ya hay unas métricas registradas con ese nombre.
+     */
+    public void registrarEnJmx() throws JMException {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        servidor.registerMBean(this, new ObjectName("simuladormemoria:type=Metricas"));
+    }
+
+    // --- Volcados ---
+
+    @Override
+    public String aJson() {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("{\n  \"contadores\": {")
+                .append("\"llegadas\": ").append(getLlegadas())
+                .append(", \"admisiones\": ").append(getAdmisiones())
+                .append(", \"rechazos\": ").append(getRechazos())
+                .append(", \"finalizaciones\": ").append(getFinalizaciones())
+                .append(", \"fallos_asignacion\": ").append(getFallosAsignacion())
+                .append(", \"asignaciones_remotas\": ").append(getAsignacionesRemotas())
+                .append(", \"salidas_intercambio\": ").append(getSalidasIntercambio())
+                .append(", \"entradas_intercambio\": ").append(getEntradasIntercambio())
+                .append(", \"cambios_contexto\": ").append(getCambiosContexto())
+                .append(", \"crecimientos_fallidos\": ").append(getCrecimientosFallidos())
+                .append(", \"bloqueos_memoria\": ").append(getBloqueosMemoria())
+                .append(", \"matados_oom\": ").append(getMatadosOom())
+                .append(", \"compactaciones\": ").append(getCompactaciones())
+                .append("},\n  \"histogramas\": {\n");
+        Histograma[] histogramas = {esperaCola, asignacion, rafagaMemoria, respuesta, retorno};
+        for (int i = 0; i < histogramas.length; i++) {
+            Histograma h = histogramas[i];
+            sb.append("    \"").append(h.getNombre()).append("\": {")
+                    .append("\"unidad\": \"").append(h.getUnidad()).append('"')
+                    .append(", \"n\": ").append(h.getConteo())
+                    .append(", \"media\": ").append(String.format(Locale.ROOT, "%.3f", h.getMedia()))
+                    .append(", \"p50\": ").append(h.getPercentil(50))
+                    .append(", \"p90\": ").append(h.getPercentil(90))
+                    .append(", \"p99\": ").append(h.getPercentil(99))
+                    .append(", \"p999\": ").append(h.getPercentil(99.9))
+                    .append(", \"max\": ").append(h.getMaximo())
+                    .append(i + 1 < histogramas.length ? "},\n" : "}\n");
+        }
+        synchronized (this) {
+            sb.append("  },\n  \"ultima_muestra\": {")
+                    .append("\"muestras\": ").append(muestras);
+            if (muestras > 0) {
+                int u = ultima();
+                sb.append(", \"tiempo\": ").append(tiempos[u])
+                        .append(", \"utilizacion\": ").append(String.format(Locale.ROOT, "%.4f", utilizaciones[u]))
+                        .append(", \"fragmentacion_externa\": ").append(String.format(Locale.ROOT, "%.4f", fragmentacionesExternas[u]))
+                        .append(", \"fragmentacion_interna\": ").append(fragmentacionesInternas[u])
+                        .append(", \"en_cola\": ").append(enCola[u])
+                        .append(", \"en_ejecucion\": ").append(enEjecucion[u]);
+            }
+            sb.append("},\n  \"utilizacion_media_por_nodo\": [");
+            double[] medias = getUtilizacionMediaPorNodo();
+            for (int nodo = 0; nodo < medias.length; nodo++) {
+                sb.append(nodo == 0 ? "" : ", ").append(String.format(Locale.ROOT, "%.4f", medias[nodo]));
+            }
+            sb.append(']');
+        }
+        sb.append("\n}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Escribe el resumen en metricas.json (sustituyéndolo de forma atómica)
+     * y añade a serie.csv las muestras tomadas desde el último volcado.
+     * @param directorio Directorio de destino.
+     * @throws IOException Si no se pueden escribir los archivos.
+     */
+    public void volcar(Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        Path json = directorio.resolve("metricas.json");
+        Path temporal = directorio.resolve("metricas.json.tmp");
+        Files.writeString(temporal, aJson(), StandardCharsets.UTF_8);
+        Files.move(temporal, json, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Path csv = directorio.resolve("serie.csv");
+        StringBuilder sb = new StringBuilder();
+        if (!Files.exists(csv)) {
+            sb.append("tiempo,utilizacion,fragmentacion_externa,fragmentacion_interna,en_cola,en_ejecucion\n");
+        }
+        synchronized (this) {
+            // Las muestras que ya se sobrescribieron en el buffer circular se pierden.
+            long desde = Math.max(muestrasVolcadas, muestras - capacidadSerie);
+            for (long n = desde; n < muestras; n++) {
+                int i = (int) (n % capacidadSerie);
+                sb.append(tiempos[i]).append(',')
+                        .append(String.format(Locale.ROOT, "%.4f,%.4f", utilizaciones[i], fragmentacionesExternas[i]))
+                        .append(',').append(fragmentacionesInternas[i])
+                        .append(',').append(enCola[i])
+                        .append(',').append(enEjecucion[i]).append('\n');
+            }
+            muestrasVolcadas = muestras;
+        }
+        Files.writeString(csv, sb, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Arranca un hilo que, cada intervalo, toma una muestra del sistema y
+     * vuelca las métricas al directorio indicado. Se usa con el reloj real;
+     * en tiempo virtual es el MotorDeEventos quien toma las muestras.
+     * @param directorio Directorio de destino.
+     * @param intervalo Milisegundos entre muestras y volcados.
+     * @param memoria La memoria observada.
+     * @param gestor El gestor con la cola y los procesos en ejecución.
+     */
+    public synchronized void volcarPeriodicamente(Path directorio, long intervalo, Memoria memoria, GestorDeProcesos gestor) {
+        if (!activas || hiloVolcado != null) {
+            return;
+        }
+        hiloVolcado = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    muestrear(System.currentTimeMillis(), memoria,
+                            gestor.getColaEspera().size(), gestor.getProcesosEnEjecucion().size());
+                    volcar(directorio);
+                    Thread.sleep(intervalo);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("Error al volcar las métricas: " + e.getMessage());
+            }
+        }, "volcado-metricas");
+        hiloVolcado.setDaemon(true);
+        directorioVolcado = directorio;
+        hiloVolcado.start();
+    }
+
+    /**
+     * Detiene el volcado periódico y hace un último volcado con el estado final.
+     * @throws IOException Si no se pueden escribir los archivos.
+     * @throws InterruptedException Si el hilo es interrumpido mientras espera al de volcado.
+     */
+    public void detenerVolcado() throws IOException, InterruptedException {
+        Thread hilo;
+        Path directorio;
+        synchronized (this) {
+            hilo = hiloVolcado;
+            directorio = directorioVolcado;
+            hiloVolcado = null;
+            directorioVolcado = null;
+        }
+        if (hilo == null) {
+            return;
+        }
+        hilo.interrupt();
+        hilo.join();
+        volcar(directorio);
+    }
+
+    @Override
+    public String toString() {
+        // Las ráfagas de memoria y la respuesta solo se miden con memoria dinámica y planificador de CPU.
+        return String.format("Llegadas: %d | Admisiones: %d | Rechazos: %d | Finalizaciones: %d | Fallos de asignación: %d%n%s%n%s%n%s%s%s",
+                getLlegadas(), getAdmisiones(), getRechazos(), getFinalizaciones(), getFallosAsignacion(),
+                esperaCola, asignacion, rafagaMemoria.getConteo() > 0 ? rafagaMemoria + System.lineSeparator() : "",
+                respuesta.getConteo() > 0 ? respuesta + System.lineSeparator() : "", retorno);
+    }
+}
@@ -0,0 +1,68 @@
+package simuladormemoria;
+
+/**
+ * Interfaz de gestión (JMX) de las métricas del simulador. Se puede
+ * consultar en vivo con jconsole o VisualVM bajo el nombre
+ * "simuladormemoria:type=Metricas".
+ */
+public interface MetricasMXBean {
+    // Contadores del ciclo de vida de los procesos.
+    long getLlegadas();
+    long getAdmisiones();
+    long getRechazos();
+    long getFinalizaciones();
+    long getFallosAsignacion();
+    // Asignaciones que no cupieron en el nodo preferido (memorias NUMA).
+    long getAsignacionesRemotas();
+    // Procesos llevados al área de intercambio y traídos de ella.
+    long getSalidasIntercambio();
+    long getEntradasIntercambio();
+    // Cambios de contexto en los núcleos de CPU.
+    long getCambiosContexto();
+    // Crecimiento de los procesos en ejecución: peticiones que no cupieron,
+    // procesos bloqueados, procesos matados por falta de memoria y compactaciones.
+    long getCrecimientosFallidos();
+    long getBloqueosMemoria();
+    long getMatadosOom();
+    long getCompactaciones();
+
+    // Estado de la última muestra.
+    double getUtilizacion();
+    double getFragmentacionExterna();
+    // Fragmentación interna en MB.
+    long getFragmentacionInterna();
+    int getProcesosEnCola();
+    int getProcesosEnEjecucion();
+    // Medias de todas las muestras.
+    double getUtilizacionMedia();
+    double getFragmentacionExternaMedia();
+    // Utilización media de cada nodo de memoria (un solo elemento si no es NUMA).
+    double[] getUtilizacionMediaPorNodo();
+
+    // Percentiles de la espera en cola y del tiempo de retorno (milisegundos).
+    long getEsperaColaP50();
+    long getEsperaColaP99();
+    long getEsperaColaMaxima();
+    long getRetornoP50();
+    long getRetornoP99();
+    long getRetornoMaximo();
+    // Percentiles del tiempo de respuesta hasta la primera ráfaga de CPU (milisegundos).
+    long getRespuestaP50();
+    long getRespuestaP99();
+    long getRespuestaMaxima();
+
+    // Percentiles de la latencia de asignación (nanosegundos).
+    long getAsignacionP50();
+    long getAsignacionP99();
+    long getAsignacionMaxima();
+
+    // Percentiles de lo que tarda el asignador en atender una ráfaga de crecimiento (nanosegundos).
+    long getRafagaMemoriaP50();
+    long getRafagaMemoriaP99();
+
+    /**
+     * Devuelve todas las métricas en formato JSON.
+     * @return El documento JSON.
+     */
+    String aJson();
+}
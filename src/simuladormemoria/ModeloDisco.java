@@ -0,0 +1,75 @@
+package simuladormemoria;
+
+import java.util.Locale;
+
+/**
+ * La clase ModeloDisco modela la latencia de entrada/salida del
+ * dispositivo de intercambio: cada operación cuesta una latencia fija
+ * (búsqueda, cola del controlador) más el tiempo de transferir los bytes
+ * con el ancho de banda del dispositivo.
+ */
+public final class ModeloDisco {
+    // Disco duro: búsqueda de 8 ms y 150 MB/s secuenciales.
+    public static final ModeloDisco HDD = new ModeloDisco("hdd", 8.0, 150);
+    // SSD SATA: 0,1 ms y 500 MB/s.
+    public static final ModeloDisco SSD = new ModeloDisco("ssd", 0.1, 500);
+    // SSD NVMe: 0,02 ms y 3 GB/s.
+    public static final ModeloDisco NVME = new ModeloDisco("nvme", 0.02, 3000);
+
+    private final String nombre;
+    // Latencia fija por operación en milisegundos.
+    private final double latencia;
+    // Ancho de banda en MB por segundo.
+    private final double megasPorSegundo;
+
+    /**
+     * Crea un modelo de disco.
+     * @param nombre Nombre con el que se muestra.
+     * @param latencia Latencia fija por operación en milisegundos.
+     * @param megasPorSegundo Ancho de banda en MB/s.
+     */
+    public ModeloDisco(String nombre, double latencia, double megasPorSegundo) {
+        if (latencia < 0 || megasPorSegundo <= 0) {
+            throw new IllegalArgumentException("Modelo de disco no válido: " + latencia + " ms, " + megasPorSegundo + " MB/s");
+        }
+        this.nombre = nombre;
+        this.latencia = latencia;
+        this.megasPorSegundo = megasPorSegundo;
+    }
+
+    /**
+     * Crea un modelo de disco a partir de su nombre.
+     * @param nombre "hdd", "ssd", "nvme" o "latencia:ancho" (ms y MB/s, por ejemplo "2:400").
+     * @return El modelo correspondiente.
+     */
+    public static ModeloDisco porNombre(String nombre) {
+        switch (nombre) {
+            case "hdd": return HDD;
+            case "ssd": return SSD;
+            case "nvme": return NVME;
+            default:
+                String[] partes = nombre.split(":");
+                if (partes.length != 2) {
+                    throw new IllegalArgumentException("Disco desconocido: " + nombre);
+                }
+                return new ModeloDisco(nombre, Double.parseDouble(partes[0]), Double.parseDouble(partes[1]));
+        }
+    }
+
+    public double getLatencia() { return latencia; }
+    public double getMegasPorSegundo() { return megasPorSegundo; }
+
+    /**
+     * Calcula lo que tarda una operación que transfiere la cantidad indicada.
+     * @param bytes Bytes transferidos.
+     * @return La duración en milisegundos, redondeada hacia arriba.
+     */
+    public long milisegundos(long bytes) {
+        return (long) Math.ceil(latencia + bytes / (megasPorSegundo * Memoria.MB) * 1000);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s (%.2f ms, %.0f MB/s)", nombre, latencia, megasPorSegundo);
+    }
+}
@@ -1,8 +1,8 @@
 package simuladormemoria;
 
-import java.util.Queue;
-import java.util.Date;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * La clase Monitor actúa como la interfaz de usuario de la simulación.
@@ -14,19 +14,40 @@ public class Monitor implements Runnable {
     private GestorDeProcesos gestor;
     // Referencia a la Memoria para mostrar su estado de uso.
     private final Memoria memoria;
-    // Cola concurrente para almacenar los eventos más recientes.
-    private final Queue<String> eventosRecientes;
+    // Registro de eventos en un buffer circular; se formatean solo al mostrarlos.
+    private final RegistroEventos registro;
     // Límite de eventos a mostrar en pantalla.
     private static final int MAX_EVENTOS = 5;
+    // Procesos que se muestran por página en cada lista; el resto se agrega en una línea.
+    private static final int PROCESOS_POR_PAGINA = 10;
+    // Fracción máxima del tiempo que puede dedicarse a dibujar la pantalla.
+    private static final double FRACCION_DIBUJO = 0.05;
+    // Fuente de tiempo para calcular el tiempo restante de los procesos.
+    private Reloj reloj = Reloj.SISTEMA;
+    // Pantalla con doble buffer que escribe solo las líneas que cambian.
+    private PantallaTerminal pantalla = new PantallaTerminal();
+    // Intervalo de refresco deseado en milisegundos; puede alargarse si dibujar es caro.
+    private long intervaloRefresco = 2000;
+    // Número de refrescos realizados, para rotar las páginas de las listas largas.
+    private long refrescos;
 
     /**
      * Constructor del Monitor.
      * @param memoria Objeto Memoria para monitorear su estado.
      */
     public Monitor(Memoria memoria) {
+        this(memoria, RegistroEventos.CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor del Monitor con la capacidad del registro de eventos.
+     * @param memoria Objeto Memoria para monitorear su estado.
+     * @param capacidadRegistro Número de eventos que conserva el registro.
+     */
+    public Monitor(Memoria memoria, int capacidadRegistro) {
         this.memoria = memoria;
-        // Se usa ConcurrentLinkedQueue para operaciones seguras en hilos.
-        this.eventosRecientes = new ConcurrentLinkedQueue<>();
+        // El buffer circular admite varios productores sin cerrojos ni asignaciones.
+        this.registro = new RegistroEventos(capacidadRegistro);
     }
 
     /**
@@ -39,62 +60,121 @@ public class Monitor implements Runnable {
     }
 
     /**
-     * Agrega un nuevo evento a la cola de eventos recientes.
-     * Si la cola excede el tamaño máximo, elimina el evento más antiguo.
+     * Establece el reloj con el que se calcula el tiempo restante.
+     * Permite mostrar simulaciones guiadas por el reloj virtual del MotorDeEventos.
+     * @param reloj La fuente de tiempo a utilizar.
+     */
+    public void setReloj(Reloj reloj) {
+        this.reloj = reloj;
+    }
+
+    /**
+     * Establece la pantalla donde se dibuja el monitor.
+     * @param pantalla La pantalla a utilizar.
+     */
+    public void setPantalla(PantallaTerminal pantalla) {
+        this.pantalla = pantalla;
+    }
+
+    /**
+     * Establece el intervalo de refresco deseado. Si dibujar un fotograma
+     * cuesta más del 5% de ese intervalo, el monitor lo alarga automáticamente.
+     * @param intervaloRefresco Milisegundos entre refrescos.
+     */
+    public void setIntervaloRefresco(long intervaloRefresco) {
+        this.intervaloRefresco = intervaloRefresco;
+    }
+
+    /**
+     * Devuelve el registro de eventos, por ejemplo para activar su volcado a archivo.
+     * @return El registro de eventos.
+     */
+    public RegistroEventos getRegistro() {
+        return registro;
+    }
+
+    /**
+     * Registra un evento del ciclo de vida de un proceso. No formatea
+     * nada: la hora y el texto se generan solo al mostrar el evento.
+     * @param tipo El tipo de evento.
+     * @param proceso El proceso afectado.
+     */
+    public void agregarEvento(RegistroEventos.Tipo tipo, Proceso proceso) {
+        registro.registrar(tipo, proceso);
+    }
+
+    /**
+     * Agrega un mensaje libre al registro de eventos.
      * @param evento El mensaje del evento a registrar.
      */
     public void agregarEvento(String evento) {
-        // Añade la fecha y hora al evento antes de agregarlo a la cola.
-        eventosRecientes.add(String.format("[%s] %s", new Date(), evento));
-        // Mantiene la cola con un máximo de MAX_EVENTOS.
-        if (eventosRecientes.size() > MAX_EVENTOS) {
-            eventosRecientes.poll(); // Elimina el evento que entró primero.
-        }
+        registro.registrar(evento);
     }
 
     /**
-     * El método run() es el corazón del monitor. Se ejecuta en un bucle infinito
-     * para refrescar la pantalla cada 2 segundos.
+     * El método run() es el corazón del monitor. Se ejecuta en un bucle
+     * para refrescar la pantalla cada intervalo (2 segundos por defecto),
+     * hasta que el hilo es interrumpido.
      */
     @Override
     public void run() {
-        while (true) {
-            // Limpia la consola para una visualización limpia.
-            limpiarConsola();
-            // Imprime cada sección de la interfaz.
-            imprimirEncabezado();
-            imprimirEstadoRAM();
-            // Solo imprime la información del gestor si ya ha sido inicializado.
-            if (gestor != null) {
-                imprimirProcesosEnEjecucion();
-                imprimirColaDeEspera();
-            }
-            imprimirEventosRecientes();
+        while (!Thread.currentThread().isInterrupted()) {
+            long inicio = System.nanoTime();
+            dibujar();
+            long costeMs = (System.nanoTime() - inicio) / 1_000_000;
 
             try {
-                // Espera 2 segundos antes de refrescar la pantalla de nuevo.
-                Thread.sleep(2000);
+                // Refresco adaptativo: el dibujo no ocupa más del 5% del tiempo,
+                // aunque haya miles de procesos.
+                Thread.sleep(Math.max(intervaloRefresco, (long) (costeMs / FRACCION_DIBUJO)));
             } catch (InterruptedException e) {
-                // Si el hilo es interrumpido, restaura su estado.
+                // Si el hilo es interrumpido, restaura su estado y termina.
                 Thread.currentThread().interrupt();
             }
         }
     }
 
+    /**
+     * Compone un fotograma completo a partir de una instantánea del estado
+     * y lo muestra en la pantalla.
+     */
+    public void dibujar() {
+        pantalla.comenzar();
+        // Imprime cada sección de la interfaz.
+        imprimirEncabezado();
+        imprimirEstadoRAM();
+        // Solo imprime la información del gestor si ya ha sido inicializado.
+        if (gestor != null) {
+            // Instantánea de las colecciones: se copian una vez y se dibuja sobre la copia,
+            // sin recorrer las estructuras vivas mientras cambian.
+            Proceso[] enEjecucion = gestor.getProcesosEnEjecucion().instantanea();
+            Arrays.sort(enEjecucion, Comparator.comparingInt(Proceso::getPid));
+            Proceso[] enEspera = gestor.getColaEspera().toArray(new Proceso[0]);
+            if (gestor.getCpu() != null) {
+                imprimirCpu(gestor.getCpu());
+            }
+            imprimirProcesosEnEjecucion(enEjecucion);
+            imprimirColaDeEspera(enEspera);
+        }
+        imprimirEventosRecientes();
+        pantalla.mostrar();
+        refrescos++;
+    }
+
     // --- Métodos privados para imprimir las distintas secciones ---
 
     private void imprimirEncabezado() {
         // Imprime el título del simulador.
-        System.out.println("+------------------------------------------------------+");
-        System.out.println("| SIMULADOR DE GESTIÓN DE PROCESOS EN MEMORIA (Java)   |");
-        System.out.println("+------------------------------------------------------+");
+        pantalla.linea("+------------------------------------------------------+");
+        pantalla.linea("| SIMULADOR DE GESTIÓN DE PROCESOS EN MEMORIA (Java)   |");
+        pantalla.linea("+------------------------------------------------------+");
     }
 
     private void imprimirEstadoRAM() {
         // Obtiene el estado actual de la memoria.
-        int ramTotal = memoria.getRamTotal();
-        int ramDisponible = memoria.getRamDisponible();
-        int ramUsada = memoria.getRamUsada();
+        long ramTotal = memoria.getRamTotal() / Memoria.MB;
+        long ramDisponible = memoria.getRamDisponible() / Memoria.MB;
+        long ramUsada = memoria.getRamUsada() / Memoria.MB;
         String barraProgreso = generarBarra(ramUsada, ramTotal);
 
         // Aplica colores ANSI a la barra de progreso según el uso de la RAM.
@@ -106,9 +186,27 @@ public class Monitor implements Runnable {
         }
 
         // Imprime el estado detallado de la memoria.
-        System.out.printf("| RAM Total: %d MB | RAM Disponible: %d MB\n", ramTotal, ramDisponible);
-        System.out.printf("| RAM Usada: %d MB  | %s%s\u001B[0m\n", ramUsada, colorRAM, barraProgreso);
-        System.out.println("+------------------------------------------------------+");
+        pantalla.linea("| RAM Total: %d MB | RAM Disponible: %d MB", ramTotal, ramDisponible);
+        pantalla.linea("| RAM Usada: %d MB  | %s%s\u001B[0m", ramUsada, colorRAM, barraProgreso);
+        pantalla.linea("| Huecos: %d | Mayor hueco: %d MB | Fragmentación externa: %.1f%%",
+                memoria.getBloquesLibres(), memoria.getMayorBloqueLibre() / Memoria.MB, memoria.getFragmentacionExterna() * 100);
+        pantalla.linea("| Fragmentación interna: %d MB", memoria.getFragmentacionInterna() / Memoria.MB);
+        // Con varios nodos NUMA, una línea por nodo y las asignaciones remotas.
+        if (memoria.getAsignador() instanceof AsignadorNuma) {
+            AsignadorNuma numa = (AsignadorNuma) memoria.getAsignador();
+            for (int nodo = 0; nodo < numa.getNumeroNodos(); nodo++) {
+                pantalla.linea("| Nodo %d: %s %s | Locales: %d | Remotas: %d | Recibidas: %d", nodo,
+                        Memoria.formatearTamano(numa.getNodo(nodo).getRamTotal()),
+                        generarBarra(Math.round(numa.getUtilizacion(nodo) * 1000), 1000),
+                        numa.getAsignacionesLocales(nodo), numa.getAsignacionesRemotas(nodo),
+                        numa.getAsignacionesRecibidas(nodo));
+            }
+        }
+        // En memoria paginada se muestran también las estadísticas globales.
+        if (memoria.getAsignador() instanceof AsignadorPaginado) {
+            pantalla.linea("| Paginación: %s", ((AsignadorPaginado) memoria.getAsignador()).getEstadisticas());
+        }
+        pantalla.linea("+------------------------------------------------------+");
     }
 
     /**
@@ -117,7 +215,7 @@ public class Monitor implements Runnable {
      * @param total El valor total (RAM total).
      * @return Una barra de progreso en formato String.
      */
-    private String generarBarra(int actual, int total) {
+    private String generarBarra(long actual, long total) {
         int porcentaje = (int) (((double) actual / total) * 100);
         int bloques = porcentaje / 5; // Cada bloque representa el 5%.
         StringBuilder sb = new StringBuilder("[");
@@ -133,58 +231,119 @@ public class Monitor implements Runnable {
         return sb.toString();
     }
 
-    private void imprimirProcesosEnEjecucion() {
+    /**
+     * Calcula la página de una lista que toca mostrar en este refresco:
+     * con listas largas, cada refresco muestra la página siguiente.
+     * @param total Número de elementos de la lista.
+     * @return La posición del primer elemento de la página.
+     */
+    private int inicioPagina(int total) {
+        int paginas = (total + PROCESOS_POR_PAGINA - 1) / PROCESOS_POR_PAGINA;
+        return paginas <= 1 ? 0 : (int) (refrescos % paginas) * PROCESOS_POR_PAGINA;
+    }
+
+    /**
+     * Imprime una línea que resume los procesos de la lista que no caben en la página.
+     * @param procesos La lista completa.
+     * @param inicio Primer elemento mostrado.
+     * @param fin Posición siguiente al último elemento mostrado.
+     */
+    private void imprimirResumen(Proceso[] procesos, int inicio, int fin) {
+        if (procesos.length <= PROCESOS_POR_PAGINA) {
+            return;
+        }
+        long memoriaTotal = 0;
+        for (Proceso proc : procesos) {
+            memoriaTotal += proc.getMemoriaRequerida();
+        }
+        pantalla.linea("|   Página %d/%d (%d-%d de %d) | Memoria total: %d MB",
+                inicio / PROCESOS_POR_PAGINA + 1, (procesos.length + PROCESOS_POR_PAGINA - 1) / PROCESOS_POR_PAGINA,
+                inicio + 1, fin, procesos.length, memoriaTotal);
+    }
+
+    private void imprimirCpu(PlanificadorCpu cpu) {
+        // Lectura sin sincronizar: el motor puede estar cambiando de ráfaga, basta una vista aproximada.
+        long ahora = reloj.ahora();
+        pantalla.linea("| CPU: %d núcleos, %s | Listos: %d | Cambios de contexto: %d",
+                cpu.getNucleos(), cpu.getNombrePolitica(), cpu.getListos(), cpu.getCambiosContexto());
+        for (int nucleo = 0; nucleo < cpu.getNucleos(); nucleo++) {
+            Proceso proc = cpu.getEnNucleo(nucleo);
+            pantalla.linea("|   Núcleo %d: %-28s %5.1f%%", nucleo,
+                    proc == null ? "(libre)" : proc.getNombre() + " (PID: " + proc.getPid() + ")",
+                    cpu.getUtilizacion(nucleo, ahora) * 100);
+        }
+        pantalla.linea("+------------------------------------------------------+");
+    }
+
+    private void imprimirProcesosEnEjecucion(Proceso[] procesos) {
         // Muestra el número de procesos en ejecución.
-        System.out.printf("| PROCESOS EN EJECUCIÓN (%d)\n", gestor.getProcesosEnEjecucion().size());
-        System.out.println("+------------------------------------------------------+");
-        // Itera sobre los procesos en ejecución para mostrar sus detalles.
-        if (!gestor.getProcesosEnEjecucion().isEmpty()) {
-            gestor.getProcesosEnEjecucion().forEach((pid, proc) -> {
-                // Calcula el tiempo restante de ejecución.
-                long tiempoRestante = proc.getDuracion() - (System.currentTimeMillis() - proc.getTiempoInicio()) / 1000;
-                System.out.printf("|   - %s (PID: %d)\n", proc.getNombre(), pid);
-                System.out.printf("|     Memoria: %d MB | Duración: %ds | Restante: %ds\n",
+        pantalla.linea("| PROCESOS EN EJECUCIÓN (%d)", procesos.length);
+        pantalla.linea("+------------------------------------------------------+");
+        // Recorre solo la página visible de la instantánea.
+        if (procesos.length > 0) {
+            int inicio = inicioPagina(procesos.length);
+            int fin = Math.min(inicio + PROCESOS_POR_PAGINA, procesos.length);
+            long ahora = reloj.ahora();
+            for (int i = inicio; i < fin; i++) {
+                Proceso proc = procesos[i];
+                // Calcula el tiempo restante de ejecución (con planificador de CPU, la CPU que le falta).
+                long tiempoRestante = gestor.getCpu() != null ? proc.getCpuRestante() / 1000
+                        : proc.getDuracion() - (ahora - proc.getTiempoInicio()) / 1000;
+                pantalla.linea("|   - %s (PID: %d)", proc.getNombre(), proc.getPid());
+                pantalla.linea("|     Memoria: %d MB | Duración: %ds | Restante: %ds",
                         proc.getMemoriaRequerida(), proc.getDuracion(), tiempoRestante);
-            });
+                EstadisticasPaginacion paginacion = memoria.getEstadisticasPaginacion(proc);
+                if (paginacion != null) {
+                    pantalla.linea("|     %s", paginacion);
+                }
+            }
+            imprimirResumen(procesos, inicio, fin);
         } else {
-            System.out.println("|   (Ninguno)");
+            pantalla.linea("|   (Ninguno)");
         }
-        System.out.println("+------------------------------------------------------+");
+        pantalla.linea("+------------------------------------------------------+");
     }
 
-    private void imprimirColaDeEspera() {
+    private void imprimirColaDeEspera(Proceso[] procesos) {
         // Muestra el número de procesos en la cola de espera.
-        System.out.printf("| COLA DE ESPERA (%d)\n", gestor.getColaEspera().size());
-        System.out.println("+------------------------------------------------------+");
-        // Itera sobre los procesos en la cola para mostrarlos.
-        if (!gestor.getColaEspera().isEmpty()) {
-            gestor.getColaEspera().forEach(proc -> System.out.printf("|   - %s (PID: %d) -> Memoria requerida: %d MB\n",
-                    proc.getNombre(), proc.getPid(), proc.getMemoriaRequerida()));
+        if (gestor.getLimiteCola() < Integer.MAX_VALUE) {
+            // Con la cola limitada, también lo que la contrapresión ha dejado fuera.
+            pantalla.linea("| COLA DE ESPERA (%d de %d, %s) | Rechazados: %d | Descartados: %d | Esperas: %d",
+                    procesos.length, gestor.getLimiteCola(), gestor.getContrapresion(),
+                    gestor.getRechazadosColaLlena(), gestor.getDescartados(), gestor.getEsperasColaLlena());
+        } else {
+            pantalla.linea("| COLA DE ESPERA (%d)", procesos.length);
+        }
+        pantalla.linea("| %s", gestor.getEstadisticasAdmision());
+        pantalla.linea("+------------------------------------------------------+");
+        // Recorre solo la página visible de la instantánea.
+        if (procesos.length > 0) {
+            int inicio = inicioPagina(procesos.length);
+            int fin = Math.min(inicio + PROCESOS_POR_PAGINA, procesos.length);
+            for (int i = inicio; i < fin; i++) {
+                pantalla.linea("|   - %s (PID: %d) -> Memoria requerida: %d MB",
+                        procesos[i].getNombre(), procesos[i].getPid(), procesos[i].getMemoriaRequerida());
+            }
+            imprimirResumen(procesos, inicio, fin);
         } else {
-            System.out.println("|   (Ninguno)");
+            pantalla.linea("|   (Ninguno)");
         }
-        System.out.println("+------------------------------------------------------+");
+        pantalla.linea("+------------------------------------------------------+");
     }
 
     private void imprimirEventosRecientes() {
         // Muestra los eventos del sistema.
-        System.out.println("| EVENTOS RECIENTES                                    |");
-        System.out.println("+------------------------------------------------------+");
-        // Itera sobre la cola de eventos y los imprime.
+        pantalla.linea("| EVENTOS RECIENTES                                    |");
+        pantalla.linea("+------------------------------------------------------+");
+        // Formatea solo los MAX_EVENTOS últimos eventos del registro.
+        List<String> eventosRecientes = registro.recientes(MAX_EVENTOS);
         if (!eventosRecientes.isEmpty()) {
-            eventosRecientes.forEach(evento -> System.out.printf("| %s\n", evento));
+            for (String evento : eventosRecientes) {
+                pantalla.linea("| " + evento);
+            }
         } else {
-            System.out.println("|   (Ninguno)");
-        }
-        System.out.println("+------------------------------------------------------+");
-    }
-
-    /**
-     * Imprime múltiples líneas en blanco para simular la limpieza de la consola.
-     */
-    public void limpiarConsola() {
-        for (int i = 0; i < 50; i++) {
-            System.out.println();
+            pantalla.linea("|   (Ninguno)");
         }
+        pantalla.linea("+------------------------------------------------------+");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,931 @@
+package simuladormemoria;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * La clase MotorDeEventos implementa una simulación de eventos discretos
+ * con reloj virtual. En lugar de dormir un hilo por cada proceso, mantiene
+ * una cola de prioridad de eventos con marca de tiempo (llegada, asignación
+ * y finalización) y los procesa en orden, actualizando Memoria,
+ * GestorDeProcesos y Monitor.
+ *
+ * Con un área de intercambio (setIntercambio), cuando el primer proceso de
+ * la cola no cabe se llevan procesos en ejecución a disco para hacerle
+ * sitio, y vuelven en cuanto hay memoria (ver Intercambio).
+ *
+ * Con un planificador de CPU en el gestor (GestorDeProcesos.setCpu), un
+ * proceso con memoria no termina al cumplirse su duración: pasa a la cola
+ * de listos y recibe su duración en ráfagas de CPU en los núcleos; termina
+ * cuando ha consumido toda la CPU que necesitaba.
+ *
+ * Con un perfil de memoria (setMemoriaDinamica), cada proceso en ejecución
+ * pide y devuelve memoria periódicamente además de la que reservó al
+ * empezar. Si una petición no cabe, el motor reacciona según SinMemoria:
+ * bloquea al proceso, mata al que más ocupa, lleva otros a disco o compacta.
+ *
+ * En modo VIRTUAL el reloj salta directamente al siguiente evento, por lo que
+ * se pueden simular millones de procesos en segundos. En modo TIEMPO_REAL el
+ * motor espera el tiempo de pared correspondiente antes de cada evento; el
+ * orden de los eventos es exactamente el mismo en ambos modos.
+ *
+ * La simulación es determinista: un solo hilo procesa los eventos en orden
+ * de (tiempo, secuencia) y toda la aleatoriedad sale de semillas, así que
+ * con la misma semilla (setSemilla) y los mismos procesos cada ejecución
+ * toma las mismas decisiones. Con una traza (setTraza) se graban todas
+ * para compararlas con las de otra ejecución (ver TrazaDecisiones).
+ */
+public class MotorDeEventos implements Reloj {
+
+    /**
+     * Modos de avance del reloj.
+     */
+    public enum Modo {
+        // El reloj salta al siguiente evento sin esperar.
+        VIRTUAL,
+        // El motor duerme hasta que llega la hora real de cada evento.
+        TIEMPO_REAL
+    }
+
+    /**
+     * Reacciones cuando un proceso en ejecución pide memoria y no la hay.
+     */
+    public enum SinMemoria {
+        // El proceso espera sin avanzar hasta que se libere memoria.
+        BLOQUEAR,
+        // Se mata al proceso que más memoria ocupa, que puede ser el mismo que la pide (OOM).
+        MATAR,
+        // El proceso espera mientras se llevan otros al área de intercambio.
+        INTERCAMBIAR,
+        // Se compacta la memoria por si el problema es la fragmentación; si ni así cabe, espera.
+        COMPACTAR;
+
+        /**
+         * Crea una reacción a partir de su nombre.
+         * @param nombre "bloquear", "matar", "intercambiar" o "compactar".
+         * @return La reacción.
+         */
+        public static SinMemoria porNombre(String nombre) {
+            switch (nombre) {
+                case "bloquear": return BLOQUEAR;
+                case "matar": return MATAR;
+                case "intercambiar": return INTERCAMBIAR;
+                case "compactar": return COMPACTAR;
+                default: throw new IllegalArgumentException("Reacción sin memoria desconocida: " + nombre);
+            }
+        }
+    }
+
+    // Bloques en que se reparte cada petición de crecimiento (una ráfaga de reservas).
+    private static final int BLOQUES_POR_RAFAGA = 8;
+
+    // Memoria del sistema sobre la que se asignan los procesos.
+    private final Memoria memoria;
+    // Gestor que contiene la cola de espera y los procesos en ejecución.
+    private final GestorDeProcesos gestor;
+    // Monitor para registrar eventos (puede ser null para simulaciones masivas).
+    private final Monitor monitor;
+    // Registro de eventos para cuando no hay monitor (por ejemplo, para guardarlo en un punto de control).
+    private RegistroEventos registro;
+    // Modo de avance del reloj.
+    private final Modo modo;
+    // Cola de prioridad con los eventos pendientes, ordenados por tiempo.
+    private final PriorityQueue<Evento> eventos;
+    // Reloj virtual en milisegundos.
+    private long ahora;
+    // Contador para desempatar eventos simultáneos en orden de creación.
+    private long secuencia;
+    // Milisegundos reales que dura cada milisegundo virtual en modo TIEMPO_REAL.
+    private double escala = 1.0;
+    // Referencias que emite cada proceso por ráfaga y milisegundos entre ráfagas
+    // (0 referencias = no se simulan los accesos a memoria).
+    private int referenciasPorRafaga;
+    private long intervaloRafagas = 10;
+    // Evento ACCESOS vigente de cada proceso: al reanudarse un proceso empieza una
+    // cadena nueva y los eventos de la anterior que sigan en la cola se ignoran.
+    private final Map<Proceso, Evento> cadenasAccesos = new HashMap<>();
+    // Milisegundos virtuales entre muestras de las métricas (0 = sin muestreo) y siguiente muestra.
+    private long intervaloMuestreo;
+    private long proximaMuestra;
+    // Área de intercambio (null = los procesos que no caben solo esperan en la cola).
+    private Intercambio intercambio;
+    // Bytes de los procesos que se están escribiendo en disco y aún ocupan memoria.
+    private long bytesSaliendo;
+    // Planificador de CPU del gestor (null = cada proceso termina al cumplirse su duración)
+    // y evento de fin de la ráfaga en curso en cada núcleo; un FIN_RAFAGA que no
+    // esté aquí es de una ráfaga cortada por una expropiación o una salida a disco.
+    private final PlanificadorCpu cpu;
+    private final Evento[] rafagas;
+    // Procesos admitidos cuyo ASIGNACION aún no se ha procesado: cuentan para el límite de listos.
+    private int asignacionesPendientes;
+    // Perfil con el que los procesos piden y devuelven memoria (null = memoria fija),
+    // milisegundos entre peticiones y reacción cuando no cabe una petición.
+    private PerfilMemoria perfil;
+    private long intervaloPeticiones;
+    private SinMemoria sinMemoria = SinMemoria.BLOQUEAR;
+    // Semilla de la simulación, de la que sale el generador del perfil de cada proceso.
+    private long semilla;
+    // Traza donde se graban las decisiones (null = no se graban).
+    private TrazaDecisiones traza;
+    // Procesos bloqueados esperando memoria para crecer, en orden de bloqueo.
+    private final ArrayDeque<Proceso> bloqueados = new ArrayDeque<>();
+    // Estadísticas básicas de la simulación.
+    private long eventosProcesados;
+    private long procesosFinalizados;
+    private long peticionesMemoria;
+    private long crecimientosFallidos;
+    private long bloqueos;
+    private long procesosMatados;
+    private long compactaciones;
+    private long bytesCompactados;
+
+    /**
+     * Constructor del motor de eventos.
+     * @param memoria Objeto Memoria para la gestión de la memoria.
+     * @param gestor Gestor con la cola de espera y los procesos en ejecución.
+     * @param monitor Monitor para registrar eventos, o null para no registrar.
+     * @param modo Modo de avance del reloj.
+     */
+    public MotorDeEventos(Memoria memoria, GestorDeProcesos gestor, Monitor monitor, Modo modo) {
+        this.memoria = memoria;
+        this.gestor = gestor;
+        this.monitor = monitor;
+        this.modo = modo;
+        this.eventos = new PriorityQueue<>();
+        this.cpu = gestor.getCpu();
+        this.rafagas = cpu != null ? new Evento[cpu.getNucleos()] : null;
+    }
+
+    /**
+     * Establece cuántos milisegundos reales dura un milisegundo virtual
+     * (solo tiene efecto en modo TIEMPO_REAL).
+     * @param escala Factor de escala, por ejemplo 0.5 para ir al doble de velocidad.
+     */
+    public void setEscala(double escala) {
+        this.escala = escala;
+    }
+
+    /**
+     * Activa la simulación de accesos a memoria: cada proceso en ejecución con
+     * un flujo de referencias emite una ráfaga de referencias cada intervalo.
+     * Solo tiene efecto si la memoria es paginada.
+     * @param referenciasPorRafaga Referencias de cada ráfaga (0 para desactivar).
+     * @param intervaloRafagas Milisegundos virtuales entre ráfagas.
+     */
+    public void setAccesos(int referenciasPorRafaga, long intervaloRafagas) {
+        this.referenciasPorRafaga = referenciasPorRafaga;
+        this.intervaloRafagas = intervaloRafagas;
+    }
+
+    /**
+     * Activa el muestreo de la utilización y la fragmentación en las métricas
+     * del gestor cada cierto tiempo virtual.
+     * @param intervaloMuestreo Milisegundos virtuales entre muestras (0 para desactivar).
+     */
+    public void setMuestreo(long intervaloMuestreo) {
+        this.intervaloMuestreo = intervaloMuestreo;
+        this.proximaMuestra = ahora;
+    }
+
+    /**
+     * Activa el intercambio de procesos a disco cuando falta memoria.
+     * @param intercambio El área de intercambio, o null para desactivarlo.
+     */
+    public void setIntercambio(Intercambio intercambio) {
+        this.intercambio = intercambio;
+    }
+
+    /**
+     * Establece la semilla de la simulación. El generador del perfil de
+     * memoria de cada proceso se siembra con ella y con su PID.
+     * @param semilla La semilla.
+     */
+    public void setSemilla(long semilla) {
+        this.semilla = semilla;
+    }
+
+    /**
+     * Graba en una traza cada decisión del motor (admisiones, intercambio,
+     * núcleos, crecimientos, bloqueos y muertes).
+     * @param traza La traza, o null para no grabar.
+     */
+    public void setTraza(TrazaDecisiones traza) {
+        this.traza = traza;
+    }
+
+    public Intercambio getIntercambio() { return intercambio; }
+    public Memoria getMemoria() { return memoria; }
+    public GestorDeProcesos getGestor() { return gestor; }
+
+    /**
+     * Establece dónde se registran los eventos cuando el motor no tiene monitor.
+     * @param registro El registro, o null para no registrar.
+     */
+    public void setRegistro(RegistroEventos registro) {
+        this.registro = registro;
+    }
+
+    /**
+     * Devuelve el registro de eventos del motor: el del monitor o el propio.
+     * @return El registro, o null si no se registran eventos.
+     */
+    public RegistroEventos getRegistro() {
+        return monitor != null ? monitor.getRegistro() : registro;
+    }
+
+    /**
+     * Activa el crecimiento de la memoria de los procesos en ejecución.
+     * @param perfil Perfil de las peticiones, o null para que la memoria sea fija.
+     * @param intervaloPeticiones Milisegundos virtuales entre peticiones de cada proceso.
+     * @param sinMemoria Reacción cuando una petición no cabe.
+     * @throws IllegalArgumentException Si la memoria es paginada, o si se pide
+     * compactar una memoria que no se puede compactar.
+     */
+    public void setMemoriaDinamica(PerfilMemoria perfil, long intervaloPeticiones, SinMemoria sinMemoria) {
+        if (perfil != null && memoria.isPaginada()) {
+            // Cada bloque del crecimiento sería una tabla de páginas nueva, ajena al proceso.
+            throw new IllegalArgumentException("los perfiles de memoria no admiten la memoria paginada");
+        }
+        if (perfil != null && sinMemoria == SinMemoria.COMPACTAR && !memoria.isCompactable()) {
+            throw new IllegalArgumentException("compactar solo admite los modelos de lista libre sin nodos");
+        }
+        this.perfil = perfil;
+        this.intervaloPeticiones = intervaloPeticiones;
+        this.sinMemoria = sinMemoria;
+    }
+
+    /**
+     * Devuelve el tiempo virtual actual de la simulación.
+     * @return El tiempo actual en milisegundos virtuales.
+     */
+    @Override
+    public long ahora() {
+        return ahora;
+    }
+
+    public long getEventosProcesados() { return eventosProcesados; }
+    public long getProcesosFinalizados() { return procesosFinalizados; }
+    public int getEventosPendientes() { return eventos.size(); }
+    // Instante del siguiente evento pendiente, o Long.MAX_VALUE si no queda ninguno.
+    public long getSiguienteEvento() { return eventos.isEmpty() ? Long.MAX_VALUE : eventos.peek().getTiempo(); }
+    public long getPeticionesMemoria() { return peticionesMemoria; }
+    public long getCrecimientosFallidos() { return crecimientosFallidos; }
+    public long getBloqueos() { return bloqueos; }
+    public long getProcesosMatados() { return procesosMatados; }
+    public long getCompactaciones() { return compactaciones; }
+    public long getBytesCompactados() { return bytesCompactados; }
+    public int getBloqueados() { return bloqueados.size(); }
+
+    /**
+     * Programa la llegada de un proceso al sistema.
+     * @param proceso El proceso que llega.
+     * @param tiempo El instante de llegada en milisegundos virtuales.
+     */
+    public void programarLlegada(Proceso proceso, long tiempo) {
+        programar(Evento.Tipo.LLEGADA, proceso, tiempo);
+    }
+
+    /**
+     * Procesa eventos hasta que la cola quede vacía.
+     * @throws InterruptedException Si el hilo es interrumpido en modo TIEMPO_REAL.
+     */
+    public void ejecutar() throws InterruptedException {
+        while (paso()) {
+            // Cada llamada a paso() procesa un único evento.
+        }
+    }
+
+    /**
+     * Procesa eventos mientras su tiempo no supere el límite indicado.
+     * @param limite Tiempo virtual máximo (inclusive) a simular.
+     * @throws InterruptedException Si el hilo es interrumpido en modo TIEMPO_REAL.
+     */
+    public void ejecutarHasta(long limite) throws InterruptedException {
+        while (!eventos.isEmpty() && eventos.peek().getTiempo() <= limite) {
+            paso();
+        }
+        // El reloj avanza hasta el límite aunque no haya eventos en ese instante.
+        ahora = Math.max(ahora, limite);
+    }
+
+    /**
+     * Extrae y procesa el siguiente evento de la cola.
+     * @return true si se procesó un evento, false si la cola estaba vacía.
+     * @throws InterruptedException Si el hilo es interrumpido en modo TIEMPO_REAL.
+     */
+    public boolean paso() throws InterruptedException {
+        Evento evento = eventos.poll();
+        if (evento == null) {
+            return false;
+        }
+        // En tiempo real se espera a que llegue la hora del evento.
+        if (modo == Modo.TIEMPO_REAL && evento.getTiempo() > ahora) {
+            Thread.sleep((long) ((evento.getTiempo() - ahora) * escala));
+        }
+        ahora = evento.getTiempo();
+        eventosProcesados++;
+        // La muestra refleja el estado justo antes del primer evento de su instante.
+        if (intervaloMuestreo > 0 && ahora >= proximaMuestra) {
+            gestor.getMetricas().muestrear(ahora, memoria, gestor.getColaEspera().size(),
+                    gestor.getProcesosEnEjecucion().size());
+            proximaMuestra = ahora - ahora % intervaloMuestreo + intervaloMuestreo;
+        }
+
+        switch (evento.getTipo()) {
+            case LLEGADA:
+                procesarLlegada(evento.getProceso());
+                break;
+            case ASIGNACION:
+                procesarAsignacion(evento.getProceso());
+                break;
+            case ACCESOS:
+                procesarAccesos(evento);
+                break;
+            case FINALIZACION:
+                procesarFinalizacion(evento);
+                break;
+            case SALIDA_DISCO:
+                procesarSalidaDisco(evento.getProceso());
+                break;
+            case ENTRADA_DISCO:
+                procesarEntradaDisco(evento.getProceso());
+                break;
+            case FIN_RAFAGA:
+                procesarFinRafaga(evento);
+                break;
+            case PETICION_MEMORIA:
+                procesarPeticionMemoria(evento);
+                break;
+        }
+        return true;
+    }
+
+    // --- Manejadores de cada tipo de evento ---
+
+    private void procesarLlegada(Proceso proceso) {
+        proceso.setTiempoLlegada(ahora);
+        gestor.getMetricas().llegada();
+        decidir(TrazaDecisiones.Decision.LLEGADA, proceso, proceso.getBytesRequeridos());
+        // Si nadie espera y hay memoria, la reserva y programa el inicio en este mismo instante.
+        if (gestor.getColaEspera().isEmpty() && gestor.getPlazasEjecutables(asignacionesPendientes) > 0
+                && memoria.asignarMemoria(proceso)) {
+            decidir(TrazaDecisiones.Decision.ADMITIDO, proceso, proceso.getDireccion());
+            programarAsignacion(proceso);
+        } else {
+            // Si no, el proceso espera en la cola del gestor y decide la política de admisión.
+            gestor.getColaEspera().offer(proceso);
+            registrar(RegistroEventos.Tipo.ENCOLADO, proceso);
+            decidir(TrazaDecisiones.Decision.ENCOLADO, proceso, proceso.getBytesRequeridos());
+            admitirDesdeCola();
+        }
+    }
+
+    /**
+     * Programa el inicio de un proceso admitido en este mismo instante.
+     */
+    private void programarAsignacion(Proceso proceso) {
+        asignacionesPendientes++;
+        programar(Evento.Tipo.ASIGNACION, proceso, ahora);
+    }
+
+    private void procesarAsignacion(Proceso proceso) {
+        // Tras reanudar un punto de control el contador empieza en 0 aunque haya asignaciones pendientes.
+        asignacionesPendientes = Math.max(0, asignacionesPendientes - 1);
+        proceso.setEstado(Proceso.Estado.EN_EJECUCION);
+        proceso.setTiempoInicio(ahora);
+        proceso.setTiempoCarga(ahora);
+        gestor.getMetricas().admision(proceso);
+        gestor.getProcesosEnEjecucion().poner(proceso);
+        registrar(RegistroEventos.Tipo.INICIADO, proceso);
+        // La duración del proceso está en segundos; el reloj, en milisegundos.
+        if (cpu != null) {
+            // Con planificador de CPU, la duración es la CPU que necesita.
+            proceso.setCpuRestante(proceso.getDuracion() * 1000L);
+            hacerEjecutable(proceso);
+        } else {
+            programar(Evento.Tipo.FINALIZACION, proceso, ahora + proceso.getDuracion() * 1000L);
+        }
+        // Con memoria paginada, los accesos del proceso recorren la TLB y las tablas de páginas.
+        if (referenciasPorRafaga > 0 && proceso.getReferencias() != null
+                && memoria.getAsignador() instanceof AsignadorPaginado) {
+            programarAccesos(proceso, ahora);
+        }
+        if (perfil != null) {
+            // Cada proceso tiene su propio generador, derivado de la semilla y de su PID.
+            proceso.setDinamica(new MemoriaDinamica(semilla * 0x9E3779B97F4A7C15L + proceso.getPid()));
+            programarPeticion(proceso);
+        }
+    }
+
+    private void programarAccesos(Proceso proceso, long tiempo) {
+        cadenasAccesos.put(proceso, programar(Evento.Tipo.ACCESOS, proceso, tiempo));
+    }
+
+    private void procesarAccesos(Evento evento) {
+        Proceso proceso = evento.getProceso();
+        // La ráfaga es de una cadena anterior a la última vez que se reanudó el proceso.
+        if (cadenasAccesos.get(proceso) != evento) {
+            return;
+        }
+        // El proceso pudo terminar o pararse antes de esta ráfaga.
+        if (proceso.getEstado() != Proceso.Estado.EN_EJECUCION) {
+            cadenasAccesos.remove(proceso);
+            return;
+        }
+        AsignadorPaginado paginado = (AsignadorPaginado) memoria.getAsignador();
+        FlujoReferencias referencias = proceso.getReferencias();
+        for (int i = 0; i < referenciasPorRafaga && referencias.hayMas(); i++) {
+            paginado.acceder((int) proceso.getDireccion(), referencias.siguiente());
+        }
+        // Con planificador de CPU el fin no se conoce de antemano: las ráfagas siguen hasta que termine.
+        long fin = cpu != null ? Long.MAX_VALUE : proceso.getTiempoInicio() + proceso.getDuracion() * 1000L;
+        if (referencias.hayMas() && ahora + intervaloRafagas < fin) {
+            programarAccesos(proceso, ahora + intervaloRafagas);
+        } else {
+            cadenasAccesos.remove(proceso);
+        }
+    }
+
+    private void procesarFinalizacion(Evento evento) {
+        Proceso proceso = evento.getProceso();
+        // Si el proceso pasó por disco, su fin se retrasó y este evento ya no vale.
+        if (proceso.getEstado() != Proceso.Estado.EN_EJECUCION
+                || evento.getTiempo() != proceso.getTiempoInicio() + proceso.getDuracion() * 1000L) {
+            return;
+        }
+        finalizar(proceso);
+    }
+
+    private void procesarFinRafaga(Evento evento) {
+        Proceso proceso = evento.getProceso();
+        int nucleo = proceso.getNucleo();
+        // La ráfaga se cortó antes (expropiación o salida a disco).
+        if (nucleo < 0 || rafagas[nucleo] != evento) {
+            return;
+        }
+        rafagas[nucleo] = null;
+        cpu.liberar(nucleo, ahora);
+        if (proceso.getCpuRestante() <= 0) {
+            finalizar(proceso);
+        } else {
+            cpu.encolar(proceso, ahora);
+        }
+        despachar();
+    }
+
+    /**
+     * Termina un proceso: libera su memoria y admite a quien quepa.
+     */
+    private void finalizar(Proceso proceso) {
+        decidir(TrazaDecisiones.Decision.FINALIZADO, proceso, proceso.getBytesTotales());
+        memoria.liberarMemoria(proceso);
+        gestor.getProcesosEnEjecucion().quitar(proceso.getPid());
+        proceso.setEstado(Proceso.Estado.FINALIZADO);
+        procesosFinalizados++;
+        gestor.getMetricas().finalizacion(proceso, ahora);
+        registrar(RegistroEventos.Tipo.FINALIZADO, proceso);
+        // El núcleo libre se ocupa antes de admitir, para que la cola de listos esté al día.
+        if (cpu != null) {
+            despachar();
+        }
+        // Los bloqueados ya están en memoria y van primero; los procesos en disco
+        // llegaron antes que los de la cola, así que vuelven antes.
+        reintentarBloqueados();
+        traerDesdeDisco();
+        admitirDesdeCola();
+    }
+
+    private void procesarSalidaDisco(Proceso proceso) {
+        memoria.liberarMemoria(proceso);
+        bytesSaliendo -= proceso.getBytesTotales();
+        gestor.getProcesosEnEjecucion().quitar(proceso.getPid());
+        proceso.setEstado(Proceso.Estado.EN_DISCO);
+        intercambio.getEnDisco().add(proceso);
+        registrar(RegistroEventos.Tipo.A_DISCO, proceso);
+        // La memoria liberada es para quien provocó la salida: un bloqueado que quiere crecer o la cola.
+        reintentarBloqueados();
+        admitirDesdeCola();
+        traerDesdeDisco();
+    }
+
+    private void procesarEntradaDisco(Proceso proceso) {
+        proceso.setEstado(Proceso.Estado.EN_EJECUCION);
+        proceso.setTiempoCarga(ahora);
+        registrar(RegistroEventos.Tipo.DESDE_DISCO, proceso);
+        reanudar(proceso);
+    }
+
+    /**
+     * Pone de nuevo en marcha un proceso que estuvo parado (en disco o
+     * bloqueado): vuelve a la CPU o se reprograma su fin, y retoma sus
+     * accesos y sus peticiones de memoria.
+     */
+    private void reanudar(Proceso proceso) {
+        if (cpu != null) {
+            hacerEjecutable(proceso);
+        } else {
+            programar(Evento.Tipo.FINALIZACION, proceso, ahora + proceso.getTiempoRestante());
+        }
+        if (referenciasPorRafaga > 0 && proceso.getReferencias() != null
+                && memoria.getAsignador() instanceof AsignadorPaginado) {
+            programarAccesos(proceso, ahora);
+        }
+        if (proceso.getDinamica() != null) {
+            programarPeticion(proceso);
+        }
+    }
+
+    // --- Memoria dinámica ---
+
+    /**
+     * Programa la siguiente petición de memoria de un proceso. Sin
+     * planificador de CPU no se pide nada que caiga después de su fin.
+     */
+    private void programarPeticion(Proceso proceso) {
+        long tiempo = ahora + intervaloPeticiones;
+        if (cpu == null && tiempo >= proceso.getTiempoInicio() + proceso.getDuracion() * 1000L) {
+            return;
+        }
+        proceso.getDinamica().setProximaPeticion(tiempo);
+        programar(Evento.Tipo.PETICION_MEMORIA, proceso, tiempo);
+    }
+
+    private void procesarPeticionMemoria(Evento evento) {
+        Proceso proceso = evento.getProceso();
+        MemoriaDinamica dinamica = proceso.getDinamica();
+        // El proceso terminó, está parado o esta petición es de antes de que lo parasen.
+        if (proceso.getEstado() != Proceso.Estado.EN_EJECUCION || dinamica.getProximaPeticion() != evento.getTiempo()) {
+            return;
+        }
+        long cambio = perfil.cambio(dinamica);
+        long liberados;
+        dinamica.avanzarPaso();
+        peticionesMemoria++;
+        if (cambio > 0) {
+            if (memoria.crecer(proceso, cambio, BLOQUES_POR_RAFAGA)) {
+                decidir(TrazaDecisiones.Decision.CRECIMIENTO, proceso, cambio);
+            } else {
+                crecimientosFallidos++;
+                reaccionarSinMemoria(proceso, cambio);
+            }
+        } else if (cambio < 0 && (liberados = memoria.encoger(proceso, -cambio)) > 0) {
+            decidir(TrazaDecisiones.Decision.ENCOGIMIENTO, proceso, liberados);
+            reintentarBloqueados();
+            traerDesdeDisco();
+            admitirDesdeCola();
+        }
+        if (proceso.getEstado() == Proceso.Estado.EN_EJECUCION) {
+            programarPeticion(proceso);
+        }
+    }
+
+    /**
+     * Reacciona a una petición de crecimiento que no cabe.
+     */
+    private void reaccionarSinMemoria(Proceso proceso, long bytes) {
+        switch (sinMemoria) {
+            case MATAR:
+                // Se mata al que más ocupa hasta que la petición quepa o le toque al que pide.
+                while (proceso.getEstado() == Proceso.Estado.EN_EJECUCION) {
+                    Proceso victima = mayorEnMemoria();
+                    matar(victima);
+                    if (victima != proceso && memoria.crecer(proceso, bytes, BLOQUES_POR_RAFAGA)) {
+                        decidir(TrazaDecisiones.Decision.CRECIMIENTO, proceso, bytes);
+                        break;
+                    }
+                }
+                traerDesdeDisco();
+                admitirDesdeCola();
+                return;
+            case COMPACTAR:
+                // Compactar solo sirve si hay memoria libre suficiente, aunque repartida en huecos.
+                if (memoria.getRamDisponible() >= bytes) {
+                    long movidos = memoria.compactar(gestor.getProcesosEnEjecucion().instantanea());
+                    if (movidos >= 0) {
+                        compactaciones++;
+                        bytesCompactados += movidos;
+                        gestor.getMetricas().compactacion();
+                        decidir(TrazaDecisiones.Decision.COMPACTACION, proceso, movidos);
+                        if (memoria.crecer(proceso, bytes, BLOQUES_POR_RAFAGA)) {
+                            decidir(TrazaDecisiones.Decision.CRECIMIENTO, proceso, bytes);
+                            return;
+                        }
+                    }
+                }
+                bloquear(proceso, bytes);
+                return;
+            case INTERCAMBIAR:
+                bloquear(proceso, bytes);
+                if (intercambio != null) {
+                    llevarADisco(bytes);
+                }
+                return;
+            default:
+                bloquear(proceso, bytes);
+        }
+    }
+
+    /**
+     * Para a un proceso hasta que haya memoria para la petición pendiente.
+     */
+    private void bloquear(Proceso proceso, long bytes) {
+        if (cpu != null) {
+            if (proceso.getNucleo() >= 0) {
+                rafagas[proceso.getNucleo()] = null;
+            }
+            cpu.quitar(proceso, ahora);
+            despachar();
+        } else {
+            proceso.setTiempoRestante(proceso.getTiempoInicio() + proceso.getDuracion() * 1000L - ahora);
+        }
+        proceso.getDinamica().setPendiente(bytes);
+        proceso.setEstado(Proceso.Estado.BLOQUEADO);
+        bloqueados.addLast(proceso);
+        bloqueos++;
+        gestor.getMetricas().bloqueoMemoria();
+        registrar(RegistroEventos.Tipo.BLOQUEADO, proceso);
+        decidir(TrazaDecisiones.Decision.BLOQUEADO, proceso, bytes);
+        // Si nadie más puede liberar memoria, esperar no sirve de nada.
+        reintentarBloqueados();
+    }
+
+    /**
+     * Da a los bloqueados, en orden, la memoria que pidieron mientras quepa.
+     * Si quedan bloqueados y ningún proceso en memoria puede avanzar (ni hay
+     * salidas a disco en curso), nadie va a liberar memoria: se mata al que
+     * más ocupa, como haría el OOM killer, y se vuelve a intentar.
+     */
+    private void reintentarBloqueados() {
+        while (!bloqueados.isEmpty()) {
+            Proceso proceso;
+            while ((proceso = bloqueados.peekFirst()) != null
+                    && memoria.crecer(proceso, proceso.getDinamica().getPendiente(), BLOQUES_POR_RAFAGA)) {
+                bloqueados.pollFirst();
+                decidir(TrazaDecisiones.Decision.DESBLOQUEADO, proceso, proceso.getDinamica().getPendiente());
+                proceso.getDinamica().setPendiente(0);
+                proceso.setEstado(Proceso.Estado.EN_EJECUCION);
+                if (cpu == null) {
+                    // Continúa donde se quedó: el inicio se desplaza lo que duró el bloqueo.
+                    proceso.setTiempoInicio(ahora + proceso.getTiempoRestante() - proceso.getDuracion() * 1000L);
+                }
+                registrar(RegistroEventos.Tipo.DESBLOQUEADO, proceso);
+                reanudar(proceso);
+            }
+            if (bloqueados.isEmpty() || hayProgreso()) {
+                return;
+            }
+            matar(mayorEnMemoria());
+        }
+    }
+
+    /**
+     * Indica si algún proceso en memoria puede acabar liberándola.
+     */
+    private boolean hayProgreso() {
+        if (bytesSaliendo > 0) {
+            return true;
+        }
+        TablaProcesos tabla = gestor.getProcesosEnEjecucion();
+        for (int fila = 0; fila < tabla.size(); fila++) {
+            Proceso.Estado estado = tabla.getEstado(fila);
+            if (estado == Proceso.Estado.EN_EJECUCION || estado == Proceso.Estado.ENTRANDO_DE_DISCO) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Busca el proceso en ejecución o bloqueado que más memoria ocupa.
+     */
+    private Proceso mayorEnMemoria() {
+        TablaProcesos tabla = gestor.getProcesosEnEjecucion();
+        int mayor = -1;
+        for (int fila = 0; fila < tabla.size(); fila++) {
+            Proceso.Estado estado = tabla.getEstado(fila);
+            if ((estado == Proceso.Estado.EN_EJECUCION || estado == Proceso.Estado.BLOQUEADO)
+                    && (mayor < 0 || tabla.getBytes(fila) > tabla.getBytes(mayor))) {
+                mayor = fila;
+            }
+        }
+        return tabla.getProceso(mayor);
+    }
+
+    /**
+     * Mata a un proceso para recuperar su memoria.
+     */
+    private void matar(Proceso proceso) {
+        decidir(TrazaDecisiones.Decision.MATADO, proceso, proceso.getBytesTotales());
+        if (proceso.getEstado() == Proceso.Estado.BLOQUEADO) {
+            bloqueados.remove(proceso);
+        } else if (cpu != null) {
+            if (proceso.getNucleo() >= 0) {
+                rafagas[proceso.getNucleo()] = null;
+            }
+            cpu.quitar(proceso, ahora);
+        }
+        memoria.liberarMemoria(proceso);
+        gestor.getProcesosEnEjecucion().quitar(proceso.getPid());
+        proceso.setEstado(Proceso.Estado.MATADO);
+        procesosMatados++;
+        gestor.getMetricas().muerteOom();
+        registrar(RegistroEventos.Tipo.MATADO, proceso);
+        if (cpu != null) {
+            despachar();
+        }
+    }
+
+    /**
+     * Pone un proceso en la cola de listos y, si la política lo indica,
+     * le cede el núcleo de uno de menos prioridad.
+     */
+    private void hacerEjecutable(Proceso proceso) {
+        cpu.encolar(proceso, ahora);
+        int nucleo = cpu.nucleoAExpropiar(proceso);
+        if (nucleo >= 0) {
+            Proceso expulsado = cpu.liberar(nucleo, ahora);
+            rafagas[nucleo] = null;
+            decidir(TrazaDecisiones.Decision.EXPROPIADO, expulsado, nucleo);
+            cpu.encolar(expulsado, ahora);
+        }
+        despachar();
+    }
+
+    /**
+     * Ocupa los núcleos libres con procesos de la cola de listos.
+     */
+    private void despachar() {
+        for (int nucleo = 0; nucleo < cpu.getNucleos() && cpu.getListos() > 0; nucleo++) {
+            if (cpu.getEnNucleo(nucleo) == null) {
+                Proceso proceso = cpu.ocupar(nucleo, ahora);
+                decidir(TrazaDecisiones.Decision.DESPACHO, proceso, nucleo);
+                rafagas[nucleo] = programar(Evento.Tipo.FIN_RAFAGA, proceso, cpu.getFinRafaga(nucleo));
+            }
+        }
+    }
+
+    /**
+     * Admite, según la política de admisión del gestor, los procesos de la
+     * cola de espera que ahora caben. En tiempo virtual la admisión es
+     * inmediata: empiezan en el mismo instante de la liberación. Si con
+     * intercambio el primero sigue sin caber, se le hace sitio. Con
+     * planificador de CPU solo se admiten los que caben en la cola de
+     * listos, contando los admitidos que aún no han llegado a ella.
+     */
+    private void admitirDesdeCola() {
+        int plazas = gestor.getPlazasEjecutables(asignacionesPendientes);
+        if (plazas == 0) {
+            return;
+        }
+        for (Proceso candidato : gestor.getPolitica().admitir(gestor.getColaEspera(), memoria,
+                gestor.getProcesosEnEjecucion(), ahora, plazas)) {
+            registrar(RegistroEventos.Tipo.MOVIDO, candidato);
+            decidir(TrazaDecisiones.Decision.ADMITIDO, candidato, candidato.getDireccion());
+            programarAsignacion(candidato);
+        }
+        if (intercambio != null && !gestor.getColaEspera().isEmpty()) {
+            llevarADisco(gestor.getColaEspera().peek().getBytesRequeridos());
+        }
+    }
+
+    /**
+     * Empieza a escribir en disco los procesos necesarios para que quepa
+     * una reserva (el primero de la cola o el crecimiento de un bloqueado),
+     * contando la memoria que ya se está liberando.
+     */
+    private void llevarADisco(long bytes) {
+        long necesarios = bytes - memoria.getRamDisponible() - bytesSaliendo;
+        if (necesarios <= 0 || bytes > memoria.getRamTotal()) {
+            return;
+        }
+        for (Proceso victima : intercambio.elegirVictimas(gestor.getProcesosEnEjecucion(), necesarios, ahora)) {
+            long fin = intercambio.sacar(victima, ahora);
+            if (fin < 0) {
+                break;
+            }
+            decidir(TrazaDecisiones.Decision.A_DISCO, victima, victima.getBytesTotales());
+            if (cpu == null) {
+                victima.setTiempoRestante(victima.getTiempoInicio() + victima.getDuracion() * 1000L - ahora);
+            } else {
+                // Lo que le falta es su cpuRestante, y el inicio no se toca. Deja el núcleo
+                // o la cola de listos mientras está fuera de memoria.
+                if (victima.getNucleo() >= 0) {
+                    rafagas[victima.getNucleo()] = null;
+                }
+                cpu.quitar(victima, ahora);
+            }
+            victima.setEstado(Proceso.Estado.SALIENDO_A_DISCO);
+            bytesSaliendo += victima.getBytesTotales();
+            gestor.getMetricas().salidaIntercambio();
+            programar(Evento.Tipo.SALIDA_DISCO, victima, fin);
+        }
+        if (cpu != null) {
+            despachar();
+        }
+    }
+
+    /**
+     * Trae de disco, en orden de salida, los procesos que vuelven a caber.
+     * Mientras haya salidas en curso la memoria que se libera está reservada
+     * para la cola, así que no se trae ninguno.
+     */
+    private void traerDesdeDisco() {
+        if (intercambio == null || bytesSaliendo > 0) {
+            return;
+        }
+        Proceso proceso;
+        while ((proceso = intercambio.getEnDisco().peek()) != null && memoria.asignarMemoria(proceso)) {
+            intercambio.getEnDisco().poll();
+            decidir(TrazaDecisiones.Decision.DESDE_DISCO, proceso, proceso.getDireccion());
+            long fin = intercambio.traer(proceso, ahora);
+            proceso.setEstado(Proceso.Estado.ENTRANDO_DE_DISCO);
+            if (cpu == null) {
+                // Continúa al terminar la lectura: el inicio se desplaza para que inicio + duración sea el nuevo fin.
+                proceso.setTiempoInicio(fin + proceso.getTiempoRestante() - proceso.getDuracion() * 1000L);
+            }
+            gestor.getProcesosEnEjecucion().poner(proceso);
+            gestor.getMetricas().entradaIntercambio();
+            programar(Evento.Tipo.ENTRADA_DISCO, proceso, fin);
+        }
+    }
+
+    // --- Puntos de control (ver PuntoControl) ---
+
+    // Cola de eventos pendientes, para recorrerla al guardar y llenarla al restaurar.
+    PriorityQueue<Evento> getColaEventos() { return eventos; }
+    long getSecuencia() { return secuencia; }
+
+    /**
+     * Escribe el reloj, la semilla, los contadores y los procesos bloqueados. Los
+     * eventos y los procesos los escribe PuntoControl.
+     * @param salida Dónde escribirlo.
+     */
+    void guardarEstado(BufferSalida salida) {
+        for (long valor : new long[] {ahora, secuencia, semilla, eventosProcesados, procesosFinalizados, peticionesMemoria,
+                crecimientosFallidos, bloqueos, procesosMatados, compactaciones, bytesCompactados}) {
+            salida.escribirLong(valor);
+        }
+        salida.escribirInt(bloqueados.size());
+        for (Proceso proceso : bloqueados) {
+            salida.escribirInt(proceso.getPid());
+        }
+    }
+
+    /**
+     * Restaura lo escrito por guardarEstado en un motor nuevo.
+     * @param entrada El buffer de lectura.
+     * @param procesos Los procesos restaurados, por PID.
+     */
+    void restaurarEstado(ByteBuffer entrada, Map<Integer, Proceso> procesos) {
+        ahora = entrada.getLong();
+        secuencia = entrada.getLong();
+        semilla = entrada.getLong();
+        eventosProcesados = entrada.getLong();
+        procesosFinalizados = entrada.getLong();
+        peticionesMemoria = entrada.getLong();
+        crecimientosFallidos = entrada.getLong();
+        bloqueos = entrada.getLong();
+        procesosMatados = entrada.getLong();
+        compactaciones = entrada.getLong();
+        bytesCompactados = entrada.getLong();
+        proximaMuestra = ahora;
+        bloqueados.clear();
+        for (int i = entrada.getInt(); i > 0; i--) {
+            int pid = entrada.getInt();
+            Proceso proceso = procesos.get(pid);
+            if (proceso == null) {
+                throw new IllegalArgumentException("Falta el proceso bloqueado " + pid + " en el punto de control");
+            }
+            bloqueados.addLast(proceso);
+        }
+    }
+
+    private Evento programar(Evento.Tipo tipo, Proceso proceso, long tiempo) {
+        Evento evento = new Evento(tiempo, secuencia++, tipo, proceso);
+        eventos.add(evento);
+        return evento;
+    }
+
+    private void decidir(TrazaDecisiones.Decision decision, Proceso proceso, long argumento) {
+        if (traza != null) {
+            try {
+                traza.grabar(decision, ahora, proceso.getPid(), argumento);
+            } catch (IOException e) {
+                throw new IllegalStateException("Error al grabar la traza de decisiones", e);
+            }
+        }
+    }
+
+    private void registrar(RegistroEventos.Tipo tipo, Proceso proceso) {
+        // El registro es opcional para no penalizar las simulaciones masivas.
+        if (monitor != null) {
+            monitor.agregarEvento(tipo, proceso);
+        } else if (registro != null) {
+            registro.registrar(tipo, proceso);
+        }
+    }
+}
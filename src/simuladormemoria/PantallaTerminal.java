@@ -0,0 +1,174 @@
+package simuladormemoria;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Formatter;
+
+/**
+ * La clase PantallaTerminal dibuja los fotogramas del Monitor con doble
+ * buffer. Cada fotograma se compone línea a línea en un StringBuilder que
+ * se reutiliza, se compara con el fotograma anterior y solo se escriben
+ * las líneas que han cambiado, situando el cursor con secuencias ANSI.
+ * Toda la salida de un fotograma se envía con una única escritura.
+ *
+ * En consolas sin soporte para mover el cursor (por ejemplo, la del IDE)
+ * se puede desactivar el modo diferencial: entonces se escribe el
+ * fotograma completo, precedido de líneas en blanco como hacía el monitor original.
+ */
+public class PantallaTerminal {
+    // Secuencias ANSI: borrar pantalla, cursor al inicio y borrar hasta el final de la línea.
+    private static final String BORRAR_PANTALLA = "\u001B[2J\u001B[H";
+    private static final String BORRAR_LINEA = "\u001B[K";
+
+    // Flujo de salida (normalmente System.out).
+    private final PrintStream salida;
+    // Si se escriben solo las líneas cambiadas o el fotograma completo.
+    private final boolean diferencial;
+    // Fotograma en construcción y fotograma mostrado; se intercambian tras cada mostrar().
+    private StringBuilder actual = new StringBuilder(8192);
+    private StringBuilder anterior = new StringBuilder(8192);
+    // Formateadores ligados a cada buffer, para no crear uno por línea.
+    private Formatter formatoActual = new Formatter(actual);
+    private Formatter formatoAnterior = new Formatter(anterior);
+    // Posición de inicio de cada línea en su buffer (la línea i acaba en inicios[i + 1] - 1).
+    private int[] inicios = new int[64];
+    private int[] iniciosAnteriores = new int[64];
+    private int lineas;
+    private int lineasAnteriores;
+    // Buffer reutilizado con las secuencias y líneas que se escriben en cada fotograma.
+    private final StringBuilder escritura = new StringBuilder(8192);
+    // El primer fotograma diferencial borra la pantalla completa.
+    private boolean primero = true;
+
+    /**
+     * Crea una pantalla sobre System.out. El modo diferencial se activa
+     * solo si la aplicación está conectada a una terminal real.
+     */
+    public PantallaTerminal() {
+        this(System.out, System.console() != null);
+    }
+
+    /**
+     * Crea una pantalla sobre un flujo de salida.
+     * @param salida El flujo donde se escriben los fotogramas.
+     * @param diferencial true para escribir solo las líneas cambiadas con ANSI.
+     */
+    public PantallaTerminal(PrintStream salida, boolean diferencial) {
+        this.salida = salida;
+        this.diferencial = diferencial;
+    }
+
+    public boolean esDiferencial() { return diferencial; }
+
+    /**
+     * Empieza un fotograma nuevo, vacío.
+     */
+    public void comenzar() {
+        actual.setLength(0);
+        lineas = 0;
+        inicios[0] = 0;
+    }
+
+    /**
+     * Añade una línea de texto al fotograma.
+     * @param texto El contenido de la línea.
+     */
+    public void linea(String texto) {
+        actual.append(texto);
+        terminarLinea();
+    }
+
+    /**
+     * Añade una línea con formato (como String.format) al fotograma.
+     * @param formato La cadena de formato.
+     * @param argumentos Los argumentos del formato.
+     */
+    public void linea(String formato, Object... argumentos) {
+        formatoActual.format(formato, argumentos);
+        terminarLinea();
+    }
+
+    private void terminarLinea() {
+        actual.append('\n');
+        lineas++;
+        if (lineas + 1 > inicios.length) {
+            inicios = Arrays.copyOf(inicios, inicios.length * 2);
+        }
+        inicios[lineas] = actual.length();
+    }
+
+    /**
+     * Muestra el fotograma construido desde la última llamada a comenzar().
+     * @return El número de líneas escritas.
+     */
+    public int mostrar() {
+        escritura.setLength(0);
+        int escritas = 0;
+        if (!diferencial) {
+            // Sin ANSI: líneas en blanco para "limpiar" y el fotograma completo.
+            for (int i = 0; i < 50; i++) {
+                escritura.append('\n');
+            }
+            escritura.append(actual);
+            escritas = lineas;
+        } else {
+            if (primero) {
+                escritura.append(BORRAR_PANTALLA);
+            }
+            for (int i = 0; i < lineas; i++) {
+                if (primero || i >= lineasAnteriores || !lineaIgual(i)) {
+                    // Las filas ANSI empiezan en 1.
+                    escritura.append("\u001B[").append(i + 1).append(";1H")
+                            .append(actual, inicios[i], inicios[i + 1] - 1)
+                            .append(BORRAR_LINEA);
+                    escritas++;
+                }
+            }
+            // Si el fotograma es más corto que el anterior, se borran las líneas sobrantes.
+            for (int i = lineas; i < lineasAnteriores; i++) {
+                escritura.append("\u001B[").append(i + 1).append(";1H").append(BORRAR_LINEA);
+            }
+            // Deja el cursor debajo del fotograma.
+            escritura.append("\u001B[").append(lineas + 1).append(";1H");
+            primero = false;
+        }
+        salida.print(escritura);
+        salida.flush();
+        intercambiar();
+        return escritas;
+    }
+
+    /**
+     * Compara la línea i del fotograma actual con la del anterior.
+     */
+    private boolean lineaIgual(int i) {
+        int inicio = inicios[i];
+        int longitud = inicios[i + 1] - inicio;
+        int inicioAnterior = iniciosAnteriores[i];
+        if (iniciosAnteriores[i + 1] - inicioAnterior != longitud) {
+            return false;
+        }
+        for (int k = 0; k < longitud; k++) {
+            if (actual.charAt(inicio + k) != anterior.charAt(inicioAnterior + k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * El fotograma mostrado pasa a ser el anterior y su buffer se reutiliza para el siguiente.
+     */
+    private void intercambiar() {
+        StringBuilder buffer = anterior;
+        anterior = actual;
+        actual = buffer;
+        Formatter formato = formatoAnterior;
+        formatoAnterior = formatoActual;
+        formatoActual = formato;
+        int[] posiciones = iniciosAnteriores;
+        iniciosAnteriores = inicios;
+        inicios = posiciones;
+        lineasAnteriores = lineas;
+    }
+}
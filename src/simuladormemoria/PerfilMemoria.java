@@ -0,0 +1,75 @@
+package simuladormemoria;
+
+/**
+ * La interfaz PerfilMemoria describe cómo cambia la memoria de un proceso
+ * mientras se ejecuta. Cada cierto tiempo el proceso hace una petición, y
+ * el perfil decide cuántos bytes pide (positivo) o devuelve (negativo).
+ * Se escribe como "nombre(parámetros)", igual que una Distribucion:
+ *
+ * <ul>
+ *   <li>"rampa(mb)": pide mb en cada petición y no devuelve nada (una fuga).</li>
+ *   <li>"dientes(mb,pasos)": pide mb durante pasos peticiones y luego lo
+ *   devuelve todo de golpe (un recolector de basura).</li>
+ *   <li>"aleatorio(mb)": pide o devuelve, con algo más de probabilidad de
+ *   pedir, una cantidad exponencial de media mb (un paseo aleatorio).</li>
+ * </ul>
+ */
+@FunctionalInterface
+public interface PerfilMemoria {
+
+    /**
+     * Decide la siguiente petición de un proceso.
+     * @param estado La memoria dinámica del proceso, con su paso y su generador.
+     * @return Bytes que pide (positivo), que devuelve (negativo) o 0 si no hace nada.
+     */
+    long cambio(MemoriaDinamica estado);
+
+    /**
+     * Crea un perfil a partir de su descripción.
+     * @param descripcion "rampa(mb)", "dientes(mb,pasos)" o "aleatorio(mb)".
+     * @return El perfil correspondiente.
+     */
+    static PerfilMemoria porNombre(String descripcion) {
+        String texto = descripcion.trim();
+        int parentesis = texto.indexOf('(');
+        if (parentesis < 0 || !texto.endsWith(")")) {
+            throw new IllegalArgumentException("Perfil de memoria mal escrito: " + descripcion);
+        }
+        String nombre = texto.substring(0, parentesis).trim();
+        String[] partes = texto.substring(parentesis + 1, texto.length() - 1).split(",");
+        double[] p = new double[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            p[i] = Double.parseDouble(partes[i].trim());
+        }
+        switch (nombre) {
+            case "rampa": {
+                comprobarParametros(descripcion, p, 1);
+                long bytes = Math.round(p[0] * Memoria.MB);
+                return estado -> bytes;
+            }
+            case "dientes": {
+                comprobarParametros(descripcion, p, 2);
+                long bytes = Math.round(p[0] * Memoria.MB);
+                int pasos = (int) p[1];
+                return estado -> estado.getPaso() % (pasos + 1) == pasos ? -estado.getTotal() : bytes;
+            }
+            case "aleatorio": {
+                comprobarParametros(descripcion, p, 1);
+                double media = p[0] * Memoria.MB;
+                return estado -> {
+                    boolean pide = estado.siguienteAleatorio() < 0.55;
+                    long bytes = Math.max(1, Math.round(-media * Math.log(1 - estado.siguienteAleatorio())));
+                    return pide ? bytes : -bytes;
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Perfil de memoria desconocido: " + descripcion);
+        }
+    }
+
+    private static void comprobarParametros(String descripcion, double[] parametros, int esperados) {
+        if (parametros.length != esperados) {
+            throw new IllegalArgumentException("El perfil " + descripcion + " necesita " + esperados + " parámetro(s)");
+        }
+    }
+}
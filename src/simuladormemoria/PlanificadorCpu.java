@@ -0,0 +1,277 @@
+package simuladormemoria;
+
+import java.util.Locale;
+
+/**
+ * La clase PlanificadorCpu modela N núcleos de CPU sobre los que el motor
+ * de eventos reparte los procesos admitidos en memoria. Un proceso en
+ * memoria ya no termina al cumplirse su duración: su duración es la CPU
+ * que necesita, y la recibe por ráfagas (rodajas) en los núcleos según la
+ * PoliticaCpu elegida.
+ *
+ * Cada vez que un núcleo pasa a ejecutar un proceso distinto del último
+ * que ejecutó se cobra el coste de un cambio de contexto: el núcleo está
+ * ocupado pero el proceso no avanza.
+ *
+ * Para que la memoria no se llene de procesos que solo van a esperar CPU,
+ * se puede limitar la profundidad de la cola de listos: mientras haya más
+ * de maxListosPorNucleo por núcleo, el motor no admite procesos
+ * nuevos aunque quepan en memoria.
+ *
+ * Lo usa el motor de eventos (modos virtual y de tiempo real); en la
+ * simulación clásica con hilos cada proceso sigue siendo una espera opaca.
+ */
+public class PlanificadorCpu {
+    private final PoliticaCpu politica;
+    private final String nombrePolitica;
+    private final int nucleos;
+    // Coste en milisegundos de cada cambio de contexto.
+    private final long cambioContexto;
+    // Procesos listos por núcleo a partir de los cuales no se admiten más (0 = sin límite).
+    private final int maxListosPorNucleo;
+    // Estado de cada núcleo: proceso actual, último proceso que ejecutó,
+    // inicio de la ráfaga (incluido el cambio de contexto), inicio de la
+    // ejecución útil y rodaja concedida.
+    private final Proceso[] enNucleo;
+    private final Proceso[] ultimo;
+    private final long[] inicioRafaga;
+    private final long[] inicioCpu;
+    private final long[] rodaja;
+    // Milisegundos que ha estado ocupado cada núcleo en ráfagas ya terminadas.
+    private final long[] ocupado;
+    // Estadísticas.
+    private long rafagas;
+    private long cambiosContexto;
+    private long expropiaciones;
+    // Tiempo de respuesta: de la llegada a la primera ráfaga, en milisegundos.
+    private final Histograma respuesta = new Histograma("respuesta", "ms");
+    // Métricas donde se registran el tiempo de respuesta y los cambios de contexto.
+    private Metricas metricas = Metricas.DESACTIVADAS;
+
+    /**
+     * Constructor del planificador.
+     * @param politica Política que ordena la cola de listos.
+     * @param nombrePolitica Nombre con el que se muestra la política.
+     * @param nucleos Número de núcleos.
+     * @param cambioContexto Coste de un cambio de contexto en milisegundos.
+     * @param maxListosPorNucleo Límite de la cola de listos por núcleo para admitir procesos (0 = sin límite).
+     */
+    public PlanificadorCpu(PoliticaCpu politica, String nombrePolitica, int nucleos, long cambioContexto,
+                           int maxListosPorNucleo) {
+        if (nucleos < 1) {
+            throw new IllegalArgumentException("Hace falta al menos un núcleo: " + nucleos);
+        }
+        this.politica = politica;
+        this.nombrePolitica = nombrePolitica;
+        this.nucleos = nucleos;
+        this.cambioContexto = cambioContexto;
+        this.maxListosPorNucleo = maxListosPorNucleo;
+        this.enNucleo = new Proceso[nucleos];
+        this.ultimo = new Proceso[nucleos];
+        this.inicioRafaga = new long[nucleos];
+        this.inicioCpu = new long[nucleos];
+        this.rodaja = new long[nucleos];
+        this.ocupado = new long[nucleos];
+    }
+
+    /**
+     * Crea un planificador a partir del nombre de su política.
+     * @param politica Nombre de la política (ver PoliticaCpu.porNombre).
+     * @param nucleos Número de núcleos.
+     * @param quantum Rodaja base en milisegundos.
+     * @param cambioContexto Coste de un cambio de contexto en milisegundos.
+     * @param maxListosPorNucleo Límite de la cola de listos por núcleo (0 = sin límite).
+     * @return El planificador.
+     */
+    public static PlanificadorCpu crear(String politica, int nucleos, long quantum, long cambioContexto,
+                                        int maxListosPorNucleo) {
+        return new PlanificadorCpu(PoliticaCpu.porNombre(politica, quantum), politica, nucleos,
+                cambioContexto, maxListosPorNucleo);
+    }
+
+    /**
+     * Establece las métricas donde se registran el tiempo de respuesta y los cambios de contexto.
+     * @param metricas Las métricas, o Metricas.DESACTIVADAS.
+     */
+    public void setMetricas(Metricas metricas) {
+        this.metricas = metricas;
+    }
+
+    public int getNucleos() { return nucleos; }
+    public String getNombrePolitica() { return nombrePolitica; }
+    public Proceso getEnNucleo(int nucleo) { return enNucleo[nucleo]; }
+    public int getListos() { return politica.size(); }
+    public long getRafagas() { return rafagas; }
+    public long getCambiosContexto() { return cambiosContexto; }
+    public long getExpropiaciones() { return expropiaciones; }
+    public Histograma getRespuesta() { return respuesta; }
+
+    /**
+     * Devuelve cuántos procesos más caben en la cola de listos según el límite por núcleo.
+     * @param pendientes Procesos ya admitidos que aún no han llegado a la cola de listos.
+     * @return Las plazas libres (Integer.MAX_VALUE si no hay límite).
+     */
+    public int getPlazasListos(int pendientes) {
+        if (maxListosPorNucleo == 0) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) Math.max(0, (long) maxListosPorNucleo * nucleos - politica.size() - pendientes);
+    }
+
+    /**
+     * Pone un proceso en la cola de listos.
+     * @param proceso El proceso.
+     * @param ahora Instante actual.
+     */
+    public void encolar(Proceso proceso, long ahora) {
+        politica.encolar(proceso, ahora);
+    }
+
+    /**
+     * Busca el núcleo cuyo proceso debe expulsar un proceso que acaba de
+     * ponerse en la cola de listos.
+     * @param nuevo El proceso listo.
+     * @return El núcleo, o -1 si hay uno libre o nadie debe ser expulsado.
+     */
+    public int nucleoAExpropiar(Proceso nuevo) {
+        int elegido = -1;
+        for (int nucleo = 0; nucleo < nucleos; nucleo++) {
+            Proceso actual = enNucleo[nucleo];
+            if (actual == null) {
+                return -1;
+            }
+            // Entre los expropiables, el que cualquier otro expropiaría (el de menos prioridad).
+            if (politica.expropia(nuevo, actual)
+                    && (elegido < 0 || politica.expropia(enNucleo[elegido], actual))) {
+                elegido = nucleo;
+            }
+        }
+        return elegido;
+    }
+
+    /**
+     * Asigna a un núcleo libre el siguiente proceso de la cola de listos.
+     * @param nucleo El núcleo libre.
+     * @param ahora Instante actual.
+     * @return El proceso, o null si no hay ninguno listo.
+     */
+    public Proceso ocupar(int nucleo, long ahora) {
+        Proceso proceso = politica.siguiente(ahora);
+        if (proceso == null) {
+            return null;
+        }
+        long coste = ultimo[nucleo] == proceso ? 0 : cambioContexto;
+        if (ultimo[nucleo] != proceso) {
+            cambiosContexto++;
+            metricas.cambioContexto();
+        }
+        enNucleo[nucleo] = proceso;
+        ultimo[nucleo] = proceso;
+        inicioRafaga[nucleo] = ahora;
+        inicioCpu[nucleo] = ahora + coste;
+        rodaja[nucleo] = Math.max(1, Math.min(politica.rodaja(proceso), proceso.getCpuRestante()));
+        rafagas++;
+        proceso.setNucleo(nucleo);
+        if (proceso.getPrimeraEjecucion() < 0) {
+            proceso.setPrimeraEjecucion(inicioCpu[nucleo]);
+            respuesta.registrar(inicioCpu[nucleo] - proceso.getTiempoLlegada());
+            metricas.primeraEjecucion(proceso);
+        }
+        return proceso;
+    }
+
+    /**
+     * Devuelve el instante en que termina la ráfaga en curso de un núcleo.
+     * @param nucleo El núcleo ocupado.
+     * @return El fin de la ráfaga en milisegundos.
+     */
+    public long getFinRafaga(int nucleo) {
+        return inicioCpu[nucleo] + rodaja[nucleo];
+    }
+
+    /**
+     * Saca del núcleo al proceso que lo ocupa, descontando la CPU que ha
+     * usado. El proceso no vuelve a la cola de listos: eso lo decide quien llama.
+     * @param nucleo El núcleo ocupado.
+     * @param ahora Instante actual (el fin de la ráfaga o el de una expropiación).
+     * @return El proceso que ocupaba el núcleo.
+     */
+    public Proceso liberar(int nucleo, long ahora) {
+        Proceso proceso = enNucleo[nucleo];
+        long usado = Math.max(0, ahora - inicioCpu[nucleo]);
+        boolean agotada = usado >= rodaja[nucleo];
+        proceso.setCpuRestante(Math.max(0, proceso.getCpuRestante() - usado));
+        ocupado[nucleo] += ahora - inicioRafaga[nucleo];
+        if (!agotada) {
+            expropiaciones++;
+        }
+        politica.rafagaTerminada(proceso, usado, agotada && proceso.getCpuRestante() > 0);
+        enNucleo[nucleo] = null;
+        proceso.setNucleo(-1);
+        return proceso;
+    }
+
+    /**
+     * Retira un proceso del planificador, esté en un núcleo o en la cola de listos.
+     * @param proceso El proceso.
+     * @param ahora Instante actual.
+     */
+    public void quitar(Proceso proceso, long ahora) {
+        if (proceso.getNucleo() >= 0) {
+            liberar(proceso.getNucleo(), ahora);
+        } else {
+            politica.quitar(proceso);
+        }
+    }
+
+    /**
+     * Devuelve la fracción del tiempo que un núcleo ha estado ocupado.
+     * @param nucleo El núcleo.
+     * @param ahora Tiempo total transcurrido.
+     * @return La utilización entre 0 y 1.
+     */
+    public double getUtilizacion(int nucleo, long ahora) {
+        long total = ocupado[nucleo] + (enNucleo[nucleo] != null ? ahora - inicioRafaga[nucleo] : 0);
+        return ahora <= 0 ? 0 : Math.min(1.0, (double) total / ahora);
+    }
+
+    /**
+     * Devuelve la utilización media de todos los núcleos.
+     * @param ahora Tiempo total transcurrido.
+     * @return La utilización entre 0 y 1.
+     */
+    public double getUtilizacionMedia(long ahora) {
+        double suma = 0;
+        for (int nucleo = 0; nucleo < nucleos; nucleo++) {
+            suma += getUtilizacion(nucleo, ahora);
+        }
+        return suma / nucleos;
+    }
+
+    /**
+     * Devuelve la fracción del tiempo de los núcleos perdida en cambios de contexto.
+     * @param ahora Tiempo total transcurrido.
+     * @return La fracción entre 0 y 1.
+     */
+    public double getSobrecargaCambios(long ahora) {
+        return ahora <= 0 ? 0 : Math.min(1.0, (double) cambiosContexto * cambioContexto / ((double) ahora * nucleos));
+    }
+
+    /**
+     * Resume el estado del planificador con el tiempo de respuesta y la utilización de cada núcleo.
+     * @param ahora Tiempo total transcurrido.
+     * @return El resumen en varias líneas.
+     */
+    public String resumen(long ahora) {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+                "CPU: %d núcleos, %s | Utilización media: %.1f%% | Ráfagas: %d | Cambios de contexto: %d (%.2f%% del tiempo)"
+                        + " | Expropiaciones: %d | Listos: %d",
+                nucleos, nombrePolitica, getUtilizacionMedia(ahora) * 100, rafagas, cambiosContexto,
+                getSobrecargaCambios(ahora) * 100, expropiaciones, politica.size()));
+        sb.append(System.lineSeparator()).append(respuesta);
+        for (int nucleo = 0; nucleo < nucleos; nucleo++) {
+            sb.append(String.format(Locale.ROOT, "%n  Núcleo %d: %.1f%%", nucleo, getUtilizacion(nucleo, ahora) * 100));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,98 @@
+package simuladormemoria;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * La interfaz PoliticaAdmision decide qué procesos de la cola de espera
+ * se admiten cuando se libera memoria. Cada política crea además la cola
+ * con el orden que necesita, de modo que elegir el siguiente candidato no
+ * requiere recorrer ni reordenar toda la cola.
+ */
+public interface PoliticaAdmision {
+
+    /**
+     * Crea la cola de espera ordenada según la política.
+     * @return Una cola de espera vacía.
+     */
+    BlockingQueue<Proceso> crearCola();
+
+    /**
+     * Admite tantos procesos de la cola como quepan ahora. Cada proceso
+     * admitido sale de la cola con su memoria ya asignada.
+     * @param cola La cola de espera (creada por crearCola).
+     * @param memoria La memoria en la que se asignan los procesos.
+     * @param enEjecucion Los procesos en ejecución (para estimar cuándo se liberará memoria).
+     * @param ahora Instante actual en milisegundos.
+     * @return Los procesos admitidos, en orden de admisión.
+     */
+    default List<Proceso> admitir(BlockingQueue<Proceso> cola, Memoria memoria, TablaProcesos enEjecucion, long ahora) {
+        return admitir(cola, memoria, enEjecucion, ahora, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Admite, como mucho, el número de procesos indicado.
+     * @param cola La cola de espera (creada por crearCola).
+     * @param memoria La memoria en la que se asignan los procesos.
+     * @param enEjecucion Los procesos en ejecución.
+     * @param ahora Instante actual en milisegundos.
+     * @param maximo Número máximo de procesos que se admiten.
+     * @return Los procesos admitidos, en orden de admisión.
+     */
+    List<Proceso> admitir(BlockingQueue<Proceso> cola, Memoria memoria, TablaProcesos enEjecucion, long ahora, int maximo);
+
+    /**
+     * Devuelve la política que hay que usar cuando los procesos comparten la
+     * CPU con un planificador. Con CPU compartida un proceso tarda más que su
+     * duración, así que las políticas que estiman cuándo terminan los
+     * procesos necesitan conocerlo.
+     * @param cpu El planificador de CPU.
+     * @return La política adaptada; por defecto, ella misma.
+     */
+    default PoliticaAdmision conCpu(PlanificadorCpu cpu) {
+        return this;
+    }
+
+    /**
+     * Saca de la cola el proceso al que se acaba de asignar memoria. Otro
+     * hilo puede haberlo sacado entre tanto (el gestor descarta procesos de
+     * la cola llena), así que se quita ese objeto exacto y no la cabeza; si
+     * ya no estaba, se le devuelve la memoria.
+     * @param cola La cola de espera.
+     * @param memoria La memoria en la que se asignó.
+     * @param proceso El proceso con memoria asignada.
+     * @return true si el proceso seguía en la cola y queda admitido.
+     */
+    static boolean sacar(BlockingQueue<Proceso> cola, Memoria memoria, Proceso proceso) {
+        if (cola.remove(proceso)) {
+            return true;
+        }
+        memoria.liberarMemoria(proceso);
+        return false;
+    }
+
+    // FIFO estricto: si el primero no cabe, nadie lo adelanta.
+    PoliticaAdmision FIFO = new AdmisionEnOrden(null);
+    // El trabajo más corto primero.
+    PoliticaAdmision SJF = new AdmisionEnOrden(Comparator.comparingInt(Proceso::getDuracion));
+    // El proceso que menos memoria pide primero.
+    PoliticaAdmision MENOR_MEMORIA = new AdmisionEnOrden(Comparator.comparingLong(Proceso::getBytesRequeridos));
+    // FIFO con backfilling EASY: se evita el bloqueo de cabeza sin retrasar al primero.
+    PoliticaAdmision BACKFILLING = new AdmisionBackfilling(64);
+
+    /**
+     * Obtiene una política a partir de su nombre.
+     * @param nombre "fifo", "sjf", "menor-memoria" o "backfilling".
+     * @return La política correspondiente.
+     */
+    static PoliticaAdmision porNombre(String nombre) {
+        switch (nombre) {
+            case "fifo": return FIFO;
+            case "sjf": return SJF;
+            case "menor-memoria": return MENOR_MEMORIA;
+            case "backfilling": return BACKFILLING;
+            default: throw new IllegalArgumentException("Política de admisión desconocida: " + nombre);
+        }
+    }
+}
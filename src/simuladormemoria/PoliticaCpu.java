@@ -0,0 +1,79 @@
+package simuladormemoria;
+
+/**
+ * La interfaz PoliticaCpu decide qué proceso listo recibe un núcleo y
+ * durante cuánto tiempo. Guarda la cola de procesos listos; los núcleos y
+ * la contabilidad de cada ráfaga los lleva el PlanificadorCpu.
+ */
+public interface PoliticaCpu {
+
+    /**
+     * Añade un proceso a la cola de listos: recién admitido, expropiado o
+     * con su rodaja agotada.
+     * @param proceso El proceso listo.
+     * @param ahora Instante actual en milisegundos.
+     */
+    void encolar(Proceso proceso, long ahora);
+
+    /**
+     * Saca de la cola el siguiente proceso que debe ejecutarse.
+     * @param ahora Instante actual en milisegundos.
+     * @return El proceso, o null si no hay ninguno listo.
+     */
+    Proceso siguiente(long ahora);
+
+    /**
+     * Quita un proceso de la cola de listos (por ejemplo, al llevarlo a disco).
+     * @param proceso El proceso.
+     * @return true si estaba en la cola.
+     */
+    boolean quitar(Proceso proceso);
+
+    /**
+     * Devuelve el número de procesos listos esperando núcleo.
+     * @return La profundidad de la cola de listos.
+     */
+    int size();
+
+    /**
+     * Calcula la rodaja de tiempo que se concede a un proceso que va a ejecutarse.
+     * @param proceso El proceso.
+     * @return Milisegundos de CPU.
+     */
+    long rodaja(Proceso proceso);
+
+    /**
+     * Notifica el final de una ráfaga para que la política actualice su
+     * contabilidad (nivel de MLFQ, tiempo virtual...).
+     * @param proceso El proceso que deja el núcleo.
+     * @param usado Milisegundos de CPU que ha usado en la ráfaga.
+     * @param agotada Si ha consumido toda su rodaja sin terminar.
+     */
+    void rafagaTerminada(Proceso proceso, long usado, boolean agotada);
+
+    /**
+     * Indica si un proceso que pasa a estar listo debe expulsar a otro que
+     * está en un núcleo.
+     * @param nuevo El proceso listo.
+     * @param actual El proceso en ejecución.
+     * @return true si nuevo debe expropiar a actual.
+     */
+    boolean expropia(Proceso nuevo, Proceso actual);
+
+    /**
+     * Crea una política de CPU a partir de su nombre.
+     * @param nombre "rr" (turno rotatorio), "prioridad", "mlfq" (colas multinivel
+     *               realimentadas) o "cfs" (planificación justa por tiempo virtual).
+     * @param quantum Rodaja base en milisegundos (en "cfs", la latencia objetivo).
+     * @return Una nueva política.
+     */
+    static PoliticaCpu porNombre(String nombre, long quantum) {
+        switch (nombre) {
+            case "rr": return new CpuRoundRobin(quantum);
+            case "prioridad": return new CpuPrioridad(quantum);
+            case "mlfq": return new CpuMlfq(quantum, 4, 50 * quantum);
+            case "cfs": return new CpuJusta(quantum, Math.max(1, quantum / 8));
+            default: throw new IllegalArgumentException("Política de CPU desconocida: " + nombre);
+        }
+    }
+}
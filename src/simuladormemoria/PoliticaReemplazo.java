@@ -0,0 +1,59 @@
+package simuladormemoria;
+
+import java.util.function.LongPredicate;
+
+/**
+ * La interfaz PoliticaReemplazo decide qué página residente se expulsa
+ * cuando la memoria paginada se queda sin marcos libres.
+ * Cada página se identifica con una clave global que combina la tabla de
+ * páginas del proceso y el número de página (ver AsignadorPaginado).
+ */
+public interface PoliticaReemplazo {
+
+    /**
+     * Notifica que una página se ha cargado en un marco.
+     * @param clave La clave de la página cargada.
+     */
+    void cargada(long clave);
+
+    /**
+     * Notifica un acceso a una página que ya estaba residente.
+     * @param clave La clave de la página accedida.
+     */
+    void accedida(long clave);
+
+    /**
+     * Notifica que una página ha dejado de estar residente sin ser
+     * expulsada por la política (por ejemplo, porque su proceso terminó).
+     * @param clave La clave de la página quitada.
+     */
+    void quitada(long clave);
+
+    /**
+     * Elige y retira la página que se expulsará para hacer sitio: la primera
+     * que la política expulsaría de entre las que admite el filtro. Las que
+     * no lo pasan y se revisan por el camino pasan al final del orden, como
+     * si se acabaran de usar, para no volver a recorrerlas en cada fallo.
+     * @param entrante La clave de la página que provoca el reemplazo.
+     * @param expulsable Qué páginas se pueden expulsar (al menos una lo es).
+     * @return La clave de la página expulsada.
+     */
+    long victima(long entrante, LongPredicate expulsable);
+
+    /**
+     * Crea una política de reemplazo a partir de su nombre.
+     * @param nombre "fifo", "lru", "clock", "lfu" o "arc".
+     * @param marcos Número de marcos de la memoria (lo necesita ARC).
+     * @return Una nueva política de reemplazo.
+     */
+    static PoliticaReemplazo porNombre(String nombre, int marcos) {
+        switch (nombre) {
+            case "fifo": return new ReemplazoFifo();
+            case "lru": return new ReemplazoLru();
+            case "clock": return new ReemplazoClock();
+            case "lfu": return new ReemplazoLfu();
+            case "arc": return new ReemplazoArc(marcos);
+            default: throw new IllegalArgumentException("Política de reemplazo desconocida: " + nombre);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package simuladormemoria;
+
+/**
+ * La interfaz PoliticaUbicacion es la estrategia con la que el
+ * AsignadorListaLibre elige en qué hueco libre colocar un bloque.
+ * Incluye las políticas clásicas: primer ajuste, mejor ajuste, peor ajuste
+ * y siguiente ajuste.
+ */
+public interface PoliticaUbicacion {
+
+    /**
+     * Elige el hueco donde se colocará un bloque.
+     * @param libres La lista libre sobre la que se busca.
+     * @param cantidad El tamaño del bloque solicitado.
+     * @return La dirección del hueco elegido, o -1 si ninguno sirve.
+     */
+    int buscarHueco(AsignadorListaLibre libres, int cantidad);
+
+    /**
+     * Devuelve dónde continuará la próxima búsqueda, para guardarlo en un
+     * punto de control. Solo el siguiente ajuste tiene estado.
+     * @return La dirección en gránulos (0 en las políticas sin estado).
+     */
+    default int getCursor() {
+        return 0;
+    }
+
+    /**
+     * Restaura la dirección donde continuará la próxima búsqueda.
+     * @param cursor La dirección en gránulos.
+     */
+    default void setCursor(int cursor) {
+        // Las políticas sin estado no guardan nada.
+    }
+
+    // Primer ajuste: el primer hueco suficiente en orden de direcciones.
+    PoliticaUbicacion PRIMER_AJUSTE = (libres, cantidad) -> libres.primerHueco(0, cantidad);
+    // Mejor ajuste: el hueco suficiente más pequeño, en O(log n).
+    PoliticaUbicacion MEJOR_AJUSTE = (libres, cantidad) -> libres.menorHuecoSuficiente(cantidad);
+    // Peor ajuste: el hueco más grande, en O(log n).
+    PoliticaUbicacion PEOR_AJUSTE = (libres, cantidad) -> libres.mayorHueco(cantidad);
+
+    /**
+     * Crea una política de siguiente ajuste. Cada instancia recuerda dónde
+     * terminó la última búsqueda, por lo que no se comparte entre memorias.
+     * @return Una nueva política de siguiente ajuste.
+     */
+    static PoliticaUbicacion siguienteAjuste() {
+        return new PoliticaUbicacion() {
+            // Dirección donde terminó la última asignación.
+            private int ultimo;
+
+            @Override
+            public int buscarHueco(AsignadorListaLibre libres, int cantidad) {
+                // La búsqueda sigue desde el hueco donde quedó el cursor, aunque empiece antes
+                // (al liberar un bloque vecino, el hueco se fusiona por delante del cursor).
+                int direccion = libres.primerHueco(libres.inicioHueco(ultimo), cantidad);
+                // Si no hay hueco tras la última posición, se vuelve al principio.
+                if (direccion < 0) {
+                    direccion = libres.primerHueco(0, cantidad);
+                }
+                if (direccion >= 0) {
+                    ultimo = direccion + cantidad;
+                }
+                return direccion;
+            }
+
+            @Override
+            public int getCursor() {
+                return ultimo;
+            }
+
+            @Override
+            public void setCursor(int cursor) {
+                ultimo = cursor;
+            }
+        };
+    }
+
+    /**
+     * Obtiene una política a partir de su nombre.
+     * @param nombre "primero", "mejor", "peor" o "siguiente".
+     * @return La política correspondiente.
+     */
+    static PoliticaUbicacion porNombre(String nombre) {
+        switch (nombre) {
+            case "primero": return PRIMER_AJUSTE;
+            case "mejor": return MEJOR_AJUSTE;
+            case "peor": return PEOR_AJUSTE;
+            case "siguiente": return siguienteAjuste();
+            default: throw new IllegalArgumentException("Política de ubicación desconocida: " + nombre);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package simuladormemoria;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -7,48 +8,329 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Contiene información clave como su identificador, memoria y duración.
  */
 public class Proceso {
+
+    /**
+     * Estados por los que pasa un proceso, con el texto con que se muestran.
+     */
+    public enum Estado {
+        EN_COLA("En cola"),
+        EN_EJECUCION("En ejecución"),
+        SALIENDO_A_DISCO("Saliendo a disco"),
+        EN_DISCO("En disco"),
+        ENTRANDO_DE_DISCO("Entrando de disco"),
+        BLOQUEADO("Bloqueado por memoria"),
+        FINALIZADO("Finalizado"),
+        MATADO("Matado por falta de memoria"),
+        RECHAZADO("Rechazado"),
+        CANCELADO("Cancelado");
+
+        private final String texto;
+
+        Estado(String texto) {
+            this.texto = texto;
+        }
+
+        public String getTexto() { return texto; }
+    }
+
+    // PID del primer proceso.
+    public static final int PRIMER_PID = 1000;
     // Un contador estático y atómico para generar PIDs únicos y seguros en entornos concurrentes.
-    private static final AtomicInteger pidCounter = new AtomicInteger(1000);
+    private static final AtomicInteger pidCounter = new AtomicInteger(PRIMER_PID);
 
     // Identificador único del proceso.
     private final int pid;
-    // Nombre descriptivo del proceso.
+    // Nombre descriptivo del proceso (null = "Proceso n", con n = PID - PRIMER_PID).
     private final String nombre;
-    // Cantidad de memoria RAM que el proceso necesita.
-    private final int memoriaRequerida;
+    // Cantidad de memoria RAM que el proceso necesita al empezar, en bytes.
+    // Lo que crece después va en segmentos aparte (ver MemoriaDinamica).
+    private final long bytesRequeridos;
     // Duración de la ejecución del proceso en segundos.
     private final int duracion;
+    // Momento en milisegundos en que el proceso llegó al sistema.
+    private long tiempoLlegada;
     // Momento en milisegundos en que el proceso comenzó a ejecutarse.
+    // Este campo, tiempoCarga y estado solo valen mientras el proceso no está en
+    // una TablaProcesos: dentro, sus columnas son la copia buena.
     private long tiempoInicio;
-    // Estado actual del proceso (ej. "En cola", "En ejecución", "Finalizado").
-    private String status;
+    // Momento en que el proceso se cargó en memoria por última vez (al iniciarse o al volver del intercambio).
+    private long tiempoCarga;
+    // Milisegundos de ejecución que le quedan mientras está fuera de memoria.
+    private long tiempoRestante;
+    // Estado actual del proceso.
+    private Estado estado;
+    // Dirección inicial del bloque de memoria asignado (-1 si no tiene memoria).
+    private long direccion = -1;
+    // Nodo de memoria preferido (-1 si no tiene afinidad).
+    private int nodo = -1;
+    // Flujo de referencias a memoria que el proceso genera al ejecutarse (opcional).
+    private FlujoReferencias referencias;
+    // Prioridad al estilo nice de Unix: de -20 (la más alta) a 19 (la más baja).
+    private int prioridad;
+    // Estado en el planificador de CPU (null hasta que se usa uno).
+    private EstadoCpu cpu;
+    // Memoria que el proceso ha pedido después de empezar (null si no crece).
+    private MemoriaDinamica dinamica;
+    // Si ha cambiado desde que se escribió en el último punto de control (ver PuntoControl).
+    private boolean modificado = true;
+    // Tabla de procesos en ejecución en la que está y su fila (null y -1 si no está en ninguna).
+    volatile TablaProcesos tabla;
+    int fila = -1;
+
+    /**
+     * Estado del proceso en el planificador de CPU (ver PlanificadorCpu):
+     * milisegundos de CPU que le faltan, núcleo en el que está (-1 si en ninguno),
+     * instante en que recibió CPU por primera vez (-1 si aún no), nivel de MLFQ
+     * y tiempo de ejecución virtual de la planificación justa. Va aparte porque
+     * sin planificador de CPU no se usa.
+     */
+    private static final class EstadoCpu {
+        private long restante;
+        private int nucleo = -1;
+        private long primeraEjecucion = -1;
+        private int nivel;
+        private long vruntime;
+    }
 
     /**
      * Constructor para crear un nuevo proceso.
-     * @param nombre El nombre del proceso.
+     * @param nombre El nombre del proceso, o null para llamarlo "Proceso n" según su PID.
      * @param memoriaRequerida La memoria que el proceso necesita en MB.
      * @param duracion La duración del proceso en segundos.
      */
     public Proceso(String nombre, int memoriaRequerida, int duracion) {
+        this(nombre, (long) memoriaRequerida << 20, duracion);
+    }
+
+    private Proceso(String nombre, long bytesRequeridos, int duracion) {
         // Asigna un PID único y lo incrementa para el siguiente proceso.
-        this.pid = pidCounter.getAndIncrement();
+        this(pidCounter.getAndIncrement(), nombre, bytesRequeridos, duracion);
+    }
+
+    private Proceso(int pid, String nombre, long bytesRequeridos, int duracion) {
+        this.pid = pid;
         this.nombre = nombre;
-        this.memoriaRequerida = memoriaRequerida;
+        this.bytesRequeridos = bytesRequeridos;
         this.duracion = duracion;
         // El estado inicial de todo proceso es "En cola".
-        this.status = "En cola";
+        this.estado = Estado.EN_COLA;
+    }
+
+    /**
+     * Crea un proceso cuya memoria se expresa en bytes, para tamaños que no
+     * son múltiplos de 1 MB o que no caben en un int de MB.
+     * @param nombre El nombre del proceso.
+     * @param bytesRequeridos La memoria que el proceso necesita en bytes.
+     * @param duracion La duración del proceso en segundos.
+     * @return El nuevo proceso.
+     */
+    public static Proceso conBytes(String nombre, long bytesRequeridos, int duracion) {
+        return new Proceso(nombre, bytesRequeridos, duracion);
+    }
+
+    /**
+     * Crea un proceso con un PID elegido por quien lo crea, sin pasar por el
+     * contador global. Sirve a los generadores que simulan en paralelo y
+     * necesitan los mismos PID en cada ejecución (el PID siembra el perfil
+     * de memoria y aparece en la traza de decisiones). El PID solo tiene que
+     * ser único dentro de su simulación.
+     * @param pid El PID.
+     * @param nombre El nombre del proceso, o null para llamarlo "Proceso n" según su PID.
+     * @param bytesRequeridos La memoria que el proceso necesita en bytes.
+     * @param duracion La duración del proceso en segundos.
+     * @return El nuevo proceso.
+     */
+    public static Proceso conPid(int pid, String nombre, long bytesRequeridos, int duracion) {
+        return new Proceso(pid, nombre, bytesRequeridos, duracion);
     }
 
     // Getters y Setters
     // Métodos para acceder y modificar las propiedades del proceso.
     public int getPid() { return pid; }
-    public String getNombre() { return nombre; }
-    public int getMemoriaRequerida() { return memoriaRequerida; }
+    public String getNombre() { return nombre != null ? nombre : "Proceso " + (pid - PRIMER_PID); }
+    public long getBytesRequeridos() { return bytesRequeridos; }
+    // Memoria requerida en MB, redondeada hacia arriba (para mostrarla).
+    public long getMemoriaRequerida() { return (bytesRequeridos + Memoria.MB - 1) / Memoria.MB; }
+    // Memoria que ocupa ahora: la inicial más la que ha ido pidiendo.
+    public long getBytesTotales() { return dinamica == null ? bytesRequeridos : bytesRequeridos + dinamica.getTotal(); }
     public int getDuracion() { return duracion; }
-    public long getTiempoInicio() { return tiempoInicio; }
-    public void setTiempoInicio(long tiempoInicio) { this.tiempoInicio = tiempoInicio; }
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public long getTiempoLlegada() { return tiempoLlegada; }
+    public void setTiempoLlegada(long tiempoLlegada) { this.tiempoLlegada = tiempoLlegada; modificado = true; }
+    public long getTiempoInicio() {
+        TablaProcesos t = tabla;
+        long valor = t == null ? Long.MIN_VALUE : t.leerInicio(this);
+        return valor != Long.MIN_VALUE ? valor : tiempoInicio;
+    }
+    public void setTiempoInicio(long tiempoInicio) {
+        TablaProcesos t = tabla;
+        if (t == null || !t.escribirInicio(this, tiempoInicio)) {
+            this.tiempoInicio = tiempoInicio;
+        }
+        modificado = true;
+    }
+    public long getTiempoCarga() {
+        TablaProcesos t = tabla;
+        long valor = t == null ? Long.MIN_VALUE : t.leerCarga(this);
+        return valor != Long.MIN_VALUE ? valor : tiempoCarga;
+    }
+    public void setTiempoCarga(long tiempoCarga) {
+        TablaProcesos t = tabla;
+        if (t == null || !t.escribirCarga(this, tiempoCarga)) {
+            this.tiempoCarga = tiempoCarga;
+        }
+        modificado = true;
+    }
+    public long getTiempoRestante() { return tiempoRestante; }
+    public void setTiempoRestante(long tiempoRestante) { this.tiempoRestante = tiempoRestante; modificado = true; }
+    public Estado getEstado() {
+        TablaProcesos t = tabla;
+        Estado valor = t == null ? null : t.leerEstado(this);
+        return valor != null ? valor : estado;
+    }
+    public void setEstado(Estado estado) {
+        TablaProcesos t = tabla;
+        if (t == null || !t.escribirEstado(this, estado)) {
+            this.estado = estado;
+        }
+        modificado = true;
+    }
+    public long getDireccion() { return direccion; }
+    public void setDireccion(long direccion) { this.direccion = direccion; modificado = true; }
+    public int getNodo() { return nodo; }
+    public void setNodo(int nodo) { this.nodo = nodo; modificado = true; }
+    public FlujoReferencias getReferencias() { return referencias; }
+    public void setReferencias(FlujoReferencias referencias) { this.referencias = referencias; }
+    public int getPrioridad() { return prioridad; }
+    public void setPrioridad(int prioridad) { this.prioridad = Math.max(-20, Math.min(19, prioridad)); modificado = true; }
+    public long getCpuRestante() { return cpu == null ? 0 : cpu.restante; }
+    public void setCpuRestante(long cpuRestante) { cpu().restante = cpuRestante; modificado = true; }
+    public int getNucleo() { return cpu == null ? -1 : cpu.nucleo; }
+    public void setNucleo(int nucleo) { cpu().nucleo = nucleo; modificado = true; }
+    public long getPrimeraEjecucion() { return cpu == null ? -1 : cpu.primeraEjecucion; }
+    public void setPrimeraEjecucion(long primeraEjecucion) { cpu().primeraEjecucion = primeraEjecucion; modificado = true; }
+    public int getNivelCpu() { return cpu == null ? 0 : cpu.nivel; }
+    public void setNivelCpu(int nivelCpu) { cpu().nivel = nivelCpu; modificado = true; }
+    public long getVruntime() { return cpu == null ? 0 : cpu.vruntime; }
+    public void setVruntime(long vruntime) { cpu().vruntime = vruntime; modificado = true; }
+    public MemoriaDinamica getDinamica() { return dinamica; }
+    public void setDinamica(MemoriaDinamica dinamica) { this.dinamica = dinamica; modificado = true; }
+
+    private EstadoCpu cpu() {
+        if (cpu == null) {
+            cpu = new EstadoCpu();
+        }
+        return cpu;
+    }
+
+    // La tabla le devuelve las columnas al quitarlo (ver TablaProcesos).
+    void soltar(Estado estado, long tiempoInicio, long tiempoCarga) {
+        this.estado = estado;
+        this.tiempoInicio = tiempoInicio;
+        this.tiempoCarga = tiempoCarga;
+    }
+
+    // La memoria del proceso ha crecido o encogido: se refleja en su fila, si está en una tabla.
+    void bytesCambiados() {
+        TablaProcesos t = tabla;
+        if (t != null) {
+            t.escribirBytes(this, getBytesTotales());
+        }
+    }
+
+    /**
+     * Devuelve el PID que recibirá el siguiente proceso.
+     * @return El siguiente PID.
+     */
+    public static int getSiguientePid() {
+        return pidCounter.get();
+    }
+
+    /**
+     * Fija el PID que recibirá el siguiente proceso (al restaurar un punto de control).
+     * @param pid El siguiente PID.
+     */
+    public static void setSiguientePid(int pid) {
+        pidCounter.set(pid);
+    }
+
+    // Cambios desde el último punto de control, propios o de su memoria dinámica.
+    boolean isModificado() { return modificado || dinamica != null && dinamica.isModificado(); }
+
+    void marcarModificado() { modificado = true; }
+
+    void marcarGuardado() {
+        modificado = false;
+        if (dinamica != null) {
+            dinamica.marcarGuardado();
+        }
+    }
+
+    /**
+     * Escribe el estado completo del proceso en un punto de control. El
+     * flujo de referencias no se guarda (solo se usa con memoria paginada,
+     * que no admite puntos de control).
+     * @param salida Dónde escribirlo.
+     */
+    void escribir(BufferSalida salida) {
+        salida.escribirInt(pid);
+        salida.escribirTexto(getNombre());
+        salida.escribirLong(bytesRequeridos);
+        salida.escribirInt(duracion);
+        salida.escribirLong(tiempoLlegada);
+        salida.escribirLong(getTiempoInicio());
+        salida.escribirLong(getTiempoCarga());
+        salida.escribirLong(tiempoRestante);
+        salida.escribirByte(getEstado().ordinal());
+        salida.escribirLong(direccion);
+        salida.escribirInt(nodo);
+        salida.escribirInt(prioridad);
+        salida.escribirLong(getCpuRestante());
+        salida.escribirInt(getNucleo());
+        salida.escribirLong(getPrimeraEjecucion());
+        salida.escribirInt(getNivelCpu());
+        salida.escribirLong(getVruntime());
+        salida.escribirByte(dinamica == null ? 0 : 1);
+        if (dinamica != null) {
+            dinamica.escribir(salida);
+        }
+    }
+
+    /**
+     * Lee un proceso escrito con escribir, con su PID original.
+     * @param entrada El buffer de lectura.
+     * @return El proceso, sin cambios pendientes de guardar.
+     */
+    static Proceso leer(ByteBuffer entrada) {
+        int pid = entrada.getInt();
+        String nombre = BufferSalida.leerTexto(entrada);
+        Proceso proceso = new Proceso(pid, nombre, entrada.getLong(), entrada.getInt());
+        proceso.tiempoLlegada = entrada.getLong();
+        proceso.tiempoInicio = entrada.getLong();
+        proceso.tiempoCarga = entrada.getLong();
+        proceso.tiempoRestante = entrada.getLong();
+        proceso.estado = Estado.values()[entrada.get()];
+        proceso.direccion = entrada.getLong();
+        proceso.nodo = entrada.getInt();
+        proceso.prioridad = entrada.getInt();
+        long cpuRestante = entrada.getLong();
+        int nucleo = entrada.getInt();
+        long primeraEjecucion = entrada.getLong();
+        int nivelCpu = entrada.getInt();
+        long vruntime = entrada.getLong();
+        if (cpuRestante != 0 || nucleo != -1 || primeraEjecucion != -1 || nivelCpu != 0 || vruntime != 0) {
+            proceso.cpu = new EstadoCpu();
+            proceso.cpu.restante = cpuRestante;
+            proceso.cpu.nucleo = nucleo;
+            proceso.cpu.primeraEjecucion = primeraEjecucion;
+            proceso.cpu.nivel = nivelCpu;
+            proceso.cpu.vruntime = vruntime;
+        }
+        if (entrada.get() != 0) {
+            proceso.dinamica = MemoriaDinamica.leer(entrada);
+        }
+        proceso.modificado = false;
+        return proceso;
+    }
 
     /**
      * Sobrescribe el método toString para una representación en cadena más útil.
@@ -57,6 +339,6 @@ public class Proceso {
     @Override
     public String toString() {
         return String.format("PID: %d | Nombre: %s | Memoria: %d MB | Duración: %ds",
-                pid, nombre, memoriaRequerida, duracion);
+                pid, getNombre(), getMemoriaRequerida(), duracion);
     }
 }
\ No newline at end of file
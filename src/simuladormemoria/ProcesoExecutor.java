@@ -1,7 +1,7 @@
 package simuladormemoria;
 
-import java.util.concurrent.ConcurrentMap;
 import java.util.Date;
+import java.util.concurrent.CancellationException;
 
 /**
  * La clase ProcesoExecutor es la responsable de la ejecución de un proceso.
@@ -13,37 +13,91 @@ public class ProcesoExecutor implements Runnable {
     private final Proceso proceso;
     // Referencia a la memoria para poder liberar el espacio al finalizar.
     private final Memoria memoria;
-    // Mapa concurrente de procesos en ejecución. Es necesario para eliminar
+    // Tabla de procesos en ejecución. Es necesaria para eliminar
     // el proceso de la lista cuando termine.
-    private final ConcurrentMap<Integer, Proceso> procesosEnEjecucion;
+    private final TablaProcesos procesosEnEjecucion;
     // Referencia al monitor para registrar el evento de finalización del proceso.
     private final Monitor monitor;
+    // Si el proceso sale de la cola de espera, dónde registrar su latencia de
+    // admisión y el instante (System.nanoTime) de la liberación que lo despertó.
+    private EstadisticasAdmision estadisticasAdmision;
+    private long liberadoEn;
+    // Métricas de espera y retorno (desactivadas por defecto).
+    private Metricas metricas = Metricas.DESACTIVADAS;
+    // Futuros del proceso si llegó con GestorDeProcesos.enviar (null si no).
+    private Envio envio;
+    // Si se imprime en la consola una línea al iniciar el proceso.
+    private boolean ecoConsola = true;
 
     /**
      * Constructor que inicializa el ejecutor con las dependencias necesarias.
      * @param proceso El proceso que se va a ejecutar.
      * @param memoria El objeto Memoria para la gestión de la memoria.
-     * @param procesosEnEjecucion El mapa de procesos en ejecución para poder eliminarse de él.
-     * @param monitor El monitor para registrar eventos.
+     * @param procesosEnEjecucion La tabla de procesos en ejecución para poder eliminarse de ella.
+     * @param monitor El monitor para registrar eventos, o null para no registrarlos.
      */
-    public ProcesoExecutor(Proceso proceso, Memoria memoria, ConcurrentMap<Integer, Proceso> procesosEnEjecucion, Monitor monitor) {
+    public ProcesoExecutor(Proceso proceso, Memoria memoria, TablaProcesos procesosEnEjecucion, Monitor monitor) {
         this.proceso = proceso;
         this.memoria = memoria;
         this.procesosEnEjecucion = procesosEnEjecucion;
         this.monitor = monitor;
     }
 
+    /**
+     * Indica que el proceso viene de la cola de espera para que, al empezar,
+     * se registre cuánto tardó desde la liberación de memoria que lo admitió.
+     * @param estadisticas Dónde registrar la latencia.
+     * @param liberadoEn Instante de la liberación, según System.nanoTime.
+     */
+    public void medirAdmision(EstadisticasAdmision estadisticas, long liberadoEn) {
+        this.estadisticasAdmision = estadisticas;
+        this.liberadoEn = liberadoEn;
+    }
+
+    /**
+     * Establece las métricas donde se registran la espera y el retorno del proceso.
+     * @param metricas Las métricas, o Metricas.DESACTIVADAS.
+     */
+    public void setMetricas(Metricas metricas) {
+        this.metricas = metricas;
+    }
+
+    /**
+     * Establece los futuros que se completan al iniciar y al terminar el proceso.
+     * @param envio El envío del proceso.
+     */
+    public void setEnvio(Envio envio) {
+        this.envio = envio;
+    }
+
+    /**
+     * Indica si se imprime una línea en la consola al iniciar el proceso.
+     * @param ecoConsola false para no imprimirla.
+     */
+    public void setEcoConsola(boolean ecoConsola) {
+        this.ecoConsola = ecoConsola;
+    }
+
     /**
      * El método run() contiene la lógica de ejecución del proceso.
      * Este método es llamado cuando se inicia el hilo.
      */
     @Override
     public void run() {
+        if (estadisticasAdmision != null) {
+            estadisticasAdmision.registrar(System.nanoTime() - liberadoEn);
+        }
         // Imprime un mensaje en la consola indicando que el proceso ha comenzado.
-        System.out.printf("[%s] ---> Iniciando ejecución del proceso: %s (PID: %d)\n",
-                new Date(), proceso.getNombre(), proceso.getPid());
+        if (ecoConsola) {
+            System.out.printf("[%s] ---> Iniciando ejecución del proceso: %s (PID: %d)\n",
+                    new Date(), proceso.getNombre(), proceso.getPid());
+        }
         // Establece el tiempo de inicio del proceso para calcular el tiempo restante.
         proceso.setTiempoInicio(System.currentTimeMillis());
+        metricas.admision(proceso);
+        if (envio != null) {
+            envio.iniciado();
+        }
 
         try {
             // Simula el tiempo de ejecución del proceso durmiendo el hilo.
@@ -57,13 +111,42 @@ public class ProcesoExecutor implements Runnable {
             // como si es interrumpido, asegurando que la limpieza se haga.
 
             // 1. Libera la memoria que el proceso había ocupado.
-            memoria.liberarMemoria(proceso.getMemoriaRequerida());
+            memoria.liberarMemoria(proceso);
 
-            // 2. Elimina el proceso del mapa de procesos en ejecución.
-            procesosEnEjecucion.remove(proceso.getPid());
+            // 2. Elimina el proceso de la tabla de procesos en ejecución.
+            procesosEnEjecucion.quitar(proceso.getPid());
 
             // 3. Registra el evento de finalización en el monitor.
-            monitor.agregarEvento("Proceso " + proceso.getNombre() + " (PID: " + proceso.getPid() + ") finalizado y memoria liberada.");
+            registrar(RegistroEventos.Tipo.FINALIZADO, proceso);
+            metricas.finalizacion(proceso, System.currentTimeMillis());
+            if (envio != null && Thread.currentThread().isInterrupted()) {
+                // Apagado a mitad de su ejecución: no terminó, se canceló.
+                envio.fallido(new CancellationException("Proceso interrumpido: " + proceso.getPid()));
+            } else if (envio != null) {
+                envio.finalizado();
+            }
+        }
+    }
+
+    /**
+     * Limpia un proceso que nunca llegó a ejecutarse (por ejemplo, porque
+     * seguía en la cola del pool cuando se apagó el ejecutor).
+     */
+    public void cancelar() {
+        memoria.liberarMemoria(proceso);
+        procesosEnEjecucion.quitar(proceso.getPid());
+        proceso.setEstado(Proceso.Estado.CANCELADO);
+        metricas.rechazo();
+        registrar(RegistroEventos.Tipo.CANCELADO, proceso);
+        if (envio != null) {
+            envio.fallido(new CancellationException("Proceso cancelado: " + proceso.getPid()));
+        }
+    }
+
+    // Registra un evento en el monitor, si lo hay.
+    private void registrar(RegistroEventos.Tipo tipo, Proceso proceso) {
+        if (monitor != null) {
+            monitor.agregarEvento(tipo, proceso);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,450 @@
+package simuladormemoria;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.zip.CRC32;
+
+/**
+ * La clase PuntoControl guarda el estado de una simulación del motor de
+ * eventos en un archivo binario, para pausarla y reanudarla más tarde, en
+ * la misma ejecución o en otra.
+ *
+ * El archivo es un registro que solo crece: una cabecera y una serie de
+ * puntos, cada uno con su tipo y su longitud delante y un CRC32 detrás.
+ * Un punto completo contiene todo el estado; uno incremental, solo lo que
+ * ha cambiado desde el anterior:
+ * <ul>
+ *   <li>los procesos modificados (los setters de Proceso los marcan);</li>
+ *   <li>los eventos creados desde el punto anterior. Los eventos se procesan
+ *   en orden de (tiempo, secuencia) y nunca se programan en el pasado, así
+ *   que los pendientes son justo los guardados cuya clave no es menor que
+ *   la del primer evento pendiente al escribir el punto;</li>
+ *   <li>los eventos del registro añadidos desde el punto anterior.</li>
+ * </ul>
+ * El reloj, los contadores, el estado del asignador y el orden de la cola
+ * de espera y de la tabla de procesos son pequeños y van siempre enteros.
+ *
+ * Cuando los incrementales ocupan más que el último completo, el siguiente
+ * punto es completo y va a un archivo nuevo que sustituye al anterior de
+ * forma atómica, así que restaurar nunca lee más del doble del estado.
+ * Si la escritura de un punto se corta, su CRC no cuadra y al restaurar se
+ * usa el anterior.
+ *
+ * Admite los modelos de contador, repartido, lista libre y buddy (también
+ * en NUMA) y la memoria dinámica de los procesos; no admite la memoria
+ * paginada ni la slab, el planificador de CPU ni el área de intercambio.
+ * Las métricas no se guardan: tras restaurar miden lo que se simula desde ahí.
+ */
+public class PuntoControl implements Closeable {
+    // "SMPC" y versión del formato.
+    private static final int MAGICO = 0x534D5043;
+    private static final int VERSION = 2;
+    private static final int CABECERA_ARCHIVO = 8;
+    // Tipos de punto.
+    private static final byte COMPLETO = 0;
+    private static final byte INCREMENTAL = 1;
+    // Cada punto lleva delante el tipo (1 byte) y la longitud (4), y detrás el CRC32 (4).
+    private static final int CABECERA_PUNTO = 5;
+    private static final int TAMANO_CRC = 4;
+    private static final Evento.Tipo[] TIPOS_EVENTO = Evento.Tipo.values();
+
+    private final Path archivo;
+    private FileChannel canal;
+    private final BufferSalida buffer = new BufferSalida(1 << 16);
+    // Secuencia del motor y número del registro en el último punto: lo anterior ya está escrito.
+    private long secuenciaGuardada;
+    private long registroGuardado;
+    // Bytes del último punto completo y de los incrementales escritos después.
+    private long bytesCompleto;
+    private long bytesIncrementales;
+    // Estadísticas de escritura.
+    private int puntos;
+    private int puntosCompletos;
+    private long bytesEscritos;
+    private int procesosUltimo;
+    private int eventosUltimo;
+    private long bytesUltimo;
+    private long nanosUltimo;
+    // Lo que se restauró al reanudar (0 si el archivo es nuevo).
+    private int procesosRestaurados;
+    private long nanosRestauracion;
+
+    /**
+     * Crea un archivo de puntos de control vacío (si ya existe, se sustituye).
+     * @param archivo El archivo.
+     * @throws IOException Si no se puede crear.
+     */
+    public PuntoControl(Path archivo) throws IOException {
+        this(archivo, abrirNuevo(archivo));
+    }
+
+    private PuntoControl(Path archivo, FileChannel canal) {
+        this.archivo = archivo;
+        this.canal = canal;
+    }
+
+    public int getPuntos() { return puntos; }
+    public int getPuntosCompletos() { return puntosCompletos; }
+    public long getBytesEscritos() { return bytesEscritos; }
+    public long getBytesUltimo() { return bytesUltimo; }
+    public long getNanosUltimo() { return nanosUltimo; }
+    public int getProcesosRestaurados() { return procesosRestaurados; }
+    public long getNanosRestauracion() { return nanosRestauracion; }
+
+    /**
+     * Escribe un punto de control del estado actual del motor, completo o
+     * incremental, y espera a que llegue al disco.
+     * @param motor El motor, parado entre dos eventos.
+     * @return Los bytes escritos.
+     * @throws IOException Si falla la escritura.
+     * @throws UnsupportedOperationException Si la simulación usa algo que no se puede guardar.
+     */
+    public long guardar(MotorDeEventos motor) throws IOException {
+        comprobar(motor);
+        long inicio = System.nanoTime();
+        boolean completo = bytesCompleto == 0 || bytesIncrementales > bytesCompleto;
+        buffer.reiniciar();
+        buffer.escribirByte(completo ? COMPLETO : INCREMENTAL);
+        buffer.escribirInt(0);
+        escribirEstado(motor, completo);
+        int longitud = buffer.getPosicion() - CABECERA_PUNTO;
+        buffer.escribirIntEn(1, longitud);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.getContenido().position(CABECERA_PUNTO));
+        buffer.escribirInt((int) crc.getValue());
+
+        if (completo && bytesCompleto > 0) {
+            // El punto completo va solo en un archivo nuevo que sustituye al anterior.
+            Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+            try (FileChannel nuevo = abrirNuevo(temporal)) {
+                escribirTodo(nuevo, buffer.getContenido());
+                nuevo.force(true);
+            }
+            canal.close();
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            canal = abrirParaAnadir(archivo);
+        } else {
+            escribirTodo(canal, buffer.getContenido());
+            canal.force(false);
+        }
+
+        bytesUltimo = buffer.getPosicion();
+        if (completo) {
+            bytesCompleto = bytesUltimo;
+            bytesIncrementales = 0;
+            puntosCompletos++;
+        } else {
+            bytesIncrementales += bytesUltimo;
+        }
+        puntos++;
+        bytesEscritos += bytesUltimo;
+        nanosUltimo = System.nanoTime() - inicio;
+        return bytesUltimo;
+    }
+
+    /**
+     * Compone el contenido de un punto en el buffer. El orden importa para
+     * restaurar: lo que se acumula de un punto a otro (memoria, procesos,
+     * eventos y registro) va antes que lo que solo se lee del último.
+     */
+    private void escribirEstado(MotorDeEventos motor, boolean completo) {
+        GestorDeProcesos gestor = motor.getGestor();
+        PriorityQueue<Evento> eventos = motor.getColaEventos();
+        TablaProcesos tabla = gestor.getProcesosEnEjecucion();
+        Evento primero = eventos.peek();
+        buffer.escribirInt(Proceso.getSiguientePid());
+        buffer.escribirLong(primero == null ? Long.MAX_VALUE : primero.getTiempo());
+        buffer.escribirLong(primero == null ? Long.MAX_VALUE : primero.getSecuencia());
+        // Primero la memoria: si el modelo no admite puntos de control falla antes de tocar nada.
+        motor.getMemoria().guardarEstado(buffer);
+
+        // Procesos alcanzables: los de los eventos pendientes, la cola y la tabla.
+        // En un punto completo se marcan todos, y así cada uno se escribe una sola vez.
+        if (completo) {
+            for (Evento evento : eventos) {
+                evento.getProceso().marcarModificado();
+            }
+            for (Proceso proceso : gestor.getColaEspera()) {
+                proceso.marcarModificado();
+            }
+            for (int fila = 0; fila < tabla.size(); fila++) {
+                tabla.getProceso(fila).marcarModificado();
+            }
+        }
+        int posicion = buffer.getPosicion();
+        buffer.escribirInt(0);
+        int procesos = 0;
+        for (Evento evento : eventos) {
+            procesos += escribirSiModificado(evento.getProceso());
+        }
+        for (Proceso proceso : gestor.getColaEspera()) {
+            procesos += escribirSiModificado(proceso);
+        }
+        for (int fila = 0; fila < tabla.size(); fila++) {
+            procesos += escribirSiModificado(tabla.getProceso(fila));
+        }
+        buffer.escribirIntEn(posicion, procesos);
+
+        posicion = buffer.getPosicion();
+        buffer.escribirInt(0);
+        int nuevos = 0;
+        for (Evento evento : eventos) {
+            if (completo || evento.getSecuencia() >= secuenciaGuardada) {
+                buffer.escribirLong(evento.getTiempo());
+                buffer.escribirLong(evento.getSecuencia());
+                buffer.escribirByte(evento.getTipo().ordinal());
+                buffer.escribirInt(evento.getProceso().getPid());
+                nuevos++;
+            }
+        }
+        buffer.escribirIntEn(posicion, nuevos);
+
+        // El registro va precedido de su longitud para poder saltarlo si al restaurar no hay registro.
+        RegistroEventos registro = motor.getRegistro();
+        posicion = buffer.getPosicion();
+        buffer.escribirInt(0);
+        if (registro != null) {
+            registroGuardado = registro.guardarDesde(completo ? 0 : registroGuardado, buffer);
+        }
+        buffer.escribirIntEn(posicion, buffer.getPosicion() - posicion - 4);
+
+        motor.guardarEstado(buffer);
+        buffer.escribirInt(gestor.getColaEspera().size());
+        // En una cola con prioridad el recorrido sigue el montículo: al reinsertarlos en
+        // este orden se reconstruye el mismo montículo.
+        for (Proceso proceso : gestor.getColaEspera()) {
+            buffer.escribirInt(proceso.getPid());
+        }
+        buffer.escribirInt(tabla.size());
+        for (int fila = 0; fila < tabla.size(); fila++) {
+            buffer.escribirInt(tabla.getPid(fila));
+        }
+        secuenciaGuardada = motor.getSecuencia();
+        procesosUltimo = procesos;
+        eventosUltimo = nuevos;
+    }
+
+    private int escribirSiModificado(Proceso proceso) {
+        if (!proceso.isModificado()) {
+            return 0;
+        }
+        proceso.escribir(buffer);
+        proceso.marcarGuardado();
+        return 1;
+    }
+
+    /**
+     * Restaura en un motor nuevo el último punto válido de un archivo y
+     * devuelve un PuntoControl que sigue añadiendo puntos a ese archivo. El
+     * motor, su gestor y su memoria deben estar recién creados con la misma
+     * configuración que la simulación guardada.
+     * @param archivo El archivo de puntos de control.
+     * @param motor El motor nuevo.
+     * @return El punto de control para seguir guardando.
+     * @throws IOException Si no se puede leer el archivo o no contiene ningún punto válido.
+     */
+    public static PuntoControl reanudar(Path archivo, MotorDeEventos motor) throws IOException {
+        comprobar(motor);
+        if (motor.getEventosPendientes() > 0 || motor.getEventosProcesados() > 0) {
+            throw new IllegalStateException("Solo se puede restaurar en un motor nuevo");
+        }
+        long inicio = System.nanoTime();
+        MappedByteBuffer datos;
+        try (FileChannel lectura = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (lectura.size() > Integer.MAX_VALUE) {
+                throw new IOException("El punto de control supera los 2 GB: " + archivo);
+            }
+            datos = lectura.map(FileChannel.MapMode.READ_ONLY, 0, lectura.size());
+        }
+        int tamano = datos.capacity();
+        if (tamano < CABECERA_ARCHIVO || datos.getInt(0) != MAGICO || datos.getInt(4) != VERSION) {
+            throw new IOException(archivo + " no es un archivo de puntos de control");
+        }
+
+        // Recorre los puntos íntegros y recuerda dónde empieza el último completo.
+        int posicion = CABECERA_ARCHIVO;
+        int ultimoCompleto = -1;
+        long bytesCompleto = 0;
+        long bytesIncrementales = 0;
+        int puntos = 0;
+        while (posicion + CABECERA_PUNTO + TAMANO_CRC <= tamano) {
+            byte tipo = datos.get(posicion);
+            int longitud = datos.getInt(posicion + 1);
+            long fin = (long) posicion + CABECERA_PUNTO + longitud + TAMANO_CRC;
+            if ((tipo != COMPLETO && tipo != INCREMENTAL) || longitud < 0 || fin > tamano) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(datos.slice(posicion + CABECERA_PUNTO, longitud));
+            if ((int) crc.getValue() != datos.getInt(posicion + CABECERA_PUNTO + longitud)) {
+                break;
+            }
+            if (tipo == COMPLETO) {
+                ultimoCompleto = posicion;
+                bytesCompleto = fin - posicion;
+                bytesIncrementales = 0;
+            } else {
+                bytesIncrementales += fin - posicion;
+            }
+            puntos++;
+            posicion = (int) fin;
+        }
+        if (ultimoCompleto < 0) {
+            throw new IOException(archivo + " no contiene ningún punto de control completo válido");
+        }
+        int finValido = posicion;
+
+        // Acumula procesos y eventos desde el último completo; cada punto sustituye
+        // los procesos que reescribe y el estado de la memoria.
+        Map<Integer, Proceso> procesos = new HashMap<>();
+        EventosLeidos eventos = new EventosLeidos();
+        RegistroEventos registro = motor.getRegistro();
+        ByteBuffer ultimo = null;
+        int siguientePid = 0;
+        long claveTiempo = 0;
+        long claveSecuencia = 0;
+        for (posicion = ultimoCompleto; posicion < finValido; ) {
+            int longitud = datos.getInt(posicion + 1);
+            ByteBuffer entrada = datos.slice(posicion + CABECERA_PUNTO, longitud);
+            siguientePid = entrada.getInt();
+            claveTiempo = entrada.getLong();
+            claveSecuencia = entrada.getLong();
+            motor.getMemoria().restaurarEstado(entrada);
+            for (int i = entrada.getInt(); i > 0; i--) {
+                Proceso proceso = Proceso.leer(entrada);
+                procesos.put(proceso.getPid(), proceso);
+            }
+            for (int i = entrada.getInt(); i > 0; i--) {
+                eventos.anadir(entrada.getLong(), entrada.getLong(), entrada.get(), entrada.getInt());
+            }
+            int bytesRegistro = entrada.getInt();
+            if (registro != null && bytesRegistro > 0) {
+                registro.restaurar(entrada);
+            } else {
+                entrada.position(entrada.position() + bytesRegistro);
+            }
+            ultimo = entrada;
+            posicion += CABECERA_PUNTO + longitud + TAMANO_CRC;
+        }
+
+        // El resto solo se lee del último punto.
+        motor.restaurarEstado(ultimo, procesos);
+        GestorDeProcesos gestor = motor.getGestor();
+        for (int i = ultimo.getInt(); i > 0; i--) {
+            gestor.getColaEspera().add(buscar(procesos, ultimo.getInt()));
+        }
+        for (int i = ultimo.getInt(); i > 0; i--) {
+            gestor.getProcesosEnEjecucion().poner(buscar(procesos, ultimo.getInt()));
+        }
+        for (int i = 0; i < eventos.cantidad; i++) {
+            long tiempo = eventos.tiempos[i];
+            long secuencia = eventos.secuencias[i];
+            if (tiempo > claveTiempo || tiempo == claveTiempo && secuencia >= claveSecuencia) {
+                motor.getColaEventos().add(new Evento(tiempo, secuencia, TIPOS_EVENTO[eventos.tipos[i]],
+                        buscar(procesos, eventos.pids[i])));
+            }
+        }
+        Proceso.setSiguientePid(siguientePid);
+
+        // Se sigue escribiendo a continuación del último punto íntegro.
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE);
+        canal.truncate(finValido);
+        canal.position(finValido);
+        PuntoControl punto = new PuntoControl(archivo, canal);
+        punto.secuenciaGuardada = motor.getSecuencia();
+        punto.registroGuardado = registro != null ? registro.getTotalRegistrados() : 0;
+        punto.bytesCompleto = bytesCompleto;
+        punto.bytesIncrementales = bytesIncrementales;
+        punto.puntos = puntos;
+        punto.procesosRestaurados = procesos.size();
+        punto.nanosRestauracion = System.nanoTime() - inicio;
+        return punto;
+    }
+
+    private static Proceso buscar(Map<Integer, Proceso> procesos, int pid) throws IOException {
+        Proceso proceso = procesos.get(pid);
+        if (proceso == null) {
+            throw new IOException("Falta el proceso " + pid + " en el punto de control");
+        }
+        return proceso;
+    }
+
+    private static void comprobar(MotorDeEventos motor) {
+        if (motor.getGestor().getCpu() != null) {
+            throw new UnsupportedOperationException("Los puntos de control no admiten el planificador de CPU");
+        }
+        if (motor.getIntercambio() != null) {
+            throw new UnsupportedOperationException("Los puntos de control no admiten el área de intercambio");
+        }
+    }
+
+    private static FileChannel abrirNuevo(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        escribirTodo(canal, ByteBuffer.allocate(CABECERA_ARCHIVO).putInt(MAGICO).putInt(VERSION).flip());
+        return canal;
+    }
+
+    private static FileChannel abrirParaAnadir(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE);
+        canal.position(canal.size());
+        return canal;
+    }
+
+    private static void escribirTodo(FileChannel canal, ByteBuffer datos) throws IOException {
+        while (datos.hasRemaining()) {
+            canal.write(datos);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Puntos de control: %d (%d completos) | %.2f MB escritos | Último: %d procesos y %d eventos, %.1f KB en %.1f ms",
+                puntos, puntosCompletos, bytesEscritos / (double) Memoria.MB, procesosUltimo, eventosUltimo,
+                bytesUltimo / 1024.0, nanosUltimo / 1e6);
+    }
+
+    /**
+     * Eventos leídos de los puntos, en arrays paralelos: solo se convierten
+     * en Evento al final, cuando ya se conoce la última versión de cada proceso.
+     */
+    private static final class EventosLeidos {
+        private long[] tiempos = new long[1024];
+        private long[] secuencias = new long[1024];
+        private byte[] tipos = new byte[1024];
+        private int[] pids = new int[1024];
+        private int cantidad;
+
+        void anadir(long tiempo, long secuencia, byte tipo, int pid) {
+            if (cantidad == tiempos.length) {
+                tiempos = Arrays.copyOf(tiempos, cantidad * 2);
+                secuencias = Arrays.copyOf(secuencias, cantidad * 2);
+                tipos = Arrays.copyOf(tipos, cantidad * 2);
+                pids = Arrays.copyOf(pids, cantidad * 2);
+            }
+            tiempos[cantidad] = tiempo;
+            secuencias[cantidad] = secuencia;
+            tipos[cantidad] = tipo;
+            pids[cantidad] = pid;
+            cantidad++;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package simuladormemoria;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.function.LongPredicate;
+
+/**
+ * Reemplazo ARC (Adaptive Replacement Cache). Mantiene dos listas de
+ * páginas residentes: T1 (vistas una vez recientemente) y T2 (vistas al
+ * menos dos veces), y dos listas "fantasma" B1 y B2 con las claves
+ * expulsadas de cada una. Un fallo que acierta en B1 indica que T1 debería
+ * ser mayor y uno que acierta en B2, que debería serlo T2; el objetivo p
+ * se adapta en consecuencia.
+ */
+public class ReemplazoArc implements PoliticaReemplazo {
+    // Número de marcos (capacidad de la caché).
+    private final int capacidad;
+    // Tamaño objetivo de T1.
+    private int objetivoT1;
+    // Última clave para la que ya se adaptó el objetivo (-1 si ninguna).
+    private long adaptadaPara = -1;
+    // Listas en orden de menos a más reciente.
+    private final LinkedHashSet<Long> t1 = new LinkedHashSet<>();
+    private final LinkedHashSet<Long> t2 = new LinkedHashSet<>();
+    private final LinkedHashSet<Long> b1 = new LinkedHashSet<>();
+    private final LinkedHashSet<Long> b2 = new LinkedHashSet<>();
+
+    /**
+     * Constructor de la política.
+     * @param capacidad Número de marcos de la memoria.
+     */
+    public ReemplazoArc(int capacidad) {
+        this.capacidad = capacidad;
+    }
+
+    @Override
+    public void cargada(long clave) {
+        adaptar(clave);
+        adaptadaPara = -1;
+        // Una página que estaba en una lista fantasma ya se había usado: va a T2.
+        if (b1.remove(clave) || b2.remove(clave)) {
+            t2.add(clave);
+        } else {
+            t1.add(clave);
+        }
+        // Mantiene los límites del directorio: |T1|+|B1| <= c y el total <= 2c.
+        if (t1.size() + b1.size() > capacidad && !b1.isEmpty()) {
+            quitarPrimera(b1);
+        }
+        if (t1.size() + t2.size() + b1.size() + b2.size() > 2 * capacidad && !b2.isEmpty()) {
+            quitarPrimera(b2);
+        }
+    }
+
+    @Override
+    public void accedida(long clave) {
+        // Una segunda referencia lleva la página a la cabeza de T2.
+        if (!t1.remove(clave)) {
+            t2.remove(clave);
+        }
+        t2.add(clave);
+    }
+
+    @Override
+    public void quitada(long clave) {
+        if (!t1.remove(clave)) {
+            t2.remove(clave);
+        }
+    }
+
+    @Override
+    public long victima(long entrante, LongPredicate expulsable) {
+        adaptar(entrante);
+        // Expulsa de T1 si supera su objetivo (o lo iguala y la entrante viene de B2).
+        boolean desdeT1 = !t1.isEmpty()
+                && (t1.size() > objetivoT1 || (b2.contains(entrante) && t1.size() == objetivoT1) || t2.isEmpty());
+        // Si la lista elegida no tiene ninguna página expulsable, se toma de la otra.
+        long clave = quitarPrimera(desdeT1 ? t1 : t2, expulsable);
+        if (clave < 0) {
+            desdeT1 = !desdeT1;
+            clave = quitarPrimera(desdeT1 ? t1 : t2, expulsable);
+        }
+        (desdeT1 ? b1 : b2).add(clave);
+        return clave;
+    }
+
+    /**
+     * Ajusta el objetivo de T1 cuando la página entrante está en una lista
+     * fantasma. Se hace una sola vez por fallo, antes de elegir la víctima.
+     */
+    private void adaptar(long clave) {
+        if (clave == adaptadaPara) {
+            return;
+        }
+        adaptadaPara = clave;
+        if (b1.contains(clave)) {
+            // Acierto fantasma en B1: T1 se quedó corta.
+            objetivoT1 = Math.min(capacidad, objetivoT1 + Math.max(b2.size() / b1.size(), 1));
+        } else if (b2.contains(clave)) {
+            // Acierto fantasma en B2: T2 se quedó corta.
+            objetivoT1 = Math.max(0, objetivoT1 - Math.max(b1.size() / b2.size(), 1));
+        }
+    }
+
+    // Quita y devuelve la primera clave expulsable de la lista, o -1 si no hay ninguna.
+    // Las que no se pueden expulsar pasan al final de la lista.
+    private static long quitarPrimera(LinkedHashSet<Long> lista, LongPredicate expulsable) {
+        for (int revisadas = lista.size(); revisadas > 0; revisadas--) {
+            long clave = quitarPrimera(lista);
+            if (expulsable.test(clave)) {
+                return clave;
+            }
+            lista.add(clave);
+        }
+        return -1;
+    }
+
+    private static long quitarPrimera(LinkedHashSet<Long> lista) {
+        Iterator<Long> primera = lista.iterator();
+        long clave = primera.next();
+        primera.remove();
+        return clave;
+    }
+}
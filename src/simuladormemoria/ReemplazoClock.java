@@ -0,0 +1,51 @@
+package simuladormemoria;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * Reemplazo Clock (segunda oportunidad): cada página tiene un bit de
+ * referencia que se enciende al accederla. La aguja recorre las páginas
+ * en orden circular; si el bit está encendido lo apaga y sigue, y expulsa
+ * la primera página con el bit apagado.
+ */
+public class ReemplazoClock implements PoliticaReemplazo {
+    // Páginas residentes en orden circular, con su bit de referencia.
+    // La cabeza del mapa es la posición actual de la aguja.
+    private final LinkedHashMap<Long, Boolean> circulo = new LinkedHashMap<>();
+
+    @Override
+    public void cargada(long clave) {
+        circulo.put(clave, Boolean.FALSE);
+    }
+
+    @Override
+    public void accedida(long clave) {
+        // put sobre una clave existente no cambia su posición en el círculo.
+        circulo.put(clave, Boolean.TRUE);
+    }
+
+    @Override
+    public void quitada(long clave) {
+        circulo.remove(clave);
+    }
+
+    @Override
+    public long victima(long entrante, LongPredicate expulsable) {
+        while (true) {
+            Iterator<Map.Entry<Long, Boolean>> aguja = circulo.entrySet().iterator();
+            Map.Entry<Long, Boolean> actual = aguja.next();
+            long clave = actual.getKey();
+            boolean referenciada = actual.getValue();
+            aguja.remove();
+            if (!referenciada && expulsable.test(clave)) {
+                return clave;
+            }
+            // Segunda oportunidad: se apaga el bit y la aguja avanza. Una página que
+            // no se puede expulsar conserva su bit y la aguja la salta.
+            circulo.put(clave, referenciada && expulsable.test(clave) ? Boolean.FALSE : referenciada);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package simuladormemoria;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.function.LongPredicate;
+
+/**
+ * Reemplazo FIFO: se expulsa la página que lleva más tiempo cargada,
+ * sin tener en cuenta los accesos.
+ */
+public class ReemplazoFifo implements PoliticaReemplazo {
+    // Páginas residentes en orden de carga.
+    private final LinkedHashSet<Long> orden = new LinkedHashSet<>();
+
+    @Override
+    public void cargada(long clave) {
+        orden.add(clave);
+    }
+
+    @Override
+    public void accedida(long clave) {
+        // FIFO ignora los accesos.
+    }
+
+    @Override
+    public void quitada(long clave) {
+        orden.remove(clave);
+    }
+
+    @Override
+    public long victima(long entrante, LongPredicate expulsable) {
+        while (true) {
+            Iterator<Long> primera = orden.iterator();
+            long clave = primera.next();
+            primera.remove();
+            if (expulsable.test(clave)) {
+                return clave;
+            }
+            orden.add(clave);
+        }
+    }
+}
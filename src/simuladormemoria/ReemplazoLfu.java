@@ -0,0 +1,73 @@
+package simuladormemoria;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Reemplazo LFU: se expulsa la página con menos accesos; entre páginas
+ * con la misma frecuencia, la que se cargó primero.
+ * Las páginas se agrupan por frecuencia en un TreeMap, así que encontrar
+ * la víctima cuesta O(log n).
+ */
+public class ReemplazoLfu implements PoliticaReemplazo {
+    // Frecuencia de acceso de cada página residente.
+    private final Map<Long, Integer> frecuencias = new HashMap<>();
+    // Páginas agrupadas por frecuencia, en orden de llegada dentro de cada grupo.
+    private final TreeMap<Integer, LinkedHashSet<Long>> porFrecuencia = new TreeMap<>();
+
+    @Override
+    public void cargada(long clave) {
+        frecuencias.put(clave, 1);
+        porFrecuencia.computeIfAbsent(1, f -> new LinkedHashSet<>()).add(clave);
+    }
+
+    @Override
+    public void accedida(long clave) {
+        int frecuencia = frecuencias.get(clave);
+        quitarDeGrupo(clave, frecuencia);
+        frecuencias.put(clave, frecuencia + 1);
+        porFrecuencia.computeIfAbsent(frecuencia + 1, f -> new LinkedHashSet<>()).add(clave);
+    }
+
+    @Override
+    public void quitada(long clave) {
+        Integer frecuencia = frecuencias.remove(clave);
+        if (frecuencia != null) {
+            quitarDeGrupo(clave, frecuencia);
+        }
+    }
+
+    @Override
+    public long victima(long entrante, LongPredicate expulsable) {
+        for (Map.Entry<Integer, LinkedHashSet<Long>> grupo : porFrecuencia.entrySet()) {
+            LinkedHashSet<Long> claves = grupo.getValue();
+            // Las que no se pueden expulsar pasan al final de su grupo.
+            for (int revisadas = claves.size(); revisadas > 0; revisadas--) {
+                Iterator<Long> primera = claves.iterator();
+                long clave = primera.next();
+                primera.remove();
+                if (expulsable.test(clave)) {
+                    if (claves.isEmpty()) {
+                        porFrecuencia.remove(grupo.getKey());
+                    }
+                    frecuencias.remove(clave);
+                    return clave;
+                }
+                claves.add(clave);
+            }
+        }
+        throw new IllegalStateException("Ninguna página residente se puede expulsar");
+    }
+
+    private void quitarDeGrupo(long clave, int frecuencia) {
+        LinkedHashSet<Long> grupo = porFrecuencia.get(frecuencia);
+        grupo.remove(clave);
+        if (grupo.isEmpty()) {
+            porFrecuencia.remove(frecuencia);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package simuladormemoria;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.function.LongPredicate;
+
+/**
+ * Reemplazo LRU: se expulsa la página usada hace más tiempo.
+ * Cada acceso mueve la página al final del orden.
+ */
+public class ReemplazoLru implements PoliticaReemplazo {
+    // Páginas residentes de la menos a la más recientemente usada.
+    private final LinkedHashSet<Long> orden = new LinkedHashSet<>();
+
+    @Override
+    public void cargada(long clave) {
+        orden.add(clave);
+    }
+
+    @Override
+    public void accedida(long clave) {
+        // Quitar y volver a añadir la coloca como la más reciente.
+        orden.remove(clave);
+        orden.add(clave);
+    }
+
+    @Override
+    public void quitada(long clave) {
+        orden.remove(clave);
+    }
+
+    @Override
+    public long victima(long entrante, LongPredicate expulsable) {
+        while (true) {
+            Iterator<Long> primera = orden.iterator();
+            long clave = primera.next();
+            primera.remove();
+            if (expulsable.test(clave)) {
+                return clave;
+            }
+            orden.add(clave);
+        }
+    }
+}
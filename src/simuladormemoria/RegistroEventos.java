@@ -0,0 +1,435 @@
+package simuladormemoria;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Registro de eventos en un buffer circular acotado y preasignado, con
+ * varios productores. Cada evento es un registro estructurado (tipo, PID,
+ * marca de tiempo en nanosegundos y dos argumentos numéricos) que se
+ * guarda en arrays primitivos, así que registrar un evento no crea objetos.
+ * El texto solo se formatea al mostrarlo en pantalla o al volcarlo a un archivo.
+ *
+ * Cuando el buffer se llena, los eventos nuevos sobrescriben a los más
+ * antiguos. Cada hueco lleva un número de secuencia que el productor marca
+ * como "ocupado" mientras escribe, y el lector comprueba antes y después de
+ * leer, de modo que nunca se muestra un registro a medio escribir.
+ */
+public class RegistroEventos implements Closeable {
+
+    /**
+     * Tipos de evento, con la plantilla con la que se muestran.
+     * Los argumentos de la plantilla son el nombre y el PID del proceso.
+     */
+    public enum Tipo {
+        // El proceso no cabe y entra en la cola de espera.
+        ENCOLADO("No hay memoria suficiente. Proceso %s (PID: %d) enviado a la cola."),
+        // El planificador de admisión saca el proceso de la cola.
+        MOVIDO("Proceso %s (PID: %d) movido a ejecución."),
+        // El proceso comienza su ejecución.
+        INICIADO("Proceso %s (PID: %d) iniciado."),
+        // El proceso termina y libera su memoria.
+        FINALIZADO("Proceso %s (PID: %d) finalizado y memoria liberada."),
+        // El proceso se cancela antes de ejecutarse.
+        CANCELADO("Proceso %s (PID: %d) cancelado y memoria liberada."),
+        // El gestor se está apagando y rechaza el proceso.
+        RECHAZADO("Proceso %s (PID: %d) rechazado: el gestor se está apagando."),
+        // El proceso se lleva al área de intercambio para hacer sitio.
+        A_DISCO("Proceso %s (PID: %d) enviado al área de intercambio."),
+        // El proceso vuelve del área de intercambio y continúa.
+        DESDE_DISCO("Proceso %s (PID: %d) traído del área de intercambio."),
+        // El proceso pide más memoria y no la hay: espera sin avanzar.
+        BLOQUEADO("Proceso %s (PID: %d) bloqueado: no hay memoria para crecer."),
+        // El proceso bloqueado obtiene la memoria que pidió y continúa.
+        DESBLOQUEADO("Proceso %s (PID: %d) desbloqueado: ya tiene la memoria que pidió."),
+        // El proceso se mata para recuperar su memoria (OOM).
+        MATADO("Proceso %s (PID: %d) matado por falta de memoria."),
+        // La cola de espera está llena y el proceso no entra.
+        COLA_LLENA("Proceso %s (PID: %d) rechazado: la cola de espera está llena."),
+        // La cola está llena y se descarta el proceso de menos prioridad: uno de la cola o el que llega.
+        DESCARTADO("Proceso %s (PID: %d) descartado: la cola de espera está llena y es el de menos prioridad."),
+        // Mensaje libre (solo el texto).
+        TEXTO("%s");
+
+        private final String plantilla;
+
+        Tipo(String plantilla) {
+            this.plantilla = plantilla;
+        }
+    }
+
+    // Capacidad por defecto del buffer.
+    public static final int CAPACIDAD_POR_DEFECTO = 1024;
+    // Valor de secuencia que marca un hueco que se está escribiendo.
+    private static final long OCUPADO = -1;
+    private static final Tipo[] TIPOS = Tipo.values();
+    private static final DateTimeFormatter FORMATO_HORA =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    // Capacidad (potencia de dos) y máscara para calcular el hueco de cada evento.
+    private final int capacidad;
+    private final int mascara;
+    // Número del siguiente evento; lo reservan los productores con getAndIncrement.
+    private final AtomicLong siguiente = new AtomicLong();
+    // Por hueco: número de evento + 1 una vez publicado, 0 si está vacío u OCUPADO.
+    private final AtomicLongArray secuencias;
+    // Campos de cada registro, en arrays paralelos preasignados.
+    private final byte[] tipos;
+    private final int[] pids;
+    private final long[] nanos;
+    private final long[] argumentos1;
+    private final long[] argumentos2;
+    // Nombre del proceso o texto libre: solo se guarda la referencia, no se copia.
+    private final String[] textos;
+    // Relación entre System.nanoTime y la hora de pared, para formatear la marca de tiempo.
+    private final long nanosBase = System.nanoTime();
+    private final long milisBase = System.currentTimeMillis();
+    // Eventos sobrescritos antes de que el volcado a archivo llegara a escribirlos.
+    private final AtomicLong perdidos = new AtomicLong();
+    // Volcado opcional a archivo (null si no está activo).
+    private volatile Volcado volcado;
+
+    /**
+     * Crea un registro con la capacidad por defecto.
+     */
+    public RegistroEventos() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un registro con la capacidad indicada.
+     * @param capacidad Número de eventos que se conservan; se redondea a la siguiente potencia de dos.
+     */
+    public RegistroEventos(int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+        }
+        this.capacidad = capacidad == 1 ? 1 : Integer.highestOneBit(capacidad - 1) << 1;
+        this.mascara = this.capacidad - 1;
+        this.secuencias = new AtomicLongArray(this.capacidad);
+        this.tipos = new byte[this.capacidad];
+        this.pids = new int[this.capacidad];
+        this.nanos = new long[this.capacidad];
+        this.argumentos1 = new long[this.capacidad];
+        this.argumentos2 = new long[this.capacidad];
+        this.textos = new String[this.capacidad];
+    }
+
+    public int getCapacidad() { return capacidad; }
+    public long getTotalRegistrados() { return siguiente.get(); }
+    public long getPerdidos() { return perdidos.get(); }
+
+    /**
+     * Registra un evento de un proceso. Guarda como argumentos la memoria
+     * requerida (MB) y la dirección del bloque asignado.
+     * @param tipo El tipo de evento.
+     * @param proceso El proceso afectado.
+     */
+    public void registrar(Tipo tipo, Proceso proceso) {
+        registrar(tipo, proceso.getPid(), proceso.getNombre(), proceso.getMemoriaRequerida(), proceso.getDireccion());
+    }
+
+    /**
+     * Registra un mensaje libre.
+     * @param texto El mensaje.
+     */
+    public void registrar(String texto) {
+        registrar(Tipo.TEXTO, 0, texto, 0, 0);
+    }
+
+    /**
+     * Registra un evento con todos sus campos.
+     * @param tipo El tipo de evento.
+     * @param pid El PID del proceso (0 si no aplica).
+     * @param texto El nombre del proceso o el mensaje libre.
+     * @param argumento1 Primer argumento numérico.
+     * @param argumento2 Segundo argumento numérico.
+     */
+    public void registrar(Tipo tipo, int pid, String texto, long argumento1, long argumento2) {
+        registrar(tipo, pid, texto, argumento1, argumento2, System.nanoTime());
+    }
+
+    // Registra un evento con la marca de tiempo indicada (en la escala de System.nanoTime).
+    private void registrar(Tipo tipo, int pid, String texto, long argumento1, long argumento2, long marca) {
+        long numero = siguiente.getAndIncrement();
+        int hueco = (int) numero & mascara;
+        // Reserva el hueco. Si otro productor que dio la vuelta al buffer lo está
+        // escribiendo, se espera; si ya lo ocupa un evento más nuevo, este se descarta.
+        while (true) {
+            long actual = secuencias.get(hueco);
+            if (actual == OCUPADO) {
+                Thread.onSpinWait();
+            } else if (actual > numero) {
+                return;
+            } else if (secuencias.compareAndSet(hueco, actual, OCUPADO)) {
+                break;
+            }
+        }
+        tipos[hueco] = (byte) tipo.ordinal();
+        pids[hueco] = pid;
+        nanos[hueco] = marca;
+        argumentos1[hueco] = argumento1;
+        argumentos2[hueco] = argumento2;
+        textos[hueco] = texto;
+        // Publica el registro: las escrituras anteriores son visibles para quien lea esta secuencia.
+        secuencias.setRelease(hueco, numero + 1);
+    }
+
+    /**
+     * Devuelve, ya formateados, los últimos eventos registrados, del más
+     * antiguo al más reciente. Los que se están sobrescribiendo en ese
+     * momento se omiten.
+     * @param cantidad Número máximo de eventos.
+     * @return Las líneas de los eventos.
+     */
+    public List<String> recientes(int cantidad) {
+        long fin = siguiente.get();
+        return entre(Math.max(0, fin - Math.min(cantidad, capacidad)), fin);
+    }
+
+    /**
+     * Devuelve, ya formateados, los eventos con número entre desde (incluido)
+     * y hasta (excluido) que sigan en el buffer. Quien lee los eventos nuevos
+     * por tandas guarda getTotalRegistrados() como hasta y lo usa como desde
+     * la vez siguiente.
+     * @param desde Número del primer evento.
+     * @param hasta Número siguiente al último evento.
+     * @return Las líneas de los eventos, del más antiguo al más reciente.
+     */
+    public List<String> entre(long desde, long hasta) {
+        long fin = Math.min(hasta, siguiente.get());
+        long inicio = Math.max(desde, fin - capacidad);
+        List<String> lineas = new ArrayList<>((int) Math.max(0, fin - inicio));
+        StringBuilder sb = new StringBuilder();
+        for (long numero = inicio; numero < fin; numero++) {
+            sb.setLength(0);
+            if (formatear(numero, sb, false)) {
+                lineas.add(sb.toString());
+            }
+        }
+        return lineas;
+    }
+
+    /**
+     * Formatea un evento como "[hora] mensaje".
+     * @param numero Número del evento.
+     * @param destino Donde se escribe la línea.
+     * @param conArgumentos Si se añaden el tipo y los argumentos numéricos (para el archivo).
+     * @return false si el evento ya se sobrescribió o aún no está publicado.
+     */
+    private boolean formatear(long numero, StringBuilder destino, boolean conArgumentos) {
+        int hueco = (int) numero & mascara;
+        if (secuencias.getAcquire(hueco) != numero + 1) {
+            return false;
+        }
+        Tipo tipo = TIPOS[tipos[hueco]];
+        int pid = pids[hueco];
+        long marca = nanos[hueco];
+        String texto = textos[hueco];
+        long argumento1 = argumentos1[hueco];
+        long argumento2 = argumentos2[hueco];
+        // Si el hueco cambió mientras se leía, la lectura no es válida.
+        VarHandle.acquireFence();
+        if (secuencias.get(hueco) != numero + 1) {
+            return false;
+        }
+        destino.append('[')
+                .append(FORMATO_HORA.format(Instant.ofEpochMilli(milisBase + (marca - nanosBase) / 1_000_000)))
+                .append("] ")
+                .append(tipo == Tipo.TEXTO ? texto : String.format(tipo.plantilla, texto, pid));
+        if (conArgumentos && tipo != Tipo.TEXTO) {
+            destino.append(" | ").append(tipo).append(" pid=").append(pid)
+                    .append(" memoria=").append(argumento1).append(" direccion=").append(argumento2);
+        }
+        return true;
+    }
+
+    /**
+     * Escribe en un punto de control (ver PuntoControl) los eventos
+     * registrados a partir de un número que sigan en el buffer. La marca de
+     * tiempo se guarda como hora de pared, que sí tiene sentido en otra ejecución.
+     * @param desde Número del primer evento que interesa.
+     * @param salida Dónde escribirlos.
+     * @return El número del siguiente evento, para empezar ahí la próxima vez.
+     */
+    long guardarDesde(long desde, BufferSalida salida) {
+        long fin = siguiente.get();
+        int posicionCuenta = salida.getPosicion();
+        salida.escribirInt(0);
+        int escritos = 0;
+        for (long numero = Math.max(desde, fin - capacidad); numero < fin; numero++) {
+            int hueco = (int) numero & mascara;
+            if (secuencias.getAcquire(hueco) != numero + 1) {
+                continue;
+            }
+            salida.escribirByte(tipos[hueco]);
+            salida.escribirInt(pids[hueco]);
+            salida.escribirLong(milisBase + (nanos[hueco] - nanosBase) / 1_000_000);
+            salida.escribirLong(argumentos1[hueco]);
+            salida.escribirLong(argumentos2[hueco]);
+            salida.escribirTexto(textos[hueco]);
+            escritos++;
+        }
+        salida.escribirIntEn(posicionCuenta, escritos);
+        return fin;
+    }
+
+    /**
+     * Vuelve a registrar, en orden, los eventos escritos con guardarDesde.
+     * @param entrada El buffer de lectura.
+     */
+    void restaurar(ByteBuffer entrada) {
+        int cuantos = entrada.getInt();
+        for (int i = 0; i < cuantos; i++) {
+            Tipo tipo = TIPOS[entrada.get()];
+            int pid = entrada.getInt();
+            long milis = entrada.getLong();
+            long argumento1 = entrada.getLong();
+            long argumento2 = entrada.getLong();
+            // Se conserva la hora original del evento, no la de la restauración.
+            registrar(tipo, pid, BufferSalida.leerTexto(entrada), argumento1, argumento2,
+                    nanosBase + (milis - milisBase) * 1_000_000);
+        }
+    }
+
+    /**
+     * Activa el volcado de los eventos a un archivo de texto. Un hilo en
+     * segundo plano escribe los eventos nuevos cada intervalo y fuerza su
+     * escritura en disco; los que se sobrescriban antes se cuentan como perdidos.
+     * @param archivo Archivo de destino (se añade al final si ya existe).
+     * @param intervalo Milisegundos entre volcados.
+     * @throws IOException Si no se puede abrir el archivo.
+     */
+    public synchronized void volcarEn(Path archivo, long intervalo) throws IOException {
+        if (volcado != null) {
+            throw new IllegalStateException("El volcado ya está activo");
+        }
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        volcado = new Volcado(canal, intervalo, siguiente.get());
+        volcado.hilo.start();
+    }
+
+    /**
+     * Detiene el volcado, escribiendo antes los eventos pendientes.
+     * @throws IOException Si falla la última escritura.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        Volcado activo = volcado;
+        if (activo == null) {
+            return;
+        }
+        volcado = null;
+        // No se interrumpe el hilo: interrumpir una escritura en un FileChannel lo cierra.
+        activo.parar = true;
+        try {
+            activo.hilo.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            activo.volcar();
+        } finally {
+            activo.canal.close();
+        }
+    }
+
+    /**
+     * Hilo de volcado a archivo. Formatea los eventos fuera del camino de
+     * los productores y los escribe con un único buffer reutilizado.
+     */
+    private final class Volcado implements Runnable {
+        private final FileChannel canal;
+        private final long intervalo;
+        private final Thread hilo;
+        // Se activa al cerrar el registro; el hilo termina tras su espera actual.
+        private volatile boolean parar;
+        private final StringBuilder linea = new StringBuilder();
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        // Número del siguiente evento por escribir.
+        private long escrito;
+
+        Volcado(FileChannel canal, long intervalo, long desde) {
+            this.canal = canal;
+            this.intervalo = intervalo;
+            this.escrito = desde;
+            this.hilo = new Thread(this, "registro-eventos");
+            this.hilo.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!parar) {
+                    Thread.sleep(intervalo);
+                    volcar();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("Error al volcar el registro de eventos: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Escribe en el archivo los eventos publicados desde el último volcado.
+         */
+        synchronized void volcar() throws IOException {
+            long fin = siguiente.get();
+            // Los eventos que ya dieron la vuelta al buffer no se pueden recuperar.
+            if (fin - escrito > capacidad) {
+                perdidos.addAndGet(fin - capacidad - escrito);
+                escrito = fin - capacidad;
+            }
+            boolean hayDatos = false;
+            for (; escrito < fin; escrito++) {
+                linea.setLength(0);
+                if (!formatear(escrito, linea, true)) {
+                    // Un productor aún no ha publicado este evento: se reintenta en el siguiente volcado.
+                    if (secuencias.get((int) escrito & mascara) <= escrito) {
+                        break;
+                    }
+                    perdidos.incrementAndGet();
+                    continue;
+                }
+                linea.append('\n');
+                byte[] bytes = linea.toString().getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > buffer.remaining()) {
+                    escribir();
+                }
+                if (bytes.length > buffer.capacity()) {
+                    canal.write(ByteBuffer.wrap(bytes));
+                } else {
+                    buffer.put(bytes);
+                }
+                hayDatos = true;
+            }
+            if (hayDatos) {
+                escribir();
+                canal.force(false);
+            }
+        }
+
+        private void escribir() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package simuladormemoria;
+
+/**
+ * La interfaz Reloj abstrae la fuente del tiempo de la simulación.
+ * Permite que los componentes (por ejemplo, el Monitor) funcionen igual
+ * con el reloj del sistema o con el reloj virtual del motor de eventos.
+ */
+public interface Reloj {
+    // Reloj basado en el tiempo real del sistema operativo.
+    Reloj SISTEMA = System::currentTimeMillis;
+
+    /**
+     * Devuelve el instante actual de la simulación.
+     * @return El tiempo actual en milisegundos.
+     */
+    long ahora();
+}
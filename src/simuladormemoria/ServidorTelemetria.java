@@ -0,0 +1,488 @@
+package simuladormemoria;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Servidor HTTP local (solo escucha en la interfaz de bucle invertido) que
+ * publica el estado de la simulación para verlo o recogerlo desde fuera de
+ * la consola:
+ * <ul>
+ *   <li>GET /estado: memoria, mapa de memoria, procesos en ejecución, cola de
+ *   espera, CPU y últimos eventos, en JSON.</li>
+ *   <li>GET /metricas: las métricas del gestor (ver Metricas.aJson).</li>
+ *   <li>GET /flujo: eventos enviados por el servidor (text/event-stream) con
+ *   los cambios del estado.</li>
+ * </ul>
+ *
+ * Los hilos de la simulación no hacen nada para el servidor. Un hilo
+ * publicador toma cada intervalo una instantánea, como el Monitor, y compone
+ * una sola vez el estado completo y el cambio desde la instantánea anterior
+ * (procesos y entradas de la cola que aparecen, cambian o desaparecen, la
+ * memoria, la CPU y los eventos nuevos del registro). Todo lo que ocurre
+ * dentro de un intervalo llega agrupado en un solo mensaje, sea cual sea el
+ * ritmo de eventos, y si un proceso cambia varias veces solo se envía su
+ * último estado. Cada cliente del flujo recibe el cambio si vio la versión
+ * anterior; si se ha quedado atrás, recibe directamente el estado completo
+ * más reciente, así que un cliente lento no acumula mensajes ni frena a los
+ * demás. Si componer una instantánea cuesta más del 5% del intervalo, el
+ * intervalo se alarga. Como en la paginación del Monitor, de cada lista se
+ * envían como mucho 1000 procesos (los de menor PID en ejecución y los
+ * primeros de la cola) junto con el total.
+ */
+public class ServidorTelemetria implements Closeable {
+    // Intervalo de publicación por defecto en milisegundos.
+    public static final long INTERVALO_POR_DEFECTO = 250;
+    // Fracción máxima del tiempo que puede dedicarse a componer instantáneas.
+    private static final double FRACCION_PUBLICACION = 0.05;
+    // Procesos como máximo de cada lista (en ejecución y en espera).
+    private static final int MAX_PROCESOS = 1000;
+    // Eventos del registro que se incluyen en el estado completo y, como mucho, en cada cambio.
+    private static final int EVENTOS_COMPLETO = 50;
+    private static final int MAX_EVENTOS_CAMBIO = 500;
+    // Milisegundos sin cambios tras los que se envía un latido para que no se cierre la conexión.
+    private static final long LATIDO = 15_000;
+    private static final byte[] MENSAJE_LATIDO = ": latido\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Memoria memoria;
+    private final GestorDeProcesos gestor;
+    // Registro de eventos (null = no se publican eventos).
+    private final RegistroEventos registro;
+    private final Reloj reloj;
+    private final long intervalo;
+    private final HttpServer servidor;
+    private final ExecutorService hilos;
+    private final Thread publicador;
+    private volatile boolean cerrado;
+
+    // Última publicación, ya codificada, y su versión; la protege el cerrojo.
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition nuevaVersion = cerrojo.newCondition();
+    private long version;
+    private byte[] estadoJson;
+    private byte[] mensajeCompleto;
+    private byte[] mensajeCambio;
+
+    // Instantánea anterior, que solo usa el publicador para calcular el cambio:
+    // por PID, los campos que se comparan de cada proceso y de cada entrada de la cola.
+    private Map<Integer, long[]> procesosAnteriores = new HashMap<>();
+    private Map<Integer, long[]> colaAnterior = new HashMap<>();
+    private String memoriaAnterior = "";
+    private String cpuAnterior = "";
+    private int totalEnEjecucionAnterior;
+    private int totalEnColaAnterior;
+    private long siguienteEvento;
+
+    // Estadísticas.
+    private final AtomicInteger clientes = new AtomicInteger();
+    private final AtomicLong mensajesEnviados = new AtomicLong();
+    private final AtomicLong versionesSaltadas = new AtomicLong();
+    private volatile long publicaciones;
+    private volatile long nanosUltimaPublicacion;
+
+    /**
+     * Crea el servidor, publica la primera instantánea y empieza a escuchar.
+     * @param puerto Puerto local (0 para que el sistema elija uno libre).
+     * @param memoria La memoria simulada.
+     * @param gestor El gestor con la cola de espera y los procesos en ejecución.
+     * @param registro El registro de eventos, o null.
+     * @param reloj Reloj de la simulación (el del motor en tiempo virtual).
+     * @param intervalo Milisegundos mínimos entre publicaciones.
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public ServidorTelemetria(int puerto, Memoria memoria, GestorDeProcesos gestor, RegistroEventos registro,
+                              Reloj reloj, long intervalo) throws IOException {
+        this.memoria = memoria;
+        this.gestor = gestor;
+        this.registro = registro;
+        this.reloj = reloj;
+        this.intervalo = intervalo;
+        this.siguienteEvento = registro == null ? 0 : registro.getTotalRegistrados();
+        this.servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+        // Un hilo virtual por petición: los clientes del flujo pasan casi todo el tiempo esperando.
+        this.hilos = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("telemetria-", 0).factory());
+        servidor.setExecutor(hilos);
+        servidor.createContext("/estado", this::atenderEstado);
+        servidor.createContext("/metricas", this::atenderMetricas);
+        servidor.createContext("/flujo", this::atenderFlujo);
+        publicar();
+        this.publicador = new Thread(this::publicarPeriodicamente, "telemetria-publicador");
+        publicador.setDaemon(true);
+        publicador.start();
+        servidor.start();
+    }
+
+    public int getPuerto() { return servidor.getAddress().getPort(); }
+    public int getClientes() { return clientes.get(); }
+    public long getMensajesEnviados() { return mensajesEnviados.get(); }
+    public long getVersionesSaltadas() { return versionesSaltadas.get(); }
+    public long getPublicaciones() { return publicaciones; }
+
+    private void publicarPeriodicamente() {
+        while (!cerrado) {
+            long inicio = System.nanoTime();
+            publicar();
+            long costeMs = (System.nanoTime() - inicio) / 1_000_000;
+            try {
+                Thread.sleep(Math.max(intervalo, (long) (costeMs / FRACCION_PUBLICACION)));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Toma una instantánea y, si algo ha cambiado, publica una versión nueva
+     * con el estado completo y el cambio respecto a la anterior.
+     */
+    private void publicar() {
+        long inicio = System.nanoTime();
+        long tiempo = reloj.ahora();
+        Proceso[] todosEnEjecucion = gestor.getProcesosEnEjecucion().instantanea();
+        Proceso[] todosEnCola = gestor.getColaEspera().toArray(new Proceso[0]);
+        // Los que terminan mientras se toma la instantánea ya no se envían.
+        Proceso[] enEjecucion = Arrays.stream(todosEnEjecucion).filter(p -> p.getEstado() != Proceso.Estado.FINALIZADO)
+                .sorted(Comparator.comparingInt(Proceso::getPid)).limit(MAX_PROCESOS).toArray(Proceso[]::new);
+        // El principio del montículo de la cola son los próximos en ser admitidos.
+        Proceso[] enCola = Arrays.copyOf(todosEnCola, Math.min(todosEnCola.length, MAX_PROCESOS));
+        Arrays.sort(enCola, Comparator.comparingInt(Proceso::getPid));
+        long hastaEvento = registro == null ? 0 : registro.getTotalRegistrados();
+        // Si en el intervalo hubo más eventos de los que caben en un cambio, se envían los últimos.
+        long desdeEvento = Math.max(siguienteEvento, hastaEvento - MAX_EVENTOS_CAMBIO);
+        List<String> eventosNuevos = registro == null ? List.of() : registro.entre(desdeEvento, hastaEvento);
+
+        StringBuilder sb = new StringBuilder(256);
+        escribirMemoria(sb);
+        String memoriaJson = sb.toString();
+        sb.setLength(0);
+        escribirCpu(sb);
+        String cpuJson = sb.toString();
+
+        // Cambio: procesos y entradas de la cola nuevos, modificados o desaparecidos.
+        Map<Integer, long[]> procesos = new HashMap<>(enEjecucion.length * 2);
+        StringBuilder altas = new StringBuilder();
+        StringBuilder cambios = new StringBuilder();
+        for (Proceso proceso : enEjecucion) {
+            long[] campos = camposProceso(proceso);
+            procesos.put(proceso.getPid(), campos);
+            long[] anteriores = procesosAnteriores.remove(proceso.getPid());
+            if (anteriores == null) {
+                escribirProceso(separar(altas), proceso);
+            } else if (!Arrays.equals(anteriores, campos)) {
+                escribirProceso(separar(cambios), proceso);
+            }
+        }
+        StringBuilder bajas = new StringBuilder();
+        for (Integer pid : procesosAnteriores.keySet()) {
+            separar(bajas).append(pid);
+        }
+        Map<Integer, long[]> cola = new HashMap<>(enCola.length * 2);
+        StringBuilder altasCola = new StringBuilder();
+        for (Proceso proceso : enCola) {
+            long[] campos = {proceso.getBytesRequeridos(), proceso.getTiempoLlegada()};
+            cola.put(proceso.getPid(), campos);
+            if (colaAnterior.remove(proceso.getPid()) == null) {
+                escribirEnCola(separar(altasCola), proceso);
+            }
+        }
+        StringBuilder bajasCola = new StringBuilder();
+        for (Integer pid : colaAnterior.keySet()) {
+            separar(bajasCola).append(pid);
+        }
+        boolean hayCambios = version == 0 || altas.length() > 0 || cambios.length() > 0 || bajas.length() > 0
+                || altasCola.length() > 0 || bajasCola.length() > 0 || !eventosNuevos.isEmpty()
+                || !memoriaJson.equals(memoriaAnterior) || !cpuJson.equals(cpuAnterior)
+                || todosEnEjecucion.length != totalEnEjecucionAnterior || todosEnCola.length != totalEnColaAnterior;
+        procesosAnteriores = procesos;
+        colaAnterior = cola;
+        memoriaAnterior = memoriaJson;
+        cpuAnterior = cpuJson;
+        totalEnEjecucionAnterior = todosEnEjecucion.length;
+        totalEnColaAnterior = todosEnCola.length;
+        long siguienteEventoAnterior = siguienteEvento;
+        siguienteEvento = hastaEvento;
+        if (!hayCambios) {
+            return;
+        }
+        long nueva = version + 1;
+
+        StringBuilder completo = new StringBuilder(1024 + 160 * (enEjecucion.length + enCola.length));
+        completo.append("{\"version\":").append(nueva).append(",\"tiempo\":").append(tiempo)
+                .append(",\"memoria\":").append(memoriaJson).append(",\"cpu\":").append(cpuJson)
+                .append(",\"en_ejecucion\":").append(todosEnEjecucion.length)
+                .append(",\"en_cola\":").append(todosEnCola.length)
+                .append(",\"procesos\":[");
+        for (int i = 0; i < enEjecucion.length; i++) {
+            escribirProceso(i == 0 ? completo : completo.append(','), enEjecucion[i]);
+        }
+        // Mapa de memoria: bloques iniciales ordenados por dirección, como [dirección, bytes, pid].
+        completo.append("],\"mapa\":[");
+        Proceso[] porDireccion = Arrays.stream(enEjecucion).filter(p -> p.getDireccion() >= 0)
+                .sorted(Comparator.comparingLong(Proceso::getDireccion)).toArray(Proceso[]::new);
+        for (int i = 0; i < porDireccion.length; i++) {
+            completo.append(i == 0 ? "[" : ",[").append(porDireccion[i].getDireccion()).append(',')
+                    .append(porDireccion[i].getBytesRequeridos()).append(',').append(porDireccion[i].getPid()).append(']');
+        }
+        completo.append("],\"cola\":[");
+        for (int i = 0; i < enCola.length; i++) {
+            escribirEnCola(i == 0 ? completo : completo.append(','), enCola[i]);
+        }
+        completo.append("],\"eventos\":");
+        escribirTextos(completo, registro == null ? List.of() : registro.recientes(EVENTOS_COMPLETO));
+        completo.append('}');
+
+        StringBuilder cambio = new StringBuilder(512 + altas.length() + cambios.length() + altasCola.length());
+        cambio.append("{\"version\":").append(nueva).append(",\"tiempo\":").append(tiempo)
+                .append(",\"memoria\":").append(memoriaJson).append(",\"cpu\":").append(cpuJson)
+                .append(",\"en_ejecucion\":").append(todosEnEjecucion.length)
+                .append(",\"en_cola\":").append(todosEnCola.length)
+                .append(",\"procesos\":{\"altas\":[").append(altas).append("],\"cambios\":[").append(cambios)
+                .append("],\"bajas\":[").append(bajas).append("]},\"cola\":{\"altas\":[").append(altasCola)
+                .append("],\"bajas\":[").append(bajasCola).append("]},\"eventos_omitidos\":")
+                .append(desdeEvento - siguienteEventoAnterior).append(",\"eventos\":");
+        escribirTextos(cambio, eventosNuevos);
+        cambio.append('}');
+
+        String estado = completo.toString();
+        byte[] estadoBytes = estado.getBytes(StandardCharsets.UTF_8);
+        byte[] completoBytes = mensaje("completo", nueva, estado);
+        byte[] cambioBytes = mensaje("cambio", nueva, cambio.toString());
+        cerrojo.lock();
+        try {
+            version = nueva;
+            estadoJson = estadoBytes;
+            mensajeCompleto = completoBytes;
+            mensajeCambio = cambioBytes;
+            nuevaVersion.signalAll();
+        } finally {
+            cerrojo.unlock();
+        }
+        publicaciones++;
+        nanosUltimaPublicacion = System.nanoTime() - inicio;
+    }
+
+    // Campos de un proceso que, si cambian, hacen que se vuelva a enviar.
+    private static long[] camposProceso(Proceso proceso) {
+        return new long[] {proceso.getEstado().ordinal(), proceso.getDireccion(), proceso.getBytesTotales(),
+                proceso.getNodo(), proceso.getTiempoInicio(), proceso.getNucleo()};
+    }
+
+    private static StringBuilder separar(StringBuilder lista) {
+        return lista.length() == 0 ? lista : lista.append(',');
+    }
+
+    private static byte[] mensaje(String evento, long version, String json) {
+        return ("event: " + evento + "\nid: " + version + "\ndata: " + json + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void escribirMemoria(StringBuilder sb) {
+        sb.append("{\"total\":").append(memoria.getRamTotal())
+                .append(",\"usada\":").append(memoria.getRamUsada())
+                .append(",\"disponible\":").append(memoria.getRamDisponible())
+                .append(",\"huecos\":").append(memoria.getBloquesLibres())
+                .append(",\"mayor_hueco\":").append(memoria.getMayorBloqueLibre())
+                .append(",\"fragmentacion_externa\":").append(String.format(Locale.ROOT, "%.4f", memoria.getFragmentacionExterna()))
+                .append(",\"fragmentacion_interna\":").append(memoria.getFragmentacionInterna())
+                .append(",\"utilizacion_por_nodo\":[");
+        for (int nodo = 0; nodo < memoria.getNumeroNodos(); nodo++) {
+            sb.append(nodo == 0 ? "" : ",").append(String.format(Locale.ROOT, "%.4f", memoria.getUtilizacionNodo(nodo)));
+        }
+        sb.append("]}");
+    }
+
+    private void escribirCpu(StringBuilder sb) {
+        PlanificadorCpu cpu = gestor.getCpu();
+        if (cpu == null) {
+            sb.append("null");
+            return;
+        }
+        // Lectura sin sincronizar, como en el Monitor: basta una vista aproximada.
+        sb.append("{\"politica\":");
+        escribirTexto(sb, cpu.getNombrePolitica());
+        sb.append(",\"listos\":").append(cpu.getListos())
+                .append(",\"cambios_contexto\":").append(cpu.getCambiosContexto())
+                .append(",\"nucleos\":[");
+        for (int nucleo = 0; nucleo < cpu.getNucleos(); nucleo++) {
+            Proceso proceso = cpu.getEnNucleo(nucleo);
+            sb.append(nucleo == 0 ? "" : ",").append(proceso == null ? -1 : proceso.getPid());
+        }
+        sb.append("]}");
+    }
+
+    private static void escribirProceso(StringBuilder sb, Proceso proceso) {
+        sb.append("{\"pid\":").append(proceso.getPid()).append(",\"nombre\":");
+        escribirTexto(sb, proceso.getNombre());
+        sb.append(",\"estado\":\"").append(proceso.getEstado()).append('"')
+                .append(",\"direccion\":").append(proceso.getDireccion())
+                .append(",\"bytes\":").append(proceso.getBytesTotales())
+                .append(",\"nodo\":").append(proceso.getNodo())
+                .append(",\"inicio\":").append(proceso.getTiempoInicio())
+                .append(",\"duracion\":").append(proceso.getDuracion())
+                .append(",\"nucleo\":").append(proceso.getNucleo())
+                .append('}');
+    }
+
+    private static void escribirEnCola(StringBuilder sb, Proceso proceso) {
+        sb.append("{\"pid\":").append(proceso.getPid()).append(",\"nombre\":");
+        escribirTexto(sb, proceso.getNombre());
+        sb.append(",\"bytes\":").append(proceso.getBytesRequeridos())
+                .append(",\"llegada\":").append(proceso.getTiempoLlegada())
+                .append('}');
+    }
+
+    private static void escribirTextos(StringBuilder sb, List<String> textos) {
+        sb.append('[');
+        for (int i = 0; i < textos.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            escribirTexto(sb, textos.get(i));
+        }
+        sb.append(']');
+    }
+
+    // Cadena JSON con las comillas, las barras y los caracteres de control escapados.
+    private static void escribirTexto(StringBuilder sb, String texto) {
+        sb.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    // --- Peticiones HTTP ---
+
+    private void atenderEstado(HttpExchange peticion) throws IOException {
+        byte[] cuerpo;
+        cerrojo.lock();
+        try {
+            cuerpo = estadoJson;
+        } finally {
+            cerrojo.unlock();
+        }
+        responder(peticion, cuerpo);
+    }
+
+    private void atenderMetricas(HttpExchange peticion) throws IOException {
+        responder(peticion, gestor.getMetricas().aJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void responder(HttpExchange peticion, byte[] cuerpo) throws IOException {
+        try (peticion) {
+            if (!peticion.getRequestMethod().equals("GET")) {
+                peticion.sendResponseHeaders(405, -1);
+                return;
+            }
+            peticion.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            peticion.sendResponseHeaders(200, cuerpo.length);
+            peticion.getResponseBody().write(cuerpo);
+        }
+    }
+
+    /**
+     * Mantiene abierta la respuesta y escribe en ella cada versión nueva:
+     * el cambio si el cliente vio la anterior o, si no, el estado completo.
+     * La escritura se hace fuera del cerrojo, así que un cliente lento solo
+     * se retrasa a sí mismo.
+     */
+    private void atenderFlujo(HttpExchange peticion) throws IOException {
+        if (!peticion.getRequestMethod().equals("GET")) {
+            peticion.sendResponseHeaders(405, -1);
+            peticion.close();
+            return;
+        }
+        peticion.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        peticion.getResponseHeaders().set("Cache-Control", "no-cache");
+        peticion.sendResponseHeaders(200, 0);
+        clientes.incrementAndGet();
+        try (OutputStream salida = peticion.getResponseBody()) {
+            long vista = -1;
+            while (!cerrado) {
+                byte[] mensaje;
+                cerrojo.lock();
+                try {
+                    long espera = TimeUnit.MILLISECONDS.toNanos(LATIDO);
+                    while (version == vista && !cerrado && espera > 0) {
+                        espera = nuevaVersion.awaitNanos(espera);
+                    }
+                    if (cerrado) {
+                        break;
+                    }
+                    if (version == vista) {
+                        mensaje = MENSAJE_LATIDO;
+                    } else {
+                        boolean seguido = vista >= 0 && version == vista + 1;
+                        if (vista >= 0 && !seguido) {
+                            versionesSaltadas.addAndGet(version - vista - 1);
+                        }
+                        mensaje = seguido ? mensajeCambio : mensajeCompleto;
+                        vista = version;
+                    }
+                } finally {
+                    cerrojo.unlock();
+                }
+                salida.write(mensaje);
+                salida.flush();
+                mensajesEnviados.incrementAndGet();
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clientes.decrementAndGet();
+            peticion.close();
+        }
+    }
+
+    /**
+     * Publica una última instantánea, cierra los flujos y deja de escuchar.
+     */
+    @Override
+    public void close() {
+        publicador.interrupt();
+        publicar();
+        cerrado = true;
+        cerrojo.lock();
+        try {
+            nuevaVersion.signalAll();
+        } finally {
+            cerrojo.unlock();
+        }
+        servidor.stop(0);
+        hilos.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Telemetría en http://127.0.0.1:%d | Publicaciones: %d (la última en %.2f ms) | Mensajes enviados: %d | Versiones saltadas por clientes lentos: %d",
+                getPuerto(), publicaciones, nanosUltimaPublicacion / 1e6, mensajesEnviados.get(), versionesSaltadas.get());
+    }
+}
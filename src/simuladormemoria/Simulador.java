@@ -1,29 +1,299 @@
 package simuladormemoria;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+
 public class Simulador {
     /**
      * El método main es el punto de entrada de la aplicación.
      * Orquesta la creación de los componentes principales de la simulación
      * y los pone en marcha.
-     * @param args Argumentos de la línea de comandos (no utilizados).
+     * Sin argumentos se ejecuta la simulación clásica con hilos. Otros modos:
+     * <ul>
+     *   <li>"--virtual [n] [modelo] [referencias|-] [admision] [directorio-metricas]": n procesos
+     *   aleatorios con el motor de eventos discretos (modelo de memoria según Memoria.crear; con
+     *   memoria paginada, un modelo de referencias: secuencial, zipf, fases o traza(archivo),
+     *   una traza grabada que todos los procesos reproducen desde puntos distintos; la
+     *   política de admisión de la cola: fifo, sjf, menor-memoria o backfilling; y
+     *   opcionalmente un directorio donde volcar las métricas). Admite además "--ram tamaño"
+     *   y "--nodos n" (ver más abajo); con varios nodos cada proceso tiene afinidad a uno.</li>
+     *   <li>"--tiempo-real": los procesos de ejemplo con el motor de eventos
+     *   sincronizado con el reloj de pared.</li>
+     *   <li>"--grabar-traza archivo modelo referencias mb": graba una traza sintética.</li>
+     *   <li>"--traza archivo [politica]": reproduce una traza sobre memoria paginada.</li>
+     *   <li>"--lote archivo [informe.csv]": ejecuta sin interfaz la carga de trabajo
+     *   descrita en el archivo, con una simulación por configuración del barrido en paralelo.</li>
+     *   <li>"--coste-ejecutores [n]": mide el coste de arrancar n procesos con cada backend de ejecución.</li>
+     *   <li>"--coste-tabla [n]": compara la memoria por proceso y el coste de recorrer, buscar y quitar
+     *   n procesos en un ConcurrentHashMap y en la TablaProcesos.</li>
+     *   <li>"--coste-envios [n] [lote]": envía n procesos al gestor uno a uno y en lotes, y con la
+     *   cola de espera limitada con cada contrapresión, y mide los envíos por segundo.</li>
+     *   <li>"--ejecutor modo" y/o "--admision politica": simulación clásica con el backend
+     *   de ejecución (plataforma, virtual o pool) y la política de admisión indicados;
+     *   "--registro archivo" vuelca los eventos a un archivo y "--metricas directorio"
+     *   activa las métricas (JMX y volcado periódico a CSV/JSON); "--limite-cola n" y
+     *   "--contrapresion bloquear|rechazar|descartar" limitan la cola de espera.</li>
+     *   <li>"--ram tamaño" (por ejemplo 4096, 64G o 2T; sin unidad, en MB) y "--nodos n":
+     *   capacidad de la memoria y número de nodos NUMA entre los que se reparte, en la
+     *   simulación clásica y en "--virtual".</li>
+     *   <li>"--intercambio archivo", "--tamano-intercambio tamaño" (por defecto, el de la RAM)
+     *   y "--disco hdd|ssd|nvme|latencia:ancho": área de intercambio mapeada en ese archivo
+     *   para "--virtual" y "--tiempo-real"; los procesos que no caben sacan a disco a otros.</li>
+     *   <li>"--cpu n", "--planificador rr|prioridad|mlfq|cfs" (por defecto rr), "--quantum ms"
+     *   (100), "--cambio-contexto ms" (1) y "--max-listos k" (0, sin límite): planificador de CPU
+     *   con n núcleos para "--virtual" y "--tiempo-real"; los procesos admitidos reciben su
+     *   duración en ráfagas de CPU y no se admiten más mientras haya k listos por núcleo.</li>
+     *   <li>"--perfil-memoria perfil" (rampa(mb), dientes(mb,pasos) o aleatorio(mb)), "--intervalo-memoria ms"
+     *   (500) y "--sin-memoria bloquear|matar|intercambiar|compactar" (por defecto bloquear): en
+     *   "--virtual" y "--tiempo-real", los procesos en ejecución piden y devuelven memoria según el
+     *   perfil, y cuando una petición no cabe el motor reacciona como se indique. El perfil no
+     *   admite la memoria paginada, y compactar solo admite la lista libre sin nodos.</li>
+     *   <li>"--punto-control archivo", "--intervalo-punto-control ms" (60000, en tiempo virtual),
+     *   "--pausar-en s" y "--reanudar archivo": en "--virtual", guarda puntos de control
+     *   (ver PuntoControl) cada intervalo, se detiene en el segundo virtual indicado y reanuda
+     *   la simulación guardada en un archivo, que sigue recibiendo puntos. No se admiten con
+     *   "--cpu", "--intercambio", los modelos slab y paginada-* ni un modelo de referencias.</li>
+     *   <li>"--semilla n" (42) y "--traza-decisiones archivo": en "--virtual", semilla de los
+     *   procesos generados y de sus perfiles de memoria, y traza binaria de las decisiones del motor.</li>
+     *   <li>"--comparar-trazas a b": muestra la primera decisión en la que difieren dos trazas
+     *   de decisiones y la diferencia de sus métricas agregadas.</li>
+     *   <li>"--http puerto": en la simulación clásica, "--tiempo-real" y "--virtual", publica
+     *   el estado en http://127.0.0.1:puerto (/estado, /metricas y el flujo /flujo; ver ServidorTelemetria).</li>
+     * </ul>
+     * @param args Argumentos de la línea de comandos.
      * @throws InterruptedException Si el hilo principal es interrumpido durante la espera.
+     * @throws IOException Si falla la lectura o escritura de una traza.
      */
-    public static void main(String[] args) throws InterruptedException {
+    public static void main(String[] args) throws InterruptedException, IOException {
+        // Capacidad y nodos de la memoria, comunes a la simulación clásica y la virtual.
+        long ram = Memoria.RAM_POR_DEFECTO;
+        int nodos = 1;
+        // Área de intercambio del motor de eventos (sin archivo no hay intercambio).
+        Path archivoIntercambio = null;
+        long tamanoIntercambio = -1;
+        ModeloDisco disco = ModeloDisco.SSD;
+        // Planificador de CPU del motor de eventos (sin núcleos no se modela la CPU).
+        int nucleos = 0;
+        String planificador = "rr";
+        long quantum = 100;
+        long cambioContexto = 1;
+        int maxListos = 0;
+        // Crecimiento de la memoria de los procesos en ejecución (sin perfil, la memoria es fija).
+        PerfilMemoria perfil = null;
+        long intervaloMemoria = 500;
+        MotorDeEventos.SinMemoria sinMemoria = MotorDeEventos.SinMemoria.BLOQUEAR;
+        // Puntos de control de la simulación virtual (sin archivo no se guardan).
+        Path archivoPuntoControl = null;
+        boolean reanudar = false;
+        long intervaloPuntoControl = 60_000;
+        long pausarEn = -1;
+        // Semilla de la simulación virtual y traza de sus decisiones (sin archivo no se graba).
+        long semilla = 42;
+        Path archivoTraza = null;
+        // Puerto del servidor de telemetría (-1 = sin servidor).
+        int puertoHttp = -1;
+        List<String> posicionales = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--ram") && i + 1 < args.length) {
+                ram = Memoria.parsearTamano(args[++i]);
+            } else if (args[i].equals("--nodos") && i + 1 < args.length) {
+                nodos = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--intercambio") && i + 1 < args.length) {
+                archivoIntercambio = Paths.get(args[++i]);
+            } else if (args[i].equals("--tamano-intercambio") && i + 1 < args.length) {
+                tamanoIntercambio = Memoria.parsearTamano(args[++i]);
+            } else if (args[i].equals("--disco") && i + 1 < args.length) {
+                disco = ModeloDisco.porNombre(args[++i]);
+            } else if (args[i].equals("--cpu") && i + 1 < args.length) {
+                nucleos = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--planificador") && i + 1 < args.length) {
+                planificador = args[++i];
+            } else if (args[i].equals("--quantum") && i + 1 < args.length) {
+                quantum = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--cambio-contexto") && i + 1 < args.length) {
+                cambioContexto = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--max-listos") && i + 1 < args.length) {
+                maxListos = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--perfil-memoria") && i + 1 < args.length) {
+                perfil = PerfilMemoria.porNombre(args[++i]);
+            } else if (args[i].equals("--intervalo-memoria") && i + 1 < args.length) {
+                intervaloMemoria = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--sin-memoria") && i + 1 < args.length) {
+                sinMemoria = MotorDeEventos.SinMemoria.porNombre(args[++i]);
+            } else if (args[i].equals("--punto-control") && i + 1 < args.length) {
+                archivoPuntoControl = Paths.get(args[++i]);
+            } else if (args[i].equals("--reanudar") && i + 1 < args.length) {
+                archivoPuntoControl = Paths.get(args[++i]);
+                reanudar = true;
+            } else if (args[i].equals("--intervalo-punto-control") && i + 1 < args.length) {
+                intervaloPuntoControl = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--pausar-en") && i + 1 < args.length) {
+                pausarEn = Long.parseLong(args[++i]) * 1000;
+            } else if (args[i].equals("--semilla") && i + 1 < args.length) {
+                semilla = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--traza-decisiones") && i + 1 < args.length) {
+                archivoTraza = Paths.get(args[++i]);
+            } else if (args[i].equals("--http") && i + 1 < args.length) {
+                puertoHttp = Integer.parseInt(args[++i]);
+            } else {
+                posicionales.add(args[i]);
+            }
+        }
+        args = posicionales.toArray(new String[0]);
+        Intercambio intercambio = archivoIntercambio == null ? null
+                : Intercambio.crear(archivoIntercambio, tamanoIntercambio < 0 ? ram : tamanoIntercambio, disco);
+        PlanificadorCpu cpu = nucleos == 0 ? null
+                : PlanificadorCpu.crear(planificador, nucleos, quantum, cambioContexto, maxListos);
+        if (sinMemoria == MotorDeEventos.SinMemoria.INTERCAMBIAR && intercambio == null) {
+            throw new IllegalArgumentException("--sin-memoria intercambiar necesita --intercambio archivo");
+        }
+        // Los puntos de control no guardan la CPU ni el área de intercambio (ver PuntoControl).
+        if (archivoPuntoControl != null && cpu != null) {
+            throw new IllegalArgumentException("Los puntos de control no admiten el planificador de CPU (--cpu)");
+        }
+        if (archivoPuntoControl != null && intercambio != null) {
+            throw new IllegalArgumentException("Los puntos de control no admiten el área de intercambio (--intercambio)");
+        }
+
+        if (args.length > 0 && args[0].equals("--virtual")) {
+            String modelo = args.length > 2 ? args[2] : "contador";
+            if (archivoPuntoControl != null && (modelo.equals("slab") || modelo.startsWith("paginada-"))) {
+                // Ni los slabs ni las tablas de páginas se guardan en los puntos de control.
+                throw new IllegalArgumentException("Los puntos de control no admiten el modelo " + modelo);
+            }
+            simularVirtual(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000,
+                    crearMemoria(modelo, ram, nodos),
+                    args.length > 3 && !args[3].equals("-") ? args[3] : null,
+                    args.length > 4 ? args[4] : "fifo",
+                    args.length > 5 ? Paths.get(args[5]) : null, intercambio, cpu,
+                    perfil, intervaloMemoria, sinMemoria,
+                    archivoPuntoControl, reanudar, intervaloPuntoControl, pausarEn, semilla, archivoTraza,
+                    puertoHttp);
+            return;
+        }
+        if (args.length > 2 && args[0].equals("--comparar-trazas")) {
+            TrazaDecisiones.comparar(Paths.get(args[1]), Paths.get(args[2]), System.out);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--lote")) {
+            ejecutarLote(Paths.get(args[1]), args.length > 2 ? Paths.get(args[2]) : null);
+            return;
+        }
+        if (args.length > 4 && args[0].equals("--grabar-traza")) {
+            long tamano = Long.parseLong(args[4]) << 20;
+            long grabadas = TrazaReferencias.grabar(Paths.get(args[1]),
+                    GeneradorReferencias.porNombre(args[2], tamano, 42), Long.parseLong(args[3]), tamano);
+            System.out.printf("Referencias grabadas: %d%n", grabadas);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--traza")) {
+            reproducirTraza(Paths.get(args[1]), args.length > 2 ? args[2] : "lru");
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--coste-ejecutores")) {
+            medirEjecutores(args.length > 1 ? Integer.parseInt(args[1]) : 10_000);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--coste-envios")) {
+            medirEnvios(args.length > 1 ? Integer.parseInt(args[1]) : 200_000,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 256);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--coste-tabla")) {
+            medirTablaProcesos(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--tiempo-real")) {
+            simularTiempoReal(intercambio, cpu, perfil, intervaloMemoria, sinMemoria, puertoHttp);
+            return;
+        }
+        // Opciones de la simulación clásica.
+        String modoEjecutor = "virtual";
+        String politicaAdmision = "fifo";
+        String archivoRegistro = null;
+        String directorioMetricas = null;
+        int limiteCola = Integer.MAX_VALUE;
+        String contrapresion = "bloquear";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--ejecutor")) {
+                modoEjecutor = args[i + 1];
+            } else if (args[i].equals("--admision")) {
+                politicaAdmision = args[i + 1];
+            } else if (args[i].equals("--registro")) {
+                archivoRegistro = args[i + 1];
+            } else if (args[i].equals("--metricas")) {
+                directorioMetricas = args[i + 1];
+            } else if (args[i].equals("--limite-cola")) {
+                limiteCola = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--contrapresion")) {
+                contrapresion = args[i + 1];
+            }
+        }
+
         System.out.println("Iniciando simulador...");
 
         // 1. Creación de los componentes principales del simulador.
         // Se crea un objeto Memoria que gestionará los recursos de RAM.
-        Memoria memoria = new Memoria();
+        Memoria memoria = crearMemoria("contador", ram, nodos);
         // Se crea un Monitor, que es la interfaz visual de la simulación,
         // pasándole la referencia a la memoria para que pueda mostrar su estado.
         Monitor monitor = new Monitor(memoria);
+        // Opcionalmente, los eventos se vuelcan también a un archivo cada medio segundo.
+        if (archivoRegistro != null) {
+            monitor.getRegistro().volcarEn(Paths.get(archivoRegistro), 500);
+        }
         // Se crea el GestorDeProcesos, que es el "sistema operativo" de la simulación.
         // Se le pasan la memoria y el monitor para que pueda interactuar con ellos.
-        GestorDeProcesos gestor = new GestorDeProcesos(memoria, monitor);
+        GestorDeProcesos gestor = new GestorDeProcesos(memoria, monitor,
+                EjecutorProcesos.porNombre(modoEjecutor), PoliticaAdmision.porNombre(politicaAdmision));
+        if (limiteCola < Integer.MAX_VALUE) {
+            gestor.setLimiteCola(limiteCola, GestorDeProcesos.Contrapresion.porNombre(contrapresion));
+        }
+        // Al cerrar la aplicación se interrumpen los procesos para que liberen su memoria.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                gestor.apagar(5000);
+                // Escribe los últimos eventos pendientes y las métricas finales antes de salir.
+                monitor.getRegistro().close();
+                gestor.getMetricas().detenerVolcado();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar el registro de eventos o las métricas: " + e.getMessage());
+            }
+        }));
+
+        // Métricas opcionales: se publican por JMX y se vuelcan cada segundo.
+        if (directorioMetricas != null) {
+            Metricas metricas = new Metricas();
+            gestor.setMetricas(metricas);
+            try {
+                metricas.registrarEnJmx();
+            } catch (JMException e) {
+                System.err.println("No se pudieron registrar las métricas en JMX: " + e.getMessage());
+            }
+            metricas.volcarPeriodicamente(Paths.get(directorioMetricas), 1000, memoria, gestor);
+        }
 
         // 2. Establecer la conexión entre el Monitor y el Gestor.
         // El monitor necesita saber del gestor para mostrar la lista de procesos.
         monitor.setGestor(gestor);
+        // Opcionalmente, el estado se publica también por HTTP.
+        if (puertoHttp >= 0) {
+            ServidorTelemetria telemetria = new ServidorTelemetria(puertoHttp, memoria, gestor, monitor.getRegistro(),
+                    Reloj.SISTEMA, ServidorTelemetria.INTERVALO_POR_DEFECTO);
+            monitor.agregarEvento(telemetria.toString());
+        }
 
         // 3. Iniciar los hilos principales de la simulación.
         // El gestor de procesos se ejecuta en un hilo para gestionar la cola de espera.
@@ -49,4 +319,527 @@ public class Simulador {
 
         gestor.agregarProceso(new Proceso("Reproductor de Música", 100, 5)); // Este podría ejecutarse o esperar, dependiendo del estado de la RAM.
     }
-}
\ No newline at end of file
+
+    /**
+     * Crea la memoria de la simulación: de un solo nodo o repartida entre varios nodos NUMA.
+     * @param modelo Modelo de asignación (ver Memoria.crear).
+     * @param ram Capacidad total en bytes.
+     * @param nodos Número de nodos.
+     * @return La memoria nueva.
+     */
+    private static Memoria crearMemoria(String modelo, long ram, int nodos) {
+        return nodos > 1 ? Memoria.crearNuma(modelo, nodos, ram / nodos) : Memoria.crear(modelo, ram);
+    }
+
+    /**
+     * Simula n procesos aleatorios con el reloj virtual, sin interfaz,
+     * e imprime un resumen con el rendimiento obtenido.
+     * @param n Número de procesos a simular.
+     * @param memoria La memoria a simular.
+     * @param referencias Modelo de referencias de los procesos ("traza(archivo)" para reproducir
+     *                    una traza), o null para no simular accesos.
+     * @param admision Política de admisión de la cola de espera.
+     * @param directorioMetricas Directorio donde volcar las métricas, o null para no medirlas.
+     * @param intercambio Área de intercambio, o null para que los procesos solo esperen en la cola.
+     * @param cpu Planificador de CPU, o null para que cada proceso termine al cumplirse su duración.
+     * @param perfil Perfil de memoria de los procesos en ejecución, o null para que sea fija.
+     * @param intervaloMemoria Milisegundos virtuales entre peticiones de memoria de cada proceso.
+     * @param sinMemoria Reacción cuando una petición de memoria no cabe.
+     * @param archivoPuntoControl Archivo de puntos de control, o null para no guardarlos.
+     * @param reanudar Si se restaura la simulación guardada en el archivo en lugar de generar los procesos.
+     * @param intervaloPuntoControl Milisegundos virtuales entre puntos de control.
+     * @param pausarEn Instante virtual (ms) en que se detiene la simulación tras un último punto, o -1.
+     * @param semilla Semilla de los procesos generados y de sus perfiles de memoria.
+     * @param archivoTraza Archivo donde grabar la traza de decisiones, o null.
+     * @param puertoHttp Puerto del servidor de telemetría, o -1 para no publicar el estado.
+     * @throws InterruptedException No ocurre en modo virtual.
+     * @throws IOException Si no se pueden escribir las métricas o los puntos de control.
+     */
+    private static void simularVirtual(int n, Memoria memoria, String referencias, String admision,
+                                       Path directorioMetricas, Intercambio intercambio, PlanificadorCpu cpu,
+                                       PerfilMemoria perfil, long intervaloMemoria,
+                                       MotorDeEventos.SinMemoria sinMemoria, Path archivoPuntoControl,
+                                       boolean reanudar, long intervaloPuntoControl, long pausarEn,
+                                       long semilla, Path archivoTraza, int puertoHttp)
+            throws InterruptedException, IOException {
+        if (archivoPuntoControl != null && referencias != null) {
+            // El flujo de referencias de cada proceso no se guarda en los puntos de control.
+            throw new IllegalArgumentException("Los puntos de control no admiten modelos de referencias");
+        }
+        GestorDeProcesos gestor = new GestorDeProcesos(memoria, null,
+                new EjecutorProcesos(EjecutorProcesos.Modo.HILO_VIRTUAL, 0), PoliticaAdmision.porNombre(admision));
+        gestor.setCpu(cpu);
+        // Sin monitor: en simulaciones masivas no se registran eventos.
+        MotorDeEventos motor = new MotorDeEventos(memoria, gestor, null, MotorDeEventos.Modo.VIRTUAL);
+        motor.setIntercambio(intercambio);
+        motor.setMemoriaDinamica(perfil, intervaloMemoria, sinMemoria);
+        motor.setSemilla(semilla);
+        TrazaDecisiones traza = archivoTraza == null ? null : new TrazaDecisiones(archivoTraza, semilla);
+        motor.setTraza(traza);
+        if (referencias != null) {
+            // 100 referencias cada 10 ms virtuales por proceso en ejecución.
+            motor.setAccesos(100, 10);
+        }
+        TrazaCompartida trazaReferencias = null;
+        if (referencias != null && referencias.startsWith("traza(") && referencias.endsWith(")")) {
+            // Una traza grabada en lugar de un modelo sintético: se abre una vez para todos los procesos.
+            trazaReferencias = new TrazaCompartida(Paths.get(referencias.substring("traza(".length(), referencias.length() - 1)));
+        }
+
+        PuntoControl punto = null;
+        if (reanudar) {
+            // Los procesos, los eventos pendientes y la memoria vienen del archivo.
+            motor.setRegistro(new RegistroEventos());
+            punto = PuntoControl.reanudar(archivoPuntoControl, motor);
+            n = 0;
+            System.out.printf("Reanudada en t=%d s: %d procesos y %d eventos pendientes restaurados en %.1f ms%n",
+                    motor.ahora() / 1000, punto.getProcesosRestaurados(), motor.getEventosPendientes(),
+                    punto.getNanosRestauracion() / 1e6);
+        } else if (archivoPuntoControl != null) {
+            motor.setRegistro(new RegistroEventos());
+            punto = new PuntoControl(archivoPuntoControl);
+        }
+
+        // Con la misma semilla las ejecuciones son comparables.
+        Random random = new Random(semilla);
+        // Las prioridades salen de otra secuencia para no alterar los procesos generados.
+        Random prioridades = new Random(semilla + 1);
+        long llegada = 0;
+        for (int i = 0; i < n; i++) {
+            // Llegadas separadas entre 0 y 2 segundos virtuales.
+            llegada += random.nextInt(2000);
+            // Sin nombre propio: se llama "Proceso n" según su PID, sin guardar un String por proceso.
+            Proceso proceso = new Proceso(null, 50 + random.nextInt(400), 1 + random.nextInt(20));
+            // Con varios nodos, cada proceso prefiere uno al azar.
+            if (memoria.getNumeroNodos() > 1) {
+                proceso.setNodo(random.nextInt(memoria.getNumeroNodos()));
+            }
+            if (cpu != null) {
+                proceso.setPrioridad(prioridades.nextInt(11) - 5);
+            }
+            if (trazaReferencias != null) {
+                // Cada proceso entra en la traza por un punto distinto según su PID.
+                proceso.setReferencias(trazaReferencias.lector(proceso.getPid(), proceso.getBytesRequeridos()));
+            } else if (referencias != null) {
+                proceso.setReferencias(GeneradorReferencias.porNombre(referencias,
+                        proceso.getBytesRequeridos(), proceso.getPid()));
+            }
+            motor.programarLlegada(proceso, llegada);
+        }
+        Metricas metricas = null;
+        if (directorioMetricas != null) {
+            // Muestras cada segundo virtual, o más espaciadas para que la simulación
+            // quepa en la serie temporal aunque la cola tarde en vaciarse tras la última llegada.
+            metricas = new Metricas(16384);
+            gestor.setMetricas(metricas);
+            motor.setMuestreo(Math.max(1000, llegada / 4000));
+        }
+        ServidorTelemetria telemetria = null;
+        if (puertoHttp >= 0) {
+            if (motor.getRegistro() == null) {
+                motor.setRegistro(new RegistroEventos());
+            }
+            telemetria = new ServidorTelemetria(puertoHttp, memoria, gestor, motor.getRegistro(), motor,
+                    ServidorTelemetria.INTERVALO_POR_DEFECTO);
+            System.out.println(telemetria);
+        }
+
+        long inicio = System.nanoTime();
+        if (punto == null) {
+            motor.ejecutar();
+        } else {
+            ejecutarConPuntosControl(motor, punto, intervaloPuntoControl, pausarEn < 0 ? Long.MAX_VALUE : pausarEn);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.printf("Procesos finalizados: %d | Eventos: %d | Tiempo virtual: %d s%n",
+                motor.getProcesosFinalizados(), motor.getEventosProcesados(), motor.ahora() / 1000);
+        System.out.printf("Tiempo real: %.2f s | %.0f procesos/s%n", segundos, motor.getProcesosFinalizados() / segundos);
+        System.out.printf("Huecos: %d | Mayor hueco: %d MB | Fragmentación externa: %.1f%%%n",
+                memoria.getBloquesLibres(), memoria.getMayorBloqueLibre() / Memoria.MB, memoria.getFragmentacionExterna() * 100);
+        System.out.printf("Fragmentación interna: %d MB | Latencia media de asignación: %.0f ns%n",
+                memoria.getFragmentacionInterna() / Memoria.MB, memoria.getLatenciaMediaAsignacion());
+        if (memoria.getAsignador() instanceof AsignadorPaginado) {
+            System.out.printf("Paginación: %s%n", ((AsignadorPaginado) memoria.getAsignador()).getEstadisticas());
+        }
+        if (memoria.getAsignador() instanceof AsignadorNuma) {
+            AsignadorNuma numa = (AsignadorNuma) memoria.getAsignador();
+            for (int nodo = 0; nodo < numa.getNumeroNodos(); nodo++) {
+                System.out.printf("Nodo %d: %s | Locales: %d | Remotas: %d | Recibidas: %d%n", nodo,
+                        Memoria.formatearTamano(numa.getNodo(nodo).getRamTotal()), numa.getAsignacionesLocales(nodo),
+                        numa.getAsignacionesRemotas(nodo), numa.getAsignacionesRecibidas(nodo));
+            }
+        }
+        if (cpu != null) {
+            System.out.printf("%s%nProductividad: %.2f procesos por segundo virtual%n", cpu.resumen(motor.ahora()),
+                    motor.getProcesosFinalizados() * 1000.0 / Math.max(1, motor.ahora()));
+        }
+        if (perfil != null) {
+            imprimirMemoriaDinamica(motor, memoria);
+        }
+        if (intercambio != null) {
+            System.out.printf("%s%nOcupación del disco: %.1f%%%n", intercambio, intercambio.getOcupacionDisco(motor.ahora()) * 100);
+            intercambio.close();
+        }
+        if (metricas != null) {
+            metricas.volcar(directorioMetricas);
+            System.out.printf("%s%nMétricas volcadas en %s%n", metricas, directorioMetricas);
+        }
+        if (punto != null) {
+            System.out.println(punto);
+            if (motor.getEventosPendientes() > 0) {
+                System.out.printf("Simulación pausada con %d eventos pendientes: continúa con --reanudar %s%n",
+                        motor.getEventosPendientes(), archivoPuntoControl);
+            }
+            punto.close();
+        }
+        if (traza != null) {
+            traza.close();
+            System.out.printf("%s en %s%n", traza, archivoTraza);
+        }
+        if (trazaReferencias != null) {
+            trazaReferencias.close();
+        }
+        if (telemetria != null) {
+            telemetria.close();
+            System.out.println(telemetria);
+        }
+    }
+
+    /**
+     * Ejecuta el motor guardando un punto de control cada intervalo de tiempo
+     * virtual, hasta que no quedan eventos o hasta el instante de pausa.
+     * El reloj se queda en el último evento procesado, como con ejecutar.
+     * @param motor El motor.
+     * @param punto El archivo de puntos de control.
+     * @param intervalo Milisegundos virtuales entre puntos.
+     * @param pausa Instante virtual en que se detiene la simulación.
+     * @throws InterruptedException No ocurre en modo virtual.
+     * @throws IOException Si falla la escritura de un punto.
+     */
+    private static void ejecutarConPuntosControl(MotorDeEventos motor, PuntoControl punto, long intervalo, long pausa)
+            throws InterruptedException, IOException {
+        long siguiente = motor.ahora() + intervalo;
+        while (motor.getEventosPendientes() > 0 && motor.getSiguienteEvento() <= pausa) {
+            long hasta = Math.min(siguiente, pausa);
+            siguiente = hasta + intervalo;
+            if (motor.getSiguienteEvento() > hasta) {
+                // Nada que simular en este intervalo: el punto sería igual al anterior.
+                continue;
+            }
+            while (motor.getSiguienteEvento() <= hasta) {
+                motor.paso();
+            }
+            punto.guardar(motor);
+        }
+    }
+
+    /**
+     * Imprime el resumen de las peticiones de memoria de los procesos en ejecución.
+     * @param motor El motor que ha ejecutado la simulación.
+     * @param memoria La memoria simulada.
+     */
+    private static void imprimirMemoriaDinamica(MotorDeEventos motor, Memoria memoria) {
+        System.out.printf("Peticiones de memoria: %d | Fallidas: %d | Bloqueos: %d | Matados (OOM): %d%n",
+                motor.getPeticionesMemoria(), motor.getCrecimientosFallidos(), motor.getBloqueos(),
+                motor.getProcesosMatados());
+        System.out.printf("Compactaciones: %d (%s movidos) | Ráfagas de reserva: %d | %.0f bloques/s%n",
+                motor.getCompactaciones(), Memoria.formatearTamano(motor.getBytesCompactados()),
+                memoria.getRafagas(), memoria.getRendimientoRafagas());
+    }
+
+    /**
+     * Ejecuta una carga de trabajo declarativa sin interfaz: una simulación
+     * por configuración del barrido, repartidas entre todos los núcleos.
+     * @param archivo Archivo de propiedades con la carga de trabajo.
+     * @param informe Archivo CSV donde guardar los resultados, o null.
+     * @throws IOException Si no se puede leer la carga o escribir el informe.
+     */
+    private static void ejecutarLote(Path archivo, Path informe) throws IOException {
+        CargaDeTrabajo carga = CargaDeTrabajo.cargar(archivo);
+        int hilos = Runtime.getRuntime().availableProcessors();
+        System.out.printf("Carga %s: %d procesos, %d configuraciones, %d hilos%n",
+                archivo, carga.getProcesos(), carga.configuraciones().size(), hilos);
+        long inicio = System.nanoTime();
+        LoteSimulaciones.Resultado[] resultados = new LoteSimulaciones(carga).ejecutar(hilos);
+        System.out.printf("Barrido completado en %.2f s%n%n", (System.nanoTime() - inicio) / 1e9);
+        LoteSimulaciones.imprimirInforme(resultados, System.out);
+        if (informe != null) {
+            LoteSimulaciones.escribirCsv(resultados, informe);
+            System.out.printf("%nInforme guardado en %s%n", informe);
+        }
+    }
+
+    /**
+     * Reproduce una traza de referencias de un único proceso sobre una memoria
+     * paginada, leyéndola en streaming, e imprime las estadísticas resultantes.
+     * @param archivo Archivo de traza.
+     * @param politica Política de reemplazo.
+     * @throws IOException Si no se puede leer la traza.
+     */
+    private static void reproducirTraza(Path archivo, String politica) throws IOException {
+        Memoria memoria = Memoria.conPaginacion(politica);
+        AsignadorPaginado paginado = (AsignadorPaginado) memoria.getAsignador();
+        try (TrazaReferencias traza = new TrazaReferencias(archivo)) {
+            int megas = (int) ((traza.getTamanoEspacio() + (1 << 20) - 1) >> 20);
+            Proceso proceso = new Proceso(archivo.getFileName().toString(), megas, 0);
+            if (!memoria.asignarMemoria(proceso)) {
+                System.out.println("El proceso de la traza no cabe en la memoria.");
+                return;
+            }
+            long inicio = System.nanoTime();
+            while (traza.hayMas()) {
+                paginado.acceder((int) proceso.getDireccion(), traza.siguiente());
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("%s%n", memoria.getEstadisticasPaginacion(proceso));
+            System.out.printf("Tiempo real: %.2f s | %.0f referencias/s%n",
+                    segundos, paginado.getEstadisticas().getAccesos() / segundos);
+        }
+    }
+
+    /**
+     * Ejecuta los procesos de ejemplo con el motor de eventos en tiempo real.
+     * El orden de los eventos es el mismo que en modo virtual.
+     * @param intercambio Área de intercambio, o null para que los procesos solo esperen en la cola.
+     * @param cpu Planificador de CPU, o null para que cada proceso termine al cumplirse su duración.
+     * @param perfil Perfil de memoria de los procesos en ejecución, o null para que sea fija.
+     * @param intervaloMemoria Milisegundos entre peticiones de memoria de cada proceso.
+     * @param sinMemoria Reacción cuando una petición de memoria no cabe.
+     * @param puertoHttp Puerto del servidor de telemetría, o -1 para no publicar el estado.
+     * @throws InterruptedException Si el hilo principal es interrumpido durante la espera.
+     * @throws IOException Si no se puede cerrar el área de intercambio o abrir el puerto.
+     */
+    private static void simularTiempoReal(Intercambio intercambio, PlanificadorCpu cpu, PerfilMemoria perfil,
+                                          long intervaloMemoria, MotorDeEventos.SinMemoria sinMemoria,
+                                          int puertoHttp)
+            throws InterruptedException, IOException {
+        Memoria memoria = new Memoria();
+        Monitor monitor = new Monitor(memoria);
+        GestorDeProcesos gestor = new GestorDeProcesos(memoria, monitor);
+        gestor.setCpu(cpu);
+        monitor.setGestor(gestor);
+        MotorDeEventos motor = new MotorDeEventos(memoria, gestor, monitor, MotorDeEventos.Modo.TIEMPO_REAL);
+        motor.setIntercambio(intercambio);
+        motor.setMemoriaDinamica(perfil, intervaloMemoria, sinMemoria);
+        // El monitor calcula el tiempo restante con el reloj del motor.
+        monitor.setReloj(motor);
+        ServidorTelemetria telemetria = puertoHttp < 0 ? null : new ServidorTelemetria(puertoHttp, memoria, gestor,
+                monitor.getRegistro(), motor, ServidorTelemetria.INTERVALO_POR_DEFECTO);
+
+        Thread hiloMonitor = new Thread(monitor);
+        hiloMonitor.setDaemon(true);
+        hiloMonitor.start();
+
+        // Mismos procesos y tiempos de llegada que la simulación con hilos.
+        motor.programarLlegada(new Proceso("Navegador Web", 350, 10), 2000);
+        motor.programarLlegada(new Proceso("Editor de Código", 250, 15), 2000);
+        motor.programarLlegada(new Proceso("Juego", 700, 20), 3000);
+        motor.programarLlegada(new Proceso("Reproductor de Música", 100, 5), 4000);
+        motor.ejecutar();
+        if (telemetria != null) {
+            telemetria.close();
+        }
+        if (cpu != null) {
+            System.out.println(cpu.resumen(motor.ahora()));
+        }
+        if (perfil != null) {
+            imprimirMemoriaDinamica(motor, memoria);
+        }
+        if (intercambio != null) {
+            System.out.println(intercambio);
+            intercambio.close();
+        }
+    }
+
+    /**
+     * Arranca n procesos con cada backend de ejecución y mide el tiempo de
+     * arranque, los hilos y el heap durante el arranque y en régimen estable,
+     * y el tiempo que tarda el apagado ordenado.
+     * @param n Número de procesos simultáneos.
+     * @throws InterruptedException Si el hilo principal es interrumpido durante la espera.
+     */
+    private static void medirEjecutores(int n) throws InterruptedException {
+        for (EjecutorProcesos.Modo modo : EjecutorProcesos.Modo.values()) {
+            // Memoria sin límite práctico para que todos los procesos se admitan.
+            Memoria memoria = new Memoria(new AsignadorContador(Long.MAX_VALUE));
+            Monitor monitor = new Monitor(memoria);
+            EjecutorProcesos ejecutor = new EjecutorProcesos(modo, Runtime.getRuntime().availableProcessors());
+            GestorDeProcesos gestor = new GestorDeProcesos(memoria, monitor, ejecutor);
+            System.gc();
+            System.out.printf("%s%n  Antes:     %s%n", modo, EjecutorProcesos.medirCoste());
+
+            long inicio = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                gestor.agregarProceso(new Proceso("Proceso " + i, 1, 30));
+            }
+            long arranque = (System.nanoTime() - inicio) / 1_000_000;
+            System.out.printf("  Arranque:  %s | %d ms%n", EjecutorProcesos.medirCoste(), arranque);
+
+            Thread.sleep(1000);
+            System.out.printf("  Estable:   %s%n", EjecutorProcesos.medirCoste());
+
+            inicio = System.nanoTime();
+            boolean completo = gestor.apagar(30_000);
+            System.out.printf("  Apagado:   %d ms | completo: %b | RAM usada tras apagar: %d MB%n",
+                    (System.nanoTime() - inicio) / 1_000_000, completo, memoria.getRamUsada() / Memoria.MB);
+        }
+    }
+
+    /**
+     * Envía n procesos al gestor como lo haría un generador de carga y mide
+     * cuántos envíos por segundo acepta: uno a uno y en lotes sobre una
+     * memoria con lista libre, y en lotes con la cola de espera limitada a
+     * 1000 procesos y una memoria pequeña, para cada contrapresión. Espera
+     * a que todos los futuros de fin se completen.
+     * @param n Número de procesos de cada prueba.
+     * @param lote Procesos por lote.
+     * @throws InterruptedException Si el hilo principal es interrumpido durante la espera.
+     */
+    private static void medirEnvios(int n, int lote) throws InterruptedException {
+        medirEnvios("Uno a uno", n, 1, Memoria.RAM_POR_DEFECTO, Integer.MAX_VALUE, null);
+        medirEnvios("En lotes de " + lote, n, lote, Memoria.RAM_POR_DEFECTO, Integer.MAX_VALUE, null);
+        for (GestorDeProcesos.Contrapresion contrapresion : GestorDeProcesos.Contrapresion.values()) {
+            medirEnvios("Cola de 1000, " + contrapresion.name().toLowerCase(), n, lote, 64 * Memoria.MB, 1000, contrapresion);
+        }
+    }
+
+    private static void medirEnvios(String nombre, int n, int lote, long ram, int limiteCola,
+                                    GestorDeProcesos.Contrapresion contrapresion) throws InterruptedException {
+        Memoria memoria = new Memoria(new AsignadorListaLibre(ram, PoliticaUbicacion.PRIMER_AJUSTE));
+        GestorDeProcesos gestor = new GestorDeProcesos(memoria, new Monitor(memoria));
+        gestor.setEcoConsola(false);
+        if (contrapresion != null) {
+            gestor.setLimiteCola(limiteCola, contrapresion);
+        }
+        Thread planificador = new Thread(gestor);
+        planificador.setDaemon(true);
+        planificador.start();
+        // Mismos procesos en todas las pruebas: de 1 a 8 MB, sin duración y con prioridades nice de -5 a 5.
+        Random random = new Random(42);
+        LongAdder iniciados = new LongAdder();
+        CompletableFuture<?>[] fines = new CompletableFuture<?>[n];
+        long inicio = System.nanoTime();
+        List<Proceso> procesos = new ArrayList<>(lote);
+        for (int i = 0; i < n; i++) {
+            Proceso proceso = new Proceso("Proceso " + i, 1 + random.nextInt(8), 0);
+            proceso.setPrioridad(random.nextInt(11) - 5);
+            procesos.add(proceso);
+            if (procesos.size() == lote || i == n - 1) {
+                List<Envio> envios = gestor.enviar(procesos);
+                for (int j = 0; j < envios.size(); j++) {
+                    envios.get(j).getInicio().thenRun(iniciados::increment);
+                    fines[i - envios.size() + 1 + j] = envios.get(j).getFin();
+                }
+                procesos = new ArrayList<>(lote);
+            }
+        }
+        double segundosEnvio = (System.nanoTime() - inicio) / 1e9;
+        // Los rechazados terminan con excepción: solo importa que todos se hayan completado.
+        CompletableFuture.allOf(fines).orTimeout(60, TimeUnit.SECONDS).handle((r, e) -> null).join();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%-26s Envíos: %9.0f/s | Iniciados: %d | Rechazados: %d | Descartados: %d | "
+                        + "Esperas por cola llena: %d | Todos terminados en %.2f s%n",
+                nombre, n / segundosEnvio, iniciados.sum(), gestor.getRechazadosColaLlena(),
+                gestor.getDescartados(), gestor.getEsperasColaLlena(), segundos);
+        gestor.apagar(5000);
+    }
+
+    /**
+     * Mete n procesos en un ConcurrentHashMap (como la antigua lista de
+     * procesos en ejecución) y en una TablaProcesos, y mide el heap que
+     * ocupa cada estructura por proceso, sola y sumando los objetos Proceso
+     * (que son los mismos en las dos), y lo que cuesta recorrerla, buscar
+     * por PID y vaciarla.
+     * @param n Número de procesos.
+     */
+    private static void medirTablaProcesos(int n) {
+        long antes = heapUsado();
+        Proceso[] procesos = new Proceso[n];
+        for (int i = 0; i < n; i++) {
+            procesos[i] = new Proceso(null, 1 + i % 400, 1 + i % 20);
+        }
+        long objetos = heapUsado() - antes;
+        System.out.printf("Objetos Proceso: %.1f bytes por proceso%n", (double) objetos / n);
+
+        // Mapa de objetos con claves Integer.
+        antes = heapUsado();
+        long inicio = System.nanoTime();
+        ConcurrentMap<Integer, Proceso> mapa = new ConcurrentHashMap<>();
+        for (Proceso proceso : procesos) {
+            mapa.put(proceso.getPid(), proceso);
+        }
+        long insercion = System.nanoTime() - inicio;
+        long ocupado = heapUsado() - antes;
+        long suma = 0;
+        inicio = System.nanoTime();
+        for (int repeticion = 0; repeticion < 10; repeticion++) {
+            for (Proceso proceso : mapa.values()) {
+                suma += proceso.getBytesRequeridos();
+            }
+        }
+        long recorrido = (System.nanoTime() - inicio) / 10;
+        inicio = System.nanoTime();
+        for (Proceso proceso : procesos) {
+            suma += mapa.get(proceso.getPid()).getDuracion();
+        }
+        long busqueda = System.nanoTime() - inicio;
+        inicio = System.nanoTime();
+        for (Proceso proceso : procesos) {
+            mapa.remove(proceso.getPid());
+        }
+        long borrado = System.nanoTime() - inicio;
+        imprimirCosteTabla("ConcurrentHashMap", n, objetos, ocupado, insercion, recorrido, busqueda, borrado);
+        mapa = null;
+
+        // Tabla de columnas primitivas.
+        antes = heapUsado();
+        inicio = System.nanoTime();
+        TablaProcesos tabla = new TablaProcesos();
+        for (Proceso proceso : procesos) {
+            tabla.poner(proceso);
+        }
+        insercion = System.nanoTime() - inicio;
+        ocupado = heapUsado() - antes;
+        inicio = System.nanoTime();
+        for (int repeticion = 0; repeticion < 10; repeticion++) {
+            int filas = tabla.size();
+            for (int fila = 0; fila < filas; fila++) {
+                suma += tabla.getBytes(fila);
+            }
+        }
+        recorrido = (System.nanoTime() - inicio) / 10;
+        inicio = System.nanoTime();
+        for (Proceso proceso : procesos) {
+            suma += tabla.get(proceso.getPid()).getDuracion();
+        }
+        busqueda = System.nanoTime() - inicio;
+        long reservados = tabla.getBytesReservados();
+        inicio = System.nanoTime();
+        for (Proceso proceso : procesos) {
+            tabla.quitar(proceso.getPid());
+        }
+        borrado = System.nanoTime() - inicio;
+        imprimirCosteTabla("TablaProcesos", n, objetos, ocupado, insercion, recorrido, busqueda, borrado);
+        System.out.printf("TablaProcesos reservada según sus arrays: %.1f bytes por proceso (comprobación: %d)%n",
+                (double) reservados / n, suma & 1);
+    }
+
+    private static void imprimirCosteTabla(String nombre, int n, long objetos, long ocupado, long insercion,
+                                           long recorrido, long busqueda, long borrado) {
+        System.out.printf("%-18s %6.1f bytes/proceso (%6.1f con el Proceso) | Inserción: %5.1f ns | "
+                        + "Recorrido: %5.2f ns | Búsqueda: %5.1f ns | Borrado: %5.1f ns (por proceso)%n",
+                nombre, (double) ocupado / n, (double) (objetos + ocupado) / n, (double) insercion / n,
+                (double) recorrido / n,
+                (double) busqueda / n, (double) borrado / n);
+    }
+
+    // Heap ocupado tras forzar varias recolecciones, para que la medida sea estable.
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,55 @@
+package simuladormemoria;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de páginas de un proceso: para cada página virtual guarda el marco
+ * físico que la contiene, o -1 si no está residente.
+ */
+public class TablaPaginas {
+    // Identificador de la tabla (es la "dirección" que recibe el proceso).
+    private final int id;
+    // Marco de cada página virtual (-1 = no residente).
+    private final int[] marcos;
+    // Marcos reservados al admitir el proceso (su conjunto de trabajo mínimo).
+    private final int marcosMinimos;
+    // Páginas residentes en este momento.
+    private int residentes;
+    // Estadísticas de acceso de este proceso.
+    private final EstadisticasPaginacion estadisticas;
+
+    /**
+     * Constructor de la tabla; al inicio ninguna página está residente.
+     * @param id Identificador de la tabla.
+     * @param paginas Número de páginas virtuales del proceso.
+     * @param marcosMinimos Marcos reservados para el proceso.
+     */
+    TablaPaginas(int id, int paginas, int marcosMinimos) {
+        this.id = id;
+        this.marcos = new int[paginas];
+        Arrays.fill(marcos, -1);
+        this.marcosMinimos = marcosMinimos;
+        this.estadisticas = new EstadisticasPaginacion();
+    }
+
+    // Getters
+    public int getId() { return id; }
+    public int getPaginas() { return marcos.length; }
+    public int getMarcosMinimos() { return marcosMinimos; }
+    public int getResidentes() { return residentes; }
+    public EstadisticasPaginacion getEstadisticas() { return estadisticas; }
+
+    int getMarco(int pagina) {
+        return marcos[pagina];
+    }
+
+    void cargar(int pagina, int marco) {
+        marcos[pagina] = marco;
+        residentes++;
+    }
+
+    void descargar(int pagina) {
+        marcos[pagina] = -1;
+        residentes--;
+    }
+}
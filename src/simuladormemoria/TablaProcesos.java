@@ -0,0 +1,298 @@
+package simuladormemoria;
+
+import java.util.Arrays;
+
+/**
+ * La clase TablaProcesos guarda los procesos en ejecución como una tabla de
+ * columnas primitivas (struct-of-arrays) indexada por PID, en lugar de un
+ * mapa de objetos con claves Integer.
+ *
+ * Las filas ocupan siempre las posiciones 0..size()-1: al quitar un proceso,
+ * la última fila pasa a ocupar su hueco, de modo que las filas se reutilizan
+ * y recorrer una columna es un barrido secuencial de un array. El PID se
+ * busca con direccionamiento abierto (sondeo lineal) en un array de long
+ * que guarda juntos el PID y su fila, sin cajas ni nodos por entrada.
+ *
+ * Mientras un proceso está en la tabla, sus columnas mutables (estado,
+ * inicio y carga) son la única copia de esos datos: el Proceso las lee y
+ * escribe aquí a través de su fila, y al quitarlo se le devuelven. La
+ * columna de bytes la mantiene Memoria al crecer o encoger el proceso.
+ * Los datos que no son columnas (nombre, planificador, memoria dinámica...)
+ * siguen en el objeto Proceso, accesible por fila.
+ *
+ * Los métodos por PID y los que usa el Proceso son synchronized. Los
+ * accesos por fila no lo son: solo son válidos en el hilo que modifica la
+ * tabla (el motor de eventos) o dentro de un bloque synchronized (tabla);
+ * fuera de él una fila puede cambiar de proceso o quedar vacía en
+ * cualquier momento, y para recorrerla sin bloquearla está instantanea().
+ */
+public class TablaProcesos {
+    // Capacidad inicial de las columnas.
+    private static final int CAPACIDAD_INICIAL = 64;
+    // Posición libre del índice (las entradas ocupadas son positivas).
+    private static final long LIBRE = -1;
+    private static final Proceso.Estado[] ESTADOS = Proceso.Estado.values();
+
+    // Columnas, una posición por fila.
+    private int[] pids;
+    private long[] bytes;
+    private int[] duraciones;
+    private long[] inicios;
+    private long[] cargas;
+    private byte[] estados;
+    // Proceso de cada fila, para lo que no está en las columnas.
+    private Proceso[] procesos;
+    // Número de filas ocupadas.
+    private int filas;
+    // Índice PID -> fila con sondeo lineal: cada entrada es (pid << 32) | fila.
+    // Su capacidad es una potencia de dos y se ocupa como mucho al 75%.
+    private long[] indice;
+    private int mascara;
+    // 32 - log2(capacidad del índice), para quedarse con los bits altos del hash.
+    private int desplazamiento;
+
+    public TablaProcesos() {
+        redimensionarColumnas(CAPACIDAD_INICIAL);
+        redimensionarIndice(CAPACIDAD_INICIAL * 2);
+    }
+
+    public synchronized int size() { return filas; }
+    public synchronized boolean isEmpty() { return filas == 0; }
+
+    // Acceso por fila (0 <= fila < size()), sin sincronizar: ver la descripción de la clase.
+    public int getPid(int fila) { return pids[fila]; }
+    public long getBytes(int fila) { return bytes[fila]; }
+    public int getDuracion(int fila) { return duraciones[fila]; }
+    public long getInicio(int fila) { return inicios[fila]; }
+    public long getCarga(int fila) { return cargas[fila]; }
+    public Proceso.Estado getEstado(int fila) { return ESTADOS[estados[fila]]; }
+    public Proceso getProceso(int fila) { return procesos[fila]; }
+    // Instante previsto de fin del proceso de una fila, en milisegundos.
+    public long getFin(int fila) { return inicios[fila] + duraciones[fila] * 1000L; }
+
+    /**
+     * Añade un proceso a la tabla, o lo sustituye si ya había uno con su PID.
+     * Desde ese momento su estado, inicio y carga viven en las columnas.
+     * @param proceso El proceso.
+     */
+    public synchronized void poner(Proceso proceso) {
+        if (proceso.tabla == this) {
+            return;
+        }
+        int fila = buscar(proceso.getPid());
+        if (fila < 0) {
+            if (filas == pids.length) {
+                redimensionarColumnas(pids.length * 2);
+            }
+            if (filas >= indice.length - (indice.length >> 2)) {
+                redimensionarIndice(indice.length * 2);
+            }
+            fila = filas++;
+            indexar(proceso.getPid(), fila);
+        } else {
+            soltar(fila);
+        }
+        pids[fila] = proceso.getPid();
+        bytes[fila] = proceso.getBytesTotales();
+        duraciones[fila] = proceso.getDuracion();
+        inicios[fila] = proceso.getTiempoInicio();
+        cargas[fila] = proceso.getTiempoCarga();
+        estados[fila] = (byte) proceso.getEstado().ordinal();
+        procesos[fila] = proceso;
+        proceso.fila = fila;
+        proceso.tabla = this;
+    }
+
+    /**
+     * Quita un proceso de la tabla y le devuelve sus columnas. La última
+     * fila ocupa su lugar.
+     * @param pid PID del proceso.
+     * @return El proceso quitado, o null si no estaba.
+     */
+    public synchronized Proceso quitar(int pid) {
+        int fila = buscar(pid);
+        if (fila < 0) {
+            return null;
+        }
+        Proceso quitado = soltar(fila);
+        desindexar(pid);
+        int ultima = --filas;
+        if (fila != ultima) {
+            pids[fila] = pids[ultima];
+            bytes[fila] = bytes[ultima];
+            duraciones[fila] = duraciones[ultima];
+            inicios[fila] = inicios[ultima];
+            cargas[fila] = cargas[ultima];
+            estados[fila] = estados[ultima];
+            procesos[fila] = procesos[ultima];
+            procesos[fila].fila = fila;
+            indice[ranura(pids[fila])] = entrada(pids[fila], fila);
+        }
+        procesos[ultima] = null;
+        return quitado;
+    }
+
+    /**
+     * Busca un proceso por su PID.
+     * @param pid PID del proceso.
+     * @return El proceso, o null si no está en la tabla.
+     */
+    public synchronized Proceso get(int pid) {
+        int fila = buscar(pid);
+        return fila < 0 ? null : procesos[fila];
+    }
+
+    public synchronized boolean contiene(int pid) {
+        return buscar(pid) >= 0;
+    }
+
+    /**
+     * Copia los procesos de la tabla, para recorrerlos sin bloquearla.
+     * @return Los procesos, en orden de fila.
+     */
+    public synchronized Proceso[] instantanea() {
+        return Arrays.copyOf(procesos, filas);
+    }
+
+    /**
+     * Devuelve los bytes de heap que ocupan las columnas y el índice (sin
+     * contar los objetos Proceso, que existen igualmente).
+     * @return Los bytes reservados por la tabla.
+     */
+    public synchronized long getBytesReservados() {
+        // int + long + int + long + long + byte + referencia comprimida por fila; un long por posición del índice.
+        return (long) pids.length * (4 + 8 + 4 + 8 + 8 + 1 + 4) + (long) indice.length * 8;
+    }
+
+    // --- Columnas de un proceso, para sus getters y setters (ver Proceso) ---
+    // Si el proceso ya no está aquí, las lecturas devuelven null o Long.MIN_VALUE y las escrituras false.
+
+    synchronized Proceso.Estado leerEstado(Proceso proceso) {
+        return proceso.tabla == this ? ESTADOS[estados[proceso.fila]] : null;
+    }
+
+    synchronized boolean escribirEstado(Proceso proceso, Proceso.Estado estado) {
+        if (proceso.tabla != this) {
+            return false;
+        }
+        estados[proceso.fila] = (byte) estado.ordinal();
+        return true;
+    }
+
+    synchronized long leerInicio(Proceso proceso) {
+        return proceso.tabla == this ? inicios[proceso.fila] : Long.MIN_VALUE;
+    }
+
+    synchronized boolean escribirInicio(Proceso proceso, long inicio) {
+        if (proceso.tabla != this) {
+            return false;
+        }
+        inicios[proceso.fila] = inicio;
+        return true;
+    }
+
+    synchronized long leerCarga(Proceso proceso) {
+        return proceso.tabla == this ? cargas[proceso.fila] : Long.MIN_VALUE;
+    }
+
+    synchronized boolean escribirCarga(Proceso proceso, long carga) {
+        if (proceso.tabla != this) {
+            return false;
+        }
+        cargas[proceso.fila] = carga;
+        return true;
+    }
+
+    synchronized void escribirBytes(Proceso proceso, long total) {
+        if (proceso.tabla == this) {
+            bytes[proceso.fila] = total;
+        }
+    }
+
+    // Devuelve al proceso de una fila sus columnas y lo desvincula de la tabla.
+    private Proceso soltar(int fila) {
+        Proceso proceso = procesos[fila];
+        proceso.tabla = null;
+        proceso.fila = -1;
+        proceso.soltar(ESTADOS[estados[fila]], inicios[fila], cargas[fila]);
+        return proceso;
+    }
+
+    // Hash de Fibonacci: con PID consecutivos la identidad formaría una sola racha ocupada
+    // que desindexar tendría que recorrer entera; multiplicando se reparten por todo el índice.
+    private int hash(int pid) {
+        return (pid * 0x9E3779B9) >>> desplazamiento;
+    }
+
+    private static long entrada(int pid, int fila) {
+        return (long) pid << 32 | fila;
+    }
+
+    private static int pidDe(long entrada) {
+        return (int) (entrada >>> 32);
+    }
+
+    // Devuelve la fila de un PID, o -1.
+    private int buscar(int pid) {
+        for (int i = hash(pid); indice[i] != LIBRE; i = (i + 1) & mascara) {
+            if (pidDe(indice[i]) == pid) {
+                return (int) indice[i];
+            }
+        }
+        return -1;
+    }
+
+    // Devuelve la posición del índice de un PID que está en la tabla.
+    private int ranura(int pid) {
+        int i = hash(pid);
+        while (pidDe(indice[i]) != pid) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private void indexar(int pid, int fila) {
+        int i = hash(pid);
+        while (indice[i] != LIBRE) {
+            i = (i + 1) & mascara;
+        }
+        indice[i] = entrada(pid, fila);
+    }
+
+    /**
+     * Borra un PID del índice desplazando hacia atrás las entradas que lo
+     * siguen en su racha, para no dejar marcas de borrado que alarguen los sondeos.
+     */
+    private void desindexar(int pid) {
+        int hueco = ranura(pid);
+        for (int i = (hueco + 1) & mascara; indice[i] != LIBRE; i = (i + 1) & mascara) {
+            int ideal = hash(pidDe(indice[i]));
+            // La entrada puede ocupar el hueco si este está entre su posición ideal y la actual (en anillo).
+            if (((i - ideal) & mascara) >= ((i - hueco) & mascara)) {
+                indice[hueco] = indice[i];
+                hueco = i;
+            }
+        }
+        indice[hueco] = LIBRE;
+    }
+
+    private void redimensionarColumnas(int capacidad) {
+        pids = pids == null ? new int[capacidad] : Arrays.copyOf(pids, capacidad);
+        bytes = bytes == null ? new long[capacidad] : Arrays.copyOf(bytes, capacidad);
+        duraciones = duraciones == null ? new int[capacidad] : Arrays.copyOf(duraciones, capacidad);
+        inicios = inicios == null ? new long[capacidad] : Arrays.copyOf(inicios, capacidad);
+        cargas = cargas == null ? new long[capacidad] : Arrays.copyOf(cargas, capacidad);
+        estados = estados == null ? new byte[capacidad] : Arrays.copyOf(estados, capacidad);
+        procesos = procesos == null ? new Proceso[capacidad] : Arrays.copyOf(procesos, capacidad);
+    }
+
+    private void redimensionarIndice(int capacidad) {
+        indice = new long[capacidad];
+        Arrays.fill(indice, LIBRE);
+        mascara = capacidad - 1;
+        desplazamiento = Integer.numberOfLeadingZeros(capacidad) + 1;
+        for (int fila = 0; fila < filas; fila++) {
+            indexar(pids[fila], fila);
+        }
+    }
+}
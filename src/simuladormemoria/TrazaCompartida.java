@@ -0,0 +1,152 @@
+package simuladormemoria;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Una traza de referencias (en el formato de TrazaReferencias) que
+ * reproducen a la vez muchos procesos de una simulación. El archivo se
+ * abre y se mapea una sola vez; cada proceso recibe un lector propio que
+ * solo guarda su posición, así que un millón de procesos no abren un
+ * millón de archivos.
+ *
+ * Para que los procesos no accedan todos a lo mismo, cada lector empieza
+ * en un punto distinto de la traza (según su desplazamiento) y, al llegar
+ * al final, sigue por el principio hasta recorrerla entera una vez. Las
+ * direcciones se pliegan al espacio de cada proceso, que no tiene por qué
+ * medir lo mismo que el del proceso grabado.
+ */
+public class TrazaCompartida implements Closeable {
+    // Cada ventana mapeada mide 2^BITS_VENTANA bytes (64 MB).
+    private static final int BITS_VENTANA = 26;
+    private static final long MASCARA_VENTANA = (1L << BITS_VENTANA) - 1;
+    // Referencias entre dos puntos de entrada de la traza.
+    private static final long PASO_ENTRADAS = 1 << 16;
+
+    // Canal del archivo de traza.
+    private final FileChannel canal;
+    // El archivo entero, mapeado por ventanas.
+    private final MappedByteBuffer[] ventanas;
+    // Tamaño del archivo, del espacio de direcciones grabado y número de referencias.
+    private final long tamanoArchivo;
+    private final long tamanoEspacio;
+    private final long referencias;
+    // Puntos de entrada: posición en el archivo y dirección anterior cada PASO_ENTRADAS referencias.
+    private final long[] posicionesEntrada;
+    private final long[] direccionesEntrada;
+
+    /**
+     * Abre una traza y la recorre una vez para situar sus puntos de entrada.
+     * @param archivo Ruta del archivo.
+     * @throws IOException Si no se puede leer o no tiene el formato esperado.
+     */
+    public TrazaCompartida(Path archivo) throws IOException {
+        this.canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        this.tamanoArchivo = canal.size();
+        this.ventanas = new MappedByteBuffer[(int) ((tamanoArchivo + MASCARA_VENTANA) >>> BITS_VENTANA)];
+        for (int i = 0; i < ventanas.length; i++) {
+            long inicio = (long) i << BITS_VENTANA;
+            ventanas[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(1L << BITS_VENTANA, tamanoArchivo - inicio));
+        }
+        if (tamanoArchivo < TrazaReferencias.CABECERA || ventanas[0].getInt(0) != TrazaReferencias.MAGIA) {
+            canal.close();
+            throw new IOException("No es un archivo de traza válido: " + archivo);
+        }
+        this.tamanoEspacio = ventanas[0].getLong(4);
+        this.referencias = ventanas[0].getLong(12);
+        int entradas = (int) Math.max(1, (referencias + PASO_ENTRADAS - 1) / PASO_ENTRADAS);
+        this.posicionesEntrada = new long[entradas];
+        this.direccionesEntrada = new long[entradas];
+        Lector lector = new Lector(TrazaReferencias.CABECERA, 0, Long.MAX_VALUE);
+        for (long i = 0; i < referencias; i++) {
+            if (i % PASO_ENTRADAS == 0) {
+                posicionesEntrada[(int) (i / PASO_ENTRADAS)] = lector.posicion;
+                direccionesEntrada[(int) (i / PASO_ENTRADAS)] = lector.ultima;
+            }
+            lector.siguiente();
+        }
+    }
+
+    /**
+     * @return El tamaño del espacio de direcciones del proceso grabado, en bytes.
+     */
+    public long getTamanoEspacio() {
+        return tamanoEspacio;
+    }
+
+    /**
+     * @return El número de referencias de la traza.
+     */
+    public long getReferencias() {
+        return referencias;
+    }
+
+    /**
+     * Crea un lector de la traza para un proceso.
+     * @param desplazamiento Elige el punto de entrada (por ejemplo, el PID del proceso).
+     * @param espacio Tamaño del espacio de direcciones del proceso en bytes.
+     * @return Un flujo con todas las referencias de la traza, empezando por el punto de entrada.
+     */
+    public FlujoReferencias lector(long desplazamiento, long espacio) {
+        int entrada = (int) Math.floorMod(desplazamiento, (long) posicionesEntrada.length);
+        return new Lector(posicionesEntrada[entrada], direccionesEntrada[entrada], espacio);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private byte leer(long posicion) {
+        return ventanas[(int) (posicion >>> BITS_VENTANA)].get((int) (posicion & MASCARA_VENTANA));
+    }
+
+    /**
+     * Un lector de la traza: su posición, la última dirección leída y
+     * cuántas referencias lleva.
+     */
+    private final class Lector implements FlujoReferencias {
+        // Espacio de direcciones del proceso, al que se pliegan las direcciones.
+        private final long espacio;
+        // Posición en el archivo y dirección anterior, para deshacer la diferencia.
+        private long posicion;
+        private long ultima;
+        // Referencias leídas.
+        private long leidas;
+
+        Lector(long posicion, long ultima, long espacio) {
+            this.posicion = posicion;
+            this.ultima = ultima;
+            this.espacio = espacio;
+        }
+
+        @Override
+        public boolean hayMas() {
+            return leidas < referencias;
+        }
+
+        @Override
+        public long siguiente() {
+            if (posicion >= tamanoArchivo) {
+                // Al final de la traza se sigue por el principio.
+                posicion = TrazaReferencias.CABECERA;
+                ultima = 0;
+            }
+            long zigzag = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = leer(posicion++);
+                zigzag |= (long) (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while (b < 0);
+            ultima += (zigzag >>> 1) ^ -(zigzag & 1);
+            leidas++;
+            return Math.floorMod(ultima, espacio);
+        }
+    }
+}
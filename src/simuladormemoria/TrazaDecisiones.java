@@ -0,0 +1,431 @@
+package simuladormemoria;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Traza binaria de las decisiones que toma el motor de eventos: a quién
+ * admite y en qué dirección, a quién lleva a disco, qué proceso ocupa cada
+ * núcleo, quién crece, se bloquea o muere... Con la misma semilla y la misma
+ * configuración, dos ejecuciones del motor en tiempo virtual producen la
+ * misma traza byte a byte; comparar la de dos versiones del código (con
+ * comparar) muestra la primera decisión en la que difieren y cuánto cambian
+ * las métricas agregadas.
+ *
+ * El archivo solo crece mientras se graba:
+ * <pre>
+ *   int   MAGIA ("TDC1")
+ *   long  semilla de la simulación
+ *   long  número de decisiones (se escribe al cerrar; 0 si la grabación se cortó)
+ *   ...   por cada decisión: el tipo (1 byte), el tiempo transcurrido desde la
+ *         anterior (varint), la diferencia con el PID anterior y el argumento
+ *         (ambos en zigzag + varint)
+ * </pre>
+ * La mayoría de las decisiones ocupan entre 4 y 8 bytes. Al leer se recorre
+ * el archivo hasta el final, así que una traza cortada se lee hasta su
+ * última decisión completa.
+ */
+public class TrazaDecisiones implements Closeable {
+
+    /**
+     * Decisiones que se graban, con el significado de su argumento.
+     */
+    public enum Decision {
+        // Llega un proceso (argumento: bytes que pide).
+        LLEGADA,
+        // El proceso no se admite y espera en la cola (argumento: bytes que pide).
+        ENCOLADO,
+        // El proceso recibe memoria y empieza (argumento: dirección asignada).
+        ADMITIDO,
+        // El proceso termina (argumento: bytes que ocupaba).
+        FINALIZADO,
+        // El proceso se elige para llevarlo al área de intercambio (argumento: bytes).
+        A_DISCO,
+        // El proceso vuelve del área de intercambio (argumento: nueva dirección).
+        DESDE_DISCO,
+        // El proceso obtiene la memoria que pide al crecer (argumento: bytes).
+        CRECIMIENTO,
+        // El proceso devuelve memoria (argumento: bytes liberados).
+        ENCOGIMIENTO,
+        // El proceso no puede crecer y se para (argumento: bytes pendientes).
+        BLOQUEADO,
+        // El proceso bloqueado obtiene lo que pedía (argumento: bytes).
+        DESBLOQUEADO,
+        // El proceso se mata por falta de memoria (argumento: bytes que ocupaba).
+        MATADO,
+        // Se compacta la memoria por la petición del proceso (argumento: bytes movidos).
+        COMPACTACION,
+        // El proceso ocupa un núcleo (argumento: núcleo).
+        DESPACHO,
+        // El proceso pierde su núcleo ante otro más prioritario (argumento: núcleo).
+        EXPROPIADO
+    }
+
+    // Número mágico que identifica el formato ("TDC1").
+    private static final int MAGIA = 0x54444331;
+    // Tamaño de la cabecera en bytes.
+    private static final int CABECERA = 4 + 8 + 8;
+    // Tamaño máximo de una decisión: tipo y tres varints de 64 bits.
+    private static final int MAX_DECISION = 1 + 3 * 10;
+    // Tamaño de cada ventana mapeada al leer.
+    private static final long VENTANA = 64L << 20;
+    private static final Decision[] DECISIONES = Decision.values();
+
+    // Canal del archivo y buffer de escritura.
+    private final FileChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+    private final long semilla;
+    // Decisiones grabadas, y tiempo y PID de la última (se graban como diferencias).
+    private long decisiones;
+    private long ultimoTiempo;
+    private int ultimoPid;
+    private long bytesEscritos;
+
+    /**
+     * Crea un archivo de traza vacío (si ya existe, se sobrescribe).
+     * @param archivo Ruta del archivo.
+     * @param semilla Semilla de la simulación, que se guarda en la cabecera.
+     * @throws IOException Si no se puede crear.
+     */
+    public TrazaDecisiones(Path archivo, long semilla) throws IOException {
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.semilla = semilla;
+        buffer.putInt(MAGIA).putLong(semilla).putLong(0);
+    }
+
+    public long getDecisiones() { return decisiones; }
+    public long getBytesEscritos() { return bytesEscritos + buffer.position(); }
+
+    /**
+     * Graba una decisión.
+     * @param decision El tipo de decisión.
+     * @param tiempo Instante virtual en milisegundos (no anterior al de la decisión previa).
+     * @param pid PID del proceso afectado.
+     * @param argumento Argumento de la decisión (ver Decision).
+     * @throws IOException Si falla la escritura.
+     */
+    public void grabar(Decision decision, long tiempo, int pid, long argumento) throws IOException {
+        if (buffer.remaining() < MAX_DECISION) {
+            vaciar();
+        }
+        buffer.put((byte) decision.ordinal());
+        escribirVarint(tiempo - ultimoTiempo);
+        escribirVarint(zigzag(pid - ultimoPid));
+        escribirVarint(zigzag(argumento));
+        ultimoTiempo = tiempo;
+        ultimoPid = pid;
+        decisiones++;
+    }
+
+    private void escribirVarint(long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            buffer.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        buffer.put((byte) valor);
+    }
+
+    private static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    private void vaciar() throws IOException {
+        buffer.flip();
+        bytesEscritos += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Escribe las decisiones pendientes y completa la cabecera.
+     * @throws IOException Si falla la escritura.
+     */
+    @Override
+    public void close() throws IOException {
+        vaciar();
+        buffer.putInt(MAGIA).putLong(semilla).putLong(decisiones).flip();
+        canal.write(buffer, 0);
+        buffer.clear();
+        canal.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "Traza de decisiones: %d decisiones, %.1f KB (%.1f bytes por decisión)",
+                decisiones, getBytesEscritos() / 1024.0, (getBytesEscritos() - CABECERA) / (double) Math.max(1, decisiones));
+    }
+
+    /**
+     * Lee una traza de decisiones en orden, mapeándola en memoria por ventanas.
+     */
+    public static final class Lector implements Closeable {
+        private final FileChannel canal;
+        private final long tamanoArchivo;
+        private final long semilla;
+        private final long grabadas;
+        private MappedByteBuffer ventana;
+        private long inicioVentana;
+        // Decisión actual.
+        private Decision decision;
+        private long tiempo;
+        private int pid;
+        private long argumento;
+        private long leidas;
+
+        /**
+         * Abre una traza para leerla.
+         * @param archivo Ruta del archivo.
+         * @throws IOException Si no se puede leer o no tiene el formato esperado.
+         */
+        public Lector(Path archivo) throws IOException {
+            this.canal = FileChannel.open(archivo, StandardOpenOption.READ);
+            this.tamanoArchivo = canal.size();
+            mapear(0);
+            if (tamanoArchivo < CABECERA || ventana.getInt() != MAGIA) {
+                canal.close();
+                throw new IOException("No es una traza de decisiones válida: " + archivo);
+            }
+            this.semilla = ventana.getLong();
+            this.grabadas = ventana.getLong();
+        }
+
+        public long getSemilla() { return semilla; }
+        // Decisiones según la cabecera (0 si la grabación no se cerró).
+        public long getGrabadas() { return grabadas; }
+        public long getLeidas() { return leidas; }
+        public Decision getDecision() { return decision; }
+        public long getTiempo() { return tiempo; }
+        public int getPid() { return pid; }
+        public long getArgumento() { return argumento; }
+
+        /**
+         * Avanza a la siguiente decisión.
+         * @return false si no quedan decisiones completas.
+         * @throws IOException Si falla la lectura.
+         */
+        public boolean siguiente() throws IOException {
+            // Si una decisión podría cruzar el final de la ventana, se mapea la siguiente.
+            if (ventana.remaining() < MAX_DECISION && inicioVentana + ventana.limit() < tamanoArchivo) {
+                mapear(inicioVentana + ventana.position());
+            }
+            if (!ventana.hasRemaining()) {
+                return false;
+            }
+            try {
+                int tipo = ventana.get();
+                if (tipo < 0 || tipo >= DECISIONES.length) {
+                    throw new IOException("Decisión desconocida en la traza: " + tipo);
+                }
+                long avance = leerVarint();
+                long diferenciaPid = deszigzag(leerVarint());
+                long valor = deszigzag(leerVarint());
+                decision = DECISIONES[tipo];
+                tiempo += avance;
+                pid += (int) diferenciaPid;
+                argumento = valor;
+            } catch (BufferUnderflowException e) {
+                // La última decisión quedó a medias.
+                ventana.position(ventana.limit());
+                return false;
+            }
+            leidas++;
+            return true;
+        }
+
+        /**
+         * Indica si la decisión actual es idéntica a la de otro lector.
+         * @param otro El otro lector.
+         * @return true si coinciden tipo, tiempo, PID y argumento.
+         */
+        public boolean mismaDecision(Lector otro) {
+            return decision == otro.decision && tiempo == otro.tiempo && pid == otro.pid && argumento == otro.argumento;
+        }
+
+        private long leerVarint() {
+            long valor = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = ventana.get();
+                valor |= (long) (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while (b < 0);
+            return valor;
+        }
+
+        private static long deszigzag(long valor) {
+            return (valor >>> 1) ^ -(valor & 1);
+        }
+
+        private void mapear(long posicion) throws IOException {
+            inicioVentana = posicion;
+            ventana = canal.map(FileChannel.MapMode.READ_ONLY, posicion, Math.min(VENTANA, tamanoArchivo - posicion));
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("#%d t=%d %s PID %d (%d)", leidas, tiempo, decision, pid, argumento);
+        }
+    }
+
+    /**
+     * Métricas agregadas de una traza, que se calculan al recorrerla.
+     */
+    public static final class Resumen {
+        private final long[] porDecision = new long[DECISIONES.length];
+        // Llegada de los procesos que esperan su admisión y de los que siguen en el sistema.
+        private final Map<Integer, Long> sinAdmitir = new HashMap<>();
+        private final Map<Integer, Long> enSistema = new HashMap<>();
+        private long decisiones;
+        private long tiempoFinal;
+        private long esperaTotal;
+        private long admitidos;
+        private long retornoTotal;
+        private long retornos;
+        private long bytesCrecidos;
+        private long bytesCompactados;
+
+        /**
+         * Acumula la decisión actual de un lector.
+         * @param lector El lector.
+         */
+        public void acumular(Lector lector) {
+            int pid = lector.getPid();
+            long tiempo = lector.getTiempo();
+            porDecision[lector.getDecision().ordinal()]++;
+            decisiones++;
+            tiempoFinal = tiempo;
+            switch (lector.getDecision()) {
+                case LLEGADA:
+                    sinAdmitir.put(pid, tiempo);
+                    enSistema.put(pid, tiempo);
+                    break;
+                case ADMITIDO:
+                    Long llegada = sinAdmitir.remove(pid);
+                    if (llegada != null) {
+                        esperaTotal += tiempo - llegada;
+                        admitidos++;
+                    }
+                    break;
+                case FINALIZADO:
+                    Long inicio = enSistema.remove(pid);
+                    if (inicio != null) {
+                        retornoTotal += tiempo - inicio;
+                        retornos++;
+                    }
+                    break;
+                case MATADO:
+                    enSistema.remove(pid);
+                    break;
+                case CRECIMIENTO:
+                case DESBLOQUEADO:
+                    bytesCrecidos += lector.getArgumento();
+                    break;
+                case COMPACTACION:
+                    bytesCompactados += lector.getArgumento();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        public long getDecisiones() { return decisiones; }
+        public long getCantidad(Decision decision) { return porDecision[decision.ordinal()]; }
+        public long getTiempoFinal() { return tiempoFinal; }
+        public double getEsperaMedia() { return admitidos == 0 ? 0 : esperaTotal / (double) admitidos; }
+        public double getRetornoMedio() { return retornos == 0 ? 0 : retornoTotal / (double) retornos; }
+        public long getBytesCrecidos() { return bytesCrecidos; }
+        public long getBytesCompactados() { return bytesCompactados; }
+    }
+
+    /**
+     * Compara dos trazas: muestra la primera decisión en la que difieren (con
+     * la anterior como contexto) y la diferencia de las métricas agregadas.
+     * @param a Traza de referencia.
+     * @param b Traza a comparar.
+     * @param salida Dónde escribir el informe.
+     * @return El índice (desde 1) de la primera decisión distinta, o 0 si son iguales.
+     * @throws IOException Si no se puede leer alguna traza.
+     */
+    public static long comparar(Path a, Path b, PrintStream salida) throws IOException {
+        try (Lector lectorA = new Lector(a); Lector lectorB = new Lector(b)) {
+            Resumen resumenA = new Resumen();
+            Resumen resumenB = new Resumen();
+            if (lectorA.getSemilla() != lectorB.getSemilla()) {
+                salida.printf("Aviso: las semillas son distintas (%d y %d)%n", lectorA.getSemilla(), lectorB.getSemilla());
+            }
+            long divergencia = 0;
+            String anterior = null;
+            boolean hayA = lectorA.siguiente();
+            boolean hayB = lectorB.siguiente();
+            while (hayA || hayB) {
+                if (divergencia == 0) {
+                    if (hayA && hayB && lectorA.mismaDecision(lectorB)) {
+                        anterior = lectorA.toString();
+                    } else {
+                        // Los lectores avanzan a la par: si uno acabó, el otro lleva una decisión más.
+                        divergencia = Math.max(lectorA.getLeidas(), lectorB.getLeidas());
+                        salida.printf("Primera divergencia en la decisión %d%n", divergencia);
+                        if (anterior != null) {
+                            salida.printf("  Anterior (igual): %s%n", anterior);
+                        }
+                        salida.printf("  %s: %s%n", a.getFileName(), hayA ? lectorA : "(fin de la traza)");
+                        salida.printf("  %s: %s%n", b.getFileName(), hayB ? lectorB : "(fin de la traza)");
+                    }
+                }
+                if (hayA) {
+                    resumenA.acumular(lectorA);
+                    hayA = lectorA.siguiente();
+                }
+                if (hayB) {
+                    resumenB.acumular(lectorB);
+                    hayB = lectorB.siguiente();
+                }
+            }
+            if (divergencia == 0) {
+                salida.printf("Las trazas son idénticas: %d decisiones%n", resumenA.getDecisiones());
+            }
+            imprimirDiferencias(resumenA, resumenB, a, b, salida);
+            return divergencia;
+        }
+    }
+
+    private static void imprimirDiferencias(Resumen a, Resumen b, Path archivoA, Path archivoB, PrintStream salida) {
+        salida.printf("%n%-22s %18s %18s %18s %9s%n", "Métrica", archivoA.getFileName(), archivoB.getFileName(),
+                "Diferencia", "%");
+        imprimirFila(salida, "Decisiones", a.getDecisiones(), b.getDecisiones());
+        for (Decision decision : DECISIONES) {
+            if (a.getCantidad(decision) != 0 || b.getCantidad(decision) != 0) {
+                imprimirFila(salida, "  " + decision, a.getCantidad(decision), b.getCantidad(decision));
+            }
+        }
+        imprimirFila(salida, "Tiempo final (ms)", a.getTiempoFinal(), b.getTiempoFinal());
+        imprimirFila(salida, "Espera media (ms)", a.getEsperaMedia(), b.getEsperaMedia());
+        imprimirFila(salida, "Retorno medio (ms)", a.getRetornoMedio(), b.getRetornoMedio());
+        imprimirFila(salida, "Bytes crecidos", a.getBytesCrecidos(), b.getBytesCrecidos());
+        imprimirFila(salida, "Bytes compactados", a.getBytesCompactados(), b.getBytesCompactados());
+    }
+
+    private static void imprimirFila(PrintStream salida, String nombre, double a, double b) {
+        String porcentaje = a == 0 ? (b == 0 ? "0.0" : "-") : String.format(Locale.ROOT, "%+.1f", (b - a) * 100 / a);
+        salida.printf(Locale.ROOT, "%-22s %18.1f %18.1f %+18.1f %9s%n", nombre, a, b, b - a, porcentaje);
+    }
+}
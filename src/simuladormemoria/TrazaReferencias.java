@@ -0,0 +1,155 @@
+package simuladormemoria;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reproduce un flujo de referencias grabado en un archivo de traza.
+ * El archivo se lee con NIO mapeado en memoria por ventanas, de modo que
+ * trazas de varios GB se recorren sin cargarlas en el heap.
+ *
+ * Formato binario compacto:
+ * <pre>
+ *   int   MAGIA ("TRF1")
+ *   long  tamaño del espacio de direcciones en bytes
+ *   long  número de referencias
+ *   ...   por cada referencia, la diferencia con la anterior en zigzag + varint
+ * </pre>
+ * Las diferencias de los accesos con localidad suelen ocupar 1 o 2 bytes.
+ */
+public class TrazaReferencias implements FlujoReferencias, Closeable {
+    // Número mágico que identifica el formato ("TRF1").
+    static final int MAGIA = 0x54524631;
+    // Tamaño de la cabecera en bytes.
+    static final int CABECERA = 4 + 8 + 8;
+    // Tamaño de cada ventana mapeada en memoria.
+    private static final long VENTANA = 64L << 20;
+    // Bytes máximos de un varint de 64 bits.
+    private static final int MAX_VARINT = 10;
+
+    // Canal del archivo de traza.
+    private final FileChannel canal;
+    // Tamaño del archivo y del espacio de direcciones.
+    private final long tamanoArchivo;
+    private final long tamanoEspacio;
+    // Ventana mapeada actual y su posición en el archivo.
+    private MappedByteBuffer ventana;
+    private long inicioVentana;
+    // Referencias que quedan por leer y última dirección leída.
+    private long restantes;
+    private long ultima;
+
+    /**
+     * Abre un archivo de traza para reproducirlo.
+     * @param archivo Ruta del archivo.
+     * @throws IOException Si no se puede leer o no tiene el formato esperado.
+     */
+    public TrazaReferencias(Path archivo) throws IOException {
+        this.canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        this.tamanoArchivo = canal.size();
+        mapear(0);
+        if (tamanoArchivo < CABECERA || ventana.getInt() != MAGIA) {
+            canal.close();
+            throw new IOException("No es un archivo de traza válido: " + archivo);
+        }
+        this.tamanoEspacio = ventana.getLong();
+        this.restantes = ventana.getLong();
+    }
+
+    /**
+     * @return El tamaño del espacio de direcciones del proceso grabado, en bytes.
+     */
+    public long getTamanoEspacio() {
+        return tamanoEspacio;
+    }
+
+    @Override
+    public boolean hayMas() {
+        return restantes > 0;
+    }
+
+    @Override
+    public long siguiente() {
+        // Si un varint podría cruzar el final de la ventana, se mapea la siguiente.
+        if (ventana.remaining() < MAX_VARINT && inicioVentana + ventana.limit() < tamanoArchivo) {
+            try {
+                mapear(inicioVentana + ventana.position());
+            } catch (IOException e) {
+                throw new IllegalStateException("Error al leer la traza", e);
+            }
+        }
+        long zigzag = 0;
+        int desplazamiento = 0;
+        byte b;
+        do {
+            b = ventana.get();
+            zigzag |= (long) (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while (b < 0);
+        ultima += (zigzag >>> 1) ^ -(zigzag & 1);
+        restantes--;
+        return ultima;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private void mapear(long posicion) throws IOException {
+        inicioVentana = posicion;
+        ventana = canal.map(FileChannel.MapMode.READ_ONLY, posicion, Math.min(VENTANA, tamanoArchivo - posicion));
+    }
+
+    /**
+     * Graba referencias de un flujo en un archivo de traza.
+     * @param archivo Ruta del archivo a crear (se sobrescribe si existe).
+     * @param flujo Flujo del que se leen las referencias.
+     * @param referencias Número máximo de referencias a grabar.
+     * @param tamanoEspacio Tamaño del espacio de direcciones en bytes.
+     * @return El número de referencias grabadas.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public static long grabar(Path archivo, FlujoReferencias flujo, long referencias, long tamanoEspacio) throws IOException {
+        try (FileChannel salida = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            // La cabecera se reescribe al final con el número real de referencias.
+            buffer.putInt(MAGIA).putLong(tamanoEspacio).putLong(0);
+            long grabadas = 0;
+            long anterior = 0;
+            while (grabadas < referencias && flujo.hayMas()) {
+                if (buffer.remaining() < MAX_VARINT) {
+                    vaciar(buffer, salida);
+                }
+                long direccion = flujo.siguiente();
+                long diferencia = direccion - anterior;
+                long zigzag = (diferencia << 1) ^ (diferencia >> 63);
+                while ((zigzag & ~0x7FL) != 0) {
+                    buffer.put((byte) ((zigzag & 0x7F) | 0x80));
+                    zigzag >>>= 7;
+                }
+                buffer.put((byte) zigzag);
+                anterior = direccion;
+                grabadas++;
+            }
+            vaciar(buffer, salida);
+            buffer.putInt(MAGIA).putLong(tamanoEspacio).putLong(grabadas).flip();
+            salida.write(buffer, 0);
+            return grabadas;
+        }
+    }
+
+    private static void vaciar(ByteBuffer buffer, FileChannel salida) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            salida.write(buffer);
+        }
+        buffer.clear();
+    }
+}